@@ -21,4 +21,25 @@ import uk.co.real_logic.artio.util.AsciiBuffer;
 public interface Printer
 {
     String toString(AsciiBuffer input, int offset, int length, long messageType);
+
+    /**
+     * Append the pretty printed form of a message to a builder, so that a reused builder can print messages without
+     * creating a String for each one.
+     *
+     * @param builder the builder to append to.
+     * @param input the buffer containing the message.
+     * @param offset the offset of the message within the buffer.
+     * @param length the length of the message.
+     * @param messageType the packed message type of the message.
+     * @return the builder.
+     */
+    default StringBuilder appendTo(
+        final StringBuilder builder,
+        final AsciiBuffer input,
+        final int offset,
+        final int length,
+        final long messageType)
+    {
+        return builder.append(toString(input, offset, length, messageType));
+    }
 }
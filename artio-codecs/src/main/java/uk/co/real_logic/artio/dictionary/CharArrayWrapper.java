@@ -23,6 +23,7 @@ public final class CharArrayWrapper
     private int length;
     private int offset;
     private int hashcode;
+    private boolean hashcodeComputed;
 
     public CharArrayWrapper()
     {
@@ -34,6 +35,7 @@ public final class CharArrayWrapper
         this.offset = other.offset;
         this.length = other.length;
         this.hashcode = other.hashcode;
+        this.hashcodeComputed = other.hashcodeComputed;
     }
 
     public CharArrayWrapper(final String string)
@@ -52,7 +54,17 @@ public final class CharArrayWrapper
         this.values = value;
         this.offset = offset;
         this.length = length;
-        hashcode = CodecUtil.hashCode(values, offset, length);
+        hashcodeComputed = false;
+    }
+
+    public int length()
+    {
+        return length;
+    }
+
+    public char charAt(final int index)
+    {
+        return values[offset + index];
     }
 
     public boolean equals(final Object o)
@@ -79,6 +91,13 @@ public final class CharArrayWrapper
 
     public int hashCode()
     {
+        // Computed lazily as generated enum decoders don't hash the wrapped characters.
+        if (!hashcodeComputed)
+        {
+            hashcode = CodecUtil.hashCode(values, offset, length);
+            hashcodeComputed = true;
+        }
+
         return hashcode;
     }
 }
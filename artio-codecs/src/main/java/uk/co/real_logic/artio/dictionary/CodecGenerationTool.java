@@ -15,7 +15,7 @@
  */
 package uk.co.real_logic.artio.dictionary;
 
-import org.agrona.generation.PackageOutputManager;
+import org.agrona.generation.OutputManager;
 import uk.co.real_logic.artio.builder.RejectUnknownEnumValue;
 import uk.co.real_logic.artio.builder.RejectUnknownField;
 import uk.co.real_logic.artio.builder.Validation;
@@ -24,6 +24,9 @@ import uk.co.real_logic.artio.dictionary.ir.Dictionary;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.*;
 
@@ -73,9 +76,13 @@ public final class CodecGenerationTool
             dictionary = parseDictionary(xmlFile, dictionary);
         }
 
-        final PackageOutputManager parentOutput = new PackageOutputManager(outputPath, PARENT_PACKAGE);
-        final PackageOutputManager decoderOutput = new PackageOutputManager(outputPath, DECODER_PACKAGE);
-        final PackageOutputManager encoderOutput = new PackageOutputManager(outputPath, ENCODER_PACKAGE);
+        // Only files whose source changes are rewritten, so regenerating doesn't force a rebuild of unchanged codecs
+        final IncrementalPackageOutputManager parentOutput =
+            new IncrementalPackageOutputManager(outputPath, PARENT_PACKAGE);
+        final IncrementalPackageOutputManager decoderOutput =
+            new IncrementalPackageOutputManager(outputPath, DECODER_PACKAGE);
+        final IncrementalPackageOutputManager encoderOutput =
+            new IncrementalPackageOutputManager(outputPath, ENCODER_PACKAGE);
 
         final EnumGenerator enumGenerator = new EnumGenerator(dictionary, PARENT_PACKAGE, parentOutput);
         final ConstantGenerator constantGenerator = new ConstantGenerator(dictionary, PARENT_PACKAGE, parentOutput);
@@ -111,24 +118,38 @@ public final class CodecGenerationTool
             RejectUnknownField.class,
             RejectUnknownEnumValue.class,
             false,
-            codecRejectUnknownEnumValueEnabled);
+            codecRejectUnknownEnumValueEnabled,
+            INDEXED_GROUPS_ENABLED);
         final PrinterGenerator printerGenerator = new PrinterGenerator(dictionary, DECODER_PACKAGE, decoderOutput);
         final AcceptorGenerator acceptorGenerator = new AcceptorGenerator(dictionary, DECODER_PACKAGE, decoderOutput);
 
-        enumGenerator.generate();
-        constantGenerator.generate();
+        // Each generator writes its own set of files from a read-only dictionary, so they can run in parallel
+        final List<Runnable> generators = new ArrayList<>(Arrays.asList(
+            enumGenerator::generate,
+            constantGenerator::generate,
+            encoderGenerator::generate,
+            decoderGenerator::generate,
+            printerGenerator::generate,
+            acceptorGenerator::generate,
+            fixDictionaryGenerator::generate));
+
+        addBatchDecoderGenerator(dictionary, decoderOutput, generators);
 
-        encoderGenerator.generate();
+        addFlyweightDecoderGenerator(dictionary, outputPath, codecRejectUnknownEnumValueEnabled, generators);
 
-        decoderGenerator.generate();
-        printerGenerator.generate();
-        acceptorGenerator.generate();
-        fixDictionaryGenerator.generate();
+        generators.parallelStream().forEach(Runnable::run);
+    }
 
+    private static void addFlyweightDecoderGenerator(
+        final Dictionary dictionary,
+        final String outputPath,
+        final String codecRejectUnknownEnumValueEnabled,
+        final List<Runnable> generators)
+    {
         if (FLYWEIGHTS_ENABLED)
         {
-            final PackageOutputManager flyweightDecoderOutput =
-                new PackageOutputManager(outputPath, DECODER_FLYWEIGHT_PACKAGE);
+            final IncrementalPackageOutputManager flyweightDecoderOutput =
+                new IncrementalPackageOutputManager(outputPath, DECODER_FLYWEIGHT_PACKAGE);
 
             final DecoderGenerator flyweightDecoderGenerator = new DecoderGenerator(
                 dictionary,
@@ -140,9 +161,26 @@ public final class CodecGenerationTool
                 RejectUnknownField.class,
                 RejectUnknownEnumValue.class,
                 true,
-                codecRejectUnknownEnumValueEnabled);
+                codecRejectUnknownEnumValueEnabled,
+                INDEXED_GROUPS_ENABLED);
+
+            generators.add(flyweightDecoderGenerator::generate);
+        }
+    }
+
+    private static void addBatchDecoderGenerator(
+        final Dictionary dictionary, final OutputManager decoderOutput, final List<Runnable> generators)
+    {
+        if (!BATCH_DECODER_MESSAGES.isEmpty())
+        {
+            final BatchDecoderGenerator batchDecoderGenerator = new BatchDecoderGenerator(
+                dictionary,
+                DECODER_PACKAGE,
+                PARENT_PACKAGE,
+                decoderOutput,
+                Arrays.asList(BATCH_DECODER_MESSAGES.trim().split("\\s*,\\s*")));
 
-            flyweightDecoderGenerator.generate();
+            generators.add(batchDecoderGenerator::generate);
         }
     }
 
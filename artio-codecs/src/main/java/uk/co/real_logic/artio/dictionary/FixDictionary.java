@@ -64,6 +64,18 @@ public interface FixDictionary
 
     String beginString();
 
+    /**
+     * Get the message types of all the messages in this dictionary, packed into longs by
+     * {@link uk.co.real_logic.artio.dictionary.generation.GenerationUtil#packMessageType(String)}.
+     *
+     * @return the packed message types of all the messages in this dictionary. Empty for dictionaries generated
+     *         before this method was added.
+     */
+    default long[] messageTypes()
+    {
+        return new long[0];
+    }
+
     AbstractLogonEncoder makeLogonEncoder();
 
     AbstractResendRequestEncoder makeResendRequestEncoder();
@@ -0,0 +1,606 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.agrona.generation.OutputManager;
+import uk.co.real_logic.artio.dictionary.SessionConstants;
+import uk.co.real_logic.artio.dictionary.ir.Component;
+import uk.co.real_logic.artio.dictionary.ir.Dictionary;
+import uk.co.real_logic.artio.dictionary.ir.Entry;
+import uk.co.real_logic.artio.dictionary.ir.Field;
+import uk.co.real_logic.artio.dictionary.ir.Group;
+import uk.co.real_logic.artio.dictionary.ir.Message;
+import uk.co.real_logic.artio.fields.DecimalFloat;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.stream.Collectors.joining;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.constantName;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.fileHeader;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.importFor;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.importStaticFor;
+import static uk.co.real_logic.sbe.generation.java.JavaUtil.formatPropertyName;
+
+/**
+ * Generates batch decoders that decode the fields of many messages of a single type into columns of primitive arrays,
+ * for example a {@code long[]} of the values of a price field, rather than into a decoder object per message.
+ *
+ * The fields of the message body and its components are decoded, fields inside repeating groups are skipped. The
+ * decoder tracks which group it's inside so that a group field sharing a tag with a body field doesn't overwrite the
+ * body field's column. Strings, timestamps and data fields are copied into a byte arena shared by every column of the
+ * batch and stored as an offset and length into it.
+ */
+public class BatchDecoderGenerator
+{
+    private static final int DEFAULT_ARENA_BYTES_PER_MESSAGE = 64;
+
+    private final Dictionary dictionary;
+    private final String thisPackage;
+    private final String commonPackage;
+    private final OutputManager outputManager;
+    private final Collection<String> messageNames;
+
+    public BatchDecoderGenerator(
+        final Dictionary dictionary,
+        final String thisPackage,
+        final String commonPackage,
+        final OutputManager outputManager,
+        final Collection<String> messageNames)
+    {
+        this.dictionary = dictionary;
+        this.thisPackage = thisPackage;
+        this.commonPackage = commonPackage;
+        this.outputManager = outputManager;
+        this.messageNames = messageNames;
+    }
+
+    static String batchDecoderClassName(final Message message)
+    {
+        return message.name() + "BatchDecoder";
+    }
+
+    public void generate()
+    {
+        for (final String messageName : messageNames)
+        {
+            final Message message = dictionary
+                .messages()
+                .stream()
+                .filter(msg -> msg.name().equals(messageName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown message for batch decoder: " + messageName));
+
+            generateBatchDecoder(message);
+        }
+    }
+
+    private void generateBatchDecoder(final Message message)
+    {
+        final String className = batchDecoderClassName(message);
+        final Set<Field> fieldSet = new LinkedHashSet<>();
+        final Map<Field, Group> counterToGroup = new LinkedHashMap<>();
+        collectFields(message.entries(), fieldSet, counterToGroup);
+        final List<Field> fields = new ArrayList<>(fieldSet);
+
+        outputManager.withOutput(className, (out) ->
+        {
+            out.append(fileHeader(thisPackage));
+            out.append(importFor(DecimalFloat.class));
+            out.append(importFor(AsciiBuffer.class));
+            out.append(importFor(MutableAsciiBuffer.class));
+            out.append(importFor(Arrays.class));
+            out.append(importStaticFor(CodecUtil.class));
+            out.append(importStaticFor(SessionConstants.class, "START_OF_HEADER"));
+            if (!thisPackage.equals(commonPackage) && !commonPackage.isEmpty())
+            {
+                out.append(importFor(commonPackage + ".*"));
+            }
+
+            out.append(String.format(
+                "\n" +
+                "/**\n" +
+                " * Decodes the body fields of up to capacity %1$s messages into columns, indexed by the row of\n" +
+                " * each message in the batch. Missing values are MISSING_INT, MISSING_LONG, MISSING_CHAR,\n" +
+                " * false or a length of 0, fields inside repeating groups aren't decoded.\n" +
+                " */\n" +
+                "public class %2$s\n" +
+                "{\n" +
+                "    public static final long MESSAGE_TYPE = %3$dL;\n\n" +
+                "    private final DecimalFloat decimalFloat = new DecimalFloat();\n" +
+                "    private final MutableAsciiBuffer arena = new MutableAsciiBuffer();\n" +
+                "    private final int capacity;\n" +
+                "    private byte[] arenaBytes;\n" +
+                "    private int arenaPosition;\n" +
+                "    private int size;\n\n",
+                message.name(),
+                className,
+                message.packedType()));
+
+            for (final Field field : fields)
+            {
+                out.append(columnFields(field));
+            }
+
+            generateConstructors(out, className, fields);
+            generateBatchMethods(out);
+            generateDecode(out, fields, counterToGroup);
+            generateIsGroupField(out, counterToGroup);
+
+            for (final Field field : fields)
+            {
+                out.append(columnGetters(field));
+            }
+
+            out.append("}\n");
+        });
+    }
+
+    private static void collectFields(
+        final List<Entry> entries, final Set<Field> fields, final Map<Field, Group> counterToGroup)
+    {
+        for (final Entry entry : entries)
+        {
+            if (entry.isField())
+            {
+                fields.add((Field)entry.element());
+            }
+            else if (entry.isGroup())
+            {
+                final Group group = (Group)entry.element();
+                final Field counter = (Field)group.numberField().element();
+                fields.add(counter);
+                counterToGroup.put(counter, group);
+            }
+            else if (entry.isComponent())
+            {
+                collectFields(((Component)entry.element()).entries(), fields, counterToGroup);
+            }
+        }
+    }
+
+    private static void collectGroupFields(final List<Entry> entries, final Map<Integer, Field> numberToField)
+    {
+        for (final Entry entry : entries)
+        {
+            if (entry.isField())
+            {
+                final Field field = (Field)entry.element();
+                numberToField.putIfAbsent(field.number(), field);
+            }
+            else if (entry.isGroup())
+            {
+                final Group group = (Group)entry.element();
+                final Field counter = (Field)group.numberField().element();
+                numberToField.putIfAbsent(counter.number(), counter);
+                collectGroupFields(group.entries(), numberToField);
+            }
+            else if (entry.isComponent())
+            {
+                collectGroupFields(((Component)entry.element()).entries(), numberToField);
+            }
+        }
+    }
+
+    private void generateConstructors(final Writer out, final String className, final List<Field> fields)
+        throws IOException
+    {
+        final String allocateColumns = fields
+            .stream()
+            .map(BatchDecoderGenerator::allocateColumns)
+            .collect(joining());
+
+        out.append(String.format(
+            "    public %1$s(final int capacity)\n" +
+            "    {\n" +
+            "        this(capacity, capacity * %2$d);\n" +
+            "    }\n\n" +
+            "    public %1$s(final int capacity, final int initialArenaCapacity)\n" +
+            "    {\n" +
+            "        this.capacity = capacity;\n" +
+            "        arenaBytes = new byte[Math.max(initialArenaCapacity, 1)];\n" +
+            "        arena.wrap(arenaBytes);\n" +
+            "%3$s" +
+            "    }\n\n",
+            className,
+            DEFAULT_ARENA_BYTES_PER_MESSAGE,
+            allocateColumns));
+    }
+
+    private void generateBatchMethods(final Writer out) throws IOException
+    {
+        out.append(
+            "    public int capacity()\n" +
+            "    {\n" +
+            "        return capacity;\n" +
+            "    }\n\n" +
+            "    public int size()\n" +
+            "    {\n" +
+            "        return size;\n" +
+            "    }\n\n" +
+            "    public boolean isFull()\n" +
+            "    {\n" +
+            "        return size == capacity;\n" +
+            "    }\n\n" +
+            "    /**\n" +
+            "     * The arena that String, timestamp and data values are copied into, only valid until the next\n" +
+            "     * decode as the arena is replaced when it grows.\n" +
+            "     */\n" +
+            "    public AsciiBuffer arena()\n" +
+            "    {\n" +
+            "        return arena;\n" +
+            "    }\n\n" +
+            "    public void reset()\n" +
+            "    {\n" +
+            "        size = 0;\n" +
+            "        arenaPosition = 0;\n" +
+            "    }\n\n" +
+            "    private int copyToArena(final AsciiBuffer buffer, final int offset, final int length)\n" +
+            "    {\n" +
+            "        final int arenaOffset = arenaPosition;\n" +
+            "        final int arenaEnd = arenaOffset + length;\n" +
+            "        if (arenaEnd > arenaBytes.length)\n" +
+            "        {\n" +
+            "            arenaBytes = Arrays.copyOf(arenaBytes, Math.max(arenaBytes.length * 2, arenaEnd));\n" +
+            "            arena.wrap(arenaBytes);\n" +
+            "        }\n" +
+            "        buffer.getBytes(offset, arenaBytes, arenaOffset, length);\n" +
+            "        arenaPosition = arenaEnd;\n" +
+            "        return arenaOffset;\n" +
+            "    }\n\n");
+    }
+
+    private void generateDecode(final Writer out, final List<Field> fields, final Map<Field, Group> counterToGroup)
+        throws IOException
+    {
+        final String clearRow = fields
+            .stream()
+            .map(BatchDecoderGenerator::clearColumns)
+            .collect(joining());
+
+        final String cases = fields
+            .stream()
+            .map(field -> decodeCase(field, fields, counterToGroup.containsKey(field)))
+            .collect(joining());
+
+        out.append(String.format(
+            "    /**\n" +
+            "     * Decode a message into the next row of the batch.\n" +
+            "     *\n" +
+            "     * @param buffer the buffer containing the message.\n" +
+            "     * @param offset the offset of the message within the buffer.\n" +
+            "     * @param length the length of the message.\n" +
+            "     * @return the row of the message or -1 if the batch is full.\n" +
+            "     */\n" +
+            "    public int decode(final AsciiBuffer buffer, final int offset, final int length)\n" +
+            "    {\n" +
+            "        if (size == capacity)\n" +
+            "        {\n" +
+            "            return -1;\n" +
+            "        }\n\n" +
+            "        final int row = size;\n" +
+            "%1$s" +
+            "        final int end = offset + length;\n" +
+            "        int groupCounterTag = 0;\n" +
+            "        int position = offset;\n" +
+            "        while (position < end)\n" +
+            "        {\n" +
+            "            final int equalsPosition = buffer.scan(position, end, '=');\n" +
+            "            if (equalsPosition == AsciiBuffer.UNKNOWN_INDEX)\n" +
+            "            {\n" +
+            "                break;\n" +
+            "            }\n" +
+            "            final int tag = buffer.getInt(position, equalsPosition);\n" +
+            "            final int valueOffset = equalsPosition + 1;\n" +
+            "            int endOfField = buffer.scan(valueOffset, end, START_OF_HEADER);\n" +
+            "            if (endOfField == AsciiBuffer.UNKNOWN_INDEX)\n" +
+            "            {\n" +
+            "                break;\n" +
+            "            }\n" +
+            "            final int valueLength = endOfField - valueOffset;\n" +
+            "            if (groupCounterTag != 0)\n" +
+            "            {\n" +
+            "                if (isGroupField(groupCounterTag, tag))\n" +
+            "                {\n" +
+            "                    position = endOfField + 1;\n" +
+            "                    continue;\n" +
+            "                }\n" +
+            "                groupCounterTag = 0;\n" +
+            "            }\n\n" +
+            "            switch (tag)\n" +
+            "            {\n" +
+            "%2$s" +
+            "            }\n" +
+            "            position = endOfField + 1;\n" +
+            "        }\n\n" +
+            "        size++;\n" +
+            "        return row;\n" +
+            "    }\n\n",
+            clearRow,
+            cases));
+    }
+
+    private void generateIsGroupField(final Writer out, final Map<Field, Group> counterToGroup) throws IOException
+    {
+        final StringBuilder cases = new StringBuilder();
+        for (final Map.Entry<Field, Group> counterAndGroup : counterToGroup.entrySet())
+        {
+            final Map<Integer, Field> numberToField = new LinkedHashMap<>();
+            collectGroupFields(counterAndGroup.getValue().entries(), numberToField);
+
+            final String counterName = constantName(counterAndGroup.getKey().name());
+            cases.append(String.format("            case Constants.%1$s:\n", counterName));
+            if (numberToField.isEmpty())
+            {
+                cases.append("                return false;\n\n");
+                continue;
+            }
+
+            cases.append(
+                "                switch (tag)\n" +
+                "                {\n");
+            for (final Field field : numberToField.values())
+            {
+                cases.append(String.format("                    case Constants.%1$s:\n", constantName(field.name())));
+            }
+            cases.append(
+                "                        return true;\n\n" +
+                "                    default:\n" +
+                "                        return false;\n" +
+                "                }\n\n");
+        }
+
+        out.append(String.format(
+            "    /**\n" +
+            "     * Whether a tag belongs to the repeating group, including its nested groups and components, whose\n" +
+            "     * counter field has the given tag.\n" +
+            "     */\n" +
+            "    private static boolean isGroupField(final int groupCounterTag, final int tag)\n" +
+            "    {\n" +
+            "        switch (groupCounterTag)\n" +
+            "        {\n" +
+            "%1$s" +
+            "            default:\n" +
+            "                return false;\n" +
+            "        }\n" +
+            "    }\n\n",
+            cases));
+    }
+
+    private static String allocateColumns(final Field field)
+    {
+        final String name = formatPropertyName(field.name());
+        switch (columnType(field))
+        {
+            case INT:
+                return String.format("        %1$s = new int[capacity];\n", name);
+            case FLOAT:
+                return String.format(
+                    "        %1$sValues = new long[capacity];\n" +
+                    "        %1$sScales = new int[capacity];\n",
+                    name);
+            case CHAR:
+                return String.format("        %1$s = new char[capacity];\n", name);
+            case BOOLEAN:
+                return String.format("        %1$s = new boolean[capacity];\n", name);
+            default:
+                return String.format(
+                    "        %1$sOffsets = new int[capacity];\n" +
+                    "        %1$sLengths = new int[capacity];\n",
+                    name);
+        }
+    }
+
+    private static String columnFields(final Field field)
+    {
+        final String name = formatPropertyName(field.name());
+        switch (columnType(field))
+        {
+            case INT:
+                return String.format("    private final int[] %1$s;\n", name);
+            case FLOAT:
+                return String.format(
+                    "    private final long[] %1$sValues;\n" +
+                    "    private final int[] %1$sScales;\n",
+                    name);
+            case CHAR:
+                return String.format("    private final char[] %1$s;\n", name);
+            case BOOLEAN:
+                return String.format("    private final boolean[] %1$s;\n", name);
+            default:
+                return String.format(
+                    "    private final int[] %1$sOffsets;\n" +
+                    "    private final int[] %1$sLengths;\n",
+                    name);
+        }
+    }
+
+    private static String clearColumns(final Field field)
+    {
+        final String name = formatPropertyName(field.name());
+        switch (columnType(field))
+        {
+            case INT:
+                return String.format("        %1$s[row] = MISSING_INT;\n", name);
+            case FLOAT:
+                return String.format(
+                    "        %1$sValues[row] = MISSING_LONG;\n" +
+                    "        %1$sScales[row] = 0;\n",
+                    name);
+            case CHAR:
+                return String.format("        %1$s[row] = MISSING_CHAR;\n", name);
+            case BOOLEAN:
+                return String.format("        %1$s[row] = false;\n", name);
+            default:
+                return String.format("        %1$sLengths[row] = 0;\n", name);
+        }
+    }
+
+    private static String decodeCase(final Field field, final List<Field> fields, final boolean isGroupCounter)
+    {
+        final String name = formatPropertyName(field.name());
+        final String decode;
+        switch (columnType(field))
+        {
+            case INT:
+                decode = String.format("                %1$s[row] = buffer.getInt(valueOffset, endOfField);\n", name) +
+                    (isGroupCounter ? enterGroup(name) : "");
+                break;
+            case FLOAT:
+                decode = String.format(
+                    "                buffer.getFloat(decimalFloat, valueOffset, valueLength);\n" +
+                    "                %1$sValues[row] = decimalFloat.value();\n" +
+                    "                %1$sScales[row] = decimalFloat.scale();\n",
+                    name);
+                break;
+            case CHAR:
+                decode = String.format("                %1$s[row] = buffer.getChar(valueOffset);\n", name);
+                break;
+            case BOOLEAN:
+                decode = String.format("                %1$s[row] = buffer.getBoolean(valueOffset);\n", name);
+                break;
+            case DATA:
+                if (!fields.contains(field.associatedLengthField()))
+                {
+                    decode = arenaDecode(name);
+                    break;
+                }
+
+                // Data can contain the separator, so its length comes from its associated length field.
+                decode = String.format(
+                    "            {\n" +
+                    "                final int dataLength = %2$s[row] == MISSING_INT ? valueLength : %2$s[row];\n" +
+                    "                %1$sOffsets[row] = copyToArena(buffer, valueOffset, dataLength);\n" +
+                    "                %1$sLengths[row] = dataLength;\n" +
+                    "                endOfField = valueOffset + dataLength;\n" +
+                    "            }\n",
+                    name,
+                    formatPropertyName(field.associatedLengthField().name()));
+                break;
+            default:
+                decode = arenaDecode(name);
+                break;
+        }
+
+        return String.format(
+            "            case Constants.%1$s:\n" +
+            "%2$s" +
+            "                break;\n\n",
+            constantName(field.name()),
+            decode);
+    }
+
+    // Fields after a non-empty group's counter are inside the group until a tag that isn't one of its fields.
+    private static String enterGroup(final String name)
+    {
+        return String.format(
+            "                if (%1$s[row] > 0)\n" +
+            "                {\n" +
+            "                    groupCounterTag = tag;\n" +
+            "                }\n",
+            name);
+    }
+
+    private static String arenaDecode(final String name)
+    {
+        return String.format(
+            "                %1$sOffsets[row] = copyToArena(buffer, valueOffset, valueLength);\n" +
+            "                %1$sLengths[row] = valueLength;\n",
+            name);
+    }
+
+    private static String columnGetters(final Field field)
+    {
+        final String name = formatPropertyName(field.name());
+        switch (columnType(field))
+        {
+            case INT:
+                return arrayGetter("int", name);
+            case FLOAT:
+                return arrayGetter("long", name + "Values") + arrayGetter("int", name + "Scales");
+            case CHAR:
+                return arrayGetter("char", name);
+            case BOOLEAN:
+                return arrayGetter("boolean", name);
+            default:
+                return arrayGetter("int", name + "Offsets") + arrayGetter("int", name + "Lengths") + String.format(
+                    "    public String %1$sAsString(final int row)\n" +
+                    "    {\n" +
+                    "        final int length = %1$sLengths[row];\n" +
+                    "        return length == 0 ? null : arena.getAscii(%1$sOffsets[row], length);\n" +
+                    "    }\n\n",
+                    name);
+        }
+    }
+
+    private static String arrayGetter(final String type, final String name)
+    {
+        return String.format(
+            "    public %1$s[] %2$s()\n" +
+            "    {\n" +
+            "        return %2$s;\n" +
+            "    }\n\n",
+            type,
+            name);
+    }
+
+    private static ColumnType columnType(final Field field)
+    {
+        final Field.Type type = field.type();
+        if (type.isIntBased())
+        {
+            return ColumnType.INT;
+        }
+        else if (type.isFloatBased())
+        {
+            return ColumnType.FLOAT;
+        }
+        else if (type.isCharBased())
+        {
+            return ColumnType.CHAR;
+        }
+        else if (type == Field.Type.BOOLEAN)
+        {
+            return ColumnType.BOOLEAN;
+        }
+        else if (type.isDataBased())
+        {
+            return ColumnType.DATA;
+        }
+
+        return ColumnType.ARENA;
+    }
+
+    private enum ColumnType
+    {
+        INT,
+        FLOAT,
+        CHAR,
+        BOOLEAN,
+        DATA,
+        ARENA
+    }
+}
@@ -70,12 +70,25 @@ public class DecoderGenerator extends Generator
     // Has to be generated everytime since HeaderDecoder and TrailerDecoder are generated.
     private static final String MESSAGE_DECODER =
         "import uk.co.real_logic.artio.builder.Decoder;\n" +
+        "import uk.co.real_logic.artio.util.AsciiBuffer;\n" +
         "\n" +
         "public interface MessageDecoder extends Decoder\n" +
         "{\n" +
         "    HeaderDecoder header();\n" +
         "\n" +
         "    TrailerDecoder trailer();\n" +
+        "\n" +
+        "    /**\n" +
+        "     * Decodes a message whose header has already been decoded, for example by the session layer, skipping\n" +
+        "     * over the header. The header() of this decoder is reset rather than decoded and isn't validated.\n" +
+        "     *\n" +
+        "     * @param buffer the buffer containing the message.\n" +
+        "     * @param offset the offset of the start of the message, including its header.\n" +
+        "     * @param length the length of the message, including its header.\n" +
+        "     * @param headerLength the length of the message's header.\n" +
+        "     * @return the length of the message that was decoded.\n" +
+        "     */\n" +
+        "    int decodeAfterHeader(AsciiBuffer buffer, int offset, int length, int headerLength);\n" +
         "}";
 
     public static final int INCORRECT_NUMINGROUP_COUNT_FOR_REPEATING_GROUP =
@@ -109,6 +122,8 @@ public class DecoderGenerator extends Generator
 
     private final int initialBufferSize;
     private final String encoderPackage;
+    // Also hold the decoded elements of each repeating group in an array so that they can be accessed by index.
+    private final boolean indexedGroupsEnabled;
 
     public DecoderGenerator(
         final Dictionary dictionary,
@@ -122,11 +137,31 @@ public class DecoderGenerator extends Generator
         final Class<?> rejectUnknownEnumValueClass,
         final boolean flyweightsEnabled,
         final String codecRejectUnknownEnumValueEnabled)
+    {
+        this(dictionary, initialBufferSize, thisPackage, commonPackage, encoderPackage, outputManager,
+            validationClass, rejectUnknownFieldClass, rejectUnknownEnumValueClass, flyweightsEnabled,
+            codecRejectUnknownEnumValueEnabled, false);
+    }
+
+    public DecoderGenerator(
+        final Dictionary dictionary,
+        final int initialBufferSize,
+        final String thisPackage,
+        final String commonPackage,
+        final String encoderPackage,
+        final OutputManager outputManager,
+        final Class<?> validationClass,
+        final Class<?> rejectUnknownFieldClass,
+        final Class<?> rejectUnknownEnumValueClass,
+        final boolean flyweightsEnabled,
+        final String codecRejectUnknownEnumValueEnabled,
+        final boolean indexedGroupsEnabled)
     {
         super(dictionary, thisPackage, commonPackage, outputManager, validationClass, rejectUnknownFieldClass,
             rejectUnknownEnumValueClass, flyweightsEnabled, codecRejectUnknownEnumValueEnabled);
         this.initialBufferSize = initialBufferSize;
         this.encoderPackage = encoderPackage;
+        this.indexedGroupsEnabled = indexedGroupsEnabled;
     }
 
     public void generate()
@@ -319,13 +354,15 @@ public class DecoderGenerator extends Generator
                 "        }\n" +
                 "        %3$s = 0;\n" +
                 "        has%4$s = false;\n" +
+                "%7$s" +
                 "    }\n\n",
                 nameOfResetMethod(name),
                 decoderClassName(name),
                 formatPropertyName(numberField.name()),
                 numberField.name(),
                 iteratorFieldName(group),
-                formatPropertyName(decoderClassName(name)));
+                formatPropertyName(decoderClassName(name)),
+                indexedGroupsEnabled ? "        " + groupCountFieldName(group) + " = 0;\n" : "");
     }
 
     private static String iteratorClassName(final Group group)
@@ -338,6 +375,16 @@ public class DecoderGenerator extends Generator
         return formatPropertyName(iteratorClassName(group));
     }
 
+    private static String groupElementsFieldName(final Group group)
+    {
+        return formatPropertyName(group.name()) + "Elements";
+    }
+
+    private static String groupCountFieldName(final Group group)
+    {
+        return formatPropertyName(group.name()) + "Count";
+    }
+
     protected String resetRequiredFloat(final String name)
     {
         final String lengthReset = flyweightsEnabled ? "        %1$sLength = 0;\n" : "";
@@ -411,7 +458,7 @@ public class DecoderGenerator extends Generator
             TAG_NOT_DEFINED_FOR_THIS_MESSAGE_TYPE + " : " + INVALID_TAG_NUMBER + ";\n" +
             "            return false;\n" +
             "        }\n" +
-            "        if (!header.validate())\n" +
+            "        if (!skippedHeader && !header.validate())\n" +
             "        {\n" +
             "            invalidTagId = header.invalidTagId();\n" +
             "            rejectReason = header.rejectReason();\n" +
@@ -723,6 +770,16 @@ public class DecoderGenerator extends Generator
             "    public %1$s %2$s();\n",
             decoderClassName(group),
             formatPropertyName(group.name())));
+
+        if (indexedGroupsEnabled)
+        {
+            out.append(String.format(
+                "    public %1$s %2$s(int index);\n" +
+                "    public int %3$s();\n",
+                decoderClassName(group),
+                formatPropertyName(group.name()),
+                groupCountFieldName(group)));
+        }
     }
 
     private void wrappedForEachEntry(
@@ -769,13 +826,79 @@ public class DecoderGenerator extends Generator
             "%3$s" +
             "%4$s" +
             "%5$s" +
-            "%6$s",
+            "%6$s" +
+            "%7$s",
             javaTypeOf(type),
             fieldName,
             optional,
             length,
             enumDecoder,
-            stringAsciiView);
+            stringAsciiView,
+            sentinelInterfaceGetter(entry, type, fieldName));
+    }
+
+    private String sentinelInterfaceGetter(final Entry entry, final Type type, final String fieldName)
+    {
+        if (type.isFloatBased())
+        {
+            return String.format("    public DecimalFloat %1$s(DecimalFloat value);\n", fieldName);
+        }
+
+        final String missingValue = missingValue(type);
+        if (entry.required() || missingValue == null)
+        {
+            return "";
+        }
+
+        return String.format("    public %1$s %2$sOrMissing();\n", javaTypeOf(type), fieldName);
+    }
+
+    // Accessors that return a sentinel rather than throwing when an optional field is missing, and that copy
+    // decimal values into a caller supplied DecimalFloat, so that values can be read without checking has<Field>().
+    private String sentinelGetter(final Entry entry, final Type type, final String name, final String fieldName)
+    {
+        if (type.isFloatBased())
+        {
+            return String.format(
+                "    public DecimalFloat %1$s(final DecimalFloat value)\n" +
+                "    {\n" +
+                "        return value.set(%2$s);\n" +
+                "    }\n\n",
+                fieldName,
+                entry.required() ?
+                fieldName + "()" :
+                String.format("has%1$s ? %2$s() : DecimalFloat.MISSING_FLOAT", name, fieldName));
+        }
+
+        final String missingValue = missingValue(type);
+        if (entry.required() || missingValue == null)
+        {
+            return "";
+        }
+
+        return String.format(
+            "    public %1$s %2$sOrMissing()\n" +
+            "    {\n" +
+            "        return has%3$s ? %2$s() : %4$s;\n" +
+            "    }\n\n",
+            javaTypeOf(type),
+            fieldName,
+            name,
+            missingValue);
+    }
+
+    private static String missingValue(final Type type)
+    {
+        if (type.isIntBased())
+        {
+            return "MISSING_INT";
+        }
+        else if (type.isCharBased())
+        {
+            return "MISSING_CHAR";
+        }
+
+        return null;
     }
 
     private void generateGetter(
@@ -916,6 +1039,34 @@ public class DecoderGenerator extends Generator
             prefix,
             iteratorClassName(group),
             iteratorFieldName(group)));
+
+        if (indexedGroupsEnabled)
+        {
+            indexedGroupGetter(group, out);
+        }
+    }
+
+    private void indexedGroupGetter(final Group group, final Writer out) throws IOException
+    {
+        out.append(String.format(
+            "    private %1$s[] %3$s = new %1$s[0];\n" +
+            "    private int %4$s = 0;\n" +
+            "    public %1$s %2$s(final int index)\n" +
+            "    {\n" +
+            "        if (index < 0 || index >= %4$s)\n" +
+            "        {\n" +
+            "            throw new IndexOutOfBoundsException(\"index: \" + index + \", count: \" + %4$s);\n" +
+            "        }\n" +
+            "        return %3$s[index];\n" +
+            "    }\n\n" +
+            "    public int %4$s()\n" +
+            "    {\n" +
+            "        return %4$s;\n" +
+            "    }\n\n",
+            decoderClassName(group),
+            formatPropertyName(group.name()),
+            groupElementsFieldName(group),
+            groupCountFieldName(group)));
     }
 
     private void generateGroupIterator(final Aggregate parent, final Writer out, final Group group) throws IOException
@@ -1048,6 +1199,7 @@ public class DecoderGenerator extends Generator
             "%9$s" +
             "        return %2$s;\n" +
             "    }\n\n" +
+            "%10$s" +
             "%6$s\n" +
             "%7$s\n" +
             "%8$s",
@@ -1059,7 +1211,8 @@ public class DecoderGenerator extends Generator
             optionalGetter(entry),
             offsetField,
             enumDecoder,
-            flyweightsEnabled ? lazyInitialisation : "");
+            flyweightsEnabled ? lazyInitialisation : "",
+            sentinelGetter(entry, type, name, fieldName));
     }
 
     private String generateAsStringBody(final Entry entry, final String name, final String fieldName)
@@ -1305,7 +1458,7 @@ public class DecoderGenerator extends Generator
         final String endGroupCheck = endGroupCheck(aggregate, isGroup);
         final String prefix =
             "    private AsciiBuffer buffer;\n\n" +
-            "    public int decode(final AsciiBuffer buffer, final int offset, final int length)\n" +
+            decodeMethodDeclaration(hasCommonCompounds) +
             "    {\n" +
             "        // Decode " + aggregate.name() + "\n" +
             "        int seenFieldCount = 0;\n" +
@@ -1317,7 +1470,7 @@ public class DecoderGenerator extends Generator
             "        this.buffer = buffer;\n" +
             "        final int end = offset + length;\n" +
             "        int position = offset;\n" +
-            (hasCommonCompounds ? "        position += header.decode(buffer, position, length);\n" : "") +
+            (hasCommonCompounds ? "        position += headerLength;\n" : "") +
             (isGroup ? "        seenFields.clear();\n" : "") +
             "        int tag;\n\n" +
             "        while (position < end)\n" +
@@ -1396,6 +1549,29 @@ public class DecoderGenerator extends Generator
         return prefix + body + suffix;
     }
 
+    // Messages decode their header and then their body, which can also be decoded on its own. A skipped header is
+    // reset rather than left holding the previous message's values and isn't validated.
+    private String decodeMethodDeclaration(final boolean hasCommonCompounds)
+    {
+        return hasCommonCompounds ?
+            "    private boolean skippedHeader = false;\n\n" +
+            "    public int decode(final AsciiBuffer buffer, final int offset, final int length)\n" +
+            "    {\n" +
+            "        skippedHeader = false;\n" +
+            "        return decodeBody(buffer, offset, length, header.decode(buffer, offset, length));\n" +
+            "    }\n\n" +
+            "    public int decodeAfterHeader(\n" +
+            "        final AsciiBuffer buffer, final int offset, final int length, final int headerLength)\n" +
+            "    {\n" +
+            "        header.reset();\n" +
+            "        skippedHeader = true;\n" +
+            "        return decodeBody(buffer, offset, length, headerLength);\n" +
+            "    }\n\n" +
+            "    private int decodeBody(\n" +
+            "        final AsciiBuffer buffer, final int offset, final int length, final int headerLength)\n" :
+            "    public int decode(final AsciiBuffer buffer, final int offset, final int length)\n";
+    }
+
     private String malformedMessageCheck()
     {
         return "            if (endOfField == AsciiBuffer.UNKNOWN_INDEX || " +
@@ -1522,6 +1698,7 @@ public class DecoderGenerator extends Generator
             "                    if (%1$sCurrent != null)\n" +
             "                    {\n" +
             "                        position += %1$sCurrent.decode(buffer, position, end - position);\n" +
+            "%7$s" +
             "                        %1$sCurrent = %1$sCurrent.next();\n" +
             "                    }\n" +
             "                }\n" +
@@ -1545,11 +1722,26 @@ public class DecoderGenerator extends Generator
             // Have to make a call to initialise the group number at this point when flyweighting.
             flyweightsEnabled ? groupNumberField + "()" : "this." + groupNumberField,
             MESSAGE_FIELDS,
-            INCORRECT_NUMINGROUP_COUNT_FOR_REPEATING_GROUP);
+            INCORRECT_NUMINGROUP_COUNT_FOR_REPEATING_GROUP,
+            indexedGroupsEnabled ? indexGroupElement(group) : "");
 
         return decodeField(group.numberField(), parseGroup);
     }
 
+    private String indexGroupElement(final Group group)
+    {
+        return String.format(
+            "                        if (i == %2$s.length)\n" +
+            "                        {\n" +
+            "                            %2$s = java.util.Arrays.copyOf(%2$s, Math.max(i * 2, 4));\n" +
+            "                        }\n" +
+            "                        %2$s[i] = %1$sCurrent;\n" +
+            "                        %3$s = i + 1;\n",
+            formatPropertyName(group.name()),
+            groupElementsFieldName(group),
+            groupCountFieldName(group));
+    }
+
     private String decodeField(final Entry entry, final String suffix)
     {
         // Uses variables from surrounding context:
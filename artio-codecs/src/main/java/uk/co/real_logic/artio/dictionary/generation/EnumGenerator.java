@@ -31,8 +31,10 @@ import uk.co.real_logic.artio.dictionary.ir.Field.Value;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import static java.lang.String.format;
 import static java.util.stream.Collectors.joining;
@@ -51,6 +53,10 @@ public final class EnumGenerator
     public static final String UNKNOWN_INT_AS_STRING = Integer.toString(ENUM_UNKNOWN_INT);
     public static final String UNKNOWN_STRING = ENUM_UNKNOWN_STRING;
 
+    // Enums with more values than this decode char arrays through a CharArrayMap in order to keep the size of the
+    // generated decode method well within the JVM's limits.
+    static final int MAX_SWITCH_DECODE_VALUES = 512;
+
     private final Dictionary dictionary;
     private final String builderPackage;
     private final OutputManager outputManager;
@@ -231,7 +237,7 @@ public final class EnumGenerator
             case STRING:
                 return "    public static boolean isValid(final CharArrayWrapper key)\n" +
                        "    {\n" +
-                       "        return charMap.containsKey(key);\n" +
+                       "        return decode(key) != " + UNKNOWN_NAME + ";\n" +
                        "    }\n";
             default:
                 final String primitiveValues = allValues
@@ -261,39 +267,152 @@ public final class EnumGenerator
             case MULTIPLEVALUESTRING:
             case MULTIPLESTRINGVALUE:
             case MULTIPLECHARVALUE:
+                if (allValues.size() > MAX_SWITCH_DECODE_VALUES)
+                {
+                    return charArrayMapDecode(typeName, allValues, type);
+                }
 
-                final String entries = allValues
-                    .stream()
-                    .map((v) -> format("        stringMap.put(%s, %s);\n", literal(v, type), v.description()))
-                    .collect(joining());
-
-                return format(
-                    "    private static final CharArrayMap<%1$s> charMap;\n" +
-                    "    static\n" +
-                    "    {\n" +
-                    "        final Map<String, %1$s> stringMap = new HashMap<>();\n" +
-                    "%2$s" +
-                    "        charMap = new CharArrayMap<>(stringMap);\n" +
-                    "    }\n" +
-                    "\n" +
-                    "    public static %1$s decode(final CharArrayWrapper key)\n" +
-                    "    {\n" +
-                            "        final %1$s value = charMap.get(key);\n" +
-                            "        if (value == null)\n" +
-                            "        {\n" +
-                            "            return %3$s;\n" +
-                            "        }\n" +
-                            "        return value;\n" +
-                    "    }\n",
-                    typeName,
-                    entries,
-                    UNKNOWN_NAME);
+                return charArraySwitchDecode(typeName, allValues);
 
             default:
                 return "";
         }
     }
 
+    private String charArrayMapDecode(final String typeName, final List<Value> allValues, final Type type)
+    {
+        final String entries = allValues
+            .stream()
+            .map((v) -> format("        stringMap.put(%s, %s);\n", literal(v, type), v.description()))
+            .collect(joining());
+
+        return format(
+            "    private static final CharArrayMap<%1$s> charMap;\n" +
+            "    static\n" +
+            "    {\n" +
+            "        final Map<String, %1$s> stringMap = new HashMap<>();\n" +
+            "%2$s" +
+            "        charMap = new CharArrayMap<>(stringMap);\n" +
+            "    }\n" +
+            "\n" +
+            "    public static %1$s decode(final CharArrayWrapper key)\n" +
+            "    {\n" +
+                    "        final %1$s value = charMap.get(key);\n" +
+                    "        if (value == null)\n" +
+                    "        {\n" +
+                    "            return %3$s;\n" +
+                    "        }\n" +
+                    "        return value;\n" +
+            "    }\n",
+            typeName,
+            entries,
+            UNKNOWN_NAME);
+    }
+
+    // Switches on the length and then the first character of the key, so that at most a few candidate values have
+    // their remaining characters compared and the key is never hashed.
+    private String charArraySwitchDecode(final String typeName, final List<Value> allValues)
+    {
+        // Later values replace earlier ones with the same representation, as they would when put into a map.
+        final Map<String, Value> representationToValue = new LinkedHashMap<>();
+        allValues.forEach((value) -> representationToValue.put(value.representation(), value));
+
+        final Map<Integer, Map<Character, List<Value>>> lengthToFirstCharToValues = new TreeMap<>();
+        representationToValue.values().forEach((value) ->
+        {
+            final String representation = value.representation();
+            final char firstChar = representation.isEmpty() ? 0 : representation.charAt(0);
+            lengthToFirstCharToValues
+                .computeIfAbsent(representation.length(), (length) -> new TreeMap<>())
+                .computeIfAbsent(firstChar, (character) -> new ArrayList<>())
+                .add(value);
+        });
+
+        final StringBuilder cases = new StringBuilder();
+        lengthToFirstCharToValues.forEach((length, firstCharToValues) ->
+        {
+            if (cases.length() > 0)
+            {
+                cases.append("\n");
+            }
+            cases.append(format("            case %d:\n", length));
+            if (length == 0)
+            {
+                final Value emptyValue = firstCharToValues.get((char)0).get(0);
+                cases.append(format("                return %s;\n", emptyValue.description()));
+                return;
+            }
+
+            cases.append("                switch (key.charAt(0))\n                {\n");
+            firstCharToValues.forEach((firstChar, values) ->
+            {
+                cases.append(format("                    case %s:\n", charLiteral(firstChar)));
+                if (length == 1)
+                {
+                    cases.append(format("                        return %s;\n", values.get(0).description()));
+                    return;
+                }
+
+                for (final Value value : values)
+                {
+                    cases.append(format(
+                        "                        if (%s)\n" +
+                        "                        {\n" +
+                        "                            return %s;\n" +
+                        "                        }\n",
+                        remainingCharsEqual(value.representation()),
+                        value.description()));
+                }
+                cases.append("                        break;\n");
+            });
+            cases.append("                }\n                break;\n");
+        });
+
+        return format(
+            "    public static %1$s decode(final CharArrayWrapper key)\n" +
+            "    {\n" +
+            "        switch (key.length())\n" +
+            "        {\n" +
+            "%2$s" +
+            "        }\n" +
+            "\n" +
+            "        return %3$s;\n" +
+            "    }\n\n",
+            typeName,
+            cases,
+            UNKNOWN_NAME);
+    }
+
+    private static String remainingCharsEqual(final String representation)
+    {
+        final StringBuilder condition = new StringBuilder();
+        for (int i = 1; i < representation.length(); i++)
+        {
+            if (i > 1)
+            {
+                condition.append(" && ");
+            }
+            condition.append(format("key.charAt(%d) == %s", i, charLiteral(representation.charAt(i))));
+        }
+
+        return condition.toString();
+    }
+
+    private static String charLiteral(final char value)
+    {
+        if (value == '\'' || value == '\\')
+        {
+            return "'\\" + value + "'";
+        }
+
+        if (value < ' ' || value > '~')
+        {
+            return format("(char)%d", (int)value);
+        }
+
+        return "'" + value + "'";
+    }
+
     private boolean hasGeneratedValueOf(final Type type)
     {
         switch (type)
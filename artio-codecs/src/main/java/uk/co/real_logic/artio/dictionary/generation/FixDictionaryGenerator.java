@@ -52,11 +52,18 @@ public class FixDictionaryGenerator
     private static final String TEMPLATE =
         "public class FixDictionaryImpl implements FixDictionary\n" +
         "{\n" +
+        "    private static final long[] MESSAGE_TYPES = { %2$s };\n" +
+        "\n" +
         "    public String beginString()\n" +
         "    {\n" +
         "        return \"%1$s\";\n" +
         "    }\n" +
         "\n" +
+        "    public long[] messageTypes()\n" +
+        "    {\n" +
+        "        return MESSAGE_TYPES.clone();\n" +
+        "    }\n" +
+        "\n" +
         "    public SessionHeaderDecoder makeHeaderDecoder()\n" +
         "    {\n" +
         "        return new HeaderDecoder();\n" +
@@ -100,7 +107,8 @@ public class FixDictionaryGenerator
         {
             try
             {
-                final StringBuilder sb = new StringBuilder(String.format(TEMPLATE, dictionary.beginString()));
+                final StringBuilder sb = new StringBuilder(String.format(
+                    TEMPLATE, dictionary.beginString(), messageTypes()));
                 out.append(fileHeader(parentPackage));
 
                 out.append(importFor(FixDictionary.class));
@@ -154,6 +162,14 @@ public class FixDictionaryGenerator
         });
     }
 
+    private String messageTypes()
+    {
+        return dictionary.messages()
+            .stream()
+            .map((message) -> message.packedType() + "L")
+            .collect(Collectors.joining(", "));
+    }
+
     private static void addEncoderImport(
         final Writer out,
         final String encoderPackage,
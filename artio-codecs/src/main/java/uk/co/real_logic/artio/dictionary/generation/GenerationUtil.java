@@ -31,6 +31,9 @@ public final class GenerationUtil
     public static final String PARENT_PACKAGE =
         System.getProperty("fix.codecs.parent_package", "uk.co.real_logic.artio");
     public static final boolean FLYWEIGHTS_ENABLED = Boolean.getBoolean("fix.codecs.flyweight");
+    public static final boolean INDEXED_GROUPS_ENABLED = Boolean.getBoolean("fix.codecs.indexed_groups");
+    // Comma separated names of the messages to generate batch decoders for, eg: ExecutionReport
+    public static final String BATCH_DECODER_MESSAGES = System.getProperty("fix.codecs.batch_decoders", "");
     public static final Optional<Boolean> HARD_CODED_REJECT_UNKNOWN_EMUM_VALUES =
         Optional.ofNullable(System.getProperty("reject.unknown.enum.value"))
         .map(Boolean::parseBoolean);
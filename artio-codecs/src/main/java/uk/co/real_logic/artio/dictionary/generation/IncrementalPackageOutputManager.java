@@ -0,0 +1,113 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.agrona.generation.OutputManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Writes generated sources into the directory of their package, like
+ * {@link org.agrona.generation.PackageOutputManager}, but only rewrites a file when its source has changed.
+ *
+ * Files whose source is unchanged keep their last modified time, so that builds don't recompile them and the code
+ * that depends on them when a dictionary is regenerated. Safe to use from multiple threads that write different files.
+ */
+public class IncrementalPackageOutputManager implements OutputManager
+{
+    private final AtomicInteger writtenFiles = new AtomicInteger();
+    private final AtomicInteger unchangedFiles = new AtomicInteger();
+    private final File outputDir;
+
+    /**
+     * Create the output manager, creating the directory of the package if it doesn't exist.
+     *
+     * @param baseDirName the directory that package directories are created in.
+     * @param packageName the package of the generated sources.
+     */
+    public IncrementalPackageOutputManager(final String baseDirName, final String packageName)
+    {
+        outputDir = new File(baseDirName, packageName.replace('.', File.separatorChar));
+        if (!outputDir.exists() && !outputDir.mkdirs() && !outputDir.exists())
+        {
+            throw new IllegalStateException("Unable to create directory: " + outputDir);
+        }
+    }
+
+    public Writer createOutput(final String name)
+    {
+        return new SourceWriter(new File(outputDir, name + ".java"));
+    }
+
+    /**
+     * Get the number of files that have been written because they didn't exist or their source changed.
+     *
+     * @return the number of files that have been written.
+     */
+    public int writtenFiles()
+    {
+        return writtenFiles.get();
+    }
+
+    /**
+     * Get the number of files that haven't been written because their source was unchanged.
+     *
+     * @return the number of files that haven't been written.
+     */
+    public int unchangedFiles()
+    {
+        return unchangedFiles.get();
+    }
+
+    private final class SourceWriter extends StringWriter
+    {
+        private final File file;
+        private boolean closed;
+
+        private SourceWriter(final File file)
+        {
+            this.file = file;
+        }
+
+        public void close() throws IOException
+        {
+            if (closed)
+            {
+                return;
+            }
+            closed = true;
+
+            final byte[] source = toString().getBytes(UTF_8);
+            if (file.exists() && Arrays.equals(source, Files.readAllBytes(file.toPath())))
+            {
+                unchangedFiles.incrementAndGet();
+            }
+            else
+            {
+                Files.write(file.toPath(), source);
+                writtenFiles.incrementAndGet();
+            }
+        }
+    }
+}
@@ -60,6 +60,7 @@ public class PrinterGenerator
                 out.append(CLASS_DECLARATION);
                 out.append(generateDecoderFields());
                 out.append(generateToString());
+                out.append(generateAppendTo());
                 out.append("}\n");
             });
     }
@@ -113,6 +114,35 @@ public class PrinterGenerator
             "    }\n\n";
     }
 
+    private String generateAppendTo()
+    {
+        final Function<Message, String> mapper = (aggregate) -> String.format(
+            "            if (messageType == %sL)\n" +
+            "            {\n" +
+            "                %s.decode(input, offset, length);\n" +
+            "                return %2$s.appendTo(builder);\n" +
+            "            }\n\n",
+            aggregate.packedType(),
+            decoderFieldName(aggregate));
+
+        final String cases = messages().map(mapper).collect(joining());
+
+        return
+            "    public StringBuilder appendTo(\n" +
+            "        final StringBuilder builder,\n" +
+            "        final AsciiBuffer input,\n" +
+            "        final int offset,\n" +
+            "        final int length,\n" +
+            "        final long messageType)\n" +
+            "    {\n" +
+            cases +
+            "            else\n" +
+            "            {\n" +
+            "                throw new IllegalArgumentException(\"Unknown Message Type: \" + messageType);\n" +
+            "            }\n" +
+            "    }\n\n";
+    }
+
     private Stream<Message> messages()
     {
         return dictionary.messages().stream();
@@ -25,6 +25,7 @@ import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import static uk.co.real_logic.artio.ValidationError.INVALID_CHECKSUM;
 import static uk.co.real_logic.artio.ValidationError.PARSE_ERROR;
 import static uk.co.real_logic.artio.dictionary.SessionConstants.*;
+import static uk.co.real_logic.artio.otf.MessageControl.CONTINUE;
 import static uk.co.real_logic.artio.otf.MessageControl.STOP;
 import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
 
@@ -46,16 +47,42 @@ public final class OtfParser
 
     private final OtfMessageAcceptor acceptor;
     private final LongDictionary groupToField;
+    private final OtfTagFilter tagFilter;
+    private final boolean tracksTags;
+    private final long allTagsSeen;
 
     private int checksum;
     private int checksumOffset;
     private long messageType;
     private int tag;
+    private long seenTags;
+    private boolean stoppedEarly;
 
     public OtfParser(final OtfMessageAcceptor acceptor, final LongDictionary groupToField)
+    {
+        this(acceptor, groupToField, null);
+    }
+
+    /**
+     * Create a parser that only passes the fields of the given tags to its acceptor. Group callbacks are still made
+     * for every group.
+     *
+     * If the filter has no more than 64 tags then parsing stops as soon as every one of them has been seen outside of a
+     * repeating group. The message's checksum isn't validated when this happens, and
+     * {@link OtfMessageAcceptor#onComplete()} is called straight away.
+     *
+     * @param acceptor the acceptor that fields are passed to.
+     * @param groupToField the fields of each repeating group, keyed by the group's tag.
+     * @param tagFilter the tags that are passed to the acceptor, or null to pass every tag.
+     */
+    public OtfParser(
+        final OtfMessageAcceptor acceptor, final LongDictionary groupToField, final OtfTagFilter tagFilter)
     {
         this.acceptor = acceptor;
         this.groupToField = groupToField;
+        this.tagFilter = tagFilter;
+        tracksTags = tagFilter != null && tagFilter.tracksTags();
+        allTagsSeen = tracksTags ? tagFilter.allTagsSeen() : 0;
     }
 
     public void onMessage(final DirectBuffer buffer, final int offset, final int length)
@@ -71,6 +98,8 @@ public final class OtfParser
 
         checksum = NO_CHECKSUM;
         checksumOffset = 0;
+        seenTags = 0;
+        stoppedEarly = false;
 
         try
         {
@@ -79,7 +108,7 @@ public final class OtfParser
                 return;
             }
 
-            if (validChecksum(offset, checksum))
+            if (stoppedEarly || validChecksum(offset, checksum))
             {
                 acceptor.onComplete();
             }
@@ -157,7 +186,8 @@ public final class OtfParser
                         }
                     }
                 }
-                final MessageControl control = acceptor.onField(tag, string, valueOffset, valueLength);
+                final MessageControl control = isWanted(tag) ?
+                    acceptor.onField(tag, string, valueOffset, valueLength) : CONTINUE;
 
                 collectImportantFields(equalsPosition, valueOffset, endOfField, valueLength);
 
@@ -167,6 +197,11 @@ public final class OtfParser
                 {
                     return ~position;
                 }
+
+                if (stopEarly(groupTag))
+                {
+                    return position;
+                }
             }
             else
             {
@@ -179,7 +214,7 @@ public final class OtfParser
                 {
                     position = parseGroup(tag, valueOffset, endOfField, end, newGroupFields);
 
-                    if (position < 0)
+                    if (position < 0 || stopEarly(groupTag))
                     {
                         return position;
                     }
@@ -222,6 +257,39 @@ public final class OtfParser
         return endOfField;
     }
 
+    private boolean isWanted(final int tag)
+    {
+        final OtfTagFilter tagFilter = this.tagFilter;
+        if (tagFilter == null)
+        {
+            return true;
+        }
+
+        if (!tagFilter.contains(tag))
+        {
+            return false;
+        }
+
+        if (tracksTags)
+        {
+            seenTags |= 1L << tagFilter.index(tag);
+        }
+
+        return true;
+    }
+
+    // Only stops outside of groups as wanted tags can repeat within later elements of a group.
+    private boolean stopEarly(final int groupTag)
+    {
+        if (tracksTags && !insideAGroup(groupTag) && seenTags == allTagsSeen)
+        {
+            stoppedEarly = true;
+            return true;
+        }
+
+        return false;
+    }
+
     private boolean isEndOfGroup(final IntHashSet groupFields)
     {
         return !groupFields.contains(tag);
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.otf;
+
+import java.util.Arrays;
+
+/**
+ * The set of tags that an {@link OtfMessageAcceptor} is interested in, see
+ * {@link OtfParser#OtfParser(OtfMessageAcceptor, uk.co.real_logic.artio.dictionary.LongDictionary, OtfTagFilter)}.
+ *
+ * Tags are held in a bitset indexed by tag number so that checking a tag is a single array lookup. Immutable once
+ * created so it can be shared between parsers.
+ */
+public final class OtfTagFilter
+{
+    static final int NOT_INDEXED = -1;
+
+    // Early stopping tracks which tags have been seen in a single long.
+    static final int MAX_TRACKED_TAGS = Long.SIZE;
+
+    private final long[] bits;
+    private final int[] tags;
+
+    /**
+     * Create the filter.
+     *
+     * @param tags the tag numbers that the acceptor is interested in.
+     */
+    public OtfTagFilter(final int... tags)
+    {
+        final int[] sortedTags = Arrays.stream(tags).distinct().sorted().toArray();
+        if (sortedTags.length == 0)
+        {
+            throw new IllegalArgumentException("A filter needs at least one tag");
+        }
+
+        final int maxTag = sortedTags[sortedTags.length - 1];
+        if (sortedTags[0] <= 0)
+        {
+            throw new IllegalArgumentException("Tags must be positive: " + Arrays.toString(tags));
+        }
+
+        bits = new long[(maxTag >> 6) + 1];
+        for (final int tag : sortedTags)
+        {
+            bits[tag >> 6] |= 1L << tag;
+        }
+        this.tags = sortedTags;
+    }
+
+    /**
+     * Check whether a tag is in the filter.
+     *
+     * @param tag the tag number.
+     * @return true if the tag is in the filter, false otherwise.
+     */
+    public boolean contains(final int tag)
+    {
+        final int word = tag >> 6;
+        return word >= 0 && word < bits.length && (bits[word] & (1L << tag)) != 0;
+    }
+
+    /**
+     * Get the number of distinct tags in the filter.
+     *
+     * @return the number of distinct tags in the filter.
+     */
+    public int size()
+    {
+        return tags.length;
+    }
+
+    int index(final int tag)
+    {
+        final int index = Arrays.binarySearch(tags, tag);
+        return index < 0 ? NOT_INDEXED : index;
+    }
+
+    boolean tracksTags()
+    {
+        return tags.length <= MAX_TRACKED_TAGS;
+    }
+
+    long allTagsSeen()
+    {
+        return tags.length == MAX_TRACKED_TAGS ? -1L : (1L << tags.length) - 1;
+    }
+}
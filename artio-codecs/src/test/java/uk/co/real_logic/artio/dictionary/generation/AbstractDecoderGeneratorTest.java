@@ -26,6 +26,7 @@ import uk.co.real_logic.artio.dictionary.ExampleDictionary;
 import uk.co.real_logic.artio.fields.DecimalFloat;
 import uk.co.real_logic.artio.fields.RejectReason;
 import uk.co.real_logic.artio.fields.UtcTimestampDecoder;
+import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 import uk.co.real_logic.artio.util.Reflection;
 
@@ -80,13 +81,13 @@ public abstract class AbstractDecoderGeneratorTest
     static void generate(final boolean flyweightStringsEnabled) throws Exception
     {
         final Map<String, CharSequence> sourcesWithValidation = generateSources(
-            true, false, true, flyweightStringsEnabled);
+            true, false, true, flyweightStringsEnabled, true);
         final Map<String, CharSequence> sourcesWithNoEnumValueValidation = generateSources(
-            true, false, false, flyweightStringsEnabled);
+            true, false, false, flyweightStringsEnabled, false);
         final Map<String, CharSequence> sourcesWithoutValidation = generateSources(
-            false, false, true, flyweightStringsEnabled);
+            false, false, true, flyweightStringsEnabled, false);
         final Map<String, CharSequence> sourcesRejectingUnknownFields = generateSources(
-            true, true, true, flyweightStringsEnabled);
+            true, true, true, flyweightStringsEnabled, false);
         heartbeat = compileInMemory(HEARTBEAT_DECODER, sourcesWithValidation);
         if (heartbeat == null || CODEC_LOGGING)
         {
@@ -110,7 +111,7 @@ public abstract class AbstractDecoderGeneratorTest
 
     private static Map<String, CharSequence> generateSources(
         final boolean validation, final boolean rejectingUnknownFields, final boolean rejectingUnknownEnumValue,
-        final boolean flyweightStringsEnabled)
+        final boolean flyweightStringsEnabled, final boolean indexedGroupsEnabled)
     {
         final Class<?> validationClass = validation ? ValidationOn.class : ValidationOff.class;
         final Class<?> rejectUnknownField = rejectingUnknownFields ?
@@ -124,7 +125,8 @@ public abstract class AbstractDecoderGeneratorTest
         final DecoderGenerator decoderGenerator = new DecoderGenerator(
             MESSAGE_EXAMPLE, 1, TEST_PACKAGE, TEST_PARENT_PACKAGE, TEST_PACKAGE,
             outputManager, validationClass, rejectUnknownField,
-            rejectUnknownEnumValue, flyweightStringsEnabled, String.valueOf(rejectingUnknownEnumValue));
+            rejectUnknownEnumValue, flyweightStringsEnabled, String.valueOf(rejectingUnknownEnumValue),
+            indexedGroupsEnabled);
         final EncoderGenerator encoderGenerator = new EncoderGenerator(MESSAGE_EXAMPLE, TEST_PACKAGE,
             TEST_PARENT_PACKAGE, outputManager, ValidationOn.class, RejectUnknownFieldOn.class,
             RejectUnknownEnumValueOn.class, RUNTIME_REJECT_UNKNOWN_ENUM_VALUE_PROPERTY);
@@ -270,6 +272,38 @@ public abstract class AbstractDecoderGeneratorTest
         assertValid(decoder);
     }
 
+    @Test
+    public void decodesValuesAfterHeader() throws Exception
+    {
+        final Decoder decoder = newHeartbeat();
+
+        final int length = decodeAfterHeader(DERIVED_FIELDS_MESSAGE, decoder);
+
+        assertEquals(DERIVED_FIELDS_MESSAGE.length(), length);
+        assertArrayEquals(ABC, getOnBehalfOfCompId(decoder));
+        assertEquals(2, getIntField(decoder));
+        assertEquals(new DecimalFloat(11, 1), getFloatField(decoder));
+        assertEquals(0, decoder.header().msgTypeLength());
+    }
+
+    @Test
+    public void resetsHeaderOfReusedDecoderWhenDecodingAfterHeader() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(DERIVED_FIELDS_MESSAGE);
+        assertEquals(1, decoder.header().msgTypeLength());
+
+        decodeAfterHeader(DERIVED_FIELDS_MESSAGE, decoder);
+
+        assertEquals(0, decoder.header().msgTypeLength());
+        assertArrayEquals(ABC, getOnBehalfOfCompId(decoder));
+        assertValid(decoder);
+
+        decode(DERIVED_FIELDS_MESSAGE, decoder);
+
+        assertEquals(1, decoder.header().msgTypeLength());
+        assertValid(decoder);
+    }
+
     @Test
     public void decodesEnumValuesUsingAsEnumMethods() throws Exception
     {
@@ -328,6 +362,35 @@ public abstract class AbstractDecoderGeneratorTest
         assertValid(decoder);
     }
 
+    @Test
+    public void returnsSentinelsForMissingOptionalValues() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(DERIVED_FIELDS_MESSAGE);
+
+        assertEquals(MISSING_INT, get(decoder, "dataFieldLengthOrMissing"));
+        assertEquals(MISSING_CHAR, get(decoder, "charFieldOrMissing"));
+    }
+
+    @Test
+    public void returnsPresentOptionalValuesInsteadOfSentinels() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(ENCODED_MESSAGE);
+
+        assertEquals(3, get(decoder, "dataFieldLengthOrMissing"));
+    }
+
+    @Test
+    public void copiesDecimalFloatsIntoSuppliedValue() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(DERIVED_FIELDS_MESSAGE);
+        final DecimalFloat value = new DecimalFloat();
+
+        final Object result = decoder.getClass().getMethod("floatField", DecimalFloat.class).invoke(decoder, value);
+
+        assertSame(value, result);
+        assertEquals(new DecimalFloat(11, 1), value);
+    }
+
     @Test
     public void parsesMessagesWithSeparatorInsideDataField() throws Exception
     {
@@ -537,6 +600,35 @@ public abstract class AbstractDecoderGeneratorTest
         assertSingleRepeatingGroupDecoded(decoder);
     }
 
+    @Test
+    public void shouldAccessRepeatingGroupElementsByIndex() throws Exception
+    {
+        final Decoder decoder = decodeHeartbeat(REPEATING_GROUP_MESSAGE);
+
+        assertEquals(2, get(decoder, "egGroupGroupCount"));
+        assertSame(getEgGroup(decoder), getEgGroupAt(decoder, 0));
+        assertSame(next(getEgGroup(decoder)), getEgGroupAt(decoder, 1));
+        assertEquals(2, getGroupField(getEgGroupAt(decoder, 1)));
+
+        decode(SINGLE_REPEATING_GROUP_MESSAGE, decoder);
+
+        assertEquals(1, get(decoder, "egGroupGroupCount"));
+        assertEquals(2, getGroupField(getEgGroupAt(decoder, 0)));
+        try
+        {
+            getEgGroupAt(decoder, 1);
+            fail("Accessed an element beyond the decoded elements");
+        }
+        catch (final InvocationTargetException e)
+        {
+            assertThat(e.getCause(), instanceOf(IndexOutOfBoundsException.class));
+        }
+
+        decoder.reset();
+
+        assertEquals(0, get(decoder, "egGroupGroupCount"));
+    }
+
     @Test
     public void shouldDecodeNestedRepeatingGroups() throws Exception
     {
@@ -1651,6 +1743,11 @@ public abstract class AbstractDecoderGeneratorTest
         return (boolean)get(decoder, "hasNoEgGroupGroupCounter");
     }
 
+    private Object getEgGroupAt(final Decoder decoder, final int index) throws Exception
+    {
+        return decoder.getClass().getMethod("egGroupGroup", int.class).invoke(decoder, index);
+    }
+
     private int getGroupField(final Object group) throws Exception
     {
         return (int)get(group, "groupField");
@@ -1716,6 +1813,16 @@ public abstract class AbstractDecoderGeneratorTest
         decoder.decode(buffer, 1, example.length());
     }
 
+    private int decodeAfterHeader(final String example, final Decoder decoder) throws Exception
+    {
+        final int headerLength = example.indexOf("115=");
+        buffer.putAscii(1, example);
+
+        final Method decodeAfterHeader = decoder.getClass().getMethod(
+            "decodeAfterHeader", AsciiBuffer.class, int.class, int.class, int.class);
+        return (int)decodeAfterHeader.invoke(decoder, buffer, 1, example.length(), headerLength);
+    }
+
     private void assertIsDecoder(final Class<?> cls)
     {
         assertTrue("Isn't a decoder", Decoder.class.isAssignableFrom(cls));
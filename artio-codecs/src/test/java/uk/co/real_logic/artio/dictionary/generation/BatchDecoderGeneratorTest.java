@@ -0,0 +1,220 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.agrona.generation.StringWriterOutputManager;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import uk.co.real_logic.artio.dictionary.ir.Component;
+import uk.co.real_logic.artio.dictionary.ir.Dictionary;
+import uk.co.real_logic.artio.dictionary.ir.Field;
+import uk.co.real_logic.artio.dictionary.ir.Group;
+import uk.co.real_logic.artio.dictionary.ir.Message;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.agrona.generation.CompilerUtil.compileInMemory;
+import static org.junit.Assert.*;
+import static uk.co.real_logic.artio.dictionary.ExampleDictionary.*;
+import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_INT;
+import static uk.co.real_logic.artio.dictionary.ir.Category.APP;
+import static uk.co.real_logic.artio.dictionary.ir.Field.registerField;
+import static uk.co.real_logic.artio.util.Reflection.get;
+
+public class BatchDecoderGeneratorTest
+{
+    private static final String HEARTBEAT_BATCH_DECODER = TEST_PACKAGE + ".HeartbeatBatchDecoder";
+    private static final String ALLOCATION_BATCH_DECODER = TEST_PACKAGE + ".AllocationBatchDecoder";
+
+    private static StringWriterOutputManager outputManager = new StringWriterOutputManager();
+    private static ConstantGenerator constantGenerator =
+        new ConstantGenerator(MESSAGE_EXAMPLE, TEST_PACKAGE, outputManager);
+    private static BatchDecoderGenerator batchDecoderGenerator = new BatchDecoderGenerator(
+        MESSAGE_EXAMPLE, TEST_PACKAGE, TEST_PARENT_PACKAGE, outputManager, Collections.singletonList("Heartbeat"));
+    private static Class<?> batchDecoder;
+
+    private MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[8 * 1024]);
+
+    @BeforeClass
+    public static void generate() throws Exception
+    {
+        constantGenerator.generate();
+        batchDecoderGenerator.generate();
+        final Map<String, CharSequence> sources = outputManager.getSources();
+        batchDecoder = compileInMemory(HEARTBEAT_BATCH_DECODER, sources);
+        assertNotNull(sources.toString(), batchDecoder);
+    }
+
+    @Test
+    public void shouldDecodeMessagesIntoColumns() throws Exception
+    {
+        final Object decoder = newBatchDecoder(2, 1);
+
+        assertEquals(0, decode(decoder, ENCODED_MESSAGE));
+        assertEquals(1, decode(decoder, REPEATING_GROUP_MESSAGE));
+        assertEquals(2, get(decoder, "size"));
+
+        assertEquals("abc", asString(decoder, "onBehalfOfCompID", 0));
+        assertEquals("abc", asString(decoder, "testReqID", 0));
+        assertNull(asString(decoder, "testReqID", 1));
+        assertEquals("19700101-00:00:00.001", asString(decoder, "someTimeField", 1));
+
+        final int[] intField = (int[])get(decoder, "intField");
+        assertEquals(2, intField[0]);
+        assertEquals(2, intField[1]);
+
+        final long[] floatFieldValues = (long[])get(decoder, "floatFieldValues");
+        final int[] floatFieldScales = (int[])get(decoder, "floatFieldScales");
+        assertEquals(11, floatFieldValues[0]);
+        assertEquals(1, floatFieldScales[0]);
+
+        final boolean[] booleanField = (boolean[])get(decoder, "booleanField");
+        assertTrue(booleanField[0]);
+        assertFalse(booleanField[1]);
+
+        final int[] dataFieldLength = (int[])get(decoder, "dataFieldLength");
+        assertEquals(3, dataFieldLength[0]);
+        assertEquals(MISSING_INT, dataFieldLength[1]);
+        assertEquals("123", asString(decoder, "dataField", 0));
+
+        final int[] noEgGroup = (int[])get(decoder, "noEgGroupGroupCounter");
+        assertEquals(MISSING_INT, noEgGroup[0]);
+        assertEquals(2, noEgGroup[1]);
+    }
+
+    @Test
+    public void shouldNotDecodeFieldsInsideRepeatingGroups()
+    {
+        assertNoMethod("groupField");
+        assertNoMethod("nestedField");
+    }
+
+    @Test
+    public void shouldNotDecodeMessagesOnceFull() throws Exception
+    {
+        final Object decoder = newBatchDecoder(1, 64);
+
+        assertEquals(0, decode(decoder, ENCODED_MESSAGE));
+        assertTrue((boolean)get(decoder, "isFull"));
+        assertEquals(-1, decode(decoder, REPEATING_GROUP_MESSAGE));
+
+        batchDecoder.getMethod("reset").invoke(decoder);
+
+        assertEquals(0, decode(decoder, REPEATING_GROUP_MESSAGE));
+        assertNull(asString(decoder, "testReqID", 0));
+        assertFalse(((boolean[])get(decoder, "booleanField"))[0]);
+        assertEquals(MISSING_INT, ((int[])get(decoder, "dataFieldLength"))[0]);
+    }
+
+    @Test
+    public void shouldNotOverwriteBodyFieldsWithGroupFieldsOfTheSameTag() throws Exception
+    {
+        final Class<?> allocationBatchDecoder = generateAllocationBatchDecoder();
+        final Object decoder = allocationBatchDecoder.getConstructor(int.class).newInstance(1);
+
+        final String message = "8=FIX.4.4\0019=61\00135=J\0011=BODY\00153=10\00178=2\0011=A1\00153=4\0011=A2\00153=6" +
+            "\00158=done\00110=000\001";
+        assertEquals(0, decode(allocationBatchDecoder, decoder, message));
+
+        assertEquals("BODY", asString(allocationBatchDecoder, decoder, "account", 0));
+        assertEquals(10, ((int[])get(decoder, "quantity"))[0]);
+        assertEquals(2, ((int[])get(decoder, "noAllocsGroupCounter"))[0]);
+        assertEquals("done", asString(allocationBatchDecoder, decoder, "text", 0));
+    }
+
+    private static Class<?> generateAllocationBatchDecoder() throws Exception
+    {
+        final Map<String, Field> fields = new HashMap<>();
+        final Field account = registerField(fields, 1, "Account", Field.Type.STRING);
+        final Field quantity = registerField(fields, 53, "Quantity", Field.Type.INT);
+
+        final Group allocs = Group.of(registerField(fields, 78, "NoAllocs", Field.Type.NUMINGROUP));
+        allocs.optionalEntry(account);
+        allocs.optionalEntry(quantity);
+
+        final Message allocation = new Message("Allocation", "J", APP);
+        allocation.optionalEntry(account);
+        allocation.optionalEntry(quantity);
+        allocation.optionalEntry(allocs);
+        allocation.optionalEntry(registerField(fields, 58, "Text", Field.Type.STRING));
+
+        final Dictionary dictionary = new Dictionary(
+            Collections.singletonList(allocation),
+            fields,
+            new HashMap<>(),
+            new Component("Header"),
+            new Component("Trailer"),
+            "FIX",
+            4,
+            4);
+
+        final StringWriterOutputManager outputManager = new StringWriterOutputManager();
+        new ConstantGenerator(dictionary, TEST_PACKAGE, outputManager).generate();
+        new BatchDecoderGenerator(
+            dictionary, TEST_PACKAGE, TEST_PARENT_PACKAGE, outputManager, Collections.singletonList("Allocation"))
+            .generate();
+
+        final Map<String, CharSequence> sources = outputManager.getSources();
+        final Class<?> allocationBatchDecoder = compileInMemory(ALLOCATION_BATCH_DECODER, sources);
+        assertNotNull(sources.toString(), allocationBatchDecoder);
+        return allocationBatchDecoder;
+    }
+
+    private Object newBatchDecoder(final int capacity, final int initialArenaCapacity) throws Exception
+    {
+        return batchDecoder.getConstructor(int.class, int.class).newInstance(capacity, initialArenaCapacity);
+    }
+
+    private int decode(final Object decoder, final String message) throws Exception
+    {
+        return decode(batchDecoder, decoder, message);
+    }
+
+    private int decode(final Class<?> decoderClass, final Object decoder, final String message) throws Exception
+    {
+        buffer.putAscii(1, message);
+        return (int)decoderClass
+            .getMethod("decode", AsciiBuffer.class, int.class, int.class)
+            .invoke(decoder, buffer, 1, message.length());
+    }
+
+    private String asString(final Object decoder, final String column, final int row) throws Exception
+    {
+        return asString(batchDecoder, decoder, column, row);
+    }
+
+    private String asString(
+        final Class<?> decoderClass, final Object decoder, final String column, final int row) throws Exception
+    {
+        return (String)decoderClass.getMethod(column + "AsString", int.class).invoke(decoder, row);
+    }
+
+    private void assertNoMethod(final String name)
+    {
+        try
+        {
+            batchDecoder.getMethod(name);
+            fail("Generated a column for " + name);
+        }
+        catch (final NoSuchMethodException ignore)
+        {
+        }
+    }
+}
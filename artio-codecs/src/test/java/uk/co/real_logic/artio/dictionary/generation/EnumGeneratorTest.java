@@ -148,6 +148,23 @@ public class EnumGeneratorTest
         assertEquals(values[2], decode.invoke(null, wrapper));
     }
 
+    @Test
+    public void shouldNotDecodeCharArrayThatSharesALengthAndFirstChar() throws Exception
+    {
+        final Enum<?>[] values = getStringEnumConstants();
+        final CharArrayWrapper wrapper = new CharArrayWrapper();
+        final Method decode = stringEnumClass.getMethod("decode", CharArrayWrapper.class);
+        final Method isValid = stringEnumClass.getMethod("isValid", CharArrayWrapper.class);
+
+        wrapper.wrap("AB".toCharArray(), 2);
+        assertEquals(values[values.length - 1], decode.invoke(null, wrapper));
+        assertEquals(false, isValid.invoke(null, wrapper));
+
+        wrapper.wrap("XAA".toCharArray(), 1, 2);
+        assertEquals(values[2], decode.invoke(null, wrapper));
+        assertEquals(true, isValid.invoke(null, wrapper));
+    }
+
     @Test
     public void shouldReturnSentinelValueWhenDecodingUnknownRepresentation() throws Exception
     {
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.dictionary.generation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IncrementalPackageOutputManagerTest
+{
+    private static final String PACKAGE = "uk.co.real_logic.artio.example";
+    private static final String SOURCE = "package uk.co.real_logic.artio.example;\n\npublic class Example {}\n";
+    private static final long OLD_MODIFIED_TIME = 1_000_000L;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteNewFilesIntoPackageDirectory() throws IOException
+    {
+        final IncrementalPackageOutputManager outputManager = newOutputManager();
+
+        write(outputManager, SOURCE);
+
+        final File file = exampleFile();
+        assertTrue(file.isFile());
+        assertEquals(SOURCE, read(file));
+        assertEquals(1, outputManager.writtenFiles());
+        assertEquals(0, outputManager.unchangedFiles());
+    }
+
+    @Test
+    public void shouldNotRewriteUnchangedFiles() throws IOException
+    {
+        write(newOutputManager(), SOURCE);
+        final File file = exampleFile();
+        assertTrue(file.setLastModified(OLD_MODIFIED_TIME));
+
+        final IncrementalPackageOutputManager outputManager = newOutputManager();
+        write(outputManager, SOURCE);
+
+        assertEquals(OLD_MODIFIED_TIME, file.lastModified());
+        assertEquals(0, outputManager.writtenFiles());
+        assertEquals(1, outputManager.unchangedFiles());
+    }
+
+    @Test
+    public void shouldRewriteChangedFiles() throws IOException
+    {
+        write(newOutputManager(), SOURCE);
+        final File file = exampleFile();
+        assertTrue(file.setLastModified(OLD_MODIFIED_TIME));
+
+        final String changedSource = SOURCE.replace("{}", "{ int field; }");
+        final IncrementalPackageOutputManager outputManager = newOutputManager();
+        write(outputManager, changedSource);
+
+        assertEquals(changedSource, read(file));
+        assertTrue(file.lastModified() != OLD_MODIFIED_TIME);
+        assertEquals(1, outputManager.writtenFiles());
+        assertEquals(0, outputManager.unchangedFiles());
+    }
+
+    private IncrementalPackageOutputManager newOutputManager()
+    {
+        return new IncrementalPackageOutputManager(temporaryFolder.getRoot().getAbsolutePath(), PACKAGE);
+    }
+
+    private File exampleFile()
+    {
+        return new File(temporaryFolder.getRoot(), "uk/co/real_logic/artio/example/Example.java");
+    }
+
+    private void write(final IncrementalPackageOutputManager outputManager, final String source) throws IOException
+    {
+        try (Writer out = outputManager.createOutput("Example"))
+        {
+            out.append(source);
+        }
+    }
+
+    private String read(final File file) throws IOException
+    {
+        return new String(Files.readAllBytes(file.toPath()), UTF_8);
+    }
+}
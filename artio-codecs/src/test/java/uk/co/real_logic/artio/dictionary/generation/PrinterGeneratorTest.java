@@ -27,6 +27,8 @@ import java.util.Map;
 import static org.agrona.generation.CompilerUtil.compileInMemory;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertSame;
 import static uk.co.real_logic.artio.dictionary.ExampleDictionary.*;
 import static uk.co.real_logic.artio.dictionary.generation.Generator.RUNTIME_REJECT_UNKNOWN_ENUM_VALUE_PROPERTY;
 
@@ -80,6 +82,21 @@ public class PrinterGeneratorTest
         assertThat(string, containsString(STRING_ENCODED_MESSAGE_EXAMPLE));
     }
 
+    @Test
+    public void shouldAppendAPrettyPrintedMessage() throws Exception
+    {
+        final Printer printer = printer();
+        buffer.putAscii(1, ENCODED_MESSAGE);
+        final StringBuilder builder = new StringBuilder("prefix ");
+
+        final StringBuilder result = printer.appendTo(
+            builder, buffer, 1, ENCODED_MESSAGE.length(), HEARTBEAT_TYPE);
+
+        assertSame(builder, result);
+        assertThat(builder.toString(), startsWith("prefix "));
+        assertThat(builder.toString(), containsString(STRING_ENCODED_MESSAGE_EXAMPLE));
+    }
+
     private Printer printer()
         throws InstantiationException, IllegalAccessException, NoSuchMethodException, InvocationTargetException
     {
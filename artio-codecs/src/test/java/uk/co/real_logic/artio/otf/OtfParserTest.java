@@ -120,6 +120,40 @@ public class OtfParserTest
         inOrder.verifyNoMoreInteractions();
     }
 
+    @Theory
+    public void onlyNotifiesAcceptorOfFilteredFields(final int offset)
+    {
+        final OtfParser parser = new OtfParser(mockAcceptor, groupToField, new OtfTagFilter(34, 35, 999));
+        putMessage(offset);
+
+        parser.onMessage(buffer, offset, MSG_LEN);
+
+        //35=D
+        inOrder.verify(mockAcceptor).onField(eq(35), any(), eq(offset + 19), eq(1));
+        //34=4
+        inOrder.verify(mockAcceptor).onField(eq(34), any(), eq(offset + 24), eq(1));
+        inOrder.verify(mockAcceptor).onComplete();
+        verify(mockAcceptor, times(2)).onField(anyInt(), any(), anyInt(), anyInt());
+    }
+
+    @Theory
+    public void stopsParsingOnceAllFilteredFieldsSeen(final int offset)
+    {
+        final OtfParser parser = new OtfParser(mockAcceptor, groupToField, new OtfTagFilter(34, 35));
+        putMessage(offset);
+        // Corrupt the checksum, which isn't validated when parsing stops early.
+        final int lastChecksumDigit = offset + MSG_LEN - 2;
+        buffer.putByte(lastChecksumDigit, (byte)(buffer.getByte(lastChecksumDigit) == '9' ? '0' : '9'));
+
+        parser.onMessage(buffer, offset, MSG_LEN);
+
+        inOrder.verify(mockAcceptor).onField(eq(35), any(), eq(offset + 19), eq(1));
+        inOrder.verify(mockAcceptor).onField(eq(34), any(), eq(offset + 24), eq(1));
+        inOrder.verify(mockAcceptor).onComplete();
+        verify(mockAcceptor, times(2)).onField(anyInt(), any(), anyInt(), anyInt());
+        verify(mockAcceptor, never()).onError(any(), anyLong(), anyInt(), any());
+    }
+
     @Theory
     public void notifiesAcceptorOfValidMessageEnd(final int offset)
     {
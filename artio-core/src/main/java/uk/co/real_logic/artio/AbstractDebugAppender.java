@@ -15,6 +15,8 @@
  */
 package uk.co.real_logic.artio;
 
+import org.agrona.DirectBuffer;
+
 /**
  * API to enable integrate the DebugLogger API into log4j / slf4j. Extend this class in
  * order to implement custom logging backends.
@@ -24,6 +26,24 @@ public abstract class AbstractDebugAppender
     public abstract class ThreadLocalAppender
     {
         public abstract void log(LogTag logTag, StringBuilder stringBuilder);
+
+        /**
+         * Log a prefix followed by the raw bytes of a buffer, for example a FIX message. Appenders that can record
+         * the bytes without formatting them on the calling thread should override this method.
+         *
+         * @param logTag the tag that the message is logged under.
+         * @param prefix the text that precedes the bytes.
+         * @param buffer the buffer containing the bytes.
+         * @param offset the offset within the buffer that the bytes start at.
+         * @param length the number of bytes.
+         * @return true if the message has been logged, false if it should be formatted and passed to
+         * {@link #log(LogTag, StringBuilder)} instead.
+         */
+        public boolean log(
+            final LogTag logTag, final String prefix, final DirectBuffer buffer, final int offset, final int length)
+        {
+            return false;
+        }
     }
 
     public abstract ThreadLocalAppender makeLocalAppender();
@@ -100,6 +100,17 @@ public class CommonConfiguration
      * print debug logging. If none set then defaults to {@link PrintingDebugAppender}
      */
     public static final String APPENDER_CLASS_PROPERTY = "fix.core.debug.appender";
+    /**
+     * Property name for the file that the {@link RingBufferDebugAppender} maps its ring buffer into, so that it can
+     * be drained by a {@link DebugLogRingBufferReader} in another process. If not set then the ring buffer is
+     * allocated in memory and drained by a daemon thread within the process.
+     */
+    public static final String DEBUG_RING_BUFFER_FILE_PROPERTY = "fix.core.debug.ring_buffer_file";
+    /**
+     * Property name for the capacity, in bytes, of the {@link RingBufferDebugAppender}'s ring buffer. Must be a power
+     * of two.
+     */
+    public static final String DEBUG_RING_BUFFER_CAPACITY_PROPERTY = "fix.core.debug.ring_buffer_capacity";
     /**
      * Property name for the period at which histogram intervals are polled and logged
      */
@@ -108,6 +119,16 @@ public class CommonConfiguration
      * Property name for the file to which histogram intervals are logged
      */
     public static final String HISTOGRAM_LOGGING_FILE_PROPERTY = "fix.benchmark.histogram_file";
+    /**
+     * Property name for the flag to enable or disable duty cycle monitoring, see
+     * {@link #dutyCycleMonitoring(boolean)}.
+     */
+    public static final String DUTY_CYCLE_MONITORING_PROPERTY = "fix.core.duty_cycle_monitoring";
+    /**
+     * Property name for the duty cycle time above which a duty cycle is counted as a stall, see
+     * {@link #dutyCycleStallThresholdInNs(long)}.
+     */
+    public static final String DUTY_CYCLE_STALL_THRESHOLD_IN_NS_PROPERTY = "fix.core.duty_cycle_stall_threshold_ns";
 
     /**
      * Property name for character to separate debug logging of FIX messages
@@ -180,6 +201,9 @@ public class CommonConfiguration
 
     public static final String DEBUG_FILE = System.getProperty(DEBUG_FILE_PROPERTY);
     public static final String APPENDER_CLASS = System.getProperty(APPENDER_CLASS_PROPERTY);
+    public static final String DEBUG_RING_BUFFER_FILE = System.getProperty(DEBUG_RING_BUFFER_FILE_PROPERTY);
+    public static final int DEBUG_RING_BUFFER_CAPACITY =
+        getInteger(DEBUG_RING_BUFFER_CAPACITY_PROPERTY, 8 * 1024 * 1024);
     public static final boolean TIME_MESSAGES = Boolean.getBoolean(TIME_MESSAGES_PROPERTY);
     public static final boolean FORCE_WRITES = Boolean.getBoolean(FORCE_WRITES_MESSAGES_PROPERTY);
 
@@ -238,6 +262,8 @@ public class CommonConfiguration
     private long histogramPollPeriodInMs =
         Long.getLong(HISTOGRAM_POLL_PERIOD_IN_MS_PROPERTY, DEFAULT_HISTOGRAM_POLL_PERIOD_IN_MS);
     private String histogramLoggingFile = null;
+    private boolean dutyCycleMonitoring = Boolean.getBoolean(DUTY_CYCLE_MONITORING_PROPERTY);
+    private long dutyCycleStallThresholdInNs = Long.getLong(DUTY_CYCLE_STALL_THRESHOLD_IN_NS_PROPERTY, 0);
     private HistogramHandler histogramHandler;
     private String agentNamePrefix = DEFAULT_NAME_PREFIX;
     private int inboundLibraryStream = DEFAULT_INBOUND_LIBRARY_STREAM;
@@ -466,6 +492,35 @@ public class CommonConfiguration
         return this;
     }
 
+    /**
+     * Enables duty cycle monitoring of the framer, indexers and library poller. Each duty cycle is timed into a
+     * histogram and the maximum duty cycle time and the 99.9th percentile of the last
+     * {@link #histogramPollPeriodInMs(long)} are published as Aeron counters.
+     *
+     * @param dutyCycleMonitoring true to enable duty cycle monitoring.
+     * @return this
+     */
+    public CommonConfiguration dutyCycleMonitoring(final boolean dutyCycleMonitoring)
+    {
+        this.dutyCycleMonitoring = dutyCycleMonitoring;
+        return this;
+    }
+
+    /**
+     * Sets the duty cycle time above which a monitored duty cycle is counted as a stall. The steps of each duty cycle
+     * are then timed and the slowest step of the most recent stall is published as an Aeron counter, whose label
+     * lists the names of the steps. Only used when {@link #dutyCycleMonitoring(boolean)} is enabled, 0 disables
+     * stall detection.
+     *
+     * @param dutyCycleStallThresholdInNs the duty cycle time above which a duty cycle is a stall.
+     * @return this
+     */
+    public CommonConfiguration dutyCycleStallThresholdInNs(final long dutyCycleStallThresholdInNs)
+    {
+        this.dutyCycleStallThresholdInNs = dutyCycleStallThresholdInNs;
+        return this;
+    }
+
     public CommonConfiguration histogramHandler(final HistogramHandler histogramHandler)
     {
         this.histogramHandler = histogramHandler;
@@ -647,6 +702,16 @@ public class CommonConfiguration
         return histogramHandler;
     }
 
+    public boolean dutyCycleMonitoring()
+    {
+        return dutyCycleMonitoring;
+    }
+
+    public long dutyCycleStallThresholdInNs()
+    {
+        return dutyCycleStallThresholdInNs;
+    }
+
     public String agentNamePrefix()
     {
         return agentNamePrefix;
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.IoUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+
+import java.io.File;
+import java.io.PrintStream;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static uk.co.real_logic.artio.CommonConfiguration.DEBUG_LOGGING_SEPARATOR;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_DEBUG_LOGGING_SEPARATOR;
+import static uk.co.real_logic.artio.RingBufferDebugAppender.*;
+
+/**
+ * Drains the records written by a {@link RingBufferDebugAppender}, formatting them in the same way as the
+ * {@link PrintingDebugAppender}.
+ */
+public class DebugLogRingBufferReader implements Agent, MessageHandler
+{
+    private static final int READ_LIMIT = 100;
+    private static final LogTag[] LOG_TAGS = LogTag.values();
+
+    private final ExpandableArrayBuffer line = new ExpandableArrayBuffer();
+    private final RingBuffer ringBuffer;
+    private final PrintStream output;
+
+    public DebugLogRingBufferReader(final RingBuffer ringBuffer, final PrintStream output)
+    {
+        this.ringBuffer = ringBuffer;
+        this.output = output;
+    }
+
+    public int doWork()
+    {
+        final int read = ringBuffer.read(this, READ_LIMIT);
+        if (read > 0)
+        {
+            output.flush();
+        }
+
+        return read;
+    }
+
+    public String roleName()
+    {
+        return "debug-log-reader";
+    }
+
+    public void onMessage(final int msgTypeId, final MutableDirectBuffer buffer, final int index, final int length)
+    {
+        final ExpandableArrayBuffer line = this.line;
+        final int threadNameLength = buffer.getInt(index + THREAD_NAME_LENGTH_OFFSET);
+        final int messageOffset = index + THREAD_NAME_OFFSET + threadNameLength;
+        final int messageLength = length - (THREAD_NAME_OFFSET + threadNameLength);
+
+        int position = line.putLongAscii(0, buffer.getLong(index + TIMESTAMP_OFFSET));
+        line.putByte(position++, (byte)':');
+        line.putBytes(position, buffer, index + THREAD_NAME_OFFSET, threadNameLength);
+        position += threadNameLength;
+        final char[] logStr = LOG_TAGS[msgTypeId - 1].logStr();
+        for (final char character : logStr)
+        {
+            line.putByte(position++, (byte)character);
+        }
+
+        final int startOfMessage = position;
+        line.putBytes(position, buffer, messageOffset, messageLength);
+        position += messageLength;
+        substituteSeparator(line, startOfMessage, position);
+
+        output.write(line.byteArray(), 0, position);
+    }
+
+    private static void substituteSeparator(final MutableDirectBuffer buffer, final int offset, final int limit)
+    {
+        if (DEBUG_LOGGING_SEPARATOR != DEFAULT_DEBUG_LOGGING_SEPARATOR)
+        {
+            for (int i = offset; i < limit; i++)
+            {
+                if (buffer.getByte(i) == DEFAULT_DEBUG_LOGGING_SEPARATOR)
+                {
+                    buffer.putByte(i, DEBUG_LOGGING_SEPARATOR);
+                }
+            }
+        }
+    }
+
+    /**
+     * Prints the records from a ring buffer file written by a {@link RingBufferDebugAppender}, see
+     * {@link CommonConfiguration#DEBUG_RING_BUFFER_FILE_PROPERTY}, to standard output.
+     *
+     * @param args the path of the ring buffer file, optionally followed by --follow in order to keep printing
+     *             records as they're written.
+     */
+    public static void main(final String[] args)
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Usage: DebugLogRingBufferReader <ringBufferFile> [--follow]");
+            System.exit(-1);
+        }
+
+        final boolean follow = args.length > 1 && "--follow".equals(args[1]);
+        final UnsafeBuffer buffer = new UnsafeBuffer(IoUtil.mapExistingFile(new File(args[0]), "debug log"));
+        final DebugLogRingBufferReader reader = new DebugLogRingBufferReader(
+            new ManyToOneRingBuffer(buffer), System.out);
+        final IdleStrategy idleStrategy = new BackoffIdleStrategy(1, 1, 1, MILLISECONDS.toNanos(1));
+
+        while (true)
+        {
+            final int read = reader.doWork();
+            if (read == 0 && !follow)
+            {
+                break;
+            }
+
+            idleStrategy.idle(read);
+        }
+
+        IoUtil.unmap(buffer.byteBuffer());
+    }
+}
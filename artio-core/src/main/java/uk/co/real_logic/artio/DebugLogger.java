@@ -44,7 +44,19 @@ public final class DebugLogger
     {
         final ServiceLoader<AbstractDebugAppender> loader = ServiceLoader.load(AbstractDebugAppender.class);
         final Iterator<AbstractDebugAppender> it = loader.iterator();
-        if (it.hasNext())
+        if (APPENDER_CLASS != null)
+        {
+            try
+            {
+                APPENDER = (AbstractDebugAppender)Class.forName(APPENDER_CLASS).getConstructor().newInstance();
+            }
+            catch (final ReflectiveOperationException ex)
+            {
+                throw new IllegalStateException(
+                    "Unable to configure DebugLogger, please check " + APPENDER_CLASS_PROPERTY, ex);
+            }
+        }
+        else if (it.hasNext())
         {
             APPENDER = it.next();
         }
@@ -1228,6 +1240,11 @@ public final class DebugLogger
         public void log(
             final LogTag tag, final String prefixString, final DirectBuffer buffer, final int offset, final int length)
         {
+            if (appender.log(tag, prefixString, buffer, offset, length))
+            {
+                return;
+            }
+
             appendStart();
             builder.append(prefixString);
 
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.CloseHelper;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.status.AtomicCounter;
+
+/**
+ * Wraps an {@link Agent} in order to count the duty cycles in which it did work, the duty cycles in which it was idle
+ * and the longest time that a single duty cycle took. The counters are owned by the agent and closed along with it.
+ */
+public class DutyCycleTrackingAgent implements Agent
+{
+    private final Agent delegate;
+    private final NanoClock clock;
+    private final AtomicCounter workCount;
+    private final AtomicCounter idleCount;
+    private final AtomicCounter maxCycleTime;
+
+    public DutyCycleTrackingAgent(
+        final Agent delegate,
+        final NanoClock clock,
+        final AtomicCounter workCount,
+        final AtomicCounter idleCount,
+        final AtomicCounter maxCycleTime)
+    {
+        this.delegate = delegate;
+        this.clock = clock;
+        this.workCount = workCount;
+        this.idleCount = idleCount;
+        this.maxCycleTime = maxCycleTime;
+    }
+
+    /**
+     * Wrap an agent with counters allocated from a {@link FixCounters}.
+     *
+     * @param delegate the agent to wrap.
+     * @param clock the clock used to time each duty cycle.
+     * @param fixCounters the counters to allocate from.
+     * @return the wrapped agent.
+     */
+    public static DutyCycleTrackingAgent of(final Agent delegate, final NanoClock clock, final FixCounters fixCounters)
+    {
+        final String roleName = delegate.roleName();
+        return new DutyCycleTrackingAgent(
+            delegate,
+            clock,
+            fixCounters.agentWorkCount(roleName),
+            fixCounters.agentIdleCount(roleName),
+            fixCounters.agentMaxCycleTime(roleName));
+    }
+
+    public void onStart()
+    {
+        delegate.onStart();
+    }
+
+    public int doWork() throws Exception
+    {
+        final long startTime = clock.nanoTime();
+        final int workCount = delegate.doWork();
+        maxCycleTime.proposeMaxOrdered(clock.nanoTime() - startTime);
+
+        if (workCount > 0)
+        {
+            this.workCount.incrementOrdered();
+        }
+        else
+        {
+            idleCount.incrementOrdered();
+        }
+
+        return workCount;
+    }
+
+    public void onClose()
+    {
+        try
+        {
+            delegate.onClose();
+        }
+        finally
+        {
+            CloseHelper.closeAll(workCount, idleCount, maxCycleTime);
+        }
+    }
+
+    public String roleName()
+    {
+        return delegate.roleName();
+    }
+}
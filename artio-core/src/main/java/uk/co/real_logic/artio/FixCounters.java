@@ -36,7 +36,20 @@ public class FixCounters implements AutoCloseable
         BYTES_IN_BUFFER_TYPE_ID(10_004),
         INVALID_LIBRARY_ATTEMPTS_TYPE_ID(10_005),
         SENT_MSG_SEQ_NO_TYPE_ID(10_006),
-        RECV_MSG_SEQ_NO_TYPE_ID(10_007);
+        RECV_MSG_SEQ_NO_TYPE_ID(10_007),
+        LIBRARY_FRAGMENTS_POLLED_TYPE_ID(10_008),
+        LIBRARY_POLL_TIME_TYPE_ID(10_009),
+        BYTES_READ_TYPE_ID(10_010),
+        RECEIVER_BUFFER_SIZE_TYPE_ID(10_011),
+        INDEX_CATCHUP_TIME_TYPE_ID(10_012),
+        INDEX_CATCHUP_BYTES_TYPE_ID(10_013),
+        AGENT_WORK_COUNT_TYPE_ID(10_014),
+        AGENT_IDLE_COUNT_TYPE_ID(10_015),
+        AGENT_MAX_CYCLE_TIME_TYPE_ID(10_016),
+        DUTY_CYCLE_P999_TIME_TYPE_ID(10_017),
+        DUTY_CYCLE_STALLS_TYPE_ID(10_018),
+        DUTY_CYCLE_STALL_STEP_TYPE_ID(10_019),
+        DUTY_CYCLE_MAX_TIME_TYPE_ID(10_020);
 
         final int id;
 
@@ -89,6 +102,18 @@ public class FixCounters implements AutoCloseable
                 "Messages Read from " + address + " id = " + connectionId);
     }
 
+    public AtomicCounter bytesRead(final long connectionId, final String address)
+    {
+        return newCounter(FixCountersId.BYTES_READ_TYPE_ID.id(),
+                "Bytes Read from " + address + " id = " + connectionId);
+    }
+
+    public AtomicCounter receiverBufferSize(final long connectionId, final String address)
+    {
+        return newCounter(FixCountersId.RECEIVER_BUFFER_SIZE_TYPE_ID.id(),
+                "Receiver Buffer Size for " + address + " id = " + connectionId);
+    }
+
     public AtomicCounter bytesInBuffer(final long connectionId, final String address)
     {
         return newCounter(FixCountersId.BYTES_IN_BUFFER_TYPE_ID.id(),
@@ -111,6 +136,77 @@ public class FixCounters implements AutoCloseable
         return newCounter(FixCountersId.RECV_MSG_SEQ_NO_TYPE_ID.id(), "Last Received MsgSeqNo for " + connectionId);
     }
 
+    public AtomicCounter libraryFragmentsPolled(final int libraryId, final int aeronSessionId)
+    {
+        return newCounter(FixCountersId.LIBRARY_FRAGMENTS_POLLED_TYPE_ID.id(),
+                "Outbound fragments polled from library " + libraryId + " aeronSessionId = " + aeronSessionId);
+    }
+
+    public AtomicCounter libraryPollTime(final int libraryId, final int aeronSessionId)
+    {
+        return newCounter(FixCountersId.LIBRARY_POLL_TIME_TYPE_ID.id(),
+                "Outbound poll time in ns for library " + libraryId + " aeronSessionId = " + aeronSessionId);
+    }
+
+    public AtomicCounter indexCatchupTime(final String indexerName)
+    {
+        return newCounter(FixCountersId.INDEX_CATCHUP_TIME_TYPE_ID.id(),
+                "Startup index catchup time in ns for " + indexerName);
+    }
+
+    public AtomicCounter indexCatchupBytes(final String indexerName)
+    {
+        return newCounter(FixCountersId.INDEX_CATCHUP_BYTES_TYPE_ID.id(),
+                "Startup index catchup bytes replayed for " + indexerName);
+    }
+
+    public AtomicCounter agentWorkCount(final String roleName)
+    {
+        return newCounter(FixCountersId.AGENT_WORK_COUNT_TYPE_ID.id(),
+                "Duty cycles that did work for " + roleName);
+    }
+
+    public AtomicCounter agentIdleCount(final String roleName)
+    {
+        return newCounter(FixCountersId.AGENT_IDLE_COUNT_TYPE_ID.id(),
+                "Duty cycles that were idle for " + roleName);
+    }
+
+    public AtomicCounter agentMaxCycleTime(final String roleName)
+    {
+        return newCounter(FixCountersId.AGENT_MAX_CYCLE_TIME_TYPE_ID.id(),
+                "Max duty cycle time in ns for " + roleName);
+    }
+
+    public AtomicCounter dutyCycleMaxTime(final String name)
+    {
+        return newCounter(FixCountersId.DUTY_CYCLE_MAX_TIME_TYPE_ID.id(),
+                "Max monitored duty cycle time in ns for " + name);
+    }
+
+    public AtomicCounter dutyCycleP999Time(final String name)
+    {
+        return newCounter(FixCountersId.DUTY_CYCLE_P999_TIME_TYPE_ID.id(),
+                "99.9th percentile duty cycle time in ns over the last interval for " + name);
+    }
+
+    public AtomicCounter dutyCycleStalls(final String name)
+    {
+        return newCounter(FixCountersId.DUTY_CYCLE_STALLS_TYPE_ID.id(),
+                "Stalled duty cycles for " + name);
+    }
+
+    public AtomicCounter dutyCycleStallStep(final String name, final String[] stepNames)
+    {
+        final StringBuilder label = new StringBuilder("Slowest step of last stalled duty cycle for ").append(name);
+        for (int i = 0; i < stepNames.length; i++)
+        {
+            label.append(i == 0 ? " " : ",").append(i).append('=').append(stepNames[i]);
+        }
+
+        return newCounter(FixCountersId.DUTY_CYCLE_STALL_STEP_TYPE_ID.id(), label.toString());
+    }
+
     private AtomicCounter newCounter(final int typeId, final String label)
     {
         final Counter counter = aeron.addCounter(typeId, label);
@@ -20,6 +20,7 @@ import io.aeron.archive.client.AeronArchive;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.*;
 import org.agrona.concurrent.errors.DistinctErrorLog;
+import uk.co.real_logic.artio.timing.DutyCycleMonitors;
 import uk.co.real_logic.artio.timing.HistogramLogAgent;
 import uk.co.real_logic.artio.timing.Timer;
 
@@ -45,6 +46,7 @@ public class GatewayProcess implements AutoCloseable
     protected CommonConfiguration configuration;
     protected MonitoringFile monitoringFile;
     protected FixCounters fixCounters;
+    protected DutyCycleMonitors dutyCycleMonitors;
     protected ErrorHandler errorHandler;
     protected Aeron aeron;
     protected Agent monitoringAgent;
@@ -78,6 +80,8 @@ public class GatewayProcess implements AutoCloseable
         aeron = Aeron.connect(context);
         CloseChecker.onOpen(context.aeronDirectoryName(), aeron);
         fixCounters = new FixCounters(aeron);
+        dutyCycleMonitors = new DutyCycleMonitors(
+            configuration, fixCounters, Clock.systemNanoTime(), new SystemEpochClock());
     }
 
     public Agent conductorAgent()
@@ -149,6 +153,11 @@ public class GatewayProcess implements AutoCloseable
                 configuration.agentNamePrefix()));
         }
 
+        if (dutyCycleMonitors.isEnabled())
+        {
+            agents.add(dutyCycleMonitors);
+        }
+
         if (configuration.printErrorMessages())
         {
             agents.add(new ErrorPrinter(
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.collections.IntArrayList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Sets thread affinity on Linux by running {@code taskset} against the id of the calling thread, which is found
+ * through {@code /proc/thread-self}. This avoids a native dependency at the cost of starting a process each time a
+ * thread is pinned, so should only be used when a thread starts. It relies on {@code taskset}, from util-linux, being
+ * on the {@code PATH}, which isn't the case on some minimal container images. If that's a problem then implement
+ * {@link ThreadAffinity} with a library that calls {@code sched_setaffinity} directly.
+ *
+ * Nothing uses this by default: it has to be passed to a scheduler explicitly.
+ */
+public class LinuxThreadAffinity implements ThreadAffinity
+{
+    private static final String TASKSET = "taskset";
+    private static final Path THREAD_SELF = Paths.get("/proc/thread-self");
+    private static final Path ISOLATED_CPUS = Paths.get("/sys/devices/system/cpu/isolated");
+
+    private final String taskset;
+
+    /**
+     * Create the thread affinity, checking that it can be used on this system.
+     *
+     * @throws IllegalStateException if there's no {@code taskset} on the {@code PATH} or no
+     *                               {@code /proc/thread-self}.
+     */
+    public LinuxThreadAffinity()
+    {
+        this(System.getenv("PATH"), THREAD_SELF);
+    }
+
+    LinuxThreadAffinity(final String path, final Path threadSelf)
+    {
+        taskset = findOnPath(path, TASKSET);
+        if (taskset == null)
+        {
+            throw new IllegalStateException(
+                "Unable to set thread affinity: no " + TASKSET + " executable on the PATH (" + path + "), " +
+                "install util-linux or use a ThreadAffinity that calls sched_setaffinity");
+        }
+
+        if (!Files.exists(threadSelf))
+        {
+            throw new IllegalStateException("Unable to set thread affinity: " + threadSelf + " doesn't exist");
+        }
+    }
+
+    /**
+     * Pin the calling thread by forking a {@code taskset} process and waiting for it to exit. This blocks the thread
+     * for the time taken to start a process, typically a few milliseconds, so only call it when a thread starts and
+     * never from a duty cycle.
+     *
+     * @param cpus the CPUs to pin the calling thread to.
+     * @throws IOException if the {@code taskset} process can't be started.
+     * @throws InterruptedException if the thread is interrupted whilst waiting for {@code taskset} to exit.
+     */
+    public void pinCurrentThread(final int[] cpus) throws IOException, InterruptedException
+    {
+        if (cpus.length == 0)
+        {
+            throw new IllegalArgumentException("Unable to pin a thread to an empty set of CPUs");
+        }
+
+        final String threadId = Files.readSymbolicLink(THREAD_SELF).getFileName().toString();
+        final Process process = new ProcessBuilder(taskset, "-p", "-c", cpuList(cpus), threadId)
+            .redirectErrorStream(true)
+            .start();
+        final String output = new String(readAll(process), StandardCharsets.US_ASCII);
+        final int exitCode = process.waitFor();
+        if (exitCode != 0)
+        {
+            throw new IllegalStateException(
+                "Unable to pin thread " + threadId + " to CPUs " + cpuList(cpus) + ": " + output.trim());
+        }
+    }
+
+    /**
+     * Get the CPUs that have been isolated from the kernel's scheduler, for example with the {@code isolcpus} boot
+     * parameter. These are good candidates for pinning latency sensitive agents to.
+     *
+     * @return the ids of the isolated CPUs, empty if there are none or they can't be read.
+     */
+    public static int[] isolatedCpus()
+    {
+        try
+        {
+            return parseCpuList(new String(Files.readAllBytes(ISOLATED_CPUS), StandardCharsets.US_ASCII));
+        }
+        catch (final IOException ex)
+        {
+            return new int[0];
+        }
+    }
+
+    /**
+     * Parse a Linux CPU list, for example {@code 1,3-5}.
+     *
+     * @param cpuList the CPU list to parse.
+     * @return the ids of the CPUs in the list.
+     */
+    public static int[] parseCpuList(final String cpuList)
+    {
+        final IntArrayList cpus = new IntArrayList();
+        for (final String range : cpuList.trim().split(","))
+        {
+            if (range.isEmpty())
+            {
+                continue;
+            }
+
+            final int dash = range.indexOf('-');
+            if (dash == -1)
+            {
+                cpus.addInt(Integer.parseInt(range));
+            }
+            else
+            {
+                final int last = Integer.parseInt(range.substring(dash + 1));
+                for (int cpu = Integer.parseInt(range.substring(0, dash)); cpu <= last; cpu++)
+                {
+                    cpus.addInt(cpu);
+                }
+            }
+        }
+
+        return cpus.toIntArray();
+    }
+
+    static String findOnPath(final String path, final String executable)
+    {
+        if (path == null)
+        {
+            return null;
+        }
+
+        for (final String directory : path.split(File.pathSeparator))
+        {
+            if (directory.isEmpty())
+            {
+                continue;
+            }
+
+            final File file = new File(directory, executable);
+            if (file.isFile() && file.canExecute())
+            {
+                return file.getAbsolutePath();
+            }
+        }
+
+        return null;
+    }
+
+    static String cpuList(final int[] cpus)
+    {
+        final StringBuilder builder = new StringBuilder();
+        for (final int cpu : cpus)
+        {
+            if (builder.length() > 0)
+            {
+                builder.append(',');
+            }
+            builder.append(cpu);
+        }
+
+        return builder.toString();
+    }
+
+    private static byte[] readAll(final Process process) throws IOException
+    {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[256];
+        try (InputStream input = process.getInputStream())
+        {
+            int read;
+            while ((read = input.read(buffer)) != -1)
+            {
+                output.write(buffer, 0, read);
+            }
+        }
+
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.BackoffIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.TRAILER_LENGTH;
+import static uk.co.real_logic.artio.CommonConfiguration.*;
+
+/**
+ * A debug appender that copies each log record, unformatted, into a {@link ManyToOneRingBuffer} rather than writing
+ * it on the logging thread. FIX messages logged with a prefix are copied as raw bytes, so the logging thread only
+ * pays for copying the record into a per thread buffer and then into the ring buffer. Records are formatted and
+ * printed by a {@link DebugLogRingBufferReader}.
+ *
+ * If {@link CommonConfiguration#DEBUG_RING_BUFFER_FILE_PROPERTY} is set then the ring buffer is mapped into that
+ * file and left to be drained by a reader in another process, for example by running
+ * {@link DebugLogRingBufferReader#main(String[])}, otherwise a daemon thread in this process drains it to the
+ * {@link CommonConfiguration#DEBUG_FILE_PROPERTY} or standard output.
+ *
+ * Records are dropped rather than blocking the logging thread when the ring buffer is full, see
+ * {@link #droppedRecords()}.
+ *
+ * Each record's type id is the ordinal of its {@link LogTag} plus one. It contains the epoch millisecond timestamp,
+ * the length and ASCII bytes of the thread name and then the ASCII bytes of the message.
+ */
+public class RingBufferDebugAppender extends AbstractDebugAppender
+{
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int THREAD_NAME_LENGTH_OFFSET = TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    static final int THREAD_NAME_OFFSET = THREAD_NAME_LENGTH_OFFSET + SIZE_OF_INT;
+
+    private static final int SCRATCH_BUFFER_INITIAL_CAPACITY = 1024;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(US_ASCII);
+
+    private final RingBuffer ringBuffer;
+    private final AtomicLong droppedRecords = new AtomicLong();
+
+    public RingBufferDebugAppender()
+    {
+        this(newBuffer());
+
+        if (DEBUG_RING_BUFFER_FILE == null)
+        {
+            final DebugLogRingBufferReader reader = new DebugLogRingBufferReader(ringBuffer, makeOutput());
+            final AgentRunner runner = new AgentRunner(
+                new BackoffIdleStrategy(1, 1, 1, MICROSECONDS.toNanos(100)),
+                Throwable::printStackTrace,
+                null,
+                reader);
+            AgentRunner.startOnThread(runner, (task) ->
+            {
+                final Thread thread = new Thread(task);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Create an appender that writes to a ring buffer that the caller is responsible for draining.
+     *
+     * @param buffer the buffer to use for the ring buffer, its capacity must be a power of two plus
+     *               {@link org.agrona.concurrent.ringbuffer.RingBufferDescriptor#TRAILER_LENGTH}.
+     */
+    public RingBufferDebugAppender(final AtomicBuffer buffer)
+    {
+        ringBuffer = new ManyToOneRingBuffer(buffer);
+    }
+
+    /**
+     * Get the number of records that have been dropped because the ring buffer was full or a record was too long.
+     *
+     * @return the number of records that have been dropped.
+     */
+    public long droppedRecords()
+    {
+        return droppedRecords.get();
+    }
+
+    public ThreadLocalAppender makeLocalAppender()
+    {
+        return new RingBufferThreadLocalAppender();
+    }
+
+    // Records are assembled in a buffer owned by the logging thread and then copied into the ring buffer with a
+    // single write.
+    class RingBufferThreadLocalAppender extends ThreadLocalAppender
+    {
+        private final byte[] threadName = DebugLogger.threadName().getBytes(US_ASCII);
+        private final ExpandableArrayBuffer scratchBuffer = new ExpandableArrayBuffer(SCRATCH_BUFFER_INITIAL_CAPACITY);
+
+        public void log(final LogTag logTag, final StringBuilder stringBuilder)
+        {
+            final int messageLength = stringBuilder.length();
+            final ExpandableArrayBuffer scratchBuffer = this.scratchBuffer;
+            final int messageOffset = putHeader(scratchBuffer);
+            for (int i = 0; i < messageLength; i++)
+            {
+                scratchBuffer.putByte(messageOffset + i, (byte)stringBuilder.charAt(i));
+            }
+
+            write(logTag, messageOffset + messageLength);
+        }
+
+        public boolean log(
+            final LogTag logTag, final String prefix, final DirectBuffer buffer, final int offset, final int length)
+        {
+            final ExpandableArrayBuffer scratchBuffer = this.scratchBuffer;
+            int messageOffset = putHeader(scratchBuffer);
+            messageOffset += scratchBuffer.putStringWithoutLengthAscii(messageOffset, prefix);
+            scratchBuffer.putBytes(messageOffset, buffer, offset, length);
+            messageOffset += length;
+            scratchBuffer.putBytes(messageOffset, LINE_SEPARATOR);
+
+            write(logTag, messageOffset + LINE_SEPARATOR.length);
+            return true;
+        }
+
+        private void write(final LogTag logTag, final int length)
+        {
+            if (length > ringBuffer.maxMsgLength() || !ringBuffer.write(logTag.ordinal() + 1, scratchBuffer, 0, length))
+            {
+                droppedRecords.incrementAndGet();
+            }
+        }
+
+        private int putHeader(final ExpandableArrayBuffer buffer)
+        {
+            final byte[] threadName = this.threadName;
+            buffer.putLong(TIMESTAMP_OFFSET, System.currentTimeMillis());
+            buffer.putInt(THREAD_NAME_LENGTH_OFFSET, threadName.length);
+            buffer.putBytes(THREAD_NAME_OFFSET, threadName);
+            return THREAD_NAME_OFFSET + threadName.length;
+        }
+    }
+
+    private static AtomicBuffer newBuffer()
+    {
+        final int length = DEBUG_RING_BUFFER_CAPACITY + TRAILER_LENGTH;
+        if (DEBUG_RING_BUFFER_FILE == null)
+        {
+            return new UnsafeBuffer(ByteBuffer.allocateDirect(length));
+        }
+
+        final File file = new File(DEBUG_RING_BUFFER_FILE);
+        IoUtil.deleteIfExists(file);
+        return new UnsafeBuffer(IoUtil.mapNewFile(file, length));
+    }
+
+    private static PrintStream makeOutput()
+    {
+        if (DEBUG_FILE == null)
+        {
+            return System.out;
+        }
+
+        try
+        {
+            return new PrintStream(new FileOutputStream(DEBUG_FILE));
+        }
+        catch (final IOException ex)
+        {
+            throw new IllegalStateException("Unable to configure DebugLogger, please check " + DEBUG_FILE_PROPERTY, ex);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.ErrorHandler;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Strategy for restricting the thread that an agent runs on to a set of CPUs. Implement this in order to use an
+ * affinity library of your choice, {@link LinuxThreadAffinity} is provided for Linux systems.
+ */
+@FunctionalInterface
+public interface ThreadAffinity
+{
+    /**
+     * Restrict the calling thread to run on the given CPUs.
+     *
+     * @param cpus the ids of the CPUs that the calling thread may run on.
+     * @throws Exception if the affinity can't be set, the thread then carries on without it.
+     */
+    void pinCurrentThread(int[] cpus) throws Exception;
+
+    /**
+     * Wrap a thread factory so that each thread it creates pins itself to a set of CPUs when it starts.
+     *
+     * @param threadFactory the thread factory to wrap.
+     * @param cpus the ids of the CPUs that each thread may run on, or null to not pin threads.
+     * @param errorHandler the handler for failures to pin a thread.
+     * @return the wrapped thread factory.
+     */
+    default ThreadFactory pinningThreadFactory(
+        final ThreadFactory threadFactory, final int[] cpus, final ErrorHandler errorHandler)
+    {
+        if (cpus == null)
+        {
+            return threadFactory;
+        }
+
+        return (runnable) -> threadFactory.newThread(() ->
+        {
+            try
+            {
+                pinCurrentThread(cpus);
+            }
+            catch (final Exception ex)
+            {
+                errorHandler.onError(ex);
+            }
+
+            runnable.run();
+        });
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import io.aeron.Aeron;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.CompositeAgent;
+import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.SystemNanoClock;
+import uk.co.real_logic.artio.DutyCycleTrackingAgent;
+import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.LinuxThreadAffinity;
+import uk.co.real_logic.artio.ThreadAffinity;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.agrona.concurrent.AgentRunner.startOnThread;
+
+/**
+ * A scheduler that can pin each of the engine's agents to a set of CPUs, for example to isolated cores, see
+ * {@link LinuxThreadAffinity#isolatedCpus()}.
+ *
+ * Agents that are given equal sets of CPUs are composed onto a single thread, so, for example, the indexer and
+ * monitoring agents can share a core whilst the framer has a core of its own. Agents that aren't given a set of CPUs
+ * each run on their own unpinned thread, as they do with the {@link DefaultEngineScheduler}. A thread that runs the
+ * framer uses the {@link EngineConfiguration#framerIdleStrategy()}, otherwise a thread that runs the indexer uses
+ * the {@link EngineConfiguration#archiverIdleStrategy()}.
+ *
+ * Each agent's duty cycles are counted by a {@link DutyCycleTrackingAgent} whose counters are allocated from the
+ * engine's {@link FixCounters}.
+ *
+ * NB: Ensure that a new instance is created for each engine.
+ */
+public class AffinityEngineScheduler implements EngineScheduler
+{
+    private final ThreadAffinity threadAffinity;
+    private final List<AgentRunner> runners = new ArrayList<>();
+
+    private int[] framerCpus;
+    private int[] indexerCpus;
+    private int[] monitoringCpus;
+    private FixCounters fixCounters;
+    private RecordingCoordinator recordingCoordinator;
+
+    /**
+     * Create the scheduler.
+     *
+     * @param threadAffinity the strategy for pinning threads, eg: a {@link LinuxThreadAffinity}.
+     */
+    public AffinityEngineScheduler(final ThreadAffinity threadAffinity)
+    {
+        this.threadAffinity = threadAffinity;
+    }
+
+    /**
+     * Sets the CPUs that the framer agent runs on.
+     *
+     * @param cpus the ids of the CPUs that the framer agent runs on.
+     * @return this
+     */
+    public AffinityEngineScheduler framerCpus(final int... cpus)
+    {
+        this.framerCpus = validate(cpus);
+        return this;
+    }
+
+    /**
+     * Sets the CPUs that the indexing agent, which archives and indexes messages, runs on.
+     *
+     * @param cpus the ids of the CPUs that the indexing agent runs on.
+     * @return this
+     */
+    public AffinityEngineScheduler indexerCpus(final int... cpus)
+    {
+        this.indexerCpus = validate(cpus);
+        return this;
+    }
+
+    /**
+     * Sets the CPUs that the monitoring agent runs on.
+     *
+     * @param cpus the ids of the CPUs that the monitoring agent runs on.
+     * @return this
+     */
+    public AffinityEngineScheduler monitoringCpus(final int... cpus)
+    {
+        this.monitoringCpus = validate(cpus);
+        return this;
+    }
+
+    public void configure(final FixCounters fixCounters)
+    {
+        this.fixCounters = fixCounters;
+    }
+
+    public void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final Agent indexingAgent,
+        final Agent monitoringAgent,
+        final Agent conductorAgent,
+        final RecordingCoordinator recordingCoordinator)
+    {
+        if (!runners.isEmpty())
+        {
+            EngineScheduler.fail();
+        }
+
+        this.recordingCoordinator = recordingCoordinator;
+
+        final List<AgentGroup> groups = new ArrayList<>();
+        addAgent(groups, framer, framerCpus, configuration.framerIdleStrategy());
+        addAgent(groups, indexingAgent, indexerCpus, configuration.archiverIdleStrategy());
+        if (monitoringAgent != null)
+        {
+            addAgent(groups, monitoringAgent, monitoringCpus, configuration.monitoringThreadIdleStrategy());
+        }
+
+        for (final AgentGroup group : groups)
+        {
+            final List<Agent> agents = group.agents;
+            final AgentRunner runner = new AgentRunner(
+                group.idleStrategy,
+                errorHandler,
+                null,
+                agents.size() == 1 ? agents.get(0) : new CompositeAgent(agents));
+            runners.add(runner);
+            startOnThread(
+                runner, threadAffinity.pinningThreadFactory(configuration.threadFactory(), group.cpus, errorHandler));
+        }
+    }
+
+    public void close()
+    {
+        for (final AgentRunner runner : runners)
+        {
+            EngineScheduler.awaitRunnerStart(runner);
+        }
+
+        final List<AutoCloseable> closeables = new ArrayList<>(runners);
+        closeables.add(recordingCoordinator);
+        Exceptions.closeAll(closeables);
+    }
+
+    public void configure(final Aeron.Context aeronContext)
+    {
+    }
+
+    private void addAgent(
+        final List<AgentGroup> groups, final Agent agent, final int[] cpus, final IdleStrategy idleStrategy)
+    {
+        final Agent trackedAgent = fixCounters == null ?
+            agent : DutyCycleTrackingAgent.of(agent, SystemNanoClock.INSTANCE, fixCounters);
+
+        if (cpus != null)
+        {
+            for (final AgentGroup group : groups)
+            {
+                if (Arrays.equals(cpus, group.cpus))
+                {
+                    group.agents.add(trackedAgent);
+                    return;
+                }
+            }
+        }
+
+        groups.add(new AgentGroup(trackedAgent, cpus, idleStrategy));
+    }
+
+    private static int[] validate(final int[] cpus)
+    {
+        if (cpus.length == 0)
+        {
+            throw new IllegalArgumentException("Must provide at least one CPU");
+        }
+
+        final int[] sortedCpus = cpus.clone();
+        Arrays.sort(sortedCpus);
+        return sortedCpus;
+    }
+
+    private static final class AgentGroup
+    {
+        private final List<Agent> agents = new ArrayList<>();
+        private final int[] cpus;
+        private final IdleStrategy idleStrategy;
+
+        private AgentGroup(final Agent agent, final int[] cpus, final IdleStrategy idleStrategy)
+        {
+            this.cpus = cpus;
+            this.idleStrategy = idleStrategy;
+            agents.add(agent);
+        }
+    }
+}
@@ -79,10 +79,23 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the max number of messages to read from libraries.
      */
     public static final String OUTBOUND_LIBRARY_FRAGMENT_LIMIT_PROP = "fix.core.outbound_fragment_limit";
+    /**
+     * Property name for the max number of bytes to read from each library per duty cycle.
+     */
+    public static final String OUTBOUND_LIBRARY_BYTE_LIMIT_PROP = "fix.core.outbound_byte_limit";
     /**
      * Property name for the max number of messages to read from replayer.
      */
     public static final String REPLAY_FRAGMENT_LIMIT_PROP = "fix.core.replay_fragment_limit";
+    /**
+     * Property name for the max number of fragments to read from an archive replay per poll when the indexes
+     * catch up at startup.
+     */
+    public static final String INDEX_CATCHUP_FRAGMENT_LIMIT_PROP = "fix.core.index_catchup_fragment_limit";
+    /**
+     * Property name for the number of sessions whose replay indexes share a replay index file.
+     */
+    public static final String REPLAY_INDEX_SESSIONS_PER_FILE_PROP = "fix.core.replay_index_sessions_per_file";
     /**
      * Property name for the max number of bytes to read from all TCP Connections.
      */
@@ -91,6 +104,19 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the size in bytes of the receiver end point's framing buffer.
      */
     public static final String RECEIVER_BUFFER_SIZE_PROP = "fix.core.receiver_buffer_size";
+    /**
+     * Property name for the max number of bytes to read from a single TCP Connection on each poll.
+     */
+    public static final String INBOUND_CONNECTION_BYTES_RECEIVED_LIMIT_PROP = "fix.core.inbound_connection_bytes_limit";
+    /**
+     * Property name for the max number of TCP connections that the Framer reads directly on every poll, rather than
+     * selecting the connections that have data to read.
+     */
+    public static final String RECEIVER_END_POINT_POLL_THRESHOLD_PROP = "fix.core.receiver_end_point_poll_threshold";
+    /**
+     * Property name for the initial size in bytes of the receiver end point's framing buffer.
+     */
+    public static final String INITIAL_RECEIVER_BUFFER_SIZE_PROP = "fix.core.initial_receiver_buffer_size";
     /**
      * Property name for the size in bytes of the TCP socket's receive buffer.
      */
@@ -124,11 +150,24 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final int DEFAULT_REPLAY_INDEX_FILE_SIZE = 2 * 1024 * 1024 + INITIAL_RECORD_OFFSET;
     public static final int DEFAULT_LOGGER_CACHE_NUM_SETS = 8;
     public static final int DEFAULT_LOGGER_CACHE_SET_SIZE = 4;
+    public static final int DEFAULT_REPLAY_INDEX_SESSIONS_PER_FILE = 32;
 
     public static final int DEFAULT_OUTBOUND_LIBRARY_FRAGMENT_LIMIT = 20;
+    public static final int DEFAULT_OUTBOUND_LIBRARY_BYTE_LIMIT = 1024 * 1024;
+    public static final int DEFAULT_LIBRARY_OUTBOUND_POLL_WEIGHT = 1;
     public static final int DEFAULT_REPLAY_FRAGMENT_LIMIT = 5;
+    public static final int DEFAULT_INDEX_CATCHUP_FRAGMENT_LIMIT = 20;
     public static final int DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT = 8 * 1024;
     public static final int DEFAULT_RECEIVER_BUFFER_SIZE = 16 * 1024;
+    public static final int DEFAULT_INBOUND_CONNECTION_BYTES_RECEIVED_LIMIT = DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT;
+    /**
+     * Default receiver end point poll threshold, the same as Agrona's <code>TransportPoller.ITERATION_THRESHOLD</code>.
+     */
+    public static final int DEFAULT_RECEIVER_END_POINT_POLL_THRESHOLD = 5;
+    /**
+     * Default initial receiver buffer size, 0 means use the {@link #receiverBufferSize()}, ie don't resize.
+     */
+    public static final int DEFAULT_INITIAL_RECEIVER_BUFFER_SIZE = 0;
     public static final int DEFAULT_RECEIVER_SOCKET_BUFFER_SIZE = 1024 * 1024;
     public static final int DEFAULT_SENDER_SOCKET_BUFFER_SIZE = 1024 * 1024;
     public static final int DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE = 8 * 1024 * 1024;
@@ -192,12 +231,24 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
 
     private int outboundLibraryFragmentLimit =
         getInteger(OUTBOUND_LIBRARY_FRAGMENT_LIMIT_PROP, DEFAULT_OUTBOUND_LIBRARY_FRAGMENT_LIMIT);
+    private int outboundLibraryByteLimit =
+        getInteger(OUTBOUND_LIBRARY_BYTE_LIMIT_PROP, DEFAULT_OUTBOUND_LIBRARY_BYTE_LIMIT);
     private int replayFragmentLimit =
         getInteger(REPLAY_FRAGMENT_LIMIT_PROP, DEFAULT_REPLAY_FRAGMENT_LIMIT);
+    private int replayIndexSessionsPerFile =
+        getInteger(REPLAY_INDEX_SESSIONS_PER_FILE_PROP, DEFAULT_REPLAY_INDEX_SESSIONS_PER_FILE);
+    private int indexCatchupFragmentLimit =
+        getInteger(INDEX_CATCHUP_FRAGMENT_LIMIT_PROP, DEFAULT_INDEX_CATCHUP_FRAGMENT_LIMIT);
     private int inboundBytesReceivedLimit =
         getInteger(INBOUND_BYTES_RECEIVED_LIMIT_PROP, DEFAULT_INBOUND_BYTES_RECEIVED_LIMIT);
     private int receiverBufferSize =
         getInteger(RECEIVER_BUFFER_SIZE_PROP, DEFAULT_RECEIVER_BUFFER_SIZE);
+    private int initialReceiverBufferSize =
+        getInteger(INITIAL_RECEIVER_BUFFER_SIZE_PROP, DEFAULT_INITIAL_RECEIVER_BUFFER_SIZE);
+    private int inboundConnectionBytesReceivedLimit =
+        getInteger(INBOUND_CONNECTION_BYTES_RECEIVED_LIMIT_PROP, DEFAULT_INBOUND_CONNECTION_BYTES_RECEIVED_LIMIT);
+    private int receiverEndPointPollThreshold =
+        getInteger(RECEIVER_END_POINT_POLL_THRESHOLD_PROP, DEFAULT_RECEIVER_END_POINT_POLL_THRESHOLD);
     private int receiverSocketBufferSize =
         getInteger(RECEIVER_SOCKET_BUFFER_SIZE_PROP, DEFAULT_RECEIVER_SOCKET_BUFFER_SIZE);
     private int senderSocketBufferSize =
@@ -217,6 +268,8 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private long slowConsumerTimeoutInMs = DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
     private EngineScheduler scheduler = new DefaultEngineScheduler();
     private ReplayHandler replayHandler = DEFAULT_REPLAY_HANDLER;
+    private boolean inboundMessageBatching = false;
+    private boolean singlePassIndexCatchup = false;
     private int outboundReplayStream = DEFAULT_OUTBOUND_REPLAY_STREAM;
     private int archiveReplayStream = DEFAULT_ARCHIVE_REPLAY_STREAM;
     private boolean acceptedSessionClosedResendInterval = DEFAULT_CLOSED_RESEND_INTERVAL;
@@ -229,6 +282,7 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private FixDictionary acceptorfixDictionary;
     private boolean lookupDefaultAcceptorfixDictionary = true;
     private Map<String, FixDictionary> acceptorFixDictionaryOverrides = new HashMap<>();
+    private final Map<String, Integer> libraryOutboundPollWeights = new HashMap<>();
     private boolean deleteLogFileDirOnStart = false;
     private long authenticationTimeoutInMs = DEFAULT_AUTHENTICATION_TIMEOUT_IN_MS;
     private boolean bindAtStartup = true;
@@ -279,6 +333,24 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the initial receiver buffer size. Each connection's buffer starts at this size and is grown, up to the
+     * {@link #receiverBufferSize(int)}, when it fills up with data that can't yet be framed. It is shrunk back
+     * down when it is only lightly used. This allows a large maximum message size without needing to allocate
+     * a buffer of that size for every connection.
+     *
+     * Defaults to 0, which means that the buffer is allocated at the receiverBufferSize and never resized.
+     *
+     * @param initialReceiverBufferSize the initial receiver buffer size.
+     * @return this
+     * @see EngineConfiguration#INITIAL_RECEIVER_BUFFER_SIZE_PROP
+     */
+    public EngineConfiguration initialReceiverBufferSize(final int initialReceiverBufferSize)
+    {
+        this.initialReceiverBufferSize = initialReceiverBufferSize;
+        return this;
+    }
+
     /**
      * Sets the receiver socket buffer size.
      *
@@ -319,7 +391,8 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     }
 
     /**
-     * Sets the size of index files. This is the size in bytes for the replay index file that is used for each session.
+     * Sets the size of index files. This is the size in bytes of the replay index that is used for each session,
+     * several of which share a file, see {@link #replayIndexSessionsPerFile(int)}.
      * If you want to size in terms of the last N Fix message fragments that you have received then
      * use the formula: INITIAL_RECORD_OFFSET + N * ReplayIndexDescriptor.RECORD_LENGTH.
      *
@@ -344,24 +417,48 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * <p>
      * {@link org.agrona.collections.Int2ObjectCache} explains the difference between set size
      * and num sets.
+     * <p>
+     * Deprecated and will be removed in future. Replay index files are no longer cached, see
+     * {@link #replayIndexSessionsPerFile(int)}.
      *
      * @param loggerCacheSetSize the set size of the logger's caches.
      * @return this
      */
+    @Deprecated
     public EngineConfiguration loggerCacheSetSize(final int loggerCacheSetSize)
     {
         this.loggerCacheSetSize = loggerCacheSetSize;
         return this;
     }
 
+    /**
+     * Sets the number of sessions whose replay indexes share a replay index file. Replay index files stay memory
+     * mapped, so this trades the size of each file, {@link #replayIndexFileSize(int)} bytes per session, against the
+     * number of memory maps, one per file. Fewer sessions share a file if their indexes wouldn't fit in 2GB.
+     *
+     * @param replayIndexSessionsPerFile the number of sessions whose replay indexes share a replay index file.
+     * @return this
+     * @see EngineConfiguration#REPLAY_INDEX_SESSIONS_PER_FILE_PROP
+     * @see EngineConfiguration#DEFAULT_REPLAY_INDEX_SESSIONS_PER_FILE
+     */
+    public EngineConfiguration replayIndexSessionsPerFile(final int replayIndexSessionsPerFile)
+    {
+        this.replayIndexSessionsPerFile = replayIndexSessionsPerFile;
+        return this;
+    }
+
     /**
      * Sets the number of sets of in the logger's caches.
+     * <p>
+     * Deprecated and will be removed in future. Replay index files are no longer cached, see
+     * {@link #replayIndexSessionsPerFile(int)}.
      *
      * @see #loggerCacheSetSize(int)
      *
      * @param loggerCacheNumSets the number of sets of in the logger's caches.
      * @return this
      */
+    @Deprecated
     public EngineConfiguration loggerCacheNumSets(final int loggerCacheNumSets)
     {
         this.loggerCacheNumSets = loggerCacheNumSets;
@@ -434,11 +531,13 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     }
 
     /**
-     * Sets the fragment limit for the subscription to outbound messages from libraries.
+     * Sets the fragment limit for the subscription to outbound messages from libraries. This limit is applied to
+     * each library on every duty cycle and is multiplied by that library's weight.
      *
      * @param outboundLibraryFragmentLimit the fragment limit for the subscription to outbound messages from libraries.
      * @return this
      * @see EngineConfiguration#OUTBOUND_LIBRARY_FRAGMENT_LIMIT_PROP
+     * @see EngineConfiguration#libraryOutboundPollWeight(String, int)
      */
     public EngineConfiguration outboundLibraryFragmentLimit(final int outboundLibraryFragmentLimit)
     {
@@ -446,6 +545,50 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the byte limit for the subscription to outbound messages from libraries. This limit is applied to
+     * each library on every duty cycle and is multiplied by that library's weight. At least one fragment is always
+     * read from a library that has data available, regardless of its size.
+     *
+     * @param outboundLibraryByteLimit the byte limit for the subscription to outbound messages from libraries.
+     * @return this
+     * @see EngineConfiguration#OUTBOUND_LIBRARY_BYTE_LIMIT_PROP
+     * @see EngineConfiguration#libraryOutboundPollWeight(String, int)
+     */
+    public EngineConfiguration outboundLibraryByteLimit(final int outboundLibraryByteLimit)
+    {
+        this.outboundLibraryByteLimit = outboundLibraryByteLimit;
+        return this;
+    }
+
+    /**
+     * Sets the weight that the Framer uses when polling outbound messages from a library. Libraries with
+     * a higher weight are polled before libraries with a lower weight on every duty cycle and their fragment and
+     * byte limits are multiplied by their weight. This lets you prioritise latency sensitive libraries, for example
+     * order entry, over libraries that send high volumes of less latency sensitive messages.
+     *
+     * Libraries are identified by their {@link uk.co.real_logic.artio.library.LibraryConfiguration#libraryName(String)}
+     * and libraries without a configured weight use {@link #DEFAULT_LIBRARY_OUTBOUND_POLL_WEIGHT}.
+     *
+     * @param libraryName the name of the library to configure.
+     * @param weight the weight of the library, must be at least 1.
+     * @return this
+     * @see EngineConfiguration#outboundLibraryFragmentLimit(int)
+     * @see EngineConfiguration#outboundLibraryByteLimit(int)
+     */
+    public EngineConfiguration libraryOutboundPollWeight(final String libraryName, final int weight)
+    {
+        Objects.requireNonNull(libraryName, "libraryName");
+        if (weight < DEFAULT_LIBRARY_OUTBOUND_POLL_WEIGHT)
+        {
+            throw new IllegalArgumentException("Invalid weight " + weight + " for library " + libraryName +
+                ", must be at least " + DEFAULT_LIBRARY_OUTBOUND_POLL_WEIGHT);
+        }
+
+        this.libraryOutboundPollWeights.put(libraryName, weight);
+        return this;
+    }
+
     /**
      * Sets the fragment limit for the subscription to messages from the replayer.
      *
@@ -459,6 +602,41 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the fragment limit for each poll of an archive replay when the indexes catch up with the archived
+     * messages at startup. Startup isn't latency sensitive so setting a larger limit than the default can reduce the
+     * time taken to catch up after an unclean shutdown.
+     *
+     * @param indexCatchupFragmentLimit the fragment limit for each poll of an archive replay during catchup.
+     * @return this
+     * @see EngineConfiguration#INDEX_CATCHUP_FRAGMENT_LIMIT_PROP
+     * @see EngineConfiguration#singlePassIndexCatchup(boolean)
+     */
+    public EngineConfiguration indexCatchupFragmentLimit(final int indexCatchupFragmentLimit)
+    {
+        this.indexCatchupFragmentLimit = indexCatchupFragmentLimit;
+        return this;
+    }
+
+    /**
+     * Sets whether the indexes catch up with the archive in a single pass at startup. By default each index
+     * replays each recording that it hasn't fully indexed in turn, so a recording is replayed once per index. When
+     * enabled each recording is replayed once from the lowest position that any index has reached, with every
+     * fragment being passed to each index that hasn't yet indexed it, and the replays of different recordings are
+     * polled concurrently.
+     *
+     * Defaults to false.
+     *
+     * @param singlePassIndexCatchup true to catch the indexes up in a single pass, false otherwise.
+     * @return this
+     * @see EngineConfiguration#indexCatchupFragmentLimit(int)
+     */
+    public EngineConfiguration singlePassIndexCatchup(final boolean singlePassIndexCatchup)
+    {
+        this.singlePassIndexCatchup = singlePassIndexCatchup;
+        return this;
+    }
+
     /**
      * Sets the bytes limit for receiving inbound messages.
      *
@@ -472,6 +650,39 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the bytes limit for reading from a single TCP connection on each poll. This stops a single busy
+     * connection from using up all of the {@link #inboundBytesReceivedLimit(int)} and starving other connections.
+     *
+     * @param inboundConnectionBytesReceivedLimit the bytes limit for reading from a single TCP connection.
+     * @return this
+     * @see EngineConfiguration#INBOUND_CONNECTION_BYTES_RECEIVED_LIMIT_PROP
+     */
+    public EngineConfiguration inboundConnectionBytesReceivedLimit(final int inboundConnectionBytesReceivedLimit)
+    {
+        this.inboundConnectionBytesReceivedLimit = inboundConnectionBytesReceivedLimit;
+        return this;
+    }
+
+    /**
+     * Sets the max number of TCP connections that the Framer reads directly on every poll. Up to this number of
+     * connections each one is read on every poll without calling the selector. Beyond it the Framer calls
+     * <code>selectNow()</code> and only reads the connections that have data.
+     *
+     * A direct read of a connection without data costs a system call, as does a <code>selectNow()</code>
+     * whatever the number of connections. So a higher threshold suits a few connections that receive messages on
+     * most polls, and a threshold of 0, which always uses the selector, suits many mostly idle connections.
+     *
+     * @param receiverEndPointPollThreshold the max number of TCP connections that are read directly on every poll.
+     * @return this
+     * @see EngineConfiguration#RECEIVER_END_POINT_POLL_THRESHOLD_PROP
+     */
+    public EngineConfiguration receiverEndPointPollThreshold(final int receiverEndPointPollThreshold)
+    {
+        this.receiverEndPointPollThreshold = receiverEndPointPollThreshold;
+        return this;
+    }
+
     public EngineConfiguration senderMaxBytesInBuffer(final int senderMaxBytesInBuffer)
     {
         this.senderMaxBytesInBuffer = senderMaxBytesInBuffer;
@@ -547,6 +758,27 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets whether inbound messages for library owned sessions are batched. When enabled all the complete messages
+     * that are framed from a single read of a connection are published to the library as a single fragment, rather
+     * than a fragment per message. This reduces the per message publication and polling overhead for sessions that
+     * receive high rates of small messages, for example market data. The session layer still validates each message
+     * in turn, and a {@link uk.co.real_logic.artio.library.SessionBatchHandler} is passed the messages of a batch in
+     * a single callback, whilst other handlers are passed them one at a time. The size of a batch is limited by the
+     * maximum payload length of the inbound library stream, messages that are too large to be batched are published
+     * individually.
+     *
+     * Defaults to false.
+     *
+     * @param inboundMessageBatching true to batch inbound messages, false otherwise.
+     * @return this
+     */
+    public EngineConfiguration inboundMessageBatching(final boolean inboundMessageBatching)
+    {
+        this.inboundMessageBatching = inboundMessageBatching;
+        return this;
+    }
+
     public EngineConfiguration outboundReplayStream(final int outboundReplayStream)
     {
         this.outboundReplayStream = outboundReplayStream;
@@ -725,6 +957,17 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return receiverBufferSize;
     }
 
+    public int initialReceiverBufferSize()
+    {
+        return initialReceiverBufferSize == DEFAULT_INITIAL_RECEIVER_BUFFER_SIZE ?
+            receiverBufferSize : initialReceiverBufferSize;
+    }
+
+    public int inboundConnectionBytesReceivedLimit()
+    {
+        return inboundConnectionBytesReceivedLimit;
+    }
+
     public int receiverSocketBufferSize()
     {
         return receiverSocketBufferSize;
@@ -770,6 +1013,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return loggerCacheNumSets;
     }
 
+    public int replayIndexSessionsPerFile()
+    {
+        return replayIndexSessionsPerFile;
+    }
+
     public boolean logInboundMessages()
     {
         return logInboundMessages;
@@ -810,16 +1058,41 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return outboundLibraryFragmentLimit;
     }
 
+    public int outboundLibraryByteLimit()
+    {
+        return outboundLibraryByteLimit;
+    }
+
+    public Map<String, Integer> libraryOutboundPollWeights()
+    {
+        return libraryOutboundPollWeights;
+    }
+
     public int replayFragmentLimit()
     {
         return replayFragmentLimit;
     }
 
+    public int indexCatchupFragmentLimit()
+    {
+        return indexCatchupFragmentLimit;
+    }
+
+    public boolean singlePassIndexCatchup()
+    {
+        return singlePassIndexCatchup;
+    }
+
     public int inboundBytesReceivedLimit()
     {
         return inboundBytesReceivedLimit;
     }
 
+    public int receiverEndPointPollThreshold()
+    {
+        return receiverEndPointPollThreshold;
+    }
+
     public MappedFile sentSequenceNumberIndex()
     {
         return sentSequenceNumberIndex;
@@ -889,6 +1162,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return replayHandler;
     }
 
+    public boolean inboundMessageBatching()
+    {
+        return inboundMessageBatching;
+    }
+
     public InitialAcceptedSessionOwner initialAcceptedSessionOwner()
     {
         return initialAcceptedSessionOwner;
@@ -1095,6 +1373,38 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
                 sessionBufferSize()));
         }
 
+        if (initialReceiverBufferSize() <= 0 || initialReceiverBufferSize() > receiverBufferSize())
+        {
+            throw new IllegalArgumentException(String.format(
+                "initialReceiverBufferSize(%d) must be positive and <= receiverBufferSize(%d)",
+                initialReceiverBufferSize(),
+                receiverBufferSize()));
+        }
+
+        if (inboundConnectionBytesReceivedLimit() <= 0)
+        {
+            throw new IllegalArgumentException(
+                "inboundConnectionBytesReceivedLimit must be positive: " + inboundConnectionBytesReceivedLimit());
+        }
+
+        if (replayIndexSessionsPerFile() <= 0)
+        {
+            throw new IllegalArgumentException(
+                "replayIndexSessionsPerFile must be positive: " + replayIndexSessionsPerFile());
+        }
+
+        if (indexCatchupFragmentLimit() <= 0)
+        {
+            throw new IllegalArgumentException(
+                "indexCatchupFragmentLimit must be positive: " + indexCatchupFragmentLimit());
+        }
+
+        if (receiverEndPointPollThreshold() < 0)
+        {
+            throw new IllegalArgumentException(
+                "receiverEndPointPollThreshold must not be negative: " + receiverEndPointPollThreshold());
+        }
+
         if (deleteLogFileDirOnStart())
         {
             final File logFileDir = new File(logFileDir());
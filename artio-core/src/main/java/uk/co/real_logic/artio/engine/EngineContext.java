@@ -35,6 +35,8 @@ import uk.co.real_logic.artio.engine.logger.*;
 import uk.co.real_logic.artio.fields.EpochFractionFormat;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.protocol.Streams;
+import uk.co.real_logic.artio.timing.DutyCycleMonitor;
+import uk.co.real_logic.artio.timing.DutyCycleMonitors;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -50,6 +52,7 @@ public class EngineContext implements AutoCloseable
     private final EngineConfiguration configuration;
     private final ErrorHandler errorHandler;
     private final FixCounters fixCounters;
+    private final DutyCycleMonitors dutyCycleMonitors;
     private final Aeron aeron;
     private final ReplayerCommandQueue replayerCommandQueue;
     private final SenderSequenceNumbers senderSequenceNumbers;
@@ -77,6 +80,7 @@ public class EngineContext implements AutoCloseable
         final ErrorHandler errorHandler,
         final ExclusivePublication replayPublication,
         final FixCounters fixCounters,
+        final DutyCycleMonitors dutyCycleMonitors,
         final Aeron aeron,
         final AeronArchive aeronArchive,
         final RecordingCoordinator recordingCoordinator)
@@ -84,6 +88,7 @@ public class EngineContext implements AutoCloseable
         this.configuration = configuration;
         this.errorHandler = errorHandler;
         this.fixCounters = fixCounters;
+        this.dutyCycleMonitors = dutyCycleMonitors;
         this.aeron = aeron;
         this.clock = configuration.clock();
         this.replayPublication = replayPublication;
@@ -157,8 +162,6 @@ public class EngineContext implements AutoCloseable
     }
 
     private ReplayIndex newReplayIndex(
-        final int cacheSetSize,
-        final int cacheNumSets,
         final String logFileDir,
         final int streamId,
         final RecordingIdLookup recordingIdLookup,
@@ -168,8 +171,7 @@ public class EngineContext implements AutoCloseable
             logFileDir,
             streamId,
             configuration.replayIndexFileSize(),
-            cacheNumSets,
-            cacheSetSize,
+            configuration.replayIndexSessionsPerFile(),
             LoggerUtil::map,
             ReplayIndexDescriptor.replayPositionBuffer(logFileDir, streamId),
             errorHandler,
@@ -180,14 +182,10 @@ public class EngineContext implements AutoCloseable
     private ReplayQuery newReplayQuery(final IdleStrategy idleStrategy, final int streamId)
     {
         final String logFileDir = configuration.logFileDir();
-        final int cacheSetSize = configuration.loggerCacheSetSize();
-        final int cacheNumSets = configuration.loggerCacheNumSets();
         final int archiveReplayStream = configuration.archiveReplayStream();
 
         return new ReplayQuery(
             logFileDir,
-            cacheNumSets,
-            cacheSetSize,
             LoggerUtil::mapExistingFile,
             streamId,
             idleStrategy,
@@ -221,14 +219,10 @@ public class EngineContext implements AutoCloseable
 
     private void newIndexers()
     {
-        final int cacheSetSize = configuration.loggerCacheSetSize();
-        final int cacheNumSets = configuration.loggerCacheNumSets();
         final String logFileDir = configuration.logFileDir();
 
         final Long2LongHashMap connectionIdToILinkUuid = new Long2LongHashMap(UNK_SESSION);
         final ReplayIndex inboundReplayIndex = newReplayIndex(
-            cacheSetSize,
-            cacheNumSets,
             logFileDir,
             configuration.inboundLibraryStream(),
             recordingCoordinator.indexerInboundRecordingIdLookup(),
@@ -242,12 +236,15 @@ public class EngineContext implements AutoCloseable
             aeronArchive,
             errorHandler,
             configuration.archiveReplayStream(),
-            configuration.gracefulShutdown());
+            configuration.gracefulShutdown(),
+            configuration.indexCatchupFragmentLimit(),
+            configuration.singlePassIndexCatchup(),
+            fixCounters.indexCatchupTime("inbound indexer"),
+            fixCounters.indexCatchupBytes("inbound indexer"),
+            newIndexerMonitor("inbound indexer"));
 
         final List<Index> outboundIndices = new ArrayList<>();
         outboundIndices.add(newReplayIndex(
-            cacheSetSize,
-            cacheNumSets,
             logFileDir,
             configuration.outboundLibraryStream(),
             recordingCoordinator.indexerOutboundRecordingIdLookup(),
@@ -263,7 +260,17 @@ public class EngineContext implements AutoCloseable
             aeronArchive,
             errorHandler,
             configuration.archiveReplayStream(),
-            configuration.gracefulShutdown());
+            configuration.gracefulShutdown(),
+            configuration.indexCatchupFragmentLimit(),
+            configuration.singlePassIndexCatchup(),
+            fixCounters.indexCatchupTime("outbound indexer"),
+            fixCounters.indexCatchupBytes("outbound indexer"),
+            newIndexerMonitor("outbound indexer"));
+    }
+
+    private DutyCycleMonitor newIndexerMonitor(final String name)
+    {
+        return dutyCycleMonitors.newMonitor(configuration.agentNamePrefix() + name, Indexer.DUTY_CYCLE_STEPS);
     }
 
     private void newArchivingAgent()
@@ -364,6 +371,11 @@ public class EngineContext implements AutoCloseable
         return senderSequenceNumbers;
     }
 
+    public DutyCycleMonitors dutyCycleMonitors()
+    {
+        return dutyCycleMonitors;
+    }
+
     public void framerContext(final FramerContext framerContext)
     {
         sentSequenceNumberIndex.framerContext(framerContext);
@@ -19,6 +19,7 @@ import io.aeron.Aeron;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
+import uk.co.real_logic.artio.FixCounters;
 
 /**
  * Interface for determining how an Engine's Agents are allocated to threads.
@@ -58,6 +59,16 @@ public interface EngineScheduler extends AutoCloseable
      */
     void configure(Aeron.Context aeronContext);
 
+    /**
+     * Invoked before the scheduler is launched with the counters of this Engine instance, so that the scheduler can
+     * allocate counters of its own, for example the duty cycle counters of a {@link uk.co.real_logic.artio.DutyCycleTrackingAgent}.
+     *
+     * @param fixCounters the counters of this Engine instance.
+     */
+    default void configure(final FixCounters fixCounters)
+    {
+    }
+
     static void fail()
     {
         throw new IllegalStateException("Cannot re-use scheduler for multiple launch attempts");
@@ -255,6 +255,7 @@ public final class FixEngine extends GatewayProcess
                 errorHandler,
                 replayPublication,
                 fixCounters,
+                dutyCycleMonitors,
                 aeron,
                 aeronArchive,
                 recordingCoordinator);
@@ -333,6 +334,7 @@ public final class FixEngine extends GatewayProcess
 
     private FixEngine launch()
     {
+        scheduler.configure(fixCounters);
         scheduler.launch(
             configuration,
             errorHandler,
@@ -25,10 +25,14 @@ import org.agrona.concurrent.EpochClock;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.LogTag;
 import uk.co.real_logic.artio.dictionary.LongDictionary;
+import uk.co.real_logic.artio.dictionary.SessionConstants;
 import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.messages.Bool;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.otf.OtfParser;
+import uk.co.real_logic.artio.otf.OtfTagFilter;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
@@ -57,8 +61,14 @@ public class PossDupEnabler
 
     private final ExpandableArrayBuffer fragmentedMessageBuffer = new ExpandableArrayBuffer();
     private final PossDupFinder possDupFinder = new PossDupFinder();
-    private final OtfParser parser = new OtfParser(possDupFinder, new LongDictionary());
+    private final OtfParser parser = new OtfParser(possDupFinder, new LongDictionary(), new OtfTagFilter(
+        SessionConstants.POSS_DUP_FLAG,
+        SessionConstants.SENDING_TIME,
+        SessionConstants.ORIG_SENDING_TIME,
+        SessionConstants.BODY_LENGTH));
     private final MutableAsciiBuffer mutableAsciiFlyweight = new MutableAsciiBuffer();
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final FixMessageEncoder fixMessage = new FixMessageEncoder();
     private final UtcTimestampEncoder utcTimestampEncoder;
 
     private final BufferClaim bufferClaim;
@@ -143,7 +153,7 @@ public class PossDupEnabler
                     newLength,
                     metaDataAdjustment))
                 {
-                    return commit(true);
+                    return commit();
                 }
                 else
                 {
@@ -168,11 +178,11 @@ public class PossDupEnabler
             {
                 final MutableDirectBuffer writeBuffer = writeBuffer();
                 final int writeOffset = writeOffset();
-                writeBuffer.putBytes(writeOffset, srcBuffer, messageOffset, messageLength);
-                setPossDupFlag(possDupSrcOffset, messageOffset, writeOffset, writeBuffer);
-                updateSendingTime(messageOffset);
+                writeBuffer.putBytes(writeOffset, srcBuffer, srcOffset, srcLength);
+                setPossDupFlag(possDupSrcOffset, srcOffset, writeOffset, writeBuffer);
+                updateSendingTime(srcOffset);
 
-                return commit(false);
+                return commit();
             }
             catch (final Exception ex)
             {
@@ -211,12 +221,13 @@ public class PossDupEnabler
         }
     }
 
-    private Action commit(final boolean hasAlteredBodyLength)
+    private Action commit()
     {
-        final int logLengthOffset = hasAlteredBodyLength ? FRAME_LENGTH + metaDataHeaderLength() : 0;
+        final int logLengthOffset = FRAME_LENGTH + metaDataHeaderLength();
         if (isProcessingFragmentedMessage())
         {
             int fragmentOffset = FRAGMENTED_MESSAGE_BUFFER_OFFSET;
+            setFramePossDupFlag(fragmentedMessageBuffer, fragmentOffset);
             onPreCommit.onPreCommit(fragmentedMessageBuffer, fragmentOffset);
 
             DebugLogger.log(
@@ -273,6 +284,7 @@ public class PossDupEnabler
                 offset + logLengthOffset,
                 bufferClaim.length() - logLengthOffset);
 
+            setFramePossDupFlag(buffer, offset);
             onPreCommit.onPreCommit(buffer, offset);
             bufferClaim.commit();
         }
@@ -280,6 +292,19 @@ public class PossDupEnabler
         return CONTINUE;
     }
 
+    // The body always has PossDupFlag=Y by now, so keep the frame consistent with it. Frames copied from
+    // an archive written before the field existed don't have space for it.
+    private void setFramePossDupFlag(final MutableDirectBuffer buffer, final int offset)
+    {
+        messageHeader.wrap(buffer, offset);
+        if (messageHeader.version() >= FixMessageDecoder.possDupFlagSinceVersion())
+        {
+            fixMessage
+                .wrap(buffer, offset + MessageHeaderDecoder.ENCODED_LENGTH)
+                .possDupFlag(Bool.TRUE);
+        }
+    }
+
     private MutableDirectBuffer writeBuffer()
     {
         return isProcessingFragmentedMessage() ? fragmentedMessageBuffer : bufferClaim.buffer();
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.DirectBuffer;
+import uk.co.real_logic.artio.messages.Bool;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+
+import static uk.co.real_logic.artio.dictionary.SessionConstants.MSG_SEQ_NO;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.POSS_DUP_FLAG;
+import static uk.co.real_logic.artio.util.AsciiBuffer.SEPARATOR;
+
+/**
+ * Cheaply reads the MsgSeqNum and PossDupFlag fields from the standard header of a framed FIX message so that they
+ * can be put into the FixMessage frame, see {@link FixMessageDecoder#msgSeqNum()}.
+ *
+ * The scan stops at the first field that isn't a standard header field, so body fields are never parsed. It never
+ * throws, a field that can't be read is reported as missing and it's left to the session to validate the message.
+ */
+public final class SequenceHeaderScanner
+{
+    public static final int MISSING_MSG_SEQ_NUM = FixMessageDecoder.msgSeqNumNullValue();
+
+    // Standard header fields across FIX 4.x and FIXT, except for the data fields (SecureData and XmlData) whose
+    // values could contain separators.
+    private static final int[] HEADER_TAGS = {
+        8, 9, 35, 49, 56, 115, 128, 34, 50, 142, 57, 143, 116, 144, 129, 145, 43, 97, 52, 122, 347, 369, 627, 628,
+        629, 630, 1128, 1129, 1156 };
+    private static final boolean[] IS_HEADER_TAG = new boolean[1157];
+
+    static
+    {
+        for (final int tag : HEADER_TAGS)
+        {
+            IS_HEADER_TAG[tag] = true;
+        }
+    }
+
+    private int msgSeqNum;
+    private Bool possDupFlag;
+
+    /**
+     * Scan the fields of a message.
+     *
+     * @param buffer the buffer containing the message.
+     * @param offset the offset of the first field to scan.
+     * @param limit the offset at which to stop scanning, for example the start of the checksum field.
+     */
+    public void scan(final DirectBuffer buffer, final int offset, final int limit)
+    {
+        int msgSeqNum = MISSING_MSG_SEQ_NUM;
+        Bool possDupFlag = Bool.NULL_VAL;
+
+        int position = offset;
+        while (position < limit)
+        {
+            int tag = 0;
+            byte character;
+            while (position < limit && (character = buffer.getByte(position)) != '=')
+            {
+                if (character < '0' || character > '9' || tag >= IS_HEADER_TAG.length)
+                {
+                    tag = 0;
+                    break;
+                }
+
+                tag = tag * 10 + (character - '0');
+                position++;
+            }
+
+            if (position >= limit || tag == 0 || tag >= IS_HEADER_TAG.length || !IS_HEADER_TAG[tag])
+            {
+                break;
+            }
+
+            final int valueOffset = position + 1;
+            int endOfValue = valueOffset;
+            while (endOfValue < limit && buffer.getByte(endOfValue) != SEPARATOR)
+            {
+                endOfValue++;
+            }
+
+            if (tag == MSG_SEQ_NO)
+            {
+                msgSeqNum = parseMsgSeqNum(buffer, valueOffset, endOfValue);
+            }
+            else if (tag == POSS_DUP_FLAG)
+            {
+                possDupFlag = parsePossDupFlag(buffer, valueOffset, endOfValue);
+            }
+
+            if (msgSeqNum != MISSING_MSG_SEQ_NUM && possDupFlag != Bool.NULL_VAL)
+            {
+                break;
+            }
+
+            position = endOfValue + 1;
+        }
+
+        this.msgSeqNum = msgSeqNum;
+        this.possDupFlag = possDupFlag;
+    }
+
+    /**
+     * Get the MsgSeqNum of the last scanned message.
+     *
+     * @return the MsgSeqNum of the last scanned message or {@link #MISSING_MSG_SEQ_NUM} if it wasn't found.
+     */
+    public int msgSeqNum()
+    {
+        return msgSeqNum;
+    }
+
+    /**
+     * Get the PossDupFlag of the last scanned message.
+     *
+     * @return the PossDupFlag of the last scanned message or {@link Bool#NULL_VAL} if it wasn't found.
+     */
+    public Bool possDupFlag()
+    {
+        return possDupFlag;
+    }
+
+    private static int parseMsgSeqNum(final DirectBuffer buffer, final int offset, final int end)
+    {
+        if (offset == end)
+        {
+            return MISSING_MSG_SEQ_NUM;
+        }
+
+        long value = 0;
+        for (int i = offset; i < end; i++)
+        {
+            final byte character = buffer.getByte(i);
+            if (character < '0' || character > '9')
+            {
+                return MISSING_MSG_SEQ_NUM;
+            }
+
+            value = value * 10 + (character - '0');
+            if (value > Integer.MAX_VALUE)
+            {
+                return MISSING_MSG_SEQ_NUM;
+            }
+        }
+
+        return (int)value;
+    }
+
+    private static Bool parsePossDupFlag(final DirectBuffer buffer, final int offset, final int end)
+    {
+        if (end - offset == 1)
+        {
+            final byte value = buffer.getByte(offset);
+            if (value == 'Y')
+            {
+                return Bool.TRUE;
+            }
+            else if (value == 'N')
+            {
+                return Bool.FALSE;
+            }
+        }
+
+        return Bool.NULL_VAL;
+    }
+}
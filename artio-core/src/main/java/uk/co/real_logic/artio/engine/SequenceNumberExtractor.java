@@ -21,6 +21,7 @@ import uk.co.real_logic.artio.ValidationError;
 import uk.co.real_logic.artio.dictionary.LongDictionary;
 import uk.co.real_logic.artio.dictionary.SessionConstants;
 import uk.co.real_logic.artio.fields.AsciiFieldFlyweight;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.otf.MessageControl;
 import uk.co.real_logic.artio.otf.OtfMessageAcceptor;
 import uk.co.real_logic.artio.otf.OtfParser;
@@ -42,6 +43,28 @@ public class SequenceNumberExtractor
         this.errorHandler = errorHandler;
     }
 
+    /**
+     * Extract the sequence number of a FixMessage, using the MsgSeqNum from its frame if the publisher provided it
+     * and only parsing the body otherwise.
+     *
+     * @param messageFrame the decoder wrapping the FixMessage frame.
+     * @param buffer the buffer containing the body of the message.
+     * @param offset the offset of the body of the message.
+     * @param length the length of the body of the message.
+     * @return the sequence number or {@link #NO_SEQUENCE_NUMBER} if it couldn't be found.
+     */
+    public int extract(
+        final FixMessageDecoder messageFrame, final DirectBuffer buffer, final int offset, final int length)
+    {
+        final int msgSeqNum = messageFrame.msgSeqNum();
+        if (msgSeqNum != FixMessageDecoder.msgSeqNumNullValue())
+        {
+            return msgSeqNum;
+        }
+
+        return extract(buffer, offset, length);
+    }
+
     public int extract(
         final DirectBuffer buffer, final int offset, final int length)
     {
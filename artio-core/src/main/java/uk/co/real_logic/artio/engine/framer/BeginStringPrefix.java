@@ -0,0 +1,80 @@
+/*
+ * Copyright 2020 Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static uk.co.real_logic.artio.dictionary.SessionConstants.MIN_MESSAGE_SIZE;
+import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
+
+/**
+ * The fixed bytes that start every message of a logged on session, eg: "8=FIX.4.4\0019=".
+ *
+ * Matched with two, possibly overlapping, long compares so that framing can skip straight to the body length. Only
+ * prefixes that fit within {@code MIN_MESSAGE_SIZE} are used, since the framer only looks at a
+ * message once it has that much data.
+ */
+final class BeginStringPrefix
+{
+    private static final int NO_PREFIX = 0;
+
+    private int length = NO_PREFIX;
+    private long head;
+    private long tail;
+
+    void beginString(final String beginString)
+    {
+        final byte[] prefix = ("8=" + beginString + "\u00019=").getBytes(US_ASCII);
+        final int length = prefix.length;
+        if (length < Long.BYTES || length > MIN_MESSAGE_SIZE)
+        {
+            reset();
+            return;
+        }
+
+        final UnsafeBuffer prefixBuffer = new UnsafeBuffer(prefix);
+        head = prefixBuffer.getLong(0);
+        tail = prefixBuffer.getLong(length - Long.BYTES);
+        this.length = length;
+    }
+
+    void reset()
+    {
+        length = NO_PREFIX;
+    }
+
+    /**
+     * Match the prefix against the start of a message.
+     *
+     * @param buffer the buffer containing the message, must have at least MIN_MESSAGE_SIZE bytes from offset.
+     * @param offset the start of the message.
+     * @return the index of the start of the body length value, or UNKNOWN_INDEX if the prefix doesn't match.
+     */
+    int match(final DirectBuffer buffer, final int offset)
+    {
+        final int length = this.length;
+        if (length != NO_PREFIX &&
+            buffer.getLong(offset) == head &&
+            buffer.getLong(offset + length - Long.BYTES) == tail)
+        {
+            return offset + length;
+        }
+
+        return UNKNOWN_INDEX;
+    }
+}
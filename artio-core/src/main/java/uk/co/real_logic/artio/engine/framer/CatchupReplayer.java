@@ -41,6 +41,7 @@ import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static uk.co.real_logic.artio.LogTag.CATCHUP;
 import static uk.co.real_logic.artio.dictionary.SessionConstants.HEARTBEAT_MESSAGE_TYPE;
 import static uk.co.real_logic.artio.dictionary.SessionConstants.SEQUENCE_RESET_MESSAGE_TYPE;
+import static uk.co.real_logic.artio.messages.FixMessageBatchDecoder.MessagesDecoder.fixMessageHeaderLength;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.*;
 import static uk.co.real_logic.artio.messages.MessageStatus.CATCHUP_REPLAY;
 import static uk.co.real_logic.artio.messages.SessionReplyStatus.MISSING_MESSAGES;
@@ -149,6 +150,7 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
 
     private final MessageHeaderDecoder messageHeaderDecoder = new MessageHeaderDecoder();
     private final FixMessageDecoder messageDecoder = new FixMessageDecoder();
+    private final FixMessageBatchDecoder messageBatch = new FixMessageBatchDecoder();
     private final FixMessageEncoder messageEncoder = new FixMessageEncoder();
 
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
@@ -239,6 +241,49 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
     {
         messageHeaderDecoder.wrap(srcBuffer, srcOffset);
 
+        if (messageHeaderDecoder.templateId() == FixMessageBatchDecoder.TEMPLATE_ID)
+        {
+            return onFixMessageBatch(srcBuffer, srcOffset);
+        }
+
+        return onFixMessage(srcBuffer, srcOffset, srcLength, false);
+    }
+
+    private Action onFixMessageBatch(final DirectBuffer srcBuffer, final int srcOffset)
+    {
+        final FixMessageBatchDecoder messageBatch = this.messageBatch;
+        messageBatch.wrap(
+            srcBuffer,
+            srcOffset + MessageHeaderDecoder.ENCODED_LENGTH,
+            messageHeaderDecoder.blockLength(),
+            messageHeaderDecoder.version());
+
+        for (final FixMessageBatchDecoder.MessagesDecoder messages : messageBatch.messages())
+        {
+            final int frameOffset = messageBatch.limit() + fixMessageHeaderLength();
+            final int frameLength = messages.fixMessageLength();
+            messageHeaderDecoder.wrap(srcBuffer, frameOffset);
+
+            final Action action = onFixMessage(srcBuffer, frameOffset, frameLength, true);
+            if (action == ABORT)
+            {
+                return ABORT;
+            }
+
+            messages.skipFixMessage();
+        }
+
+        return CONTINUE;
+    }
+
+    // When batched the fragment can contain messages outside of the replay range, or that have already been replayed
+    // before an abort, these are skipped based upon their sequence number.
+    private Action onFixMessage(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int srcLength,
+        final boolean batched)
+    {
         final int version = messageHeaderDecoder.version();
         messageDecoder.wrap(
             srcBuffer,
@@ -257,6 +302,11 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         asciiBuffer.wrap(srcBuffer, messageOffset, messageLength);
         headerDecoder.decode(asciiBuffer, 0, messageLength);
 
+        if (batched && outsideReplayRange(messageDecoder.sequenceIndex(), headerDecoder.msgSeqNum()))
+        {
+            return CONTINUE;
+        }
+
         if (messageType == HEARTBEAT_MESSAGE_TYPE)
         {
             if (heartbeatRangeSequenceNumberStart == OUT_OF_RANGE)
@@ -328,7 +378,8 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
             encodeBuffer, encodedOffset, encodedLength,
             libraryId, SEQUENCE_RESET_MESSAGE_TYPE,
             messageDecoder.session(), replayFromSequenceIndex, libraryId,
-            CATCHUP_REPLAY, heartbeatRangeSequenceNumberEnd) > 0;
+            CATCHUP_REPLAY, heartbeatRangeSequenceNumberEnd, null, 0,
+            heartbeatRangeSequenceNumberStart, Bool.TRUE) > 0;
 
         if (sent)
         {
@@ -355,6 +406,15 @@ public class CatchupReplayer implements ControlledFragmentHandler, Continuation
         return action;
     }
 
+    private boolean outsideReplayRange(final int sequenceIndex, final int sequenceNumber)
+    {
+        final boolean beforeStart = sequenceIndex < replayFromSequenceIndex ||
+            (sequenceIndex == replayFromSequenceIndex && sequenceNumber < replayFromSequenceNumber);
+        final boolean afterEnd = sequenceIndex > replayToSequenceIndex ||
+            (sequenceIndex == replayToSequenceIndex && sequenceNumber > replayToSequenceNumber);
+        return beforeStart || afterEnd;
+    }
+
     public long attempt()
     {
         if (DebugLogger.isEnabled(CATCHUP))
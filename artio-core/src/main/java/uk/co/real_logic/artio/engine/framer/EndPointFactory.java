@@ -63,21 +63,27 @@ class EndPointFactory
         final int libraryId,
         final Framer framer)
     {
+        final String remoteAddress = channel.remoteAddress();
         return new FixReceiverEndPoint(
             channel,
+            configuration.initialReceiverBufferSize(),
             configuration.receiverBufferSize(),
+            configuration.inboundConnectionBytesReceivedLimit(),
+            fixCounters.bytesRead(connectionId, remoteAddress),
+            fixCounters.receiverBufferSize(connectionId, remoteAddress),
             inboundLibraryPublication,
             connectionId,
             sessionId,
             sequenceIndex,
             sessionContexts,
-            fixCounters.messagesRead(connectionId, channel.remoteAddress()),
+            fixCounters.messagesRead(connectionId, remoteAddress),
             framer,
             errorHandler,
             libraryId,
             gatewaySessions,
             configuration.clock(),
             framer.acceptorFixDictionaryLookup(),
+            configuration.inboundMessageBatching(),
             formatters);
     }
 
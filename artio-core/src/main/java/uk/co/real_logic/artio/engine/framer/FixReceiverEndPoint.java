@@ -17,15 +17,21 @@ package uk.co.real_logic.artio.engine.framer;
 
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.LongArrayList;
 import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.Clock;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.Pressure;
 import uk.co.real_logic.artio.decoder.AbstractLogonDecoder;
+import uk.co.real_logic.artio.decoder.SessionHeaderDecoder;
 import uk.co.real_logic.artio.dictionary.FixDictionary;
 import uk.co.real_logic.artio.dictionary.SessionConstants;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
+import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.engine.SequenceHeaderScanner;
+import uk.co.real_logic.artio.messages.Bool;
 import uk.co.real_logic.artio.messages.DisconnectReason;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.util.CharFormatter;
@@ -41,9 +47,12 @@ import static org.agrona.BitUtil.SIZE_OF_CHAR;
 import static uk.co.real_logic.artio.LogTag.FIX_MESSAGE;
 import static uk.co.real_logic.artio.LogTag.PROXY;
 import static uk.co.real_logic.artio.dictionary.SessionConstants.*;
+import static uk.co.real_logic.artio.engine.SequenceHeaderScanner.MISSING_MSG_SEQ_NUM;
 import static uk.co.real_logic.artio.messages.DisconnectReason.AUTHENTICATION_TIMEOUT;
 import static uk.co.real_logic.artio.messages.DisconnectReason.NO_LOGON;
 import static uk.co.real_logic.artio.messages.MessageStatus.*;
+import static uk.co.real_logic.artio.protocol.GatewayPublication.BATCHED_FIX_MESSAGE_LENGTH;
+import static uk.co.real_logic.artio.protocol.GatewayPublication.FIX_MESSAGE_BATCH_LENGTH;
 import static uk.co.real_logic.artio.session.Session.UNKNOWN;
 import static uk.co.real_logic.artio.util.AsciiBuffer.SEPARATOR;
 import static uk.co.real_logic.artio.util.AsciiBuffer.UNKNOWN_INDEX;
@@ -152,6 +161,17 @@ class FixReceiverEndPoint extends ReceiverEndPoint
     private final Clock clock;
     private final AcceptorFixDictionaryLookup acceptorFixDictionaryLookup;
     private final FixReceiverEndPointFormatters formatters;
+    private final boolean batchMessages;
+    private final int maxBatchLength;
+    private final IntArrayList batchedMessageLengths;
+    private final LongArrayList batchedMessageTypes;
+    private final SequenceHeaderScanner sequenceHeaderScanner = new SequenceHeaderScanner();
+
+    // The MsgSeqNum and PossDupFlag of the most recently framed valid message, when they're known.
+    private int msgSeqNum = MISSING_MSG_SEQ_NUM;
+    private Bool possDupFlag = Bool.NULL_VAL;
+    // Known once the session is logged on, lets framing skip validating the BeginString and BodyLength tags.
+    private final BeginStringPrefix beginStringPrefix = new BeginStringPrefix();
 
     private int libraryId;
     private GatewaySession gatewaySession;
@@ -165,10 +185,16 @@ class FixReceiverEndPoint extends ReceiverEndPoint
     private long lastReadTimestamp;
     private String address;
     private boolean requiresProxyCheck = true;
+    private int batchOffset;
+    private int batchLength;
 
     FixReceiverEndPoint(
         final TcpChannel channel,
-        final int bufferSize,
+        final int initialBufferSize,
+        final int maxBufferSize,
+        final int readLimit,
+        final AtomicCounter bytesRead,
+        final AtomicCounter bufferSize,
         final GatewayPublication publication,
         final long connectionId,
         final long sessionId,
@@ -181,9 +207,19 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         final GatewaySessions gatewaySessions,
         final Clock clock,
         final AcceptorFixDictionaryLookup acceptorFixDictionaryLookup,
+        final boolean batchMessages,
         final FixReceiverEndPointFormatters formatters)
     {
-        super(channel, connectionId, bufferSize, errorHandler, framer);
+        super(
+            channel,
+            connectionId,
+            initialBufferSize,
+            maxBufferSize,
+            readLimit,
+            bytesRead,
+            bufferSize,
+            errorHandler,
+            framer);
         this.formatters = formatters;
         Objects.requireNonNull(publication, "publication");
         Objects.requireNonNull(sessionContexts, "sessionContexts");
@@ -199,6 +235,10 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         this.gatewaySessions = gatewaySessions;
         this.clock = clock;
         this.acceptorFixDictionaryLookup = acceptorFixDictionaryLookup;
+        this.batchMessages = batchMessages;
+        maxBatchLength = batchMessages ? publication.maxPayloadLength() : 0;
+        batchedMessageLengths = batchMessages ? new IntArrayList() : null;
+        batchedMessageTypes = batchMessages ? new LongArrayList() : null;
 
         address = channel.remoteAddress();
     }
@@ -288,6 +328,7 @@ class FixReceiverEndPoint extends ReceiverEndPoint
             this.sessionId = sessionId;
             this.sequenceIndex = sequenceIndex;
             pendingAcceptorLogon = null;
+            onBeginStringKnown();
 
             framer.receiverEndPointPollingOptional(connectionId);
 
@@ -310,6 +351,7 @@ class FixReceiverEndPoint extends ReceiverEndPoint
     // true - no more framed messages in the buffer data to process. This could mean no more messages, or some data
     // that is an incomplete message.
     // false - needs to be retried, aka back-pressured
+    @SuppressWarnings("MethodLength")
     private boolean frameMessages(final long readTimestamp)
     {
         final MutableAsciiBuffer buffer = this.buffer;
@@ -347,6 +389,11 @@ class FixReceiverEndPoint extends ReceiverEndPoint
 
                 if (!validateBodyLength(startOfChecksumTag))
                 {
+                    if (!flushBatch(readTimestamp))
+                    {
+                        return false;
+                    }
+
                     final int endOfMessage = onInvalidBodyLength(offset, startOfChecksumTag, readTimestamp);
                     if (endOfMessage == BREAK)
                     {
@@ -369,7 +416,8 @@ class FixReceiverEndPoint extends ReceiverEndPoint
                 {
                     DebugLogger.log(FIX_MESSAGE, "Invalidated: ", buffer, offset, length);
 
-                    if (saveInvalidChecksumMessage(offset, messageType, length, readTimestamp))
+                    if (!flushBatch(readTimestamp) ||
+                        saveInvalidChecksumMessage(offset, messageType, length, readTimestamp))
                     {
                         return false;
                     }
@@ -385,8 +433,9 @@ class FixReceiverEndPoint extends ReceiverEndPoint
                         return true;
                     }
 
-                    messagesRead.incrementOrdered();
-                    if (!saveMessage(offset, messageType, length, readTimestamp))
+                    readSequenceHeader(endOfBodyLength + 1, startOfChecksumTag);
+
+                    if (!batchOrSaveMessage(offset, messageType, length, readTimestamp))
                     {
                         return false;
                     }
@@ -405,6 +454,11 @@ class FixReceiverEndPoint extends ReceiverEndPoint
             }
         }
 
+        if (!flushBatch(readTimestamp))
+        {
+            return false;
+        }
+
         moveRemainingDataToBufferStart(offset);
         return true;
     }
@@ -633,6 +687,12 @@ class FixReceiverEndPoint extends ReceiverEndPoint
 
     private int scanForBodyLength(final int offset, final long readTimestamp)
     {
+        final int startOfBodyLength = beginStringPrefix.match(buffer, offset);
+        if (startOfBodyLength != UNKNOWN_INDEX)
+        {
+            return startOfBodyLength;
+        }
+
         if (invalidTag(offset, BEGIN_STRING_FIELD))
         {
             return invalidateMessageUnknownIndex(offset, readTimestamp);
@@ -679,6 +739,7 @@ class FixReceiverEndPoint extends ReceiverEndPoint
             final AbstractLogonDecoder logonDecoder = fixDictionary.makeLogonDecoder();
 
             logonDecoder.decode(buffer, offset, length);
+            readSequenceHeader(logonDecoder.header());
 
             pendingAcceptorLogonMsgOffset = offset;
             pendingAcceptorLogonMsgLength = length;
@@ -692,6 +753,33 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         }
     }
 
+    // Only engine managed sessions have their header scanned on the Framer thread, the engine's session parses
+    // their messages anyway. Library owned sessions leave MsgSeqNum as null, so that the indexers parse it from the
+    // body instead of adding work to framing every inbound message.
+    private void readSequenceHeader(final int offset, final int limit)
+    {
+        if (libraryId == FixEngine.ENGINE_LIBRARY_ID)
+        {
+            final SequenceHeaderScanner sequenceHeaderScanner = this.sequenceHeaderScanner;
+            sequenceHeaderScanner.scan(buffer, offset, limit);
+            msgSeqNum = sequenceHeaderScanner.msgSeqNum();
+            possDupFlag = sequenceHeaderScanner.possDupFlag();
+        }
+        else
+        {
+            msgSeqNum = MISSING_MSG_SEQ_NUM;
+            possDupFlag = Bool.NULL_VAL;
+        }
+    }
+
+    // The logon message has already been decoded in order to authenticate it, so its header is reused.
+    private void readSequenceHeader(final SessionHeaderDecoder header)
+    {
+        final int msgSeqNum = header.msgSeqNum();
+        this.msgSeqNum = msgSeqNum > 0 ? msgSeqNum : MISSING_MSG_SEQ_NUM;
+        possDupFlag = header.hasPossDupFlag() ? (header.possDupFlag() ? Bool.TRUE : Bool.FALSE) : Bool.NULL_VAL;
+    }
+
     // returns true if back-pressured
     private boolean stashIfBackPressured(final int offset, final long position)
     {
@@ -704,6 +792,85 @@ class FixReceiverEndPoint extends ReceiverEndPoint
         return backPressured;
     }
 
+    private boolean batchOrSaveMessage(
+        final int offset, final long messageType, final int length, final long readTimestamp)
+    {
+        if (canBatch(messageType, length))
+        {
+            final int batchedLength = BATCHED_FIX_MESSAGE_LENGTH + length;
+            if (batchLength + batchedLength > maxBatchLength && !flushBatch(readTimestamp))
+            {
+                return false;
+            }
+
+            if (batchedMessageLengths.isEmpty())
+            {
+                batchOffset = offset;
+                batchLength = FIX_MESSAGE_BATCH_LENGTH;
+            }
+
+            batchedMessageLengths.addInt(length);
+            batchedMessageTypes.addLong(messageType);
+            batchLength += batchedLength;
+            return true;
+        }
+
+        if (!flushBatch(readTimestamp) || !saveMessage(offset, messageType, length, readTimestamp))
+        {
+            return false;
+        }
+
+        messagesRead.incrementOrdered();
+        return true;
+    }
+
+    // Messages are only batched for library owned sessions, the engine doesn't parse their messages, so
+    // gatewaySession.onMessage() doesn't need to be called for them. Logon and UserRequest messages need
+    // their passwords cleaning, so they're saved individually.
+    private boolean canBatch(final long messageType, final int length)
+    {
+        return batchMessages &&
+            libraryId != FixEngine.ENGINE_LIBRARY_ID &&
+            messageType != LOGON_MESSAGE_TYPE &&
+            messageType != USER_REQUEST_MESSAGE_TYPE &&
+            FIX_MESSAGE_BATCH_LENGTH + BATCHED_FIX_MESSAGE_LENGTH + length <= maxBatchLength;
+    }
+
+    // Saves any batched messages, which are contiguous in the buffer, before a message is saved on its own or
+    // framing completes. Returns false if back-pressured, in which case the batched messages get framed again, so
+    // they're only counted as read once saved.
+    private boolean flushBatch(final long readTimestamp)
+    {
+        if (!batchMessages || batchedMessageLengths.isEmpty())
+        {
+            return true;
+        }
+
+        final long position = publication.saveFixMessageBatch(
+            buffer,
+            batchOffset,
+            batchedMessageLengths,
+            batchedMessageTypes,
+            libraryId,
+            sessionId,
+            sequenceIndex,
+            connectionId,
+            readTimestamp);
+
+        final int messageCount = batchedMessageLengths.size();
+        batchedMessageLengths.clear();
+        batchedMessageTypes.clear();
+
+        if (Pressure.isBackPressured(position))
+        {
+            moveRemainingDataToBufferStart(batchOffset);
+            return false;
+        }
+
+        messagesRead.getAndAddOrdered(messageCount);
+        return true;
+    }
+
     private boolean saveMessage(final int offset, final long messageType, final int length, final long readTimestamp)
     {
         return saveMessage(offset, messageType, length, sessionId, sequenceIndex, readTimestamp);
@@ -748,7 +915,11 @@ class FixReceiverEndPoint extends ReceiverEndPoint
             connectionId,
             OK,
             0,
-            readTimestamp);
+            readTimestamp,
+            null,
+            0,
+            msgSeqNum,
+            possDupFlag);
 
         if (Pressure.isBackPressured(position))
         {
@@ -806,6 +977,11 @@ class FixReceiverEndPoint extends ReceiverEndPoint
     // returns true if back-pressured
     private boolean invalidateMessage(final int offset, final long readTimestamp)
     {
+        if (!flushBatch(readTimestamp))
+        {
+            return true;
+        }
+
         DebugLogger.log(FIX_MESSAGE, "Invalidated: ", buffer, offset, MIN_MESSAGE_SIZE);
         return saveInvalidMessage(offset, readTimestamp);
     }
@@ -945,6 +1121,23 @@ class FixReceiverEndPoint extends ReceiverEndPoint
     void gatewaySession(final GatewaySession gatewaySession)
     {
         this.gatewaySession = gatewaySession;
+        if (sessionId != UNKNOWN)
+        {
+            onBeginStringKnown();
+        }
+    }
+
+    private void onBeginStringKnown()
+    {
+        final FixDictionary fixDictionary = gatewaySession.fixDictionary();
+        if (fixDictionary == null)
+        {
+            beginStringPrefix.reset();
+        }
+        else
+        {
+            beginStringPrefix.beginString(fixDictionary.beginString());
+        }
     }
 
     void pause()
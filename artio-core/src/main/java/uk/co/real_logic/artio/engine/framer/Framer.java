@@ -27,6 +27,7 @@ import org.agrona.collections.Long2LongHashMap.KeyIterator;
 import org.agrona.concurrent.*;
 import uk.co.real_logic.artio.Clock;
 import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.LivenessDetector;
 import uk.co.real_logic.artio.Pressure;
 import uk.co.real_logic.artio.decoder.SessionHeaderDecoder;
@@ -45,6 +46,7 @@ import uk.co.real_logic.artio.session.CompositeKey;
 import uk.co.real_logic.artio.session.InternalSession;
 import uk.co.real_logic.artio.session.Session;
 import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.timing.DutyCycleMonitor;
 import uk.co.real_logic.artio.timing.Timer;
 import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.CharFormatter;
@@ -91,6 +93,10 @@ import static uk.co.real_logic.artio.messages.SessionStatus.LIBRARY_NOTIFICATION
 class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 {
 
+    static final String[] DUTY_CYCLE_STEPS = {
+        "attemptRetries", "sendOutboundMessages", "sendReplayMessages", "pollEndPoints", "pollNewConnections",
+        "pollLibraries", "pollSessions", "checkTimeouts", "adminCommands", "checkDutyCycle" };
+
     private static final DirectBuffer NULL_METADATA = new UnsafeBuffer(new byte[0]);
 
     private final CharFormatter timingOutFormatter = new CharFormatter("Timing out connection to library %s%n");
@@ -118,6 +124,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
     private final TcpChannelSupplier channelSupplier;
     private final EpochClock epochClock;
+    private final DutyCycleMonitor dutyCycleMonitor;
     private final Clock clock;
     private final Timer outboundTimer;
     private final Timer sendTimer;
@@ -134,6 +141,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final EngineConfiguration configuration;
     private final EndPointFactory endPointFactory;
     private final Subscription librarySubscription;
+    private final LibraryOutboundPoller libraryOutboundPoller;
     private final SubscriptionSlowPeeker librarySlowPeeker;
     private final Image replayImage;
     private final SlowPeeker replaySlowPeeker;
@@ -143,13 +151,13 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final CompletionPosition inboundCompletionPosition;
     private final CompletionPosition outboundLibraryCompletionPosition;
     private final FinalImagePositions finalImagePositions;
+    private final FixCounters fixCounters;
     private final SessionIdStrategy sessionIdStrategy;
     private final SessionContexts sessionContexts;
     private final QueuedPipe<AdminCommand> adminCommands;
     private final SequenceNumberIndexReader sentSequenceNumberIndex;
     private final SequenceNumberIndexReader receivedSequenceNumberIndex;
     private final int inboundBytesReceivedLimit;
-    private final int outboundLibraryFragmentLimit;
     private final int replayFragmentLimit;
     private final GatewaySessions gatewaySessions;
     private final Consumer<GatewaySession> onSessionlogon = this::onSessionLogon;
@@ -202,9 +210,12 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final CompletionPosition outboundLibraryCompletionPosition,
         final FinalImagePositions finalImagePositions,
         final AgentInvoker conductorAgentInvoker,
-        final RecordingCoordinator recordingCoordinator)
+        final RecordingCoordinator recordingCoordinator,
+        final FixCounters fixCounters,
+        final DutyCycleMonitor dutyCycleMonitor)
     {
         this.epochClock = epochClock;
+        this.dutyCycleMonitor = dutyCycleMonitor;
         this.clock = configuration.clock();
         this.outboundTimer = outboundTimer;
         this.sendTimer = sendTimer;
@@ -231,17 +242,19 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         this.sentSequenceNumberIndex = sentSequenceNumberIndex;
         this.receivedSequenceNumberIndex = receivedSequenceNumberIndex;
         this.finalImagePositions = finalImagePositions;
+        this.fixCounters = fixCounters;
         this.soleLibraryMode = configuration.initialAcceptedSessionOwner() == SOLE_LIBRARY;
 
         acceptorFixDictionaryLookup = new AcceptorFixDictionaryLookup(
             configuration.acceptorfixDictionary(),
             configuration.acceptorFixDictionaryOverrides());
 
-        receiverEndPoints = new ReceiverEndPoints(errorHandler);
+        receiverEndPoints = new ReceiverEndPoints(errorHandler, configuration.receiverEndPointPollThreshold());
 
         this.librarySlowPeeker = new SubscriptionSlowPeeker(slowSubscription, librarySubscription);
 
-        this.outboundLibraryFragmentLimit = configuration.outboundLibraryFragmentLimit();
+        this.libraryOutboundPoller = new LibraryOutboundPoller(
+            librarySubscription, configuration, fixCounters, SystemNanoClock.INSTANCE);
         this.replayFragmentLimit = configuration.replayFragmentLimit();
         this.inboundBytesReceivedLimit = configuration.inboundBytesReceivedLimit();
 
@@ -358,18 +371,23 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
     public int doWork() throws Exception
     {
+        final DutyCycleMonitor dutyCycleMonitor = this.dutyCycleMonitor;
+        dutyCycleMonitor.startCycle();
         final long timeInMs = epochClock.time();
         senderEndPoints.timeInMs(timeInMs);
-        return retryManager.attemptSteps() +
-            sendOutboundMessages() +
-            sendReplayMessages() +
-            pollEndPoints() +
-            pollNewConnections(timeInMs) +
-            pollLibraries(timeInMs) +
-            gatewaySessions.pollSessions(timeInMs) +
-            senderEndPoints.checkTimeouts(timeInMs) +
-            adminCommands.drain(onAdminCommand) +
-            checkDutyCycle();
+        final int workCount =
+            dutyCycleMonitor.step(retryManager.attemptSteps()) +
+            dutyCycleMonitor.step(sendOutboundMessages()) +
+            dutyCycleMonitor.step(sendReplayMessages()) +
+            dutyCycleMonitor.step(pollEndPoints()) +
+            dutyCycleMonitor.step(pollNewConnections(timeInMs)) +
+            dutyCycleMonitor.step(pollLibraries(timeInMs)) +
+            dutyCycleMonitor.step(gatewaySessions.pollSessions(timeInMs)) +
+            dutyCycleMonitor.step(senderEndPoints.checkTimeouts(timeInMs)) +
+            dutyCycleMonitor.step(adminCommands.drain(onAdminCommand)) +
+            dutyCycleMonitor.step(checkDutyCycle());
+        dutyCycleMonitor.endCycle();
+        return workCount;
     }
 
     private int checkDutyCycle()
@@ -410,7 +428,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
     private int sendOutboundMessages()
     {
-        int messagesRead = librarySubscription.controlledPoll(librarySubscriber, outboundLibraryFragmentLimit);
+        int messagesRead = libraryOutboundPoller.poll(librarySubscriber);
         messagesRead += librarySlowPeeker.peek(senderEndPointAssembler);
 
         if (nonLoggingPositionSender != null)
@@ -439,6 +457,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
                 iterator.remove();
                 library.releaseSlowPeeker();
+                libraryOutboundPoller.onLibraryTimeout(library.libraryId(), library.aeronSessionId());
                 tryAcquireLibrarySessions(library);
                 saveLibraryTimeout(library);
             }
@@ -665,10 +684,15 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
 
                     iLink3SenderEndPoints.add(new ILink3SenderEndPoint(
                         connectionId, channel, errorHandler, inboundPublication, libraryId));
+                    final String remoteAddress = channel.remoteAddress();
                     receiverEndPoints.add(new ILink3ReceiverEndPoint(
                         connectionId,
                         channel,
+                        configuration.initialReceiverBufferSize(),
                         configuration.receiverBufferSize(),
+                        configuration.inboundConnectionBytesReceivedLimit(),
+                        fixCounters.bytesRead(connectionId, remoteAddress),
+                        fixCounters.receiverBufferSize(connectionId, remoteAddress),
                         errorHandler,
                         this,
                         inboundPublication));
@@ -1283,6 +1307,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             final LiveLibraryInfo library = new LiveLibraryInfo(
                 libraryId, libraryName, livenessDetector, aeronSessionId, librarySlowPeeker);
             idToLibrary.put(libraryId, library);
+            libraryOutboundPoller.onLibraryConnect(libraryId, libraryName, aeronSessionId);
 
             DebugLogger.log(LIBRARY_MANAGEMENT, libraryConnectedFormatter, libraryId, libraryName);
 
@@ -145,7 +145,10 @@ public class FramerContext
             engineContext.outboundLibraryCompletionPosition(),
             finalImagePositions,
             conductorAgentInvoker,
-            recordingCoordinator);
+            recordingCoordinator,
+            fixCounters,
+            engineContext.dutyCycleMonitors().newMonitor(
+                configuration.agentNamePrefix() + "Framer", Framer.DUTY_CYCLE_STEPS));
     }
 
     public Agent framer()
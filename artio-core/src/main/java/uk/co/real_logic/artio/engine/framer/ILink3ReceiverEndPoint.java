@@ -18,6 +18,7 @@ package uk.co.real_logic.artio.engine.framer;
 import io.aeron.ExclusivePublication;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
 import uk.co.real_logic.artio.messages.DisconnectReason;
@@ -41,12 +42,25 @@ class ILink3ReceiverEndPoint extends ReceiverEndPoint
     ILink3ReceiverEndPoint(
         final long connectionId,
         final TcpChannel channel,
-        final int bufferSize,
+        final int initialBufferSize,
+        final int maxBufferSize,
+        final int readLimit,
+        final AtomicCounter bytesRead,
+        final AtomicCounter bufferSize,
         final ErrorHandler errorHandler,
         final Framer framer,
         final ExclusivePublication inboundPublication)
     {
-        super(channel, connectionId, bufferSize, errorHandler, framer);
+        super(
+            channel,
+            connectionId,
+            initialBufferSize,
+            maxBufferSize,
+            readLimit,
+            bytesRead,
+            bufferSize,
+            errorHandler,
+            framer);
         this.inboundPublication = inboundPublication;
 
         makeHeader();
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import io.aeron.Image;
+import io.aeron.Subscription;
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.IntArrayList;
+import org.agrona.concurrent.NanoClock;
+import org.agrona.concurrent.status.AtomicCounter;
+import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LIBRARY_OUTBOUND_POLL_WEIGHT;
+
+/**
+ * Polls the outbound library subscription image by image, rather than through
+ * {@link Subscription#controlledPoll(ControlledFragmentHandler, int)}, so that each library can be given its own
+ * share of the Framer's duty cycle.
+ *
+ * Libraries with a higher weight are polled first and have their fragment and byte budgets multiplied by their
+ * weight. Images that don't belong to a connected library, for example the Engine's own outbound publication or
+ * a library that is still in the process of connecting, are polled afterwards with the default weight.
+ */
+class LibraryOutboundPoller
+{
+    private static final LibraryPollState[] EMPTY_STATES = new LibraryPollState[0];
+    private static final Comparator<LibraryPollState> BY_WEIGHT_DESCENDING =
+        (left, right) -> Integer.compare(right.weight, left.weight);
+
+    private final Int2ObjectHashMap<LibraryPollState> sessionIdToState = new Int2ObjectHashMap<>();
+    private final Consumer<Image> pollUnscheduledImageFunc = this::pollUnscheduledImage;
+
+    private final Subscription subscription;
+    private final Map<String, Integer> libraryNameToWeight;
+    private final int fragmentLimit;
+    private final int byteLimit;
+    private final FixCounters fixCounters;
+    private final NanoClock clock;
+
+    private LibraryPollState[] prioritisedStates = EMPTY_STATES;
+
+    private ControlledFragmentHandler handler;
+    private int unscheduledFragmentsRead;
+
+    LibraryOutboundPoller(
+        final Subscription subscription,
+        final EngineConfiguration configuration,
+        final FixCounters fixCounters,
+        final NanoClock clock)
+    {
+        this.subscription = subscription;
+        this.libraryNameToWeight = configuration.libraryOutboundPollWeights();
+        this.fragmentLimit = configuration.outboundLibraryFragmentLimit();
+        this.byteLimit = configuration.outboundLibraryByteLimit();
+        this.fixCounters = fixCounters;
+        this.clock = clock;
+    }
+
+    int poll(final ControlledFragmentHandler handler)
+    {
+        int fragmentsRead = 0;
+
+        final LibraryPollState[] prioritisedStates = this.prioritisedStates;
+        for (final LibraryPollState state : prioritisedStates)
+        {
+            fragmentsRead += state.poll(handler);
+        }
+
+        this.handler = handler;
+        unscheduledFragmentsRead = 0;
+        subscription.forEachImage(pollUnscheduledImageFunc);
+        this.handler = null;
+
+        return fragmentsRead + unscheduledFragmentsRead;
+    }
+
+    private void pollUnscheduledImage(final Image image)
+    {
+        if (!sessionIdToState.containsKey(image.sessionId()))
+        {
+            unscheduledFragmentsRead += poll(image, handler, DEFAULT_LIBRARY_OUTBOUND_POLL_WEIGHT);
+        }
+    }
+
+    private int poll(final Image image, final ControlledFragmentHandler handler, final int weight)
+    {
+        final long limitPosition = image.position() + (long)byteLimit * weight;
+        return image.boundedControlledPoll(handler, limitPosition, fragmentLimit * weight);
+    }
+
+    void onLibraryConnect(final int libraryId, final String libraryName, final int aeronSessionId)
+    {
+        LibraryPollState state = sessionIdToState.get(aeronSessionId);
+        if (state == null)
+        {
+            state = new LibraryPollState(
+                aeronSessionId,
+                fixCounters.libraryFragmentsPolled(libraryId, aeronSessionId),
+                fixCounters.libraryPollTime(libraryId, aeronSessionId));
+            sessionIdToState.put(aeronSessionId, state);
+        }
+
+        state.addLibrary(libraryId, libraryWeight(libraryName));
+        reprioritise();
+    }
+
+    void onLibraryTimeout(final int libraryId, final int aeronSessionId)
+    {
+        final LibraryPollState state = sessionIdToState.get(aeronSessionId);
+        if (state != null)
+        {
+            if (state.removeLibrary(libraryId))
+            {
+                sessionIdToState.remove(aeronSessionId);
+                state.close();
+            }
+
+            reprioritise();
+        }
+    }
+
+    int libraryWeight(final String libraryName)
+    {
+        final Integer weight = libraryNameToWeight.get(libraryName);
+        return weight == null ? DEFAULT_LIBRARY_OUTBOUND_POLL_WEIGHT : weight;
+    }
+
+    private void reprioritise()
+    {
+        final LibraryPollState[] prioritisedStates = sessionIdToState.values().toArray(EMPTY_STATES);
+        Arrays.sort(prioritisedStates, BY_WEIGHT_DESCENDING);
+        this.prioritisedStates = prioritisedStates;
+    }
+
+    final class LibraryPollState
+    {
+        private final IntArrayList libraryIds = new IntArrayList();
+        private final IntArrayList libraryWeights = new IntArrayList();
+        private final int aeronSessionId;
+        private final AtomicCounter fragmentsPolled;
+        private final AtomicCounter pollTimeInNs;
+
+        private Image image;
+        private int weight = DEFAULT_LIBRARY_OUTBOUND_POLL_WEIGHT;
+
+        LibraryPollState(
+            final int aeronSessionId,
+            final AtomicCounter fragmentsPolled,
+            final AtomicCounter pollTimeInNs)
+        {
+            this.aeronSessionId = aeronSessionId;
+            this.fragmentsPolled = fragmentsPolled;
+            this.pollTimeInNs = pollTimeInNs;
+        }
+
+        int poll(final ControlledFragmentHandler handler)
+        {
+            Image image = this.image;
+            if (image == null || image.isClosed())
+            {
+                image = subscription.imageBySessionId(aeronSessionId);
+                this.image = image;
+                if (image == null)
+                {
+                    return 0;
+                }
+            }
+
+            final long startInNs = clock.nanoTime();
+            final int fragmentsRead = LibraryOutboundPoller.this.poll(image, handler, weight);
+            if (fragmentsRead > 0)
+            {
+                fragmentsPolled.getAndAddOrdered(fragmentsRead);
+                pollTimeInNs.getAndAddOrdered(clock.nanoTime() - startInNs);
+            }
+
+            return fragmentsRead;
+        }
+
+        // Libraries within the same process can share a publication, and thus an image, with each other.
+        void addLibrary(final int libraryId, final int libraryWeight)
+        {
+            libraryIds.addInt(libraryId);
+            libraryWeights.addInt(libraryWeight);
+            weight = Math.max(weight, libraryWeight);
+        }
+
+        boolean removeLibrary(final int libraryId)
+        {
+            final int index = libraryIds.indexOf(libraryId);
+            if (index != -1)
+            {
+                libraryIds.fastUnorderedRemove(index);
+                libraryWeights.fastUnorderedRemove(index);
+            }
+
+            int weight = DEFAULT_LIBRARY_OUTBOUND_POLL_WEIGHT;
+            for (int i = 0, size = libraryWeights.size(); i < size; i++)
+            {
+                weight = Math.max(weight, libraryWeights.getInt(i));
+            }
+            this.weight = weight;
+
+            return libraryIds.isEmpty();
+        }
+
+        int weight()
+        {
+            return weight;
+        }
+
+        void close()
+        {
+            fragmentsPolled.close();
+            pollTimeInNs.close();
+        }
+    }
+}
@@ -15,7 +15,9 @@
  */
 package uk.co.real_logic.artio.engine.framer;
 
+import org.agrona.CloseHelper;
 import org.agrona.ErrorHandler;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.messages.DisconnectReason;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
@@ -33,43 +35,103 @@ public abstract class ReceiverEndPoint
 {
     protected static final int SOCKET_DISCONNECTED = -1;
 
+    // Number of consecutive reads of data that use less than a quarter of the buffer before it is shrunk.
+    static final int SHRINK_AFTER_LIGHT_READS = 64;
+
     protected final TcpChannel channel;
     protected final long connectionId;
     protected boolean hasDisconnected = false;
     protected final MutableAsciiBuffer buffer;
-    protected final ByteBuffer byteBuffer;
+    protected ByteBuffer byteBuffer;
     protected final ErrorHandler errorHandler;
     protected final Framer framer;
 
+    private final int initialBufferSize;
+    private final int maxBufferSize;
+    private final int readLimit;
+    private final AtomicCounter bytesRead;
+    private final AtomicCounter bufferSize;
+
+    private int lightReads = 0;
+
     protected int usedBufferData = 0;
     protected SelectionKey selectionKey;
 
+    /**
+     * Creates a receiver end point whose framing buffer starts at initialBufferSize, doubles whenever it fills up
+     * with data that can't yet be framed and halves again when it's lightly used, between initialBufferSize and
+     * maxBufferSize.
+     *
+     * @param channel the channel to read from.
+     * @param connectionId the connection id of the channel.
+     * @param initialBufferSize the initial, and minimum, size of the framing buffer.
+     * @param maxBufferSize the maximum size of the framing buffer, and thus the largest message that can be framed.
+     * @param readLimit the maximum number of bytes to read from the channel on a single poll.
+     * @param bytesRead counter of the total number of bytes read from the channel.
+     * @param bufferSize counter of the current size of the framing buffer.
+     * @param errorHandler the error handler.
+     * @param framer the framer.
+     */
     public ReceiverEndPoint(
         final TcpChannel channel,
         final long connectionId,
-        final int bufferSize,
+        final int initialBufferSize,
+        final int maxBufferSize,
+        final int readLimit,
+        final AtomicCounter bytesRead,
+        final AtomicCounter bufferSize,
         final ErrorHandler errorHandler,
         final Framer framer)
     {
         this.channel = channel;
         this.connectionId = connectionId;
+        this.initialBufferSize = initialBufferSize;
+        this.maxBufferSize = maxBufferSize;
+        this.readLimit = readLimit;
+        this.bytesRead = bytesRead;
+        this.bufferSize = bufferSize;
         this.errorHandler = errorHandler;
         this.framer = framer;
 
-        byteBuffer = ByteBuffer.allocateDirect(bufferSize);
+        byteBuffer = ByteBuffer.allocateDirect(initialBufferSize);
         buffer = new MutableAsciiBuffer(byteBuffer);
+        bufferSize.setOrdered(initialBufferSize);
     }
 
     int readData() throws IOException
     {
-        final int dataRead = channel.read(byteBuffer);
+        ByteBuffer byteBuffer = this.byteBuffer;
+        int capacity = byteBuffer.capacity();
+        // A full buffer means that we have a message that is larger than the buffer, or consistently have more data
+        // than we can frame.
+        if (usedBufferData == capacity && capacity < maxBufferSize)
+        {
+            capacity = Math.min(maxBufferSize, capacity * 2);
+            byteBuffer = resize(capacity);
+        }
+
+        // Bounded so that a single busy connection can't consume the whole of the Framer's inbound read budget.
+        byteBuffer.limit((int)Math.min(capacity, (long)usedBufferData + readLimit));
+        final int dataRead;
+        try
+        {
+            dataRead = channel.read(byteBuffer);
+        }
+        finally
+        {
+            byteBuffer.limit(capacity);
+        }
+
         if (dataRead != SOCKET_DISCONNECTED)
         {
             if (dataRead > 0)
             {
                 DebugLogger.log(FIX_MESSAGE_TCP, "Read     ", buffer, 0, dataRead);
+                bytesRead.getAndAddOrdered(dataRead);
+                usedBufferData += dataRead;
+                // Only reads that receive data count towards shrinking, otherwise idle polls would shrink the buffer.
+                checkShrink(capacity);
             }
-            usedBufferData += dataRead;
         }
         else
         {
@@ -79,6 +141,47 @@ public abstract class ReceiverEndPoint
         return dataRead;
     }
 
+    private void checkShrink(final int capacity)
+    {
+        if (capacity > initialBufferSize)
+        {
+            final int shrunkCapacity = Math.max(initialBufferSize, capacity / 2);
+            if (usedBufferData <= capacity / 4)
+            {
+                if (++lightReads >= SHRINK_AFTER_LIGHT_READS && usedBufferData <= shrunkCapacity)
+                {
+                    resize(shrunkCapacity);
+                }
+            }
+            else
+            {
+                lightReads = 0;
+            }
+        }
+    }
+
+    private ByteBuffer resize(final int capacity)
+    {
+        final ByteBuffer oldByteBuffer = this.byteBuffer;
+        final ByteBuffer newByteBuffer = ByteBuffer.allocateDirect(capacity);
+        final int usedBufferData = this.usedBufferData;
+
+        oldByteBuffer.limit(usedBufferData).position(0);
+        newByteBuffer.put(oldByteBuffer);
+
+        byteBuffer = newByteBuffer;
+        buffer.wrap(newByteBuffer);
+        lightReads = 0;
+        bufferSize.setOrdered(capacity);
+
+        return newByteBuffer;
+    }
+
+    int bufferCapacity()
+    {
+        return byteBuffer.capacity();
+    }
+
     long connectionId()
     {
         return connectionId;
@@ -97,6 +200,7 @@ public abstract class ReceiverEndPoint
     void close(final DisconnectReason reason)
     {
         closeResources();
+        CloseHelper.closeAll(bytesRead, bufferSize);
 
         if (!hasDisconnected)
         {
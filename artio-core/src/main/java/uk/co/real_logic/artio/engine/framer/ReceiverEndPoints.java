@@ -31,6 +31,7 @@ import static uk.co.real_logic.artio.messages.DisconnectReason.ENGINE_SHUTDOWN;
 class ReceiverEndPoints extends TransportPoller
 {
     private final ErrorHandler errorHandler;
+    private final int pollThreshold;
 
     // Authentication flow requires periodic polling of the receiver end points until the authentication is
     // complete, so these endpoints are always polled, rather than using the selector.
@@ -39,10 +40,14 @@ class ReceiverEndPoints extends TransportPoller
     // An endpoint that has read data out of the TCP layer but has been back-pressured when attempting to write
     // the data into the Aeron stream.
     private ReceiverEndPoint backpressuredEndPoint = null;
+    // Rotated on every poll so that no endpoint is consistently polled first, and thus able to use up the
+    // Framer's inbound bytes limit, when many endpoints have data to read.
+    private int pollStartIndex = 0;
 
-    ReceiverEndPoints(final ErrorHandler errorHandler)
+    ReceiverEndPoints(final ErrorHandler errorHandler, final int pollThreshold)
     {
         this.errorHandler = errorHandler;
+        this.pollThreshold = pollThreshold;
     }
 
     void add(final ReceiverEndPoint endPoint)
@@ -185,10 +190,15 @@ class ReceiverEndPoints extends TransportPoller
         int bytesReceived = 0;
         final ReceiverEndPoint[] endPoints = this.endPoints;
         final int numEndPoints = endPoints.length;
-        final int threshold = ITERATION_THRESHOLD - numRequiredPollingEndPoints;
+        final int threshold = pollThreshold - numRequiredPollingEndPoints;
         if (numEndPoints <= threshold)
         {
-            bytesReceived = pollArray(bytesReceived, endPoints, numEndPoints);
+            final int startIndex = nextPollStartIndex(numEndPoints);
+            for (int i = 0; i < numEndPoints; i++)
+            {
+                final int index = wrapIndex(startIndex + i, numEndPoints);
+                bytesReceived += endPoints[index].poll();
+            }
         }
         else
         {
@@ -196,10 +206,11 @@ class ReceiverEndPoints extends TransportPoller
 
             final SelectionKey[] keys = selectedKeySet.keys();
             final int size = selectedKeySet.size();
-            int i;
-            for (i = 0; i < size; i++)
+            final int startIndex = nextPollStartIndex(size);
+            for (int i = 0; i < size; i++)
             {
-                final ReceiverEndPoint endPoint = (ReceiverEndPoint)keys[i].attachment();
+                final int index = wrapIndex(startIndex + i, size);
+                final ReceiverEndPoint endPoint = (ReceiverEndPoint)keys[index].attachment();
                 final int polledBytes = endPoint.poll();
                 if (polledBytes < 0)
                 {
@@ -211,15 +222,32 @@ class ReceiverEndPoints extends TransportPoller
                 bytesReceived += polledBytes;
             }
 
-            // check we need to reset
-            if (i != 0)
+            // Selection is level triggered, so any keys that weren't polled due to back-pressure will be
+            // selected again on the next selectNow() call.
+            if (size != 0)
             {
-                selectedKeySet.reset(i);
+                selectedKeySet.reset();
             }
         }
         return bytesReceived;
     }
 
+    private int nextPollStartIndex(final int size)
+    {
+        int pollStartIndex = this.pollStartIndex;
+        if (pollStartIndex >= size)
+        {
+            pollStartIndex = 0;
+        }
+        this.pollStartIndex = pollStartIndex + 1;
+        return pollStartIndex;
+    }
+
+    private static int wrapIndex(final int index, final int size)
+    {
+        return index >= size ? index - size : index;
+    }
+
     private int pollArray(
         final int bytesAlreadyReceived, final ReceiverEndPoint[] endPoints, final int numRequiredPollingEndPoints)
     {
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.agrona.BitUtil.SIZE_OF_BYTE;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+
+/**
+ * A {@link FixMessageConsumer} that writes messages into memory mapped log files, for example from a
+ * {@link FixMessageLogger}. Writing a message doesn't allocate, files are rotated once they reach a maximum size or,
+ * optionally, once they've been open for a period of time.
+ *
+ * Each file is named {@code <prefix>-<time the file was opened in ms>-<file index><suffix>} and is truncated to the
+ * length of the records written into it when it's rotated or the writer is closed.
+ */
+public class FixMessageLogWriter implements FixMessageConsumer, AutoCloseable
+{
+    public enum Format
+    {
+        /**
+         * Each record is the raw FIX message followed by a newline.
+         */
+        RAW_FIX(".fix"),
+
+        /**
+         * Each record is the little endian binary layout described by the {@code *_OFFSET} constants followed by
+         * the raw FIX message: its total length, the timestamp from the message's frame, session id, connection id,
+         * sequence index and the {@link uk.co.real_logic.artio.messages.MessageStatus} value.
+         */
+        BINARY(".bin");
+
+        private final String suffix;
+
+        Format(final String suffix)
+        {
+            this.suffix = suffix;
+        }
+
+        public String suffix()
+        {
+            return suffix;
+        }
+    }
+
+    public static final int RECORD_LENGTH_OFFSET = 0;
+    public static final int TIMESTAMP_OFFSET = RECORD_LENGTH_OFFSET + SIZE_OF_INT;
+    public static final int SESSION_ID_OFFSET = TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    public static final int CONNECTION_ID_OFFSET = SESSION_ID_OFFSET + SIZE_OF_LONG;
+    public static final int SEQUENCE_INDEX_OFFSET = CONNECTION_ID_OFFSET + SIZE_OF_LONG;
+    public static final int STATUS_OFFSET = SEQUENCE_INDEX_OFFSET + SIZE_OF_INT;
+    public static final int BINARY_HEADER_LENGTH = STATUS_OFFSET + SIZE_OF_BYTE;
+
+    private static final byte NEWLINE = '\n';
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(0, 0);
+    private final File directory;
+    private final String prefix;
+    private final Format format;
+    private final long maxFileSize;
+    private final long rotationPeriodInMs;
+    private final EpochClock clock;
+
+    private File file;
+    private MappedByteBuffer mappedBuffer;
+    private int position;
+    private int fileIndex;
+    private long fileOpenTimeInMs;
+
+    /**
+     * Create the writer.
+     *
+     * @param directory the directory to write log files into, created if it doesn't exist.
+     * @param prefix the prefix of the name of each log file.
+     * @param format the format of records in the log files.
+     * @param maxFileSize the maximum size of a log file in bytes. A file is only bigger than this if a single record
+     *                    is bigger than it.
+     * @param rotationPeriodInMs the maximum time that a log file is written to, or 0 to only rotate on size.
+     * @param clock the clock used to time the rotation period.
+     */
+    public FixMessageLogWriter(
+        final File directory,
+        final String prefix,
+        final Format format,
+        final int maxFileSize,
+        final long rotationPeriodInMs,
+        final EpochClock clock)
+    {
+        if (maxFileSize <= 0)
+        {
+            throw new IllegalArgumentException("maxFileSize must be positive: " + maxFileSize);
+        }
+
+        if (rotationPeriodInMs < 0)
+        {
+            throw new IllegalArgumentException("rotationPeriodInMs must not be negative: " + rotationPeriodInMs);
+        }
+
+        IoUtil.ensureDirectoryExists(directory, "FIX message log directory");
+
+        this.directory = directory;
+        this.prefix = prefix;
+        this.format = format;
+        this.maxFileSize = maxFileSize;
+        this.rotationPeriodInMs = rotationPeriodInMs;
+        this.clock = clock;
+    }
+
+    public void onMessage(
+        final FixMessageDecoder message,
+        final DirectBuffer srcBuffer,
+        final int offset,
+        final int length,
+        final Header header)
+    {
+        final int bodyLength = message.bodyLength();
+        final boolean binary = format == Format.BINARY;
+        final int recordLength = binary ? BINARY_HEADER_LENGTH + bodyLength : bodyLength + 1;
+
+        acquireSpace(recordLength);
+
+        final UnsafeBuffer buffer = this.buffer;
+        final int position = this.position;
+        if (binary)
+        {
+            buffer.putInt(position + RECORD_LENGTH_OFFSET, recordLength, LITTLE_ENDIAN);
+            buffer.putLong(position + TIMESTAMP_OFFSET, message.timestamp(), LITTLE_ENDIAN);
+            buffer.putLong(position + SESSION_ID_OFFSET, message.session(), LITTLE_ENDIAN);
+            buffer.putLong(position + CONNECTION_ID_OFFSET, message.connection(), LITTLE_ENDIAN);
+            buffer.putInt(position + SEQUENCE_INDEX_OFFSET, message.sequenceIndex(), LITTLE_ENDIAN);
+            buffer.putByte(position + STATUS_OFFSET, (byte)message.status().value());
+            message.getBody(buffer, position + BINARY_HEADER_LENGTH, bodyLength);
+        }
+        else
+        {
+            message.getBody(buffer, position, bodyLength);
+            buffer.putByte(position + bodyLength, NEWLINE);
+        }
+
+        this.position = position + recordLength;
+    }
+
+    /**
+     * Get the file that's currently being written to.
+     *
+     * @return the file that's currently being written to, or null if nothing has been written yet.
+     */
+    public File file()
+    {
+        return file;
+    }
+
+    public void close()
+    {
+        closeFile();
+    }
+
+    private void acquireSpace(final int recordLength)
+    {
+        if (mappedBuffer == null ||
+            position + recordLength > buffer.capacity() ||
+            (rotationPeriodInMs > 0 && clock.time() - fileOpenTimeInMs >= rotationPeriodInMs))
+        {
+            closeFile();
+            openFile(recordLength);
+        }
+    }
+
+    private void openFile(final int recordLength)
+    {
+        final long timeInMs = clock.time();
+        final File file = new File(directory, prefix + "-" + timeInMs + "-" + fileIndex + format.suffix());
+        final long fileSize = Math.max(maxFileSize, recordLength);
+
+        mappedBuffer = IoUtil.mapNewFile(file, fileSize, false);
+        buffer.wrap(mappedBuffer);
+        position = 0;
+        fileIndex++;
+        fileOpenTimeInMs = timeInMs;
+        this.file = file;
+    }
+
+    private void closeFile()
+    {
+        final MappedByteBuffer mappedBuffer = this.mappedBuffer;
+        if (mappedBuffer != null)
+        {
+            mappedBuffer.force();
+            buffer.wrap(0, 0);
+            IoUtil.unmap(mappedBuffer);
+            this.mappedBuffer = null;
+
+            try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw"))
+            {
+                randomAccessFile.setLength(position);
+            }
+            catch (final IOException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+        }
+    }
+}
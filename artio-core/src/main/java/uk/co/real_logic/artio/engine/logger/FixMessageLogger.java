@@ -16,18 +16,33 @@
 package uk.co.real_logic.artio.engine.logger;
 
 import io.aeron.Aeron;
-import io.aeron.FragmentAssembler;
+import io.aeron.ControlledFragmentAssembler;
+import io.aeron.Image;
 import io.aeron.Subscription;
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.ShutdownSignalBarrier;
+import org.agrona.concurrent.SystemEpochClock;
 import uk.co.real_logic.artio.CommonConfiguration;
+import uk.co.real_logic.artio.messages.FixMessageBatchDecoder;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 
+import java.io.File;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static io.aeron.logbuffer.FrameDescriptor.BEGIN_FRAG_FLAG;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_OUTBOUND_REPLAY_STREAM;
+import static uk.co.real_logic.artio.messages.FixMessageBatchDecoder.MessagesDecoder.fixMessageHeaderLength;
 
 /**
  * Prints out FIX messages from an Aeron Stream - designed for integration into logging tools like
@@ -36,20 +51,49 @@ import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_OUTBOUND
  * Main method is provided as an example of usage - when integrating into your specific system you should pass in the
  * library aeron channel and stream ids used by your {@link uk.co.real_logic.artio.engine.EngineConfiguration}.
  *
- * Since this class generates Java objects for every message that passes through the system you're recommended to run
- * it in a different process to the normal Artio Engine if you're operating in a latency sensitive environment.
+ * Messages from the inbound, outbound and replay streams are merged in order of the timestamp of their
+ * FixMessage frame. The merge is best effort: a stream that has no messages available when the next message is
+ * picked is assumed to have caught up, so a message that arrives on it later can be logged after messages with
+ * later timestamps from the other streams.
+ *
+ * When constructed with a {@link FixMessageConsumer}, for example a {@link FixMessageLogWriter}, the logger doesn't
+ * allocate in steady state. The {@link Consumer} of {@link String} constructor generates Java objects for every
+ * message that passes through the system, so if you're operating in a latency sensitive environment you're
+ * recommended to run it in a different process to the normal Artio Engine.
  */
 public class FixMessageLogger implements Agent
 {
+    public static final int DEFAULT_MESSAGE_LIMIT = 30;
+
+    private static final long NO_MESSAGE = Long.MAX_VALUE;
+
+    /**
+     * Logs FIX messages from the default IPC streams, either to standard output or, if a directory is given as the
+     * first argument, into raw FIX log files in that directory which are rotated hourly or once they reach 64MB.
+     *
+     * @param args an optional directory to write log files into.
+     */
     public static void main(final String[] args)
     {
+        final FixMessageLogWriter writer = args.length > 0 ? new FixMessageLogWriter(
+            new File(args[0]),
+            "fix-messages",
+            FixMessageLogWriter.Format.RAW_FIX,
+            64 * 1024 * 1024,
+            TimeUnit.HOURS.toMillis(1),
+            new SystemEpochClock()) : null;
+
+        final FixMessageConsumer consumer = writer != null ? writer :
+            (message, buffer, offset, length, header) -> System.out.println(message.body());
+
         final FixMessageLogger logger = new FixMessageLogger(
-            System.out::println,
+            consumer,
             new Aeron.Context(),
             IPC_CHANNEL,
             DEFAULT_INBOUND_LIBRARY_STREAM,
             DEFAULT_OUTBOUND_LIBRARY_STREAM,
-            DEFAULT_OUTBOUND_REPLAY_STREAM);
+            DEFAULT_OUTBOUND_REPLAY_STREAM,
+            DEFAULT_MESSAGE_LIMIT);
 
         final AgentRunner runner = new AgentRunner(
             CommonConfiguration.backoffIdleStrategy(),
@@ -59,13 +103,28 @@ public class FixMessageLogger implements Agent
         );
 
         AgentRunner.startOnThread(runner);
+
+        if (writer != null)
+        {
+            new ShutdownSignalBarrier().await();
+            runner.close();
+            writer.close();
+        }
     }
 
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final FixMessageDecoder fixMessage = new FixMessageDecoder();
+    private final FixMessageBatchDecoder messageBatch = new FixMessageBatchDecoder();
+    private final ControlledFragmentHandler peekHandler = this::onPeekFragment;
+    private final ControlledFragmentAssembler assembler;
+
     private final Aeron aeron;
-    private final Subscription outboundSubscription;
-    private final Subscription inboundSubscription;
-    private final Subscription replaySubscription;
-    private final FragmentAssembler fragmentAssembler;
+    private final Subscription[] subscriptions;
+    private final int messageLimit;
+
+    private long peekedTimestamp;
+    private boolean messageComplete;
+    private Image inProgressImage;
 
     public FixMessageLogger(
         final Consumer<String> fixMessageConsumer,
@@ -75,22 +134,85 @@ public class FixMessageLogger implements Agent
         final int outboundStreamId,
         final int outboundReplayStreamId)
     {
+        this(
+            (message, buffer, offset, length, header) -> fixMessageConsumer.accept(message.body()),
+            context,
+            libraryAeronChannel,
+            inboundStreamId,
+            outboundStreamId,
+            outboundReplayStreamId,
+            DEFAULT_MESSAGE_LIMIT);
+    }
+
+    /**
+     * Create the logger.
+     *
+     * @param fixMessageConsumer the consumer that each FIX message is passed to, in timestamp order.
+     * @param context the context used to connect to Aeron.
+     * @param libraryAeronChannel the channel used by the engine to communicate with libraries.
+     * @param inboundStreamId the inbound library stream id.
+     * @param outboundStreamId the outbound library stream id.
+     * @param outboundReplayStreamId the outbound replay stream id.
+     * @param messageLimit the maximum number of messages to log in each duty cycle.
+     */
+    public FixMessageLogger(
+        final FixMessageConsumer fixMessageConsumer,
+        final Aeron.Context context,
+        final String libraryAeronChannel,
+        final int inboundStreamId,
+        final int outboundStreamId,
+        final int outboundReplayStreamId,
+        final int messageLimit)
+    {
+        if (messageLimit <= 0)
+        {
+            throw new IllegalArgumentException("messageLimit must be positive: " + messageLimit);
+        }
+
+        this.messageLimit = messageLimit;
+
         aeron = Aeron.connect(context);
-        inboundSubscription = aeron.addSubscription(libraryAeronChannel, inboundStreamId);
-        outboundSubscription = aeron.addSubscription(libraryAeronChannel, outboundStreamId);
-        replaySubscription = aeron.addSubscription(libraryAeronChannel, outboundReplayStreamId);
+        subscriptions = new Subscription[]{
+            aeron.addSubscription(libraryAeronChannel, inboundStreamId),
+            aeron.addSubscription(libraryAeronChannel, outboundStreamId),
+            aeron.addSubscription(libraryAeronChannel, outboundReplayStreamId)
+        };
 
-        final LogEntryHandler logEntryHandler = new LogEntryHandler((message, buffer, offset, length, header) ->
-            fixMessageConsumer.accept(message.body()));
-        fragmentAssembler = new FragmentAssembler(logEntryHandler);
+        final LogEntryHandler logEntryHandler = new LogEntryHandler(fixMessageConsumer);
+        assembler = new ControlledFragmentAssembler((buffer, offset, length, header) ->
+        {
+            logEntryHandler.onFragment(buffer, offset, length, header);
+            messageComplete = true;
+            return CONTINUE;
+        });
     }
 
     public int doWork()
     {
-        return
-            inboundSubscription.poll(fragmentAssembler, 10) +
-            outboundSubscription.poll(fragmentAssembler, 10) +
-            replaySubscription.poll(fragmentAssembler, 10);
+        int messagesRead = 0;
+
+        if (inProgressImage != null)
+        {
+            if (!completeMessage(inProgressImage))
+            {
+                return 0;
+            }
+
+            messagesRead++;
+        }
+
+        while (messagesRead < messageLimit)
+        {
+            final Image image = earliestImage();
+            if (image == null || !completeMessage(image))
+            {
+                break;
+            }
+
+            messagesRead++;
+        }
+
+        return messagesRead;
     }
 
     public void onClose()
@@ -102,4 +224,114 @@ public class FixMessageLogger implements Agent
     {
         return "FixMessageLogger";
     }
+
+    private Image earliestImage()
+    {
+        Image earliestImage = null;
+        long earliestTimestamp = NO_MESSAGE;
+
+        for (final Subscription subscription : subscriptions)
+        {
+            final int imageCount = subscription.imageCount();
+            for (int i = 0; i < imageCount; i++)
+            {
+                final Image image = subscription.imageAtIndex(i);
+                final long timestamp = peekTimestamp(image);
+                if (timestamp < earliestTimestamp)
+                {
+                    earliestTimestamp = timestamp;
+                    earliestImage = image;
+                }
+            }
+        }
+
+        return earliestImage;
+    }
+
+    // Skips over any fragments that aren't the start of a FIX message and returns the timestamp of the FIX message
+    // at the head of the image, without consuming it.
+    private long peekTimestamp(final Image image)
+    {
+        peekedTimestamp = NO_MESSAGE;
+        int fragmentsRead;
+        do
+        {
+            fragmentsRead = image.controlledPoll(peekHandler, 1);
+        }
+        while (fragmentsRead > 0 && peekedTimestamp == NO_MESSAGE);
+
+        return peekedTimestamp;
+    }
+
+    private ControlledFragmentHandler.Action onPeekFragment(
+        final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        if ((header.flags() & BEGIN_FRAG_FLAG) == 0)
+        {
+            return CONTINUE;
+        }
+
+        final MessageHeaderDecoder messageHeader = this.messageHeader;
+        messageHeader.wrap(buffer, offset);
+        final int templateId = messageHeader.templateId();
+        final int blockLength = messageHeader.blockLength();
+        final int version = messageHeader.version();
+        final int bodyOffset = offset + MessageHeaderDecoder.ENCODED_LENGTH;
+
+        if (templateId == FixMessageDecoder.TEMPLATE_ID)
+        {
+            fixMessage.wrap(buffer, bodyOffset, blockLength, version);
+            peekedTimestamp = fixMessage.timestamp();
+            return ABORT;
+        }
+        else if (templateId == FixMessageBatchDecoder.TEMPLATE_ID)
+        {
+            peekedTimestamp = firstBatchTimestamp(buffer, bodyOffset, blockLength, version, offset + length);
+            return ABORT;
+        }
+
+        return CONTINUE;
+    }
+
+    // A batch is ordered by the timestamp of its first message, or logged straight away if that isn't in this
+    // fragment.
+    private long firstBatchTimestamp(
+        final DirectBuffer buffer, final int offset, final int blockLength, final int version, final int limit)
+    {
+        messageBatch.wrap(buffer, offset, blockLength, version);
+        final FixMessageBatchDecoder.MessagesDecoder messages = messageBatch.messages();
+        if (messages.hasNext())
+        {
+            messages.next();
+            final int frameOffset = messageBatch.limit() + fixMessageHeaderLength();
+            if (frameOffset + MessageHeaderDecoder.ENCODED_LENGTH + FixMessageDecoder.BLOCK_LENGTH <= limit)
+            {
+                messageHeader.wrap(buffer, frameOffset);
+                fixMessage.wrap(
+                    buffer,
+                    frameOffset + MessageHeaderDecoder.ENCODED_LENGTH,
+                    messageHeader.blockLength(),
+                    messageHeader.version());
+                return fixMessage.timestamp();
+            }
+        }
+
+        return Long.MIN_VALUE;
+    }
+
+    private boolean completeMessage(final Image image)
+    {
+        messageComplete = false;
+        while (!messageComplete)
+        {
+            if (image.controlledPoll(assembler, 1) == 0)
+            {
+                inProgressImage = image.isClosed() ? null : image;
+                return false;
+            }
+        }
+
+        inProgressImage = null;
+        return true;
+    }
 }
@@ -20,6 +20,7 @@ import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.LogTag;
+import uk.co.real_logic.artio.messages.FixMessageBatchDecoder;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.util.CharFormatter;
@@ -31,6 +32,7 @@ import static uk.co.real_logic.artio.engine.SessionInfo.UNK_SESSION;
 public class FixMessageTracker extends MessageTracker
 {
     private final FixMessageDecoder messageDecoder = new FixMessageDecoder();
+    private final FixMessageBatchDecoder messageBatchDecoder = new FixMessageBatchDecoder();
     private final long sessionId;
 
     public FixMessageTracker(final LogTag logTag, final ControlledFragmentHandler messageHandler, final long sessionId)
@@ -79,7 +81,38 @@ public class FixMessageTracker extends MessageTracker
             }
             return action;
         }
+        else if (messageHeaderDecoder.templateId() == FixMessageBatchDecoder.TEMPLATE_ID)
+        {
+            return onFixMessageBatch(buffer, offset, length, header);
+        }
 
         return CONTINUE;
     }
+
+    // A batch is counted as a single message, the same unit as the RecordingRange count from the ReplayQuery, which
+    // counts each archived fragment once however many of the batch's messages are within the query.
+    private ControlledFragmentHandler.Action onFixMessageBatch(
+        final DirectBuffer buffer, final int offset, final int length, final Header header)
+    {
+        if (sessionId != UNK_SESSION)
+        {
+            messageBatchDecoder.wrap(
+                buffer,
+                offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                messageHeaderDecoder.blockLength(),
+                messageHeaderDecoder.version());
+
+            if (messageBatchDecoder.session() != sessionId)
+            {
+                return CONTINUE;
+            }
+        }
+
+        final ControlledFragmentHandler.Action action = messageHandler.onFragment(buffer, offset, length, header);
+        if (action != ABORT)
+        {
+            count++;
+        }
+        return action;
+    }
 }
@@ -189,7 +189,7 @@ class FixReplayerSession extends ReplayerSession
         final int messageOffset = srcOffset + messageFrameBlockLength;
         final int messageLength = srcLength - messageFrameBlockLength;
 
-        final int msgSeqNum = sequenceNumberExtractor.extract(srcBuffer, messageOffset, messageLength);
+        final int msgSeqNum = sequenceNumberExtractor.extract(FIX_MESSAGE, srcBuffer, messageOffset, messageLength);
         final long messageType = MessageTypeExtractor.getMessageType(FIX_MESSAGE);
 
         ASCII_BUFFER.wrap(srcBuffer);
@@ -256,6 +256,8 @@ class FixReplayerSession extends ReplayerSession
                 .connection(this.connectionId)
                 .timestamp(0)
                 .status(MessageStatus.OK)
+                .msgSeqNum(msgSeqNo)
+                .possDupFlag(Bool.TRUE)
                 .putMetaData(NO_BYTES, 0, 0)
                 .putBody(gapFillBuffer, gapFillOffset, gapFillLength);
 
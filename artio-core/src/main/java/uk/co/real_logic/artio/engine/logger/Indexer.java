@@ -15,6 +15,7 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
+import io.aeron.Aeron;
 import io.aeron.Image;
 import io.aeron.Subscription;
 import io.aeron.archive.client.AeronArchive;
@@ -25,20 +26,26 @@ import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.collections.CollectionUtil;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongArrayList;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentInvoker;
 import org.agrona.concurrent.IdleStrategy;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.LogTag;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.engine.CompletionPosition;
+import uk.co.real_logic.artio.timing.DutyCycleMonitor;
 import uk.co.real_logic.artio.util.CharFormatter;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static org.agrona.collections.ArrayListUtil.fastUnorderedRemove;
 
 /**
  * Incrementally builds indexes by polling a subscription.
@@ -46,12 +53,16 @@ import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 @SuppressWarnings("ForLoopReplaceableByForEach")
 public class Indexer implements Agent, ControlledFragmentHandler
 {
+    public static final String[] DUTY_CYCLE_STEPS = { "pollRecording", "indexFlush" };
+
     private static final int LIMIT = 20;
 
     private final CharFormatter indexingFormatter = new CharFormatter(
         "Indexing @ %s from [%s, %s]%n");
     private final CharFormatter catchupFormatter = new CharFormatter(
         "Catchup [%s]: recordingId = %s, recordingStopped @ %s, indexStopped @ %s%n");
+    private final CharFormatter catchupCompleteFormatter = new CharFormatter(
+        "Catchup complete: %s bytes replayed in %sns%n");
 
     private final List<Index> indices;
     private final Subscription subscription;
@@ -59,6 +70,8 @@ public class Indexer implements Agent, ControlledFragmentHandler
     private final CompletionPosition completionPosition;
     private final int archiveReplayStream;
     private final boolean gracefulShutdown;
+    private final int catchupFragmentLimit;
+    private final DutyCycleMonitor dutyCycleMonitor;
 
     public Indexer(
         final List<Index> indices,
@@ -68,7 +81,12 @@ public class Indexer implements Agent, ControlledFragmentHandler
         final AeronArchive aeronArchive,
         final ErrorHandler errorHandler,
         final int archiveReplayStream,
-        final boolean gracefulShutdown)
+        final boolean gracefulShutdown,
+        final int catchupFragmentLimit,
+        final boolean singlePassCatchup,
+        final AtomicCounter catchupTime,
+        final AtomicCounter catchupBytes,
+        final DutyCycleMonitor dutyCycleMonitor)
     {
         this.indices = indices;
         this.subscription = subscription;
@@ -76,18 +94,35 @@ public class Indexer implements Agent, ControlledFragmentHandler
         this.completionPosition = completionPosition;
         this.archiveReplayStream = archiveReplayStream;
         this.gracefulShutdown = gracefulShutdown;
-        catchIndexUp(aeronArchive, errorHandler);
+        this.catchupFragmentLimit = catchupFragmentLimit;
+        this.dutyCycleMonitor = dutyCycleMonitor;
+
+        final long startTimeInNs = System.nanoTime();
+        final long bytesReplayed = singlePassCatchup ?
+            catchIndexUpInSinglePass(aeronArchive, errorHandler) : catchIndexUp(aeronArchive, errorHandler);
+        final long catchupTimeInNs = System.nanoTime() - startTimeInNs;
+
+        catchupTime.setOrdered(catchupTimeInNs);
+        catchupBytes.setOrdered(bytesReplayed);
+        DebugLogger.log(LogTag.INDEX, catchupCompleteFormatter, bytesReplayed, catchupTimeInNs);
     }
 
     public int doWork()
     {
-        return subscription.controlledPoll(this, LIMIT) + CollectionUtil.sum(indices, Index::doWork);
+        final DutyCycleMonitor dutyCycleMonitor = this.dutyCycleMonitor;
+        dutyCycleMonitor.startCycle();
+        final int workCount =
+            dutyCycleMonitor.step(subscription.controlledPoll(this, LIMIT)) +
+            dutyCycleMonitor.step(CollectionUtil.sum(indices, Index::doWork));
+        dutyCycleMonitor.endCycle();
+        return workCount;
     }
 
-    private void catchIndexUp(final AeronArchive aeronArchive, final ErrorHandler errorHandler)
+    private long catchIndexUp(final AeronArchive aeronArchive, final ErrorHandler errorHandler)
     {
         final IdleStrategy idleStrategy = CommonConfiguration.backoffIdleStrategy();
         final AgentInvoker aeronInvoker = aeronArchive.context().aeron().conductorAgentInvoker();
+        final long[] bytesReplayed = new long[1];
 
         for (int i = 0, size = indices.size(); i < size; i++)
         {
@@ -109,6 +144,7 @@ public class Indexer implements Agent, ControlledFragmentHandler
                             indexStoppedPosition);
 
                         final long length = recordingStoppedPosition - indexStoppedPosition;
+                        bytesReplayed[0] += length;
                         try (Subscription subscription = aeronArchive.replay(
                             recordingId, indexStoppedPosition, length, IPC_CHANNEL, archiveReplayStream))
                         {
@@ -127,7 +163,7 @@ public class Indexer implements Agent, ControlledFragmentHandler
 
                             while (replayImage.position() < recordingStoppedPosition)
                             {
-                                final int workCount = replayImage.poll(handler, LIMIT);
+                                final int workCount = replayImage.poll(handler, catchupFragmentLimit);
                                 idle(idleStrategy, aeronInvoker, workCount);
                             }
                             idleStrategy.reset();
@@ -140,6 +176,96 @@ public class Indexer implements Agent, ControlledFragmentHandler
                 }
             });
         }
+
+        return bytesReplayed[0];
+    }
+
+    private long catchIndexUpInSinglePass(final AeronArchive aeronArchive, final ErrorHandler errorHandler)
+    {
+        final IdleStrategy idleStrategy = CommonConfiguration.backoffIdleStrategy();
+        final Aeron aeron = aeronArchive.context().aeron();
+        final AgentInvoker aeronInvoker = aeron.conductorAgentInvoker();
+
+        // Group the indexed positions by recording so that each recording only needs to be replayed once.
+        final Long2ObjectHashMap<CatchupReplay> recordingIdToReplay = new Long2ObjectHashMap<>();
+        for (int i = 0, size = indices.size(); i < size; i++)
+        {
+            final Index index = indices.get(i);
+            index.readLastPosition((aeronSessionId, recordingId, indexStoppedPosition) ->
+            {
+                final CatchupReplay replay = recordingIdToReplay.computeIfAbsent(recordingId, CatchupReplay::new);
+                replay.addIndex(index, indexStoppedPosition);
+            });
+        }
+
+        long bytesReplayed = 0;
+        final ArrayList<CatchupReplay> replays = new ArrayList<>();
+        try (Subscription subscription = aeron.addSubscription(IPC_CHANNEL, archiveReplayStream))
+        {
+            try
+            {
+                for (final CatchupReplay replay : recordingIdToReplay.values())
+                {
+                    try
+                    {
+                        final long recordingStoppedPosition = aeronArchive.getStopPosition(replay.recordingId);
+                        if (replay.start(aeronArchive, recordingStoppedPosition))
+                        {
+                            bytesReplayed += recordingStoppedPosition - replay.startPosition;
+                            replays.add(replay);
+                        }
+                    }
+                    catch (final ArchiveException ex)
+                    {
+                        errorHandler.onError(ex);
+                    }
+                }
+
+                // The archive runs the replays concurrently, so poll each of them in turn until they're all complete.
+                while (!replays.isEmpty())
+                {
+                    int workCount = 0;
+                    for (int i = replays.size() - 1; i >= 0; i--)
+                    {
+                        final CatchupReplay replay = replays.get(i);
+                        workCount += replay.poll(subscription);
+                        if (replay.isComplete())
+                        {
+                            fastUnorderedRemove(replays, i);
+                        }
+                        else if (replay.hasClosedEarly())
+                        {
+                            fastUnorderedRemove(replays, i);
+                            errorHandler.onError(new IllegalStateException(String.format(
+                                "Catchup replay of recording %d closed at position %d before reaching %d",
+                                replay.recordingId,
+                                replay.replayImage.position(),
+                                replay.recordingStoppedPosition)));
+                        }
+                    }
+
+                    if (workCount == 0)
+                    {
+                        aeronArchive.checkForErrorResponse();
+                    }
+                    idle(idleStrategy, aeronInvoker, workCount);
+                }
+            }
+            catch (final ArchiveException ex)
+            {
+                errorHandler.onError(ex);
+            }
+            finally
+            {
+                // Replays that didn't complete, for example because of an error, are still running in the archive.
+                for (int i = 0, size = replays.size(); i < size; i++)
+                {
+                    replays.get(i).stop(aeronArchive, errorHandler);
+                }
+            }
+        }
+
+        return bytesReplayed;
     }
 
     private void idle(final IdleStrategy idleStrategy, final AgentInvoker aeronInvoker, final int workCount)
@@ -219,4 +345,115 @@ public class Indexer implements Agent, ControlledFragmentHandler
     {
         return agentNamePrefix + "Indexer";
     }
+
+    // Replays a single recording once, from the lowest position reached by the indices that index it, passing
+    // each fragment to the indices that haven't indexed it yet.
+    private final class CatchupReplay implements FragmentHandler
+    {
+        private final ArrayList<Index> indices = new ArrayList<>();
+        private final LongArrayList indexStoppedPositions = new LongArrayList();
+        private final long recordingId;
+
+        private long startPosition;
+        private long recordingStoppedPosition;
+        private long replaySessionId;
+        private Image replayImage;
+
+        CatchupReplay(final long recordingId)
+        {
+            this.recordingId = recordingId;
+        }
+
+        void addIndex(final Index index, final long indexStoppedPosition)
+        {
+            indices.add(index);
+            indexStoppedPositions.addLong(indexStoppedPosition);
+        }
+
+        boolean start(final AeronArchive aeronArchive, final long recordingStoppedPosition)
+        {
+            this.recordingStoppedPosition = recordingStoppedPosition;
+
+            long startPosition = Long.MAX_VALUE;
+            for (int i = 0, size = indices.size(); i < size; i++)
+            {
+                final long indexStoppedPosition = indexStoppedPositions.getLong(i);
+                if (recordingStoppedPosition > indexStoppedPosition)
+                {
+                    DebugLogger.log(
+                        LogTag.INDEX,
+                        catchupFormatter,
+                        indices.get(i).getName(),
+                        recordingId,
+                        recordingStoppedPosition,
+                        indexStoppedPosition);
+
+                    startPosition = Math.min(startPosition, indexStoppedPosition);
+                }
+            }
+
+            if (startPosition == Long.MAX_VALUE)
+            {
+                return false;
+            }
+
+            this.startPosition = startPosition;
+            replaySessionId = aeronArchive.startReplay(
+                recordingId,
+                startPosition,
+                recordingStoppedPosition - startPosition,
+                IPC_CHANNEL,
+                archiveReplayStream);
+            return true;
+        }
+
+        int poll(final Subscription subscription)
+        {
+            if (replayImage == null)
+            {
+                replayImage = subscription.imageBySessionId((int)replaySessionId);
+                if (replayImage == null)
+                {
+                    return 0;
+                }
+            }
+
+            return replayImage.poll(this, catchupFragmentLimit);
+        }
+
+        boolean isComplete()
+        {
+            return replayImage != null && replayImage.position() >= recordingStoppedPosition;
+        }
+
+        boolean hasClosedEarly()
+        {
+            return replayImage != null && replayImage.isClosed() && replayImage.position() < recordingStoppedPosition;
+        }
+
+        void stop(final AeronArchive aeronArchive, final ErrorHandler errorHandler)
+        {
+            try
+            {
+                aeronArchive.stopReplay(replaySessionId);
+            }
+            catch (final Exception ex)
+            {
+                errorHandler.onError(ex);
+            }
+        }
+
+        public void onFragment(final DirectBuffer buffer, final int offset, final int length, final Header header)
+        {
+            final long position = header.position();
+            final ArrayList<Index> indices = this.indices;
+            for (int i = 0, size = indices.size(); i < size; i++)
+            {
+                if (position > indexStoppedPositions.getLong(i))
+                {
+                    indices.get(i).onCatchup(buffer, offset, length, header, recordingId);
+                }
+            }
+        }
+    }
 }
@@ -18,9 +18,11 @@ package uk.co.real_logic.artio.engine.logger;
 import io.aeron.logbuffer.FragmentHandler;
 import io.aeron.logbuffer.Header;
 import org.agrona.DirectBuffer;
+import uk.co.real_logic.artio.messages.FixMessageBatchDecoder;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 
+import static uk.co.real_logic.artio.messages.FixMessageBatchDecoder.MessagesDecoder.fixMessageHeaderLength;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataHeaderLength;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataSinceVersion;
 
@@ -28,6 +30,7 @@ class LogEntryHandler implements FragmentHandler
 {
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
     private final FixMessageDecoder fixMessage = new FixMessageDecoder();
+    private final FixMessageBatchDecoder messageBatch = new FixMessageBatchDecoder();
     private final FixMessageConsumer handler;
 
     LogEntryHandler(final FixMessageConsumer handler)
@@ -35,25 +38,49 @@ class LogEntryHandler implements FragmentHandler
         this.handler = handler;
     }
 
-    @SuppressWarnings("FinalParameters")
     public void onFragment(
-        final DirectBuffer buffer, int offset, final int length, final Header header)
+        final DirectBuffer buffer, final int offset, final int length, final Header header)
     {
         messageHeader.wrap(buffer, offset);
-        if (messageHeader.templateId() == FixMessageDecoder.TEMPLATE_ID)
+        final int templateId = messageHeader.templateId();
+        if (templateId == FixMessageDecoder.TEMPLATE_ID)
         {
-            offset += MessageHeaderDecoder.ENCODED_LENGTH;
-
-            final int version = messageHeader.version();
-            fixMessage.wrap(buffer, offset, messageHeader.blockLength(), version);
+            onFixMessage(buffer, offset, length, header);
+        }
+        else if (templateId == FixMessageBatchDecoder.TEMPLATE_ID)
+        {
+            messageBatch.wrap(
+                buffer,
+                offset + MessageHeaderDecoder.ENCODED_LENGTH,
+                messageHeader.blockLength(),
+                messageHeader.version());
 
-            if (version >= metaDataSinceVersion())
+            for (final FixMessageBatchDecoder.MessagesDecoder messages : messageBatch.messages())
             {
-                offset += metaDataHeaderLength() + fixMessage.metaDataLength();
-                fixMessage.skipMetaData();
+                final int frameOffset = messageBatch.limit() + fixMessageHeaderLength();
+                final int frameLength = messages.fixMessageLength();
+                messageHeader.wrap(buffer, frameOffset);
+                onFixMessage(buffer, frameOffset, frameLength, header);
+                messages.skipFixMessage();
             }
+        }
+    }
 
-            handler.onMessage(fixMessage, buffer, offset, length, header);
+    @SuppressWarnings("FinalParameters")
+    private void onFixMessage(
+        final DirectBuffer buffer, int offset, final int length, final Header header)
+    {
+        offset += MessageHeaderDecoder.ENCODED_LENGTH;
+
+        final int version = messageHeader.version();
+        fixMessage.wrap(buffer, offset, messageHeader.blockLength(), version);
+
+        if (version >= metaDataSinceVersion())
+        {
+            offset += metaDataHeaderLength() + fixMessage.metaDataLength();
+            fixMessage.skipMetaData();
         }
+
+        handler.onMessage(fixMessage, buffer, offset, length, header);
     }
 }
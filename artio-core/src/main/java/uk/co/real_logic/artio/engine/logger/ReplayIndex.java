@@ -21,7 +21,8 @@ import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
 import org.agrona.collections.Long2LongHashMap;
-import org.agrona.collections.Long2ObjectCache;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.engine.SequenceNumberExtractor;
@@ -31,6 +32,8 @@ import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordEncoder;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.LongFunction;
 
 import static io.aeron.archive.status.RecordingPos.NULL_RECORDING_ID;
@@ -38,6 +41,7 @@ import static io.aeron.logbuffer.FrameDescriptor.*;
 import static org.agrona.UnsafeAccess.UNSAFE;
 import static uk.co.real_logic.artio.engine.SequenceNumberExtractor.NO_SEQUENCE_NUMBER;
 import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
+import static uk.co.real_logic.artio.messages.FixMessageBatchDecoder.MessagesDecoder.fixMessageHeaderLength;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.*;
 import static uk.co.real_logic.artio.messages.MessageStatus.OK;
 
@@ -46,7 +50,9 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  *
  * Written Positions are stored in a separate file at {@link ReplayIndexDescriptor#replayPositionPath(String, int)}.
  *
- * Buffer Consists of:
+ * Each session's index is a slot within a {@link ReplayIndexSegment} that's shared with other sessions.
+ *
+ * Slot Consists of:
  *
  * MessageHeader
  * Head position counter
@@ -55,9 +61,10 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  */
 public class ReplayIndex implements Index
 {
-    private final LongFunction<SessionIndex> newSessionIndex = SessionIndex::new;
+    private final LongFunction<SessionIndex> newSessionIndex = this::newSessionIndex;
     private final MessageHeaderDecoder frameHeaderDecoder = new MessageHeaderDecoder();
     private final FixMessageDecoder messageFrame = new FixMessageDecoder();
+    private final FixMessageBatchDecoder messageBatch = new FixMessageBatchDecoder();
     private final ResetSequenceNumberDecoder resetSequenceNumber = new ResetSequenceNumberDecoder();
     private final ReplayIndexRecordEncoder replayIndexRecord = new ReplayIndexRecordEncoder();
     private final MessageHeaderEncoder indexHeaderEncoder = new MessageHeaderEncoder();
@@ -68,11 +75,13 @@ public class ReplayIndex implements Index
 
     private final ILinkSequenceNumberExtractor iLinkSequenceNumberExtractor;
 
-    private final Long2ObjectCache<SessionIndex> fixSessionIdToIndex;
+    private final Long2ObjectHashMap<SessionIndex> fixSessionIdToIndex = new Long2ObjectHashMap<>();
+    private final List<ReplayIndexSegment> segments = new ArrayList<>();
 
     private final String logFileDir;
     private final int requiredStreamId;
     private final int indexFileSize;
+    private final int slotCapacity;
     private final BufferFactory bufferFactory;
     private final AtomicBuffer positionBuffer;
     private final ErrorHandler errorHandler;
@@ -82,8 +91,7 @@ public class ReplayIndex implements Index
         final String logFileDir,
         final int requiredStreamId,
         final int indexFileSize,
-        final int cacheNumSets,
-        final int cacheSetSize,
+        final int sessionsPerFile,
         final BufferFactory bufferFactory,
         final AtomicBuffer positionBuffer,
         final ErrorHandler errorHandler,
@@ -104,11 +112,14 @@ public class ReplayIndex implements Index
                 sessionIndex(uuid).onRecord(endPosition, messageSize, sequenceNumber, 0, aeronSessionId));
         sequenceNumberExtractor = new SequenceNumberExtractor(errorHandler);
         checkIndexFileSize(indexFileSize);
-        fixSessionIdToIndex = new Long2ObjectCache<>(cacheNumSets, cacheSetSize, SessionIndex::close);
+        slotCapacity = slotCapacity(sessionsPerFile, indexFileSize);
         final String replayPositionPath = replayPositionPath(logFileDir, requiredStreamId);
         positionWriter = new IndexedPositionWriter(
             positionBuffer, errorHandler, 0, replayPositionPath, recordingIdLookup);
         positionReader = new IndexedPositionReader(positionBuffer);
+
+        mapSegments();
+        moveSessionFiles();
     }
 
     private long continuedFixSessionId;
@@ -161,35 +172,11 @@ public class ReplayIndex implements Index
         {
             if (templateId == FixMessageEncoder.TEMPLATE_ID)
             {
-                messageFrame.wrap(srcBuffer, offset, blockLength, version);
-                if (messageFrame.status() == OK)
-                {
-                    offset += blockLength;
-                    if (version >= metaDataSinceVersion())
-                    {
-                        offset += metaDataHeaderLength() + messageFrame.metaDataLength();
-                        messageFrame.skipMetaData();
-                    }
-                    offset += bodyHeaderLength();
-
-                    final long fixSessionId = messageFrame.session();
-                    final int sequenceNumber = sequenceNumberExtractor.extract(
-                        srcBuffer, offset, messageFrame.bodyLength());
-                    final int sequenceIndex = messageFrame.sequenceIndex();
-
-                    if (sequenceNumber != NO_SEQUENCE_NUMBER)
-                    {
-                        if (beginMessage)
-                        {
-                            continuedFixSessionId = fixSessionId;
-                            continuedSequenceNumber = sequenceNumber;
-                            continuedSequenceIndex = sequenceIndex;
-                        }
-
-                        sessionIndex(fixSessionId)
-                            .onRecord(endPosition, length, sequenceNumber, sequenceIndex, header.sessionId());
-                    }
-                }
+                onFixMessage(srcBuffer, offset, blockLength, version, beginMessage, endPosition, length, header);
+            }
+            else if (templateId == FixMessageBatchDecoder.TEMPLATE_ID)
+            {
+                onFixMessageBatch(srcBuffer, offset, blockLength, version, endPosition, length, header);
             }
             else if (templateId == ILinkMessageDecoder.TEMPLATE_ID || templateId == ILinkConnectDecoder.TEMPLATE_ID)
             {
@@ -198,21 +185,11 @@ public class ReplayIndex implements Index
             else if (templateId == ResetSequenceNumberDecoder.TEMPLATE_ID)
             {
                 resetSequenceNumber.wrap(srcBuffer, offset, blockLength, version);
-                final long fixSessionId = resetSequenceNumber.session();
-                final SessionIndex index = fixSessionIdToIndex.remove(fixSessionId);
+                final SessionIndex index = fixSessionIdToIndex.get(resetSequenceNumber.session());
                 if (index != null)
                 {
                     index.reset();
                 }
-                else
-                {
-                    // File might be present but not within the cache.
-                    final File replayIndexFile = replayIndexFile(fixSessionId);
-                    if (replayIndexFile.exists())
-                    {
-                        deleteFile(replayIndexFile);
-                    }
-                }
             }
         }
         else
@@ -225,12 +202,193 @@ public class ReplayIndex implements Index
         positionWriter.updateChecksums();
     }
 
+    private void onFixMessage(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int blockLength,
+        final int version,
+        final boolean beginMessage,
+        final long endPosition,
+        final int length,
+        final Header header)
+    {
+        int offset = srcOffset;
+        messageFrame.wrap(srcBuffer, offset, blockLength, version);
+        if (messageFrame.status() == OK)
+        {
+            offset += blockLength;
+            if (version >= metaDataSinceVersion())
+            {
+                offset += metaDataHeaderLength() + messageFrame.metaDataLength();
+                messageFrame.skipMetaData();
+            }
+            offset += bodyHeaderLength();
+
+            final long fixSessionId = messageFrame.session();
+            final int sequenceNumber = sequenceNumberExtractor.extract(
+                messageFrame, srcBuffer, offset, messageFrame.bodyLength());
+            final int sequenceIndex = messageFrame.sequenceIndex();
+
+            if (sequenceNumber != NO_SEQUENCE_NUMBER)
+            {
+                if (beginMessage)
+                {
+                    continuedFixSessionId = fixSessionId;
+                    continuedSequenceNumber = sequenceNumber;
+                    continuedSequenceIndex = sequenceIndex;
+                }
+
+                sessionIndex(fixSessionId)
+                    .onRecord(endPosition, length, sequenceNumber, sequenceIndex, header.sessionId());
+            }
+        }
+    }
+
+    private void onFixMessageBatch(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int blockLength,
+        final int version,
+        final long endPosition,
+        final int length,
+        final Header header)
+    {
+        final FixMessageBatchDecoder messageBatch = this.messageBatch;
+        final MessageHeaderDecoder frameHeaderDecoder = this.frameHeaderDecoder;
+        messageBatch.wrap(srcBuffer, srcOffset, blockLength, version);
+
+        // Batches are never fragmented, so every message is indexed against the batch's fragment.
+        for (final FixMessageBatchDecoder.MessagesDecoder messages : messageBatch.messages())
+        {
+            final int frameOffset = messageBatch.limit() + fixMessageHeaderLength();
+            frameHeaderDecoder.wrap(srcBuffer, frameOffset);
+            onFixMessage(
+                srcBuffer,
+                frameOffset + frameHeaderDecoder.encodedLength(),
+                frameHeaderDecoder.blockLength(),
+                frameHeaderDecoder.version(),
+                false,
+                endPosition,
+                length,
+                header);
+            messages.skipFixMessage();
+        }
+    }
+
     private SessionIndex sessionIndex(final long fixSessionId)
     {
         return fixSessionIdToIndex
             .computeIfAbsent(fixSessionId, newSessionIndex);
     }
 
+    private SessionIndex newSessionIndex(final long fixSessionId)
+    {
+        return newSessionIndex(fixSessionId, null);
+    }
+
+    // Allocates the session a slot in the last segment, mapping a new segment if that one is full. The slot's
+    // contents are written before the slot is added, so that a ReplayQuery never reads an uninitialised slot.
+    private SessionIndex newSessionIndex(final long fixSessionId, final DirectBuffer contents)
+    {
+        final List<ReplayIndexSegment> segments = this.segments;
+        final int segmentCount = segments.size();
+        ReplayIndexSegment segment = segmentCount == 0 ? null : segments.get(segmentCount - 1);
+        if (segment == null || segment.isFull())
+        {
+            final File file = replaySessionsFile(logFileDir, requiredStreamId, segmentCount);
+            segment = new ReplayIndexSegment(bufferFactory.map(file, segmentFileSize(slotCapacity, indexFileSize)));
+            segment.initialise(slotCapacity, indexFileSize);
+            segments.add(segment);
+        }
+
+        final int slot = segment.slotCount();
+        final AtomicBuffer buffer = segment.slotBuffer(slot);
+        if (contents == null)
+        {
+            indexHeaderEncoder
+                .wrap(buffer, 0)
+                .blockLength(replayIndexRecord.sbeBlockLength())
+                .templateId(replayIndexRecord.sbeTemplateId())
+                .schemaId(replayIndexRecord.sbeSchemaId())
+                .version(replayIndexRecord.sbeSchemaVersion());
+        }
+        else
+        {
+            buffer.putBytes(0, contents, 0, buffer.capacity());
+            resetPositions(buffer);
+        }
+        segment.addSession(slot, fixSessionId);
+
+        return new SessionIndex(buffer);
+    }
+
+    private void mapSegments()
+    {
+        final List<ReplayIndexSegment> segments = this.segments;
+        File file;
+        while ((file = replaySessionsFile(logFileDir, requiredStreamId, segments.size())).exists())
+        {
+            final ReplayIndexSegment segment = new ReplayIndexSegment(
+                bufferFactory.map(file, segmentFileSize(slotCapacity, indexFileSize)));
+            if (!segment.isInitialised())
+            {
+                // Stopped whilst it was being created, so it has no sessions and is created again when needed.
+                segment.close();
+                deleteFile(file);
+                return;
+            }
+
+            segments.add(segment);
+            final int slotCount = segment.slotCount();
+            for (int slot = 0; slot < slotCount; slot++)
+            {
+                final AtomicBuffer buffer = segment.slotBuffer(slot);
+                resetPositions(buffer);
+                fixSessionIdToIndex.put(segment.sessionId(slot), new SessionIndex(buffer));
+            }
+        }
+    }
+
+    // Earlier versions had a replay index file per session, these are moved into slots so that they can be replayed.
+    private void moveSessionFiles()
+    {
+        final LongHashSet sessionIds = listReplayIndexSessionIds(new File(logFileDir), requiredStreamId);
+        final LongHashSet.LongIterator it = sessionIds.iterator();
+        while (it.hasNext())
+        {
+            final long fixSessionId = it.nextValue();
+            final File replayIndexFile = replayIndexFile(fixSessionId);
+            final ByteBuffer wrappedBuffer = bufferFactory.map(replayIndexFile, indexFileSize);
+            final int fileSize = wrappedBuffer.capacity();
+            if (fileSize == indexFileSize)
+            {
+                if (!fixSessionIdToIndex.containsKey(fixSessionId))
+                {
+                    final SessionIndex index = newSessionIndex(fixSessionId, new UnsafeBuffer(wrappedBuffer));
+                    fixSessionIdToIndex.put(fixSessionId, index);
+                }
+                IoUtil.unmap(wrappedBuffer);
+                deleteFile(replayIndexFile);
+            }
+            else
+            {
+                IoUtil.unmap(wrappedBuffer);
+                errorHandler.onError(new IllegalStateException(String.format(
+                    "Unable to move replay index file %s of size %d into a slot of size %d",
+                    replayIndexFile,
+                    fileSize,
+                    indexFileSize)));
+            }
+        }
+    }
+
+    // Reset the positions in order to avoid wraps at the start.
+    private static void resetPositions(final AtomicBuffer buffer)
+    {
+        final long resetPosition = beginChange(buffer);
+        endChangeOrdered(buffer, resetPosition);
+    }
+
     public int doWork()
     {
         return positionWriter.checkRecordings();
@@ -240,6 +398,8 @@ public class ReplayIndex implements Index
     {
         positionWriter.close();
         fixSessionIdToIndex.clear();
+        segments.forEach(ReplayIndexSegment::close);
+        segments.clear();
         IoUtil.unmap(positionBuffer.byteBuffer());
     }
 
@@ -248,36 +408,15 @@ public class ReplayIndex implements Index
         positionReader.readLastPosition(consumer);
     }
 
-    private final class SessionIndex implements AutoCloseable
+    private final class SessionIndex
     {
-        private final ByteBuffer wrappedBuffer;
         private final AtomicBuffer buffer;
         private final int recordCapacity;
-        private final File replayIndexFile;
 
-        SessionIndex(final long fixSessionId)
+        SessionIndex(final AtomicBuffer buffer)
         {
-            replayIndexFile = replayIndexFile(fixSessionId);
-            final boolean exists = replayIndexFile.exists();
-            this.wrappedBuffer = bufferFactory.map(replayIndexFile, indexFileSize);
-            this.buffer = new UnsafeBuffer(wrappedBuffer);
-
+            this.buffer = buffer;
             recordCapacity = recordCapacity(buffer.capacity());
-            if (!exists)
-            {
-                indexHeaderEncoder
-                    .wrap(buffer, 0)
-                    .blockLength(replayIndexRecord.sbeBlockLength())
-                    .templateId(replayIndexRecord.sbeTemplateId())
-                    .schemaId(replayIndexRecord.sbeSchemaId())
-                    .version(replayIndexRecord.sbeSchemaVersion());
-            }
-            else
-            {
-                // Reset the positions in order to avoid wraps at the start.
-                final long resetPosition = beginChange(buffer);
-                endChangeOrdered(buffer, resetPosition);
-            }
         }
 
         void onRecord(
@@ -308,15 +447,18 @@ public class ReplayIndex implements Index
             endChangeOrdered(buffer, changePosition);
         }
 
+        // The session keeps its slot, so its records are cleared and its positions start again from 0. A
+        // ReplayQuery that reads the slot during the reset sees the begin and end change positions differ.
         void reset()
         {
-            close();
-            deleteFile(replayIndexFile);
-        }
+            final AtomicBuffer buffer = this.buffer;
+            beginChangeOrdered(buffer, beginChange(buffer) + recordCapacity);
+            UNSAFE.storeFence();
 
-        public void close()
-        {
-            IoUtil.unmap(wrappedBuffer);
+            buffer.setMemory(INITIAL_RECORD_OFFSET, recordCapacity, (byte)0);
+
+            endChangeOrdered(buffer, 0);
+            beginChangeOrdered(buffer, 0);
         }
     }
 
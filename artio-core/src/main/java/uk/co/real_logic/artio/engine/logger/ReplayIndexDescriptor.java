@@ -29,6 +29,13 @@ public final class ReplayIndexDescriptor
 {
     static final int REPLAY_POSITION_BUFFER_SIZE = 4 * 1024;
 
+    // Header of a replay sessions file, see ReplayIndexSegment
+    static final int SLOT_CAPACITY_OFFSET = 0;
+    static final int SLOT_LENGTH_OFFSET = SLOT_CAPACITY_OFFSET + BitUtil.SIZE_OF_INT;
+    static final int SLOT_COUNT_OFFSET = SLOT_LENGTH_OFFSET + BitUtil.SIZE_OF_INT;
+    static final int SESSION_IDS_OFFSET = SLOT_COUNT_OFFSET + BitUtil.SIZE_OF_LONG;
+    private static final int SEGMENT_ALIGNMENT = 4 * 1024;
+
     private static final int BEGIN_CHANGE_OFFSET = MessageHeaderEncoder.ENCODED_LENGTH;
     private static final int END_CHANGE_OFFSET = BEGIN_CHANGE_OFFSET + BitUtil.SIZE_OF_LONG;
 
@@ -49,6 +56,12 @@ public final class ReplayIndexDescriptor
         return new File(String.format(logFileDir + File.separator + "replay-index-%d-%d", fixSessionId, streamId));
     }
 
+    static File replaySessionsFile(final String logFileDir, final int streamId, final int segmentIndex)
+    {
+        return new File(String.format(logFileDir + File.separator + "replay-sessions-%d-%d", streamId, segmentIndex));
+    }
+
+    // Lists the per session replay index files of earlier versions, which are moved into replay sessions files.
     static LongHashSet listReplayIndexSessionIds(final File logFileDir, final int streamId)
     {
         final String prefix = "replay-index-";
@@ -117,6 +130,29 @@ public final class ReplayIndexDescriptor
         return INITIAL_RECORD_OFFSET + ((int)changePosition & (capacity - 1));
     }
 
+    static int segmentHeaderLength(final int slotCapacity)
+    {
+        return BitUtil.align(SESSION_IDS_OFFSET + slotCapacity * BitUtil.SIZE_OF_LONG, SEGMENT_ALIGNMENT);
+    }
+
+    static int segmentFileSize(final int slotCapacity, final int indexFileSize)
+    {
+        return segmentHeaderLength(slotCapacity) + slotCapacity * indexFileSize;
+    }
+
+    // A replay sessions file is mapped into a single buffer, so fewer sessions share a file with large indexes.
+    static int slotCapacity(final int sessionsPerFile, final int indexFileSize)
+    {
+        int slotCapacity = sessionsPerFile;
+        while (slotCapacity > 1 &&
+            (long)segmentHeaderLength(slotCapacity) + (long)slotCapacity * indexFileSize > Integer.MAX_VALUE)
+        {
+            slotCapacity /= 2;
+        }
+
+        return slotCapacity;
+    }
+
     static void checkIndexFileSize(final int indexFileSize)
     {
         final int recordCapacity = recordCapacity(indexFileSize);
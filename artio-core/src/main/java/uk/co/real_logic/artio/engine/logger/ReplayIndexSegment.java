@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.nio.ByteBuffer;
+
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
+
+/**
+ * A replay sessions file, at {@link ReplayIndexDescriptor#replaySessionsFile(String, int, int)}, that holds the
+ * replay index of several sessions, one per slot. Sessions share files so that the number of mapped files grows with
+ * the number of sessions divided by the slot capacity, and every file can stay mapped.
+ *
+ * Only the last file of a stream has sessions added to it, by the {@link ReplayIndex}. A session keeps its slot.
+ *
+ * Buffer Consists of:
+ *
+ * Slot capacity, written ordered once the file is initialised
+ * Slot length
+ * Slot count, written ordered once a slot's session id and contents have been written
+ * The session id of each slot
+ * Padding up to a page boundary
+ * Multiple slots, each laid out like the per session replay index file of earlier versions.
+ */
+final class ReplayIndexSegment implements AutoCloseable
+{
+    private final ByteBuffer wrappedBuffer;
+    private final AtomicBuffer buffer;
+
+    private int slotCapacity;
+    private int slotLength;
+    private int slotsOffset;
+
+    ReplayIndexSegment(final ByteBuffer wrappedBuffer)
+    {
+        this.wrappedBuffer = wrappedBuffer;
+        buffer = new UnsafeBuffer(wrappedBuffer);
+        readHeader();
+    }
+
+    void initialise(final int slotCapacity, final int slotLength)
+    {
+        buffer.putInt(SLOT_LENGTH_OFFSET, slotLength);
+        buffer.putIntOrdered(SLOT_CAPACITY_OFFSET, slotCapacity);
+        readHeader();
+    }
+
+    // A file that's mapped whilst it's being created is shorter than its slots or not yet initialised.
+    boolean isInitialised()
+    {
+        return slotCapacity > 0 && buffer.capacity() >= slotsOffset + slotCapacity * slotLength;
+    }
+
+    boolean isFull()
+    {
+        return slotCount() == slotCapacity;
+    }
+
+    int slotCount()
+    {
+        return buffer.getIntVolatile(SLOT_COUNT_OFFSET);
+    }
+
+    long sessionId(final int slot)
+    {
+        return buffer.getLong(SESSION_IDS_OFFSET + slot * BitUtil.SIZE_OF_LONG);
+    }
+
+    AtomicBuffer slotBuffer(final int slot)
+    {
+        return new UnsafeBuffer(buffer, slotsOffset + slot * slotLength, slotLength);
+    }
+
+    // The slot's contents must already have been written, as readers can use it once it's been added.
+    void addSession(final int slot, final long sessionId)
+    {
+        buffer.putLong(SESSION_IDS_OFFSET + slot * BitUtil.SIZE_OF_LONG, sessionId);
+        buffer.putIntOrdered(SLOT_COUNT_OFFSET, slot + 1);
+    }
+
+    public void close()
+    {
+        IoUtil.unmap(wrappedBuffer);
+    }
+
+    private void readHeader()
+    {
+        slotCapacity = buffer.getIntVolatile(SLOT_CAPACITY_OFFSET);
+        slotLength = buffer.getInt(SLOT_LENGTH_OFFSET);
+        slotsOffset = segmentHeaderLength(slotCapacity);
+    }
+}
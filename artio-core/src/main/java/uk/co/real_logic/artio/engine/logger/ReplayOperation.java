@@ -241,6 +241,7 @@ public class ReplayOperation
         return ranges.isEmpty();
     }
 
+    // A FixMessageBatch counts as a single replayed message, see FixMessageTracker.
     int replayedMessages()
     {
         return replayedMessages;
@@ -19,22 +19,18 @@ import io.aeron.Subscription;
 import io.aeron.archive.client.AeronArchive;
 import org.agrona.CloseHelper;
 import org.agrona.ErrorHandler;
-import org.agrona.IoUtil;
 import org.agrona.collections.Long2LongHashMap;
-import org.agrona.collections.Long2ObjectCache;
-import org.agrona.collections.LongHashSet;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.IdleStrategy;
-import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.LogTag;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordDecoder;
 
 import java.io.File;
-import java.nio.ByteBuffer;
-import java.nio.MappedByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.function.LongFunction;
 
 import static io.aeron.Aeron.NULL_VALUE;
 import static io.aeron.CommonContext.IPC_CHANNEL;
@@ -47,16 +43,18 @@ import static uk.co.real_logic.artio.engine.logger.Replayer.MOST_RECENT_MESSAGE;
  * Queries an index of a composite key of session id and sequence number.
  *
  * This object isn't thread-safe, but the underlying replay index is a single-writer, multiple-reader threadsafe index.
+ *
+ * The {@link ReplayIndexSegment}s of the stream stay mapped, and sessions that the {@link ReplayIndex} has added since
+ * they were last read are read when an unknown session is queried.
  */
 public class ReplayQuery implements AutoCloseable
 {
     private final MessageHeaderDecoder messageFrameHeader = new MessageHeaderDecoder();
     private final ReplayIndexRecordDecoder indexRecord = new ReplayIndexRecordDecoder();
 
-    private final LongFunction<SessionQuery> newSessionQuery = SessionQuery::new;
-    private final Long2ObjectCache<SessionQuery> fixSessionToIndex;
+    private final Long2ObjectHashMap<SessionQuery> fixSessionToIndex = new Long2ObjectHashMap<>();
+    private final List<ReplayIndexSegment> segments = new ArrayList<>();
     private final String logFileDir;
-    private final File logFileDirFile;
     private final ExistingBufferFactory indexBufferFactory;
     private final int requiredStreamId;
     private final IdleStrategy idleStrategy;
@@ -65,11 +63,10 @@ public class ReplayQuery implements AutoCloseable
     private final int archiveReplayStream;
 
     private Subscription replaySubscription;
+    private int slotsRead;
 
     public ReplayQuery(
         final String logFileDir,
-        final int cacheNumSets,
-        final int cacheSetSize,
         final ExistingBufferFactory indexBufferFactory,
         final int requiredStreamId,
         final IdleStrategy idleStrategy,
@@ -84,9 +81,6 @@ public class ReplayQuery implements AutoCloseable
         this.aeronArchive = aeronArchive;
         this.errorHandler = errorHandler;
         this.archiveReplayStream = archiveReplayStream;
-
-        logFileDirFile = new File(logFileDir);
-        fixSessionToIndex = new Long2ObjectCache<>(cacheNumSets, cacheSetSize, SessionQuery::close);
     }
 
     /**
@@ -109,27 +103,24 @@ public class ReplayQuery implements AutoCloseable
         final LogTag logTag,
         final MessageTracker tracker)
     {
-        return lookupSessionQuery(sessionId)
+        final SessionQuery sessionQuery = lookupSessionQuery(sessionId);
+        if (sessionQuery == null)
+        {
+            // Nothing has been indexed for the session
+            return newReplayOperation(Collections.emptyList(), logTag, tracker);
+        }
+
+        return sessionQuery
             .query(beginSequenceNumber, beginSequenceIndex, endSequenceNumber, endSequenceIndex, logTag, tracker);
     }
 
     public void queryStartPositions(final Long2LongHashMap newStartPositions)
     {
-        final LongHashSet allSessionIds = listReplayIndexSessionIds(logFileDirFile, requiredStreamId);
+        readNewSessions();
 
-        // Run over existing session queries first in order to minimise cache evictions then reloads.
         for (final SessionQuery query : fixSessionToIndex.values())
         {
             aggregateLowerPosition(query.queryStartPositions(), newStartPositions);
-            allSessionIds.remove(query.sessionId);
-        }
-
-        final LongHashSet.LongIterator sessionIdIt = allSessionIds.iterator();
-        while (sessionIdIt.hasNext())
-        {
-            final long sessionId = sessionIdIt.nextValue();
-            final SessionQuery query = lookupSessionQuery(sessionId);
-            aggregateLowerPosition(query.queryStartPositions(), newStartPositions);
         }
     }
 
@@ -154,29 +145,94 @@ public class ReplayQuery implements AutoCloseable
 
     private SessionQuery lookupSessionQuery(final long sessionId)
     {
-        return fixSessionToIndex.computeIfAbsent(sessionId, newSessionQuery);
+        SessionQuery sessionQuery = fixSessionToIndex.get(sessionId);
+        if (sessionQuery == null)
+        {
+            readNewSessions();
+            sessionQuery = fixSessionToIndex.get(sessionId);
+        }
+
+        return sessionQuery;
+    }
+
+    // Only the last segment can have had sessions added to it, after which new segments may have been created.
+    private void readNewSessions()
+    {
+        final List<ReplayIndexSegment> segments = this.segments;
+        int segmentCount = segments.size();
+        if (segmentCount > 0)
+        {
+            readNewSessions(segments.get(segmentCount - 1));
+        }
+
+        File file;
+        while ((file = replaySessionsFile(logFileDir, requiredStreamId, segmentCount)).exists())
+        {
+            final ReplayIndexSegment segment = new ReplayIndexSegment(indexBufferFactory.map(file));
+            if (!segment.isInitialised())
+            {
+                // Still being created by the ReplayIndex, so it has no sessions yet.
+                segment.close();
+                return;
+            }
+
+            segments.add(segment);
+            segmentCount++;
+            slotsRead = 0;
+            readNewSessions(segment);
+        }
+    }
+
+    private void readNewSessions(final ReplayIndexSegment segment)
+    {
+        final int slotCount = segment.slotCount();
+        for (int slot = slotsRead; slot < slotCount; slot++)
+        {
+            final long sessionId = segment.sessionId(slot);
+            fixSessionToIndex.put(sessionId, new SessionQuery(sessionId, segment.slotBuffer(slot)));
+        }
+        slotsRead = slotCount;
+    }
+
+    private ReplayOperation newReplayOperation(
+        final List<RecordingRange> ranges, final LogTag logTag, final MessageTracker messageTracker)
+    {
+        if (replaySubscription == null)
+        {
+            replaySubscription = aeronArchive.context().aeron().addSubscription(
+                IPC_CHANNEL, archiveReplayStream);
+        }
+
+        return new ReplayOperation(
+            ranges,
+            aeronArchive,
+            errorHandler,
+            replaySubscription,
+            archiveReplayStream,
+            logTag,
+            messageTracker);
     }
 
     public void close()
     {
         fixSessionToIndex.clear();
+        segments.forEach(ReplayIndexSegment::close);
+        segments.clear();
 
         CloseHelper.close(replaySubscription);
     }
 
-    private final class SessionQuery implements AutoCloseable
+    private final class SessionQuery
     {
-        private final ByteBuffer wrappedBuffer;
         private final long sessionId;
-        private final UnsafeBuffer buffer;
+        private final AtomicBuffer buffer;
         private final int capacity;
         private final int actingBlockLength;
         private final int actingVersion;
 
-        SessionQuery(final long sessionId)
+        SessionQuery(final long sessionId, final AtomicBuffer buffer)
         {
-            wrappedBuffer = indexBufferFactory.map(replayIndexFile(logFileDir, sessionId, requiredStreamId));
-            buffer = new UnsafeBuffer(wrappedBuffer);
+            this.buffer = buffer;
             capacity = recordCapacity(buffer.capacity());
             this.sessionId = sessionId;
 
@@ -205,6 +261,7 @@ public class ReplayQuery implements AutoCloseable
             long stopIteratingPosition = iteratorPosition + capacity;
 
             int lastSequenceNumber = -1;
+            long lastBeginPosition = -1;
             while (iteratorPosition != stopIteratingPosition)
             {
                 final long changePosition = endChangeVolatile(buffer);
@@ -246,11 +303,13 @@ public class ReplayQuery implements AutoCloseable
                             ranges,
                             currentRange,
                             lastSequenceNumber,
+                            lastBeginPosition,
                             beginPosition,
                             sequenceNumber,
                             recordingId,
                             readLength);
                         lastSequenceNumber = sequenceNumber;
+                        lastBeginPosition = beginPosition;
                         iteratorPosition += RECORD_LENGTH;
                     }
                     else // before start of query
@@ -294,29 +353,11 @@ public class ReplayQuery implements AutoCloseable
             return iteratorPosition + jumpInBytes;
         }
 
-        private ReplayOperation newReplayOperation(
-            final List<RecordingRange> ranges, final LogTag logTag, final MessageTracker messageTracker)
-        {
-            if (replaySubscription == null)
-            {
-                replaySubscription = aeronArchive.context().aeron().addSubscription(
-                    IPC_CHANNEL, archiveReplayStream);
-            }
-
-            return new ReplayOperation(
-                ranges,
-                aeronArchive,
-                errorHandler,
-                replaySubscription,
-                archiveReplayStream,
-                logTag,
-                messageTracker);
-        }
-
         private RecordingRange addRange(
             final List<RecordingRange> ranges,
             final RecordingRange currentRange,
             final int lastSequenceNumber,
+            final long lastBeginPosition,
             final long beginPosition,
             final int sequenceNumber,
             final long recordingId,
@@ -337,8 +378,10 @@ public class ReplayQuery implements AutoCloseable
                 trueBeginPosition(beginPosition),
                 readLength + FRAME_ALIGNMENT);
 
-            // FIX messages can be fragmented, so number of range adds != count
-            if (lastSequenceNumber != sequenceNumber)
+            // The count is of archived fragments, the unit that the MessageTracker counts when replaying. FIX messages
+            // can be fragmented, with a record per fragment, and batched, with a record per message of the batch at
+            // the same position, so number of range adds != count
+            if (lastSequenceNumber != sequenceNumber && lastBeginPosition != beginPosition)
             {
                 range.count++;
             }
@@ -431,14 +474,6 @@ public class ReplayQuery implements AutoCloseable
         {
             return beginPosition - FRAME_ALIGNMENT;
         }
-
-        public void close()
-        {
-            if (wrappedBuffer instanceof MappedByteBuffer)
-            {
-                IoUtil.unmap((MappedByteBuffer)wrappedBuffer);
-            }
-        }
     }
 
 }
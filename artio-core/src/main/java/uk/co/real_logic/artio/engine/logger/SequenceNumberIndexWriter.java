@@ -50,6 +50,7 @@ import static io.aeron.protocol.DataHeaderFlyweight.BEGIN_FLAG;
 import static uk.co.real_logic.artio.engine.SectorFramer.*;
 import static uk.co.real_logic.artio.engine.SequenceNumberExtractor.NO_SEQUENCE_NUMBER;
 import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
+import static uk.co.real_logic.artio.messages.FixMessageBatchDecoder.MessagesDecoder.fixMessageHeaderLength;
 import static uk.co.real_logic.artio.messages.FixMessageDecoder.metaDataSinceVersion;
 import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEncoder.SCHEMA_VERSION;
 
@@ -72,6 +73,7 @@ public class SequenceNumberIndexWriter implements Index
 
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
     private final FixMessageDecoder messageFrame = new FixMessageDecoder();
+    private final FixMessageBatchDecoder messageBatch = new FixMessageBatchDecoder();
     private final ResetSequenceNumberDecoder resetSequenceNumber = new ResetSequenceNumberDecoder();
     private final WriteMetaDataDecoder writeMetaData = new WriteMetaDataDecoder();
     private final RedactSequenceUpdateDecoder redactSequenceUpdate = new RedactSequenceUpdateDecoder();
@@ -277,6 +279,12 @@ public class SequenceNumberIndexWriter implements Index
                     break;
                 }
 
+                case FixMessageBatchDecoder.TEMPLATE_ID:
+                {
+                    onFixMessageBatch(buffer, offset, actingBlockLength, version, endPosition);
+                    break;
+                }
+
                 case ResetSessionIdsDecoder.TEMPLATE_ID:
                 {
                     resetSequenceNumbers();
@@ -363,7 +371,8 @@ public class SequenceNumberIndexWriter implements Index
         offset += FixMessageDecoder.bodyHeaderLength();
         final long sessionId = messageFrame.session();
 
-        final int msgSeqNum = sequenceNumberExtractor.extract(buffer, offset, messageFrame.bodyLength());
+        final int msgSeqNum = sequenceNumberExtractor.extract(
+            messageFrame, buffer, offset, messageFrame.bodyLength());
         if (msgSeqNum != NO_SEQUENCE_NUMBER)
         {
             final int position = saveRecord(msgSeqNum, sessionId, messagePosition, NO_REQUIRED_POSITION);
@@ -375,6 +384,31 @@ public class SequenceNumberIndexWriter implements Index
         return true;
     }
 
+    private void onFixMessageBatch(
+        final DirectBuffer buffer,
+        final int offset,
+        final int actingBlockLength,
+        final int version,
+        final long messagePosition)
+    {
+        final FixMessageBatchDecoder messageBatch = this.messageBatch;
+        final MessageHeaderDecoder messageHeader = this.messageHeader;
+        messageBatch.wrap(buffer, offset, actingBlockLength, version);
+
+        for (final FixMessageBatchDecoder.MessagesDecoder messages : messageBatch.messages())
+        {
+            final int frameOffset = messageBatch.limit() + fixMessageHeaderLength();
+            messageHeader.wrap(buffer, frameOffset);
+            onFixMessage(
+                buffer,
+                frameOffset + messageHeader.encodedLength(),
+                messageHeader.blockLength(),
+                messageHeader.version(),
+                messagePosition);
+            messages.skipFixMessage();
+        }
+    }
+
     private void resizeMetaDataBuffer(final int metaDataLength)
     {
         if (metaDataWriteBuffer.length < metaDataLength)
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.Aeron;
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.CompositeAgent;
+import org.agrona.concurrent.SystemNanoClock;
+import uk.co.real_logic.artio.DutyCycleTrackingAgent;
+import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.LinuxThreadAffinity;
+import uk.co.real_logic.artio.ThreadAffinity;
+import uk.co.real_logic.artio.engine.EngineScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.agrona.concurrent.AgentRunner.startOnThread;
+
+/**
+ * A scheduler that runs the library's monitoring and Aeron client conductor agents on a thread that can be pinned to
+ * a set of CPUs, counting each agent's duty cycles with a {@link DutyCycleTrackingAgent}.
+ *
+ * The library's session processing is run by whichever thread calls {@link FixLibrary#poll(int)}, so should be pinned
+ * by the application.
+ */
+public class AffinityLibraryScheduler implements LibraryScheduler
+{
+    private final ThreadAffinity threadAffinity;
+
+    private int[] monitoringCpus;
+    private FixCounters fixCounters;
+    private AgentRunner monitoringRunner;
+
+    /**
+     * Create the scheduler.
+     *
+     * @param threadAffinity the strategy for pinning threads, eg: a {@link LinuxThreadAffinity}.
+     */
+    public AffinityLibraryScheduler(final ThreadAffinity threadAffinity)
+    {
+        this.threadAffinity = threadAffinity;
+    }
+
+    /**
+     * Sets the CPUs that the monitoring and Aeron client conductor agents run on.
+     *
+     * @param cpus the ids of the CPUs that the monitoring and Aeron client conductor agents run on.
+     * @return this
+     */
+    public AffinityLibraryScheduler monitoringCpus(final int... cpus)
+    {
+        if (cpus.length == 0)
+        {
+            throw new IllegalArgumentException("Must provide at least one CPU");
+        }
+
+        this.monitoringCpus = cpus.clone();
+        return this;
+    }
+
+    public void configure(final FixCounters fixCounters)
+    {
+        this.fixCounters = fixCounters;
+    }
+
+    public void launch(
+        final LibraryConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent monitoringAgent,
+        final Agent conductorAgent)
+    {
+        if (monitoringRunner != null)
+        {
+            EngineScheduler.fail();
+        }
+
+        final List<Agent> agents = new ArrayList<>();
+        if (monitoringAgent != null)
+        {
+            agents.add(track(monitoringAgent));
+        }
+        if (conductorAgent != null)
+        {
+            agents.add(track(conductorAgent));
+        }
+
+        if (!agents.isEmpty())
+        {
+            monitoringRunner = new AgentRunner(
+                configuration.monitoringThreadIdleStrategy(),
+                errorHandler,
+                null,
+                new CompositeAgent(agents));
+            startOnThread(
+                monitoringRunner,
+                threadAffinity.pinningThreadFactory(configuration.threadFactory(), monitoringCpus, errorHandler));
+        }
+    }
+
+    public void configure(final Aeron.Context aeronContext)
+    {
+        aeronContext.useConductorAgentInvoker(true);
+    }
+
+    public void close(final int libraryId)
+    {
+        EngineScheduler.awaitRunnerStart(monitoringRunner);
+
+        CloseHelper.close(monitoringRunner);
+    }
+
+    private Agent track(final Agent agent)
+    {
+        return fixCounters == null ? agent : DutyCycleTrackingAgent.of(agent, SystemNanoClock.INSTANCE, fixCounters);
+    }
+}
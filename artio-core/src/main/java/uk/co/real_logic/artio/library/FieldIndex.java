@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.DirectBuffer;
+import org.agrona.collections.Hashing;
+import uk.co.real_logic.artio.transcoding.messages.FixFieldIndexDecoder;
+import uk.co.real_logic.artio.transcoding.messages.MessageHeaderDecoder;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/**
+ * A flyweight over a message transcoded by the {@link FieldIndexTranscoder} that looks up a field by its tag in
+ * constant time, using the lookup table within the index, and reads any field by its position in the message.
+ * Wrapping it is cheap, so each piece of handler code can wrap its own over the same transcoded message.
+ *
+ * Value offsets are relative to the start of the FIX message that was transcoded.
+ */
+public final class FieldIndex
+{
+    public static final int MISSING_FIELD = -1;
+
+    static final int EMPTY_SLOT = 0;
+
+    private static final int TAG_OFFSET = FixFieldIndexDecoder.FieldsDecoder.tagEncodingOffset();
+    private static final int VALUE_OFFSET_OFFSET = FixFieldIndexDecoder.FieldsDecoder.valueOffsetEncodingOffset();
+    private static final int VALUE_LENGTH_OFFSET = FixFieldIndexDecoder.FieldsDecoder.valueLengthEncodingOffset();
+    private static final int FIELD_NUMBER_OFFSET = FixFieldIndexDecoder.SlotsDecoder.fieldNumberEncodingOffset();
+
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final FixFieldIndexDecoder fieldIndex = new FixFieldIndexDecoder();
+
+    private DirectBuffer buffer;
+    private int fieldsOffset;
+    private int fieldBlockLength;
+    private int fieldCount;
+    private int slotsOffset;
+    private int slotBlockLength;
+    private int slotMask;
+
+    /**
+     * Wrap a transcoded message.
+     *
+     * @param buffer the buffer containing the transcoded message, eg: {@link OnMessageInfo#transcodedBuffer()}.
+     * @param offset the offset within the buffer that the transcoded message starts at.
+     * @return this
+     */
+    public FieldIndex wrap(final DirectBuffer buffer, final int offset)
+    {
+        final MessageHeaderDecoder header = this.header;
+        final FixFieldIndexDecoder fieldIndex = this.fieldIndex;
+        header.wrap(buffer, offset);
+        fieldIndex.wrap(buffer, offset + header.encodedLength(), header.blockLength(), header.version());
+
+        final FixFieldIndexDecoder.FieldsDecoder fields = fieldIndex.fields();
+        final int fieldsOffset = fieldIndex.limit();
+        final int fieldBlockLength = fields.actingBlockLength();
+        final int fieldCount = fields.count();
+        fieldIndex.limit(fieldsOffset + fieldCount * fieldBlockLength);
+
+        final FixFieldIndexDecoder.SlotsDecoder slots = fieldIndex.slots();
+        slotsOffset = fieldIndex.limit();
+        slotBlockLength = slots.actingBlockLength();
+        slotMask = slots.count() - 1;
+
+        this.buffer = buffer;
+        this.fieldsOffset = fieldsOffset;
+        this.fieldBlockLength = fieldBlockLength;
+        this.fieldCount = fieldCount;
+
+        return this;
+    }
+
+    /**
+     * Gets the number of fields in the message.
+     *
+     * @return the number of fields in the message.
+     */
+    public int fieldCount()
+    {
+        return fieldCount;
+    }
+
+    /**
+     * Finds the position of a field within the message. If the tag occurs more than once, for example within a
+     * repeating group, then the position of its first occurrence is returned.
+     *
+     * @param tag the tag of the field.
+     * @return the position of the field, below {@link #fieldCount()}, or {@link #MISSING_FIELD} if the message
+     * doesn't contain the tag.
+     */
+    public int indexOf(final int tag)
+    {
+        final DirectBuffer buffer = this.buffer;
+        final int mask = slotMask;
+        int slot = slot(tag, mask);
+        while (true)
+        {
+            final int fieldNumber = buffer.getInt(
+                slotsOffset + slot * slotBlockLength + FIELD_NUMBER_OFFSET, LITTLE_ENDIAN);
+            if (fieldNumber == EMPTY_SLOT)
+            {
+                return MISSING_FIELD;
+            }
+
+            final int index = fieldNumber - 1;
+            if (tag(index) == tag)
+            {
+                return index;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Gets the tag of a field.
+     *
+     * @param index the position of the field within the message.
+     * @return the tag of the field.
+     */
+    public int tag(final int index)
+    {
+        return buffer.getInt(fieldOffset(index) + TAG_OFFSET, LITTLE_ENDIAN);
+    }
+
+    /**
+     * Gets the offset of a field's value, relative to the start of the message.
+     *
+     * @param index the position of the field within the message.
+     * @return the offset of the field's value.
+     */
+    public int valueOffset(final int index)
+    {
+        return buffer.getInt(fieldOffset(index) + VALUE_OFFSET_OFFSET, LITTLE_ENDIAN);
+    }
+
+    /**
+     * Gets the length of a field's value.
+     *
+     * @param index the position of the field within the message.
+     * @return the length of the field's value.
+     */
+    public int valueLength(final int index)
+    {
+        return buffer.getInt(fieldOffset(index) + VALUE_LENGTH_OFFSET, LITTLE_ENDIAN);
+    }
+
+    // Shared with the FieldIndexTranscoder, which builds the lookup table.
+    static int slot(final int tag, final int mask)
+    {
+        return Hashing.hash(tag, mask);
+    }
+
+    private int fieldOffset(final int index)
+    {
+        if (index < 0 || index >= fieldCount)
+        {
+            throw new IndexOutOfBoundsException("index=" + index + ", fieldCount=" + fieldCount);
+        }
+
+        return fieldsOffset + index * fieldBlockLength;
+    }
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.IntHashSet;
+import org.agrona.collections.LongHashSet;
+import uk.co.real_logic.artio.transcoding.messages.FixFieldIndexEncoder;
+import uk.co.real_logic.artio.transcoding.messages.MessageHeaderEncoder;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.packMessageType;
+
+/**
+ * A {@link FixMessageTranscoder} that encodes a
+ * {@link uk.co.real_logic.artio.transcoding.messages.FixFieldIndexDecoder} recording the tag, offset and length of
+ * every field within the message, along with a table for looking fields up by tag. Library code can then read
+ * the index with a {@link FieldIndex} and find a field's value in constant time, without scanning the ASCII message.
+ * Offsets are relative to the start of the message.
+ *
+ * The value of a data field, such as RawData, can contain SOH characters so its length is taken from the length
+ * field that precedes it, such as RawDataLength, as the generated decoders do. Messages whose data fields don't have
+ * a valid length field preceding them aren't transcoded.
+ *
+ * Messages with more fields than can be recorded, or with a tag that isn't a number, aren't transcoded.
+ */
+public class FieldIndexTranscoder implements FixMessageTranscoder
+{
+    private static final byte START_OF_HEADER = 1;
+    private static final byte EQUALS = '=';
+    // Longer tags could overflow an int
+    private static final int MAX_TAG_LENGTH = 9;
+    // The lookup table has at least twice as many slots as there are fields, and its size must fit in the
+    // numInGroup of a largeGroupSizeEncoding.
+    private static final int MAX_FIELDS = 16 * 1024;
+    private static final int MIN_SLOTS = 2;
+    private static final int MISSING_LENGTH = -1;
+
+    private final MessageHeaderEncoder header = new MessageHeaderEncoder();
+    private final FixFieldIndexEncoder fieldIndex = new FixFieldIndexEncoder();
+    private final LongHashSet messageTypes = new LongHashSet();
+    private final Int2IntHashMap dataTagToLengthTag;
+    private final IntHashSet lengthTags = new IntHashSet();
+    private final Int2IntHashMap lengthTagToValue = new Int2IntHashMap(MISSING_LENGTH);
+    private int[] tags = new int[64];
+    private int[] slots = new int[128];
+
+    /**
+     * Create the transcoder, which knows about the data fields of the standard FIX dictionaries, see
+     * {@link #standardDataFields()}.
+     *
+     * @param messageTypes the FIX msgType values of the messages to transcode, eg: "8" for ExecutionReport.
+     */
+    public FieldIndexTranscoder(final Set<String> messageTypes)
+    {
+        this(messageTypes, standardDataFields());
+    }
+
+    /**
+     * Create the transcoder.
+     *
+     * @param messageTypes the FIX msgType values of the messages to transcode, eg: "8" for ExecutionReport.
+     * @param dataTagToLengthTag the tag of each data field in the messages, mapped to the tag of the length field
+     *                           that precedes it.
+     */
+    public FieldIndexTranscoder(final Set<String> messageTypes, final Int2IntHashMap dataTagToLengthTag)
+    {
+        messageTypes.forEach(messageType -> this.messageTypes.add(packMessageType(messageType)));
+        this.dataTagToLengthTag = dataTagToLengthTag;
+        dataTagToLengthTag.values().forEach(lengthTags::add);
+    }
+
+    /**
+     * Gets the data fields of the standard FIX 4.x and 5.0 dictionaries, mapped to their length fields, for example
+     * RawData (96) to RawDataLength (95).
+     *
+     * @return a new map from the tag of each data field to the tag of its length field.
+     */
+    public static Int2IntHashMap standardDataFields()
+    {
+        final Int2IntHashMap dataTagToLengthTag = new Int2IntHashMap(MISSING_LENGTH);
+        dataTagToLengthTag.put(89, 93); // Signature
+        dataTagToLengthTag.put(91, 90); // SecureData
+        dataTagToLengthTag.put(96, 95); // RawData
+        dataTagToLengthTag.put(213, 212); // XmlData
+        dataTagToLengthTag.put(349, 348); // EncodedIssuer
+        dataTagToLengthTag.put(351, 350); // EncodedSecurityDesc
+        dataTagToLengthTag.put(353, 352); // EncodedListExecInst
+        dataTagToLengthTag.put(355, 354); // EncodedText
+        dataTagToLengthTag.put(357, 356); // EncodedSubject
+        dataTagToLengthTag.put(359, 358); // EncodedHeadline
+        dataTagToLengthTag.put(361, 360); // EncodedAllocText
+        dataTagToLengthTag.put(363, 362); // EncodedUnderlyingIssuer
+        dataTagToLengthTag.put(365, 364); // EncodedUnderlyingSecurityDesc
+        dataTagToLengthTag.put(446, 445); // EncodedListStatusText
+        dataTagToLengthTag.put(619, 618); // EncodedLegIssuer
+        dataTagToLengthTag.put(622, 621); // EncodedLegSecurityDesc
+        return dataTagToLengthTag;
+    }
+
+    public int transcode(
+        final long messageType,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final MutableDirectBuffer destination)
+    {
+        if (!messageTypes.contains(messageType))
+        {
+            return NOT_TRANSCODED;
+        }
+
+        final Int2IntHashMap dataTagToLengthTag = this.dataTagToLengthTag;
+        final IntHashSet lengthTags = this.lengthTags;
+        final Int2IntHashMap lengthTagToValue = this.lengthTagToValue;
+        if (!lengthTagToValue.isEmpty())
+        {
+            lengthTagToValue.clear();
+        }
+
+        final int end = offset + length;
+        final FixFieldIndexEncoder.FieldsEncoder fields = fieldIndex
+            .wrapAndApplyHeader(destination, 0, header)
+            .fieldsCount(MAX_FIELDS);
+
+        // The message is only scanned once, the group's count is corrected after every field has been indexed.
+        int fieldCount = 0;
+        int position = offset;
+        while (position < end)
+        {
+            final int equalsIndex = scan(buffer, position, end, EQUALS);
+            if (equalsIndex == end || !isNumber(buffer, position, equalsIndex) || fieldCount == MAX_FIELDS)
+            {
+                return NOT_TRANSCODED;
+            }
+
+            final int tag = buffer.parseNaturalIntAscii(position, equalsIndex - position);
+            final int valueOffset = equalsIndex + 1;
+            final int valueEnd;
+            final int lengthTag = dataTagToLengthTag.get(tag);
+            if (lengthTag == MISSING_LENGTH)
+            {
+                valueEnd = scan(buffer, valueOffset, end, START_OF_HEADER);
+
+                if (lengthTags.contains(tag))
+                {
+                    if (!isNumber(buffer, valueOffset, valueEnd))
+                    {
+                        return NOT_TRANSCODED;
+                    }
+                    lengthTagToValue.put(tag, buffer.parseNaturalIntAscii(valueOffset, valueEnd - valueOffset));
+                }
+            }
+            else
+            {
+                // The value of a data field can contain SOH, so it can only be found from its length field.
+                final int dataLength = lengthTagToValue.get(lengthTag);
+                valueEnd = valueOffset + dataLength;
+                if (dataLength == MISSING_LENGTH || valueEnd >= end || buffer.getByte(valueEnd) != START_OF_HEADER)
+                {
+                    return NOT_TRANSCODED;
+                }
+            }
+
+            addTag(fieldCount, tag);
+            fields.next()
+                .tag(tag)
+                .valueOffset(valueOffset - offset)
+                .valueLength(valueEnd - valueOffset);
+
+            fieldCount++;
+            position = valueEnd + 1;
+        }
+        fields.resetCountToIndex();
+        encodeSlots(fieldCount);
+
+        return MessageHeaderEncoder.ENCODED_LENGTH + fieldIndex.encodedLength();
+    }
+
+    private void addTag(final int fieldIndex, final int tag)
+    {
+        int[] tags = this.tags;
+        if (fieldIndex == tags.length)
+        {
+            tags = Arrays.copyOf(tags, tags.length * 2);
+            this.tags = tags;
+        }
+        tags[fieldIndex] = tag;
+    }
+
+    // A tag that's repeated, for example within a repeating group, is looked up as its first field.
+    private void encodeSlots(final int fieldCount)
+    {
+        final int slotCount = BitUtil.findNextPositivePowerOfTwo(Math.max(MIN_SLOTS, fieldCount * 2));
+        final int mask = slotCount - 1;
+
+        int[] slots = this.slots;
+        if (slots.length < slotCount)
+        {
+            slots = new int[slotCount];
+            this.slots = slots;
+        }
+        else
+        {
+            Arrays.fill(slots, 0, slotCount, FieldIndex.EMPTY_SLOT);
+        }
+
+        final int[] tags = this.tags;
+        for (int i = 0; i < fieldCount; i++)
+        {
+            final int tag = tags[i];
+            int slot = FieldIndex.slot(tag, mask);
+            int fieldNumber;
+            while ((fieldNumber = slots[slot]) != FieldIndex.EMPTY_SLOT && tags[fieldNumber - 1] != tag)
+            {
+                slot = (slot + 1) & mask;
+            }
+
+            if (fieldNumber == FieldIndex.EMPTY_SLOT)
+            {
+                slots[slot] = i + 1;
+            }
+        }
+
+        final FixFieldIndexEncoder.SlotsEncoder slotsEncoder = fieldIndex.slotsCount(slotCount);
+        for (int i = 0; i < slotCount; i++)
+        {
+            slotsEncoder.next().fieldNumber(slots[i]);
+        }
+    }
+
+    // A malformed tag or length mustn't stop the message reaching its handler, the message just isn't transcoded.
+    private static boolean isNumber(final DirectBuffer buffer, final int start, final int end)
+    {
+        final int length = end - start;
+        if (length <= 0 || length > MAX_TAG_LENGTH)
+        {
+            return false;
+        }
+
+        for (int i = start; i < end; i++)
+        {
+            final byte value = buffer.getByte(i);
+            if (value < '0' || value > '9')
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int scan(final DirectBuffer buffer, final int start, final int end, final byte value)
+    {
+        int index = start;
+        while (index < end && buffer.getByte(index) != value)
+        {
+            index++;
+        }
+        return index;
+    }
+}
@@ -75,7 +75,15 @@ public class FixLibrary extends GatewayProcess
 
             final LibraryTransport transport = new LibraryTransport(configuration, fixCounters, aeron);
             poller = new LibraryPoller(
-                configuration, timers, fixCounters, transport, this, new SystemEpochClock());
+                configuration,
+                timers,
+                fixCounters,
+                transport,
+                this,
+                new SystemEpochClock(),
+                dutyCycleMonitors.newMonitor(
+                    configuration.agentNamePrefix() + "Library " + configuration.libraryId() + " poller",
+                    LibraryPoller.DUTY_CYCLE_STEPS));
         }
         catch (final Exception e)
         {
@@ -109,6 +117,7 @@ public class FixLibrary extends GatewayProcess
     {
         poller.startConnecting();
         final ErrorHandler remoteThreadErrorHandler = createRemoteThreadErrorHandler(errorHandler);
+        scheduler.configure(fixCounters);
         scheduler.launch(configuration, remoteThreadErrorHandler, monitoringAgent, conductorAgent());
         return this;
     }
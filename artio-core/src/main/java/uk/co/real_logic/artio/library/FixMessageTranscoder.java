@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.DirectBuffer;
+import org.agrona.MutableDirectBuffer;
+
+/**
+ * A callback that can be implemented to transcode inbound FIX messages into a binary representation once, so that
+ * the code handling a message in the session's {@link SessionHandler} doesn't re-parse the ASCII message each time
+ * it reads a field.
+ *
+ * The transcoded form is available to the handler through {@link OnMessageInfo#transcodedBuffer()}. A message is
+ * only transcoded when its handler first asks for the transcoded form, so messages whose handlers don't use it
+ * aren't scanned a second time.
+ *
+ * The transcoder is invoked on the thread that polls the library, not on the engine's Framer.
+ *
+ * @see FieldIndexTranscoder for an implementation that encodes the offset and length of each field.
+ */
+@FunctionalInterface
+public interface FixMessageTranscoder
+{
+    int NOT_TRANSCODED = -1;
+
+    /**
+     * Transcode a FIX message.
+     *
+     * @param messageType the FIX msgType field, encoded as an int.
+     * @param buffer the buffer containing the fix message.
+     * @param offset the offset in the buffer where the message starts.
+     * @param length the length of the message within the buffer.
+     * @param destination the buffer to encode the transcoded message into, starting at offset 0. This buffer
+     *                    is expandable.
+     * @return the length of the transcoded message or {@link #NOT_TRANSCODED} if this message shouldn't be
+     * transcoded.
+     */
+    int transcode(
+        long messageType,
+        DirectBuffer buffer,
+        int offset,
+        int length,
+        MutableDirectBuffer destination);
+}
@@ -89,6 +89,8 @@ public final class LibraryConfiguration extends CommonConfiguration
     private LibraryScheduler scheduler = new DefaultLibraryScheduler();
     private String libraryName = "";
     private SessionProxyFactory sessionProxyFactory = DEFAULT_SESSION_PROXY_FACTORY;
+    private boolean sharedSessionBuffers = false;
+    private FixMessageTranscoder fixMessageTranscoder = null;
 
     /**
      * When a new session connects to the gateway you register a callback handler to find
@@ -240,6 +242,50 @@ public final class LibraryConfiguration extends CommonConfiguration
         return this;
     }
 
+    /**
+     * Sets whether the library's sessions share the buffers that they encode messages into, reducing the heap used
+     * by each session when a library has many sessions.
+     *
+     * When enabled the buffers that sessions encode messages into are shared by all of the library's sessions, as are
+     * the buffers of the default {@link #sessionProxyFactory(SessionProxyFactory)}. Each session otherwise has its own
+     * buffers of {@link #sessionBufferSize(int)}, which are the bulk of a session's heap. This means that sessions
+     * must only send messages from the thread that polls the library, they throw an {@link IllegalStateException}
+     * when sending from any other thread.
+     *
+     * @param sharedSessionBuffers true to share session buffers, false by default.
+     * @return this
+     */
+    public LibraryConfiguration sharedSessionBuffers(final boolean sharedSessionBuffers)
+    {
+        this.sharedSessionBuffers = sharedSessionBuffers;
+        return this;
+    }
+
+    public boolean sharedSessionBuffers()
+    {
+        return sharedSessionBuffers;
+    }
+
+    /**
+     * Sets a transcoder for the inbound messages of the library's sessions. Its output is available to the session's
+     * handler through the {@link OnMessageInfo}, which only invokes the transcoder when the handler first asks for
+     * the transcoded form of a message. Defaults to null, which disables transcoding.
+     *
+     * @param fixMessageTranscoder the transcoder
+     * @return this
+     * @see FieldIndexTranscoder
+     */
+    public LibraryConfiguration fixMessageTranscoder(final FixMessageTranscoder fixMessageTranscoder)
+    {
+        this.fixMessageTranscoder = fixMessageTranscoder;
+        return this;
+    }
+
+    public FixMessageTranscoder fixMessageTranscoder()
+    {
+        return fixMessageTranscoder;
+    }
+
     /**
      * {@inheritDoc}
      */
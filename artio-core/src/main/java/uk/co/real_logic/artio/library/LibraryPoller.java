@@ -39,6 +39,7 @@ import uk.co.real_logic.artio.messages.ControlNotificationDecoder.SessionsDecode
 import uk.co.real_logic.artio.protocol.*;
 import uk.co.real_logic.artio.session.*;
 import uk.co.real_logic.artio.timing.LibraryTimers;
+import uk.co.real_logic.artio.timing.DutyCycleMonitor;
 import uk.co.real_logic.artio.timing.Timer;
 import uk.co.real_logic.artio.util.CharFormatter;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
@@ -62,6 +63,7 @@ import static uk.co.real_logic.artio.GatewayProcess.NO_CONNECTION_ID;
 import static uk.co.real_logic.artio.GatewayProcess.NO_CORRELATION_ID;
 import static uk.co.real_logic.artio.LogTag.*;
 import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
+import static uk.co.real_logic.artio.library.LibraryConfiguration.DEFAULT_SESSION_PROXY_FACTORY;
 import static uk.co.real_logic.artio.library.SessionConfiguration.AUTOMATIC_INITIAL_SEQUENCE_NUMBER;
 import static uk.co.real_logic.artio.messages.ConnectionType.INITIATOR;
 import static uk.co.real_logic.artio.messages.DisconnectReason.ENGINE_SHUTDOWN;
@@ -70,6 +72,10 @@ import static uk.co.real_logic.artio.session.Session.UNKNOWN_TIME;
 
 final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, AutoCloseable
 {
+    static final String[] DUTY_CYCLE_STEPS = {
+        "connectionState", "pollInbound", "livenessDetector", "pollSessions", "pollPendingInitiatorSessions",
+        "checkReplies" };
+
     /**
      * Has connected to an engine instance
      */
@@ -120,6 +126,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     // Uniquely identifies library session
     private final int libraryId;
     private final EpochClock epochClock;
+    private final DutyCycleMonitor dutyCycleMonitor;
     private final LibraryConfiguration configuration;
     private final SessionIdStrategy sessionIdStrategy;
     private final Timer sessionTimer;
@@ -128,6 +135,10 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private final SentPositionHandler sentPositionHandler;
     private final boolean enginesAreClustered;
     private final FixCounters fixCounters;
+    private final EpochClock sessionProxyClock = new SystemEpochClock();
+
+    // Only used when the configuration has shared session buffers
+    private final SharedSessionBuffers sharedSessionBuffers;
 
     private final Long2ObjectHashMap<LibraryReply<?>> correlationIdToReply = new Long2ObjectHashMap<>();
     private final List<BooleanSupplier> tasks = new ArrayList<>();
@@ -183,7 +194,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         final FixCounters fixCounters,
         final LibraryTransport transport,
         final FixLibrary fixLibrary,
-        final EpochClock epochClock)
+        final EpochClock epochClock,
+        final DutyCycleMonitor dutyCycleMonitor)
     {
         this.libraryId = configuration.libraryId();
         this.fixCounters = fixCounters;
@@ -198,7 +210,11 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         this.sessionExistsHandler = configuration.sessionExistsHandler();
         this.sentPositionHandler = configuration.sentPositionHandler();
         this.epochClock = epochClock;
+        this.dutyCycleMonitor = dutyCycleMonitor;
         this.enginesAreClustered = configuration.libraryAeronChannels().size() > 1;
+
+        sharedSessionBuffers = configuration.sharedSessionBuffers() ?
+            new SharedSessionBuffers(configuration.sessionBufferSize()) : null;
     }
 
     boolean isConnected()
@@ -489,6 +505,23 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     }
 
     int poll(final int fragmentLimit)
+    {
+        final DutyCycleMonitor dutyCycleMonitor = this.dutyCycleMonitor;
+        dutyCycleMonitor.startCycle();
+        if (sharedSessionBuffers != null)
+        {
+            sharedSessionBuffers.pollingThread(Thread.currentThread());
+        }
+        final int workCount = pollInState(fragmentLimit);
+        // The monitor's counters are closed along with the library, which can still be polled after being closed.
+        if (state != CLOSED)
+        {
+            dutyCycleMonitor.endCycle();
+        }
+        return workCount;
+    }
+
+    private int pollInState(final int fragmentLimit)
     {
         final long timeInMs = timeInMs();
 
@@ -500,24 +533,24 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         switch (state)
         {
             case CONNECTED:
-                return pollWithoutReconnect(timeInMs, fragmentLimit);
+                return pollWithoutReconnect(timeInMs, fragmentLimit, 0);
 
             case ATTEMPT_CONNECT:
                 startConnecting();
-                return pollWithoutReconnect(timeInMs, fragmentLimit);
+                return pollWithoutReconnect(timeInMs, fragmentLimit, 1);
 
             case CONNECTING:
                 nextConnectingStep(timeInMs);
-                return pollWithoutReconnect(timeInMs, fragmentLimit);
+                return pollWithoutReconnect(timeInMs, fragmentLimit, 1);
 
             case ATTEMPT_CURRENT_NODE:
                 connectToNewEngine(timeInMs);
                 state = CONNECTING;
-                return pollWithoutReconnect(timeInMs, fragmentLimit);
+                return pollWithoutReconnect(timeInMs, fragmentLimit, 1);
 
             case ENGINE_CLOSE:
                 attemptEngineCloseBasedLogout();
-                return pollWithoutReconnect(timeInMs, fragmentLimit);
+                return pollWithoutReconnect(timeInMs, fragmentLimit, 1);
 
             case CLOSED:
             default:
@@ -525,14 +558,16 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         }
     }
 
-    private int pollWithoutReconnect(final long timeInMs, final int fragmentLimit)
+    // connectionWork is the work count of the connection state step that pollInState has just done.
+    private int pollWithoutReconnect(final long timeInMs, final int fragmentLimit, final int connectionWork)
     {
-        int operations = 0;
-        operations += inboundSubscription.controlledPoll(outboundSubscription, fragmentLimit);
-        operations += livenessDetector.poll(timeInMs);
-        operations += pollSessions(timeInMs);
-        operations += pollPendingInitiatorSessions(timeInMs);
-        operations += checkReplies(timeInMs);
+        final DutyCycleMonitor dutyCycleMonitor = this.dutyCycleMonitor;
+        int operations = dutyCycleMonitor.step(connectionWork);
+        operations += dutyCycleMonitor.step(inboundSubscription.controlledPoll(outboundSubscription, fragmentLimit));
+        operations += dutyCycleMonitor.step(livenessDetector.poll(timeInMs));
+        operations += dutyCycleMonitor.step(pollSessions(timeInMs));
+        operations += dutyCycleMonitor.step(pollPendingInitiatorSessions(timeInMs));
+        operations += dutyCycleMonitor.step(checkReplies(timeInMs));
         return operations;
     }
 
@@ -1165,6 +1200,32 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         return CONTINUE;
     }
 
+    public void onMessageBatchStart(final int libraryId, final long connectionId)
+    {
+        if (libraryId == this.libraryId)
+        {
+            final SessionSubscriber subscriber = connectionIdToSession.get(connectionId);
+            if (subscriber != null)
+            {
+                subscriber.onMessageBatchStart();
+            }
+        }
+    }
+
+    public Action onMessageBatchEnd(final int libraryId, final long connectionId, final long position)
+    {
+        if (libraryId == this.libraryId)
+        {
+            final SessionSubscriber subscriber = connectionIdToSession.get(connectionId);
+            if (subscriber != null)
+            {
+                return subscriber.onMessageBatchEnd(libraryId, position);
+            }
+        }
+
+        return CONTINUE;
+    }
+
     public Action onDisconnect(
         final int libraryId, final long connectionId, final DisconnectReason reason)
     {
@@ -1665,7 +1726,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             session,
             receiveTimer,
             sessionTimer,
-            this);
+            this,
+            configuration.fixMessageTranscoder());
         subscriber.reply(reply);
         subscriber.handler(configuration.sessionAcquireHandler().onSessionAcquired(session, sessionAcquiredInfo));
 
@@ -1712,6 +1774,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             messageInfo,
             configuration.sessionEpochFractionFormat());
         session.fixDictionary(fixDictionary);
+        session.sharedSessionBuffers(sharedSessionBuffers);
         session.initialLastReceivedMsgSeqNum(initialReceivedSequenceNumber - 1);
 
         return session;
@@ -1719,6 +1782,11 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
 
     private MutableAsciiBuffer sessionBuffer()
     {
+        if (sharedSessionBuffers != null)
+        {
+            return sharedSessionBuffers.sessionBuffer();
+        }
+
         return new MutableAsciiBuffer(new byte[configuration.sessionBufferSize()]);
     }
 
@@ -1785,18 +1853,34 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             messageInfo,
             configuration.sessionEpochFractionFormat());
         session.fixDictionary(fixDictionary);
+        session.sharedSessionBuffers(sharedSessionBuffers);
         session.address(address);
         return session;
     }
 
     private SessionProxy sessionProxy(final long connectionId)
     {
-        return configuration.sessionProxyFactory().make(
+        final SessionProxyFactory sessionProxyFactory = configuration.sessionProxyFactory();
+        if (sharedSessionBuffers != null && sessionProxyFactory == DEFAULT_SESSION_PROXY_FACTORY)
+        {
+            return new DirectSessionProxy(
+                sharedSessionBuffers.sessionProxyBuffer(),
+                transport.outboundPublication(),
+                sessionIdStrategy,
+                configuration.sessionCustomisationStrategy(),
+                sessionProxyClock,
+                connectionId,
+                libraryId,
+                LangUtil::rethrowUnchecked,
+                configuration.sessionEpochFractionFormat());
+        }
+
+        return sessionProxyFactory.make(
             configuration.sessionBufferSize(),
             transport.outboundPublication(),
             sessionIdStrategy,
             configuration.sessionCustomisationStrategy(),
-            new SystemEpochClock(),
+            sessionProxyClock,
             connectionId,
             libraryId,
             LangUtil::rethrowUnchecked,
@@ -18,6 +18,7 @@ package uk.co.real_logic.artio.library;
 import io.aeron.Aeron;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.Agent;
+import uk.co.real_logic.artio.FixCounters;
 
 /**
  * Interface for determining how a Library's Agents are allocated to threads.
@@ -54,4 +55,15 @@ public interface LibraryScheduler
      * @param aeronContext the context of the Aeron client being used by this Engine instance.
      */
     void configure(Aeron.Context aeronContext);
+
+    /**
+     * Invoked before the scheduler is launched with the counters of this Library instance, so that the scheduler can
+     * allocate counters of its own, for example the duty cycle counters of a
+     * {@link uk.co.real_logic.artio.DutyCycleTrackingAgent}.
+     *
+     * @param fixCounters the counters of this Library instance.
+     */
+    default void configure(final FixCounters fixCounters)
+    {
+    }
 }
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
+
+import java.util.Arrays;
+
+/**
+ * The FIX messages of a batch that is passed to {@link SessionBatchHandler#onMessageBatch}, in the order that they
+ * were received. Each message's body is within {@link #buffer()}. Only valid during the callback.
+ *
+ * If the library has a {@link LibraryConfiguration#fixMessageTranscoder(FixMessageTranscoder)} then a message is
+ * transcoded when its transcoded form is first asked for, as it is by {@link OnMessageInfo}.
+ */
+public final class MessageBatch
+{
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+
+    private final FixMessageTranscoder transcoder;
+
+    private ExpandableArrayBuffer transcodedBuffer;
+    private int transcodedIndex = NONE;
+    private int transcodedLength = FixMessageTranscoder.NOT_TRANSCODED;
+
+    private DirectBuffer buffer;
+    private int size;
+    private int[] offsets = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private long[] messageTypes = new long[INITIAL_CAPACITY];
+    private boolean[] valid = new boolean[INITIAL_CAPACITY];
+
+    MessageBatch(final FixMessageTranscoder transcoder)
+    {
+        this.transcoder = transcoder;
+    }
+
+    /**
+     * Gets the number of messages in the batch.
+     *
+     * @return the number of messages in the batch.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Gets the buffer containing the messages.
+     *
+     * @return the buffer containing the messages.
+     */
+    public DirectBuffer buffer()
+    {
+        return buffer;
+    }
+
+    /**
+     * Gets the offset in the buffer where a message starts.
+     *
+     * @param index the index of the message within the batch.
+     * @return the offset in the buffer where the message starts.
+     */
+    public int offset(final int index)
+    {
+        return offsets[checkIndex(index)];
+    }
+
+    /**
+     * Gets the length of a message within the buffer.
+     *
+     * @param index the index of the message within the batch.
+     * @return the length of the message within the buffer.
+     */
+    public int length(final int index)
+    {
+        return lengths[checkIndex(index)];
+    }
+
+    /**
+     * Gets the FIX msgType field of a message, encoded as an int.
+     *
+     * @param index the index of the message within the batch.
+     * @return the FIX msgType field of the message, encoded as an int.
+     */
+    public long messageType(final int index)
+    {
+        return messageTypes[checkIndex(index)];
+    }
+
+    /**
+     * Gets whether the session layer found a message to be valid, see {@link OnMessageInfo#isValid()}.
+     *
+     * @param index the index of the message within the batch.
+     * @return true if the message is valid, false otherwise.
+     */
+    public boolean isValid(final int index)
+    {
+        return valid[checkIndex(index)];
+    }
+
+    /**
+     * Gets whether a message was transcoded, transcoding it if it hasn't been yet.
+     *
+     * @param index the index of the message within the batch.
+     * @return true if the message was transcoded, false otherwise.
+     * @see OnMessageInfo#hasTranscodedMessage()
+     */
+    public boolean hasTranscodedMessage(final int index)
+    {
+        return transcodedLength(index) != FixMessageTranscoder.NOT_TRANSCODED;
+    }
+
+    /**
+     * Gets the buffer containing the transcoded form of a message, starting at offset 0. The buffer is shared by
+     * the messages of the batch, so it's only valid until the transcoded form of another message is asked for.
+     *
+     * @param index the index of the message within the batch.
+     * @return the buffer containing the transcoded form of the message.
+     */
+    public DirectBuffer transcodedBuffer(final int index)
+    {
+        transcodeIfRequired(index);
+        return transcodedBuffer;
+    }
+
+    /**
+     * Gets the length of the transcoded form of a message.
+     *
+     * @param index the index of the message within the batch.
+     * @return the length of the transcoded message within {@link #transcodedBuffer(int)} or
+     * {@link FixMessageTranscoder#NOT_TRANSCODED} if it wasn't transcoded.
+     */
+    public int transcodedLength(final int index)
+    {
+        transcodeIfRequired(index);
+        return transcodedLength;
+    }
+
+    void add(
+        final DirectBuffer buffer, final int offset, final int length, final long messageType, final boolean isValid)
+    {
+        final int index = addMessage(buffer, offset, length, messageType);
+        valid[index] = isValid;
+    }
+
+    // A batch that the handler aborted is redelivered without the session layer revalidating its messages, so
+    // their validity is kept from when they were first added.
+    void readd(final DirectBuffer buffer, final int offset, final int length, final long messageType)
+    {
+        addMessage(buffer, offset, length, messageType);
+    }
+
+    void clear()
+    {
+        size = 0;
+        buffer = null;
+        transcodedIndex = NONE;
+        transcodedLength = FixMessageTranscoder.NOT_TRANSCODED;
+    }
+
+    private void transcodeIfRequired(final int index)
+    {
+        checkIndex(index);
+        final FixMessageTranscoder transcoder = this.transcoder;
+        if (transcoder == null || index == transcodedIndex)
+        {
+            return;
+        }
+
+        ExpandableArrayBuffer transcodedBuffer = this.transcodedBuffer;
+        if (transcodedBuffer == null)
+        {
+            transcodedBuffer = new ExpandableArrayBuffer();
+            this.transcodedBuffer = transcodedBuffer;
+        }
+
+        transcodedLength = transcoder.transcode(
+            messageTypes[index], buffer, offsets[index], lengths[index], transcodedBuffer);
+        transcodedIndex = index;
+    }
+
+    private int addMessage(final DirectBuffer buffer, final int offset, final int length, final long messageType)
+    {
+        final int index = size;
+        if (index == offsets.length)
+        {
+            final int capacity = index * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            messageTypes = Arrays.copyOf(messageTypes, capacity);
+            valid = Arrays.copyOf(valid, capacity);
+        }
+
+        this.buffer = buffer;
+        offsets[index] = offset;
+        lengths[index] = length;
+        messageTypes[index] = messageType;
+        size = index + 1;
+
+        return index;
+    }
+
+    private int checkIndex(final int index)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("index=" + index + ", size=" + size);
+        }
+
+        return index;
+    }
+}
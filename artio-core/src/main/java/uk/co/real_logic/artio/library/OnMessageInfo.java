@@ -15,13 +15,30 @@
  */
 package uk.co.real_logic.artio.library;
 
+import org.agrona.DirectBuffer;
+import org.agrona.ExpandableArrayBuffer;
 import uk.co.real_logic.artio.messages.MessageStatus;
 
 public class OnMessageInfo
 {
+    private static final int NO_HEADER = -1;
+
     private MessageStatus status;
     private boolean isValid;
 
+    private FixMessageTranscoder transcoder;
+    private long messageType;
+    private DirectBuffer messageBuffer;
+    private int messageOffset;
+    private int messageLength;
+    private ExpandableArrayBuffer transcodedBuffer;
+    private int transcodedLength = FixMessageTranscoder.NOT_TRANSCODED;
+
+    private int headerLength = NO_HEADER;
+    private int msgSeqNum;
+    private long sendingTime;
+    private boolean possDup;
+
     public OnMessageInfo status(final MessageStatus status)
     {
         this.status = status;
@@ -43,4 +60,154 @@ public class OnMessageInfo
     {
         return isValid;
     }
+
+    /**
+     * Gets whether the session layer has decoded the header of this message. This is the case for application
+     * messages that were valid when they were received.
+     *
+     * @return true if the session layer has decoded the header of this message, false otherwise.
+     */
+    public boolean hasHeader()
+    {
+        return headerLength != NO_HEADER;
+    }
+
+    /**
+     * Gets the length of the message's header, so that the body of the message starts at the message's offset plus
+     * this length. This can be passed to a generated decoder's <code>decodeAfterHeader()</code> method in order to
+     * avoid decoding the header again. Only valid if {@link #hasHeader()} is true.
+     *
+     * @return the length of the message's header.
+     */
+    public int headerLength()
+    {
+        return headerLength;
+    }
+
+    /**
+     * Gets the MsgSeqNum of the message. Only valid if {@link #hasHeader()} is true.
+     *
+     * @return the MsgSeqNum of the message.
+     */
+    public int msgSeqNum()
+    {
+        return msgSeqNum;
+    }
+
+    /**
+     * Gets the SendingTime of the message as an epoch timestamp in the session's
+     * {@link uk.co.real_logic.artio.fields.EpochFractionFormat}. Only valid if {@link #hasHeader()} is true and
+     * {@link uk.co.real_logic.artio.builder.Validation#CODEC_VALIDATION_ENABLED} is switched on, otherwise it's
+     * {@link uk.co.real_logic.artio.dictionary.generation.CodecUtil#MISSING_LONG}.
+     *
+     * @return the SendingTime of the message.
+     */
+    public long sendingTime()
+    {
+        return sendingTime;
+    }
+
+    /**
+     * Gets the PossDupFlag of the message, false if it's missing. Only valid if {@link #hasHeader()} is true.
+     *
+     * @return the PossDupFlag of the message.
+     */
+    public boolean possDup()
+    {
+        return possDup;
+    }
+
+    public OnMessageInfo header(
+        final int headerLength, final int msgSeqNum, final long sendingTime, final boolean possDup)
+    {
+        this.headerLength = headerLength;
+        this.msgSeqNum = msgSeqNum;
+        this.sendingTime = sendingTime;
+        this.possDup = possDup;
+        return this;
+    }
+
+    /**
+     * Gets whether this message was transcoded. The message is transcoded by the first call to this method,
+     * {@link #transcodedBuffer()} or {@link #transcodedLength()} during the callback, so a handler that doesn't
+     * use the transcoded form doesn't pay for it and every later use shares it.
+     *
+     * @return true if this message was transcoded, false otherwise.
+     * @see LibraryConfiguration#fixMessageTranscoder(FixMessageTranscoder)
+     */
+    public boolean hasTranscodedMessage()
+    {
+        transcodeIfRequired();
+        return transcodedLength != FixMessageTranscoder.NOT_TRANSCODED;
+    }
+
+    /**
+     * Gets the buffer containing the transcoded form of this message, starting at offset 0. Only valid during the
+     * callback and if {@link #hasTranscodedMessage()} is true.
+     *
+     * @return the buffer containing the transcoded form of this message.
+     */
+    public DirectBuffer transcodedBuffer()
+    {
+        transcodeIfRequired();
+        return transcodedBuffer;
+    }
+
+    /**
+     * Gets the length of the transcoded form of this message.
+     *
+     * @return the length of the transcoded message within {@link #transcodedBuffer()}.
+     */
+    public int transcodedLength()
+    {
+        transcodeIfRequired();
+        return transcodedLength;
+    }
+
+    void messageToTranscode(
+        final FixMessageTranscoder transcoder,
+        final long messageType,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length)
+    {
+        this.transcoder = transcoder;
+        this.messageType = messageType;
+        this.messageBuffer = buffer;
+        this.messageOffset = offset;
+        this.messageLength = length;
+    }
+
+    private void transcodeIfRequired()
+    {
+        final FixMessageTranscoder transcoder = this.transcoder;
+        if (transcoder == null)
+        {
+            return;
+        }
+
+        ExpandableArrayBuffer transcodedBuffer = this.transcodedBuffer;
+        if (transcodedBuffer == null)
+        {
+            transcodedBuffer = new ExpandableArrayBuffer();
+            this.transcodedBuffer = transcodedBuffer;
+        }
+
+        transcodedLength = transcoder.transcode(
+            messageType, messageBuffer, messageOffset, messageLength, transcodedBuffer);
+        this.transcoder = null;
+        messageBuffer = null;
+    }
+
+    void clearHeader()
+    {
+        headerLength = NO_HEADER;
+    }
+
+    void clearTranscodedMessage()
+    {
+        transcoder = null;
+        messageBuffer = null;
+        transcodedLength = FixMessageTranscoder.NOT_TRANSCODED;
+    }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import uk.co.real_logic.artio.session.Session;
+
+/**
+ * A {@link SessionHandler} that is passed the messages that the engine batched for its session in a single callback,
+ * rather than a callback per message, see
+ * {@link uk.co.real_logic.artio.engine.EngineConfiguration#inboundMessageBatching(boolean)}. Messages that weren't
+ * batched are still passed to {@link #onMessage}.
+ */
+public interface SessionBatchHandler extends SessionHandler
+{
+    /**
+     * Event to indicate that a batch of fix messages has arrived to process. The session layer has already
+     * processed each message of the batch in order, including validating its sequence number.
+     *
+     * A batch can contain fewer messages than the engine batched if the session layer was back pressured part way
+     * through them, in which case the remaining messages are passed in a later batch.
+     *
+     * @param libraryId the id of library which has received these messages.
+     * @param session the session which has received these messages.
+     * @param sequenceIndex the sequence index of these messages.
+     * @param timestampInNs the time of the messages in nanoseconds.
+     * @param position the position in the Aeron stream at the end of the batch.
+     * @param batch the messages. Only valid during this callback.
+     * @return an action to indicate the correct back pressure behaviour. Returning
+     * {@link Action#ABORT} passes the same batch to this method again later, without the session layer processing
+     * its messages again.
+     */
+    Action onMessageBatch(
+        int libraryId,
+        Session session,
+        int sequenceIndex,
+        long timestampInNs,
+        long position,
+        MessageBatch batch);
+}
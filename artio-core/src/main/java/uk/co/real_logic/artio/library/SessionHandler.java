@@ -38,7 +38,8 @@ public interface SessionHandler
      * @param messageType the FIX msgType field, encoded as an int.
      * @param timestampInNs the time of the message in nanoseconds.
      * @param position the position in the Aeron stream at the end of the message.
-     * @param messageInfo additional information about the message.
+     * @param messageInfo additional information about the message, including the session layer's decode of its
+     *                    header, see {@link OnMessageInfo#hasHeader()}.
      * @return an action to indicate the correct back pressure behaviour.
      */
     Action onMessage(
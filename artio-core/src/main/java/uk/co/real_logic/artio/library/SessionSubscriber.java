@@ -37,18 +37,29 @@ class SessionSubscriber implements AutoCloseable, SessionProcessHandler
     private final Timer receiveTimer;
     private final Timer sessionTimer;
     private final LibraryPoller libraryPoller;
+    private final FixMessageTranscoder fixMessageTranscoder;
+
+    private final MessageBatch messageBatch;
 
     private SessionHandler handler;
+    private SessionBatchHandler batchHandler;
     private InitiateSessionReply initiateSessionReply;
     private boolean userAbortedLastMessage = false;
 
+    private boolean inMessageBatch = false;
+    private int batchSequenceIndex;
+    private long batchTimestamp;
+    // The number of messages at the start of a redelivered batch that the session layer has already processed
+    private int userAbortedBatchSize = 0;
+
     SessionSubscriber(
         final OnMessageInfo info,
         final SessionParser parser,
         final InternalSession session,
         final Timer receiveTimer,
         final Timer sessionTimer,
-        final LibraryPoller libraryPoller)
+        final LibraryPoller libraryPoller,
+        final FixMessageTranscoder fixMessageTranscoder)
     {
         this.info = info;
         this.parser = parser;
@@ -56,6 +67,8 @@ class SessionSubscriber implements AutoCloseable, SessionProcessHandler
         this.receiveTimer = receiveTimer;
         this.sessionTimer = sessionTimer;
         this.libraryPoller = libraryPoller;
+        this.fixMessageTranscoder = fixMessageTranscoder;
+        this.messageBatch = new MessageBatch(fixMessageTranscoder);
         this.session.sessionProcessHandler(this);
     }
 
@@ -70,12 +83,21 @@ class SessionSubscriber implements AutoCloseable, SessionProcessHandler
         final MessageStatus status,
         final long position)
     {
+        if (inMessageBatch && status == MessageStatus.OK)
+        {
+            return onBatchedMessage(buffer, offset, length, sequenceIndex, messageType, timestamp, position);
+        }
+
         final long now = receiveTimer.recordSince(timestamp);
 
         final OnMessageInfo info = this.info;
         info.status(status);
         // this gets set to false by the Session when a problem is detected.
         info.isValid(true);
+        if (fixMessageTranscoder != null)
+        {
+            info.messageToTranscode(fixMessageTranscoder, messageType, buffer, offset, length);
+        }
 
         try
         {
@@ -108,6 +130,7 @@ class SessionSubscriber implements AutoCloseable, SessionProcessHandler
                     }
                     else
                     {
+                        info.clearHeader();
                         final Action action = parser.onMessage(
                             buffer, offset, length, messageType, position);
                         if (action == ABORT)
@@ -158,6 +181,100 @@ class SessionSubscriber implements AutoCloseable, SessionProcessHandler
         }
         finally
         {
+            info.clearTranscodedMessage();
+            sessionTimer.recordSince(now);
+        }
+    }
+
+    void onMessageBatchStart()
+    {
+        inMessageBatch = batchHandler != null;
+    }
+
+    // The session layer processes each message of a batch as it's unpacked, the handler is only passed the batch
+    // at its end.
+    private Action onBatchedMessage(
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final int sequenceIndex,
+        final long messageType,
+        final long timestamp,
+        final long position)
+    {
+        final MessageBatch messageBatch = this.messageBatch;
+        final int batchSize = messageBatch.size();
+        if (batchSize == 0)
+        {
+            batchSequenceIndex = sequenceIndex;
+            batchTimestamp = timestamp;
+        }
+
+        if (batchSize < userAbortedBatchSize)
+        {
+            messageBatch.readd(buffer, offset, length, messageType);
+            return CONTINUE;
+        }
+
+        final long now = receiveTimer.recordSince(timestamp);
+        final OnMessageInfo info = this.info;
+        info.status(MessageStatus.OK);
+        info.isValid(true);
+        info.clearHeader();
+
+        try
+        {
+            final Action action = parser.onMessage(buffer, offset, length, messageType, position);
+            if (action == ABORT)
+            {
+                return ABORT;
+            }
+
+            messageBatch.add(buffer, offset, length, messageType, info.isValid());
+            return CONTINUE;
+        }
+        finally
+        {
+            sessionTimer.recordSince(now);
+        }
+    }
+
+    Action onMessageBatchEnd(final int libraryId, final long position)
+    {
+        if (!inMessageBatch)
+        {
+            return CONTINUE;
+        }
+        inMessageBatch = false;
+
+        final MessageBatch messageBatch = this.messageBatch;
+        final int batchSize = messageBatch.size();
+        if (batchSize == 0)
+        {
+            return CONTINUE;
+        }
+
+        final long now = receiveTimer.recordSince(batchTimestamp);
+        try
+        {
+            final Action action = batchHandler.onMessageBatch(
+                libraryId, session, batchSequenceIndex, batchTimestamp, position, messageBatch);
+
+            if (action == ABORT)
+            {
+                userAbortedBatchSize = batchSize;
+            }
+            else
+            {
+                userAbortedBatchSize = 0;
+                session.updateLastMessageProcessed();
+            }
+
+            return action;
+        }
+        finally
+        {
+            messageBatch.clear();
             sessionTimer.recordSince(now);
         }
     }
@@ -237,6 +354,7 @@ class SessionSubscriber implements AutoCloseable, SessionProcessHandler
     void handler(final SessionHandler handler)
     {
         this.handler = handler;
+        this.batchHandler = handler instanceof SessionBatchHandler ? (SessionBatchHandler)handler : null;
     }
 
     void reply(final InitiateSessionReply reply)
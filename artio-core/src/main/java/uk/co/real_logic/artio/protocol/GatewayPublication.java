@@ -19,6 +19,8 @@ import io.aeron.ExclusivePublication;
 import io.aeron.logbuffer.BufferClaim;
 import org.agrona.DirectBuffer;
 import org.agrona.MutableDirectBuffer;
+import org.agrona.collections.IntArrayList;
+import org.agrona.collections.LongArrayList;
 import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
@@ -54,6 +56,12 @@ public class GatewayPublication extends ClaimablePublication
 
     public static final int FRAMED_MESSAGE_SIZE = MessageHeaderEncoder.ENCODED_LENGTH + FRAME_SIZE;
 
+    public static final int FIX_MESSAGE_BATCH_LENGTH = MessageHeaderEncoder.ENCODED_LENGTH +
+        FixMessageBatchEncoder.BLOCK_LENGTH + LargeGroupSizeEncodingEncoder.ENCODED_LENGTH;
+
+    public static final int BATCHED_FIX_MESSAGE_LENGTH =
+        FixMessageBatchEncoder.MessagesEncoder.fixMessageHeaderLength() + FRAMED_MESSAGE_SIZE;
+
     private static final byte[] NO_BYTES = {};
     private static final DirectBuffer NO_METADATA = new UnsafeBuffer(NO_BYTES);
 
@@ -113,6 +121,7 @@ public class GatewayPublication extends ClaimablePublication
     private final MidConnectionDisconnectEncoder midConnectionDisconnect = new MidConnectionDisconnectEncoder();
     private final DisconnectEncoder disconnect = new DisconnectEncoder();
     private final FixMessageEncoder fixMessage = new FixMessageEncoder();
+    private final FixMessageBatchEncoder fixMessageBatch = new FixMessageBatchEncoder();
     private final ErrorEncoder error = new ErrorEncoder();
     private final ApplicationHeartbeatEncoder applicationHeartbeat = new ApplicationHeartbeatEncoder();
     private final LibraryConnectEncoder libraryConnect = new LibraryConnectEncoder();
@@ -201,7 +210,9 @@ public class GatewayPublication extends ClaimablePublication
         final MessageStatus status,
         final int sequenceNumber,
         final DirectBuffer metaDataBuffer,
-        final int metaDataUpdateOffset)
+        final int metaDataUpdateOffset,
+        final int msgSeqNum,
+        final Bool possDupFlag)
     {
         return saveMessage(
             srcBuffer,
@@ -216,7 +227,9 @@ public class GatewayPublication extends ClaimablePublication
             sequenceNumber,
             clock.time(),
             metaDataBuffer,
-            metaDataUpdateOffset);
+            metaDataUpdateOffset,
+            msgSeqNum,
+            possDupFlag);
     }
 
     public long saveMessage(
@@ -262,6 +275,62 @@ public class GatewayPublication extends ClaimablePublication
         final long timestamp,
         final DirectBuffer srcMetaDataBuffer,
         final int metaDataUpdateOffset)
+    {
+        return saveMessage(
+            srcBuffer,
+            srcOffset,
+            srcLength,
+            libraryId,
+            messageType,
+            sessionId,
+            sequenceIndex,
+            connectionId,
+            status,
+            sequenceNumber,
+            timestamp,
+            srcMetaDataBuffer,
+            metaDataUpdateOffset,
+            FixMessageEncoder.msgSeqNumNullValue(),
+            Bool.NULL_VAL);
+    }
+
+    /**
+     * Save a FixMessage, including the MsgSeqNum and PossDupFlag of its body so that subscribers, for example the
+     * indexers, don't need to parse the body in order to find them.
+     *
+     * @param srcBuffer the buffer containing the body of the message.
+     * @param srcOffset the offset within srcBuffer that the body starts at.
+     * @param srcLength the length of the body.
+     * @param libraryId the library that owns the session.
+     * @param messageType the packed message type of the body.
+     * @param sessionId the session that the message is for.
+     * @param sequenceIndex the sequence index of the session.
+     * @param connectionId the connection that the message is for.
+     * @param status the status of the message.
+     * @param sequenceNumber the sequence number of the message.
+     * @param timestamp the timestamp of the message.
+     * @param srcMetaDataBuffer the buffer containing metadata for the message, or null if there's none.
+     * @param metaDataUpdateOffset the offset at which to update the session's metadata.
+     * @param msgSeqNum the MsgSeqNum of the body or {@link FixMessageEncoder#msgSeqNumNullValue()} if unknown.
+     * @param possDupFlag the PossDupFlag of the body or {@link Bool#NULL_VAL} if unknown.
+     * @return the position of the saved message, or a negative value if back-pressured.
+     */
+    public long saveMessage(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final int srcLength,
+        final int libraryId,
+        final long messageType,
+        final long sessionId,
+        final int sequenceIndex,
+        final long connectionId,
+        final MessageStatus status,
+        final int sequenceNumber,
+        final long timestamp,
+        final DirectBuffer srcMetaDataBuffer,
+        final int metaDataUpdateOffset,
+        final int msgSeqNum,
+        final Bool possDupFlag)
     {
         final DirectBuffer metaDataBuffer = srcMetaDataBuffer == null ? NO_METADATA : srcMetaDataBuffer;
         final int metaDataLength = metaDataBuffer.capacity();
@@ -322,6 +391,8 @@ public class GatewayPublication extends ClaimablePublication
             .timestamp(timestamp)
             .status(status)
             .sequenceNumber(sequenceNumber)
+            .msgSeqNum(msgSeqNum)
+            .possDupFlag(possDupFlag)
             .metaDataUpdateOffset(metaDataUpdateOffset)
             .putMetaData(metaDataBuffer, 0, metaDataLength)
             .putBody(srcBuffer, srcFragmentOffset, srcFragmentLength);
@@ -361,6 +432,103 @@ public class GatewayPublication extends ClaimablePublication
         return position;
     }
 
+    /**
+     * Save several inbound FIX messages for a session as a single fragment, each message is encoded as a complete
+     * FixMessage within the batch. The messages must be contiguous within the source buffer and the batch must fit
+     * within {@link #maxPayloadLength()}, see {@link #FIX_MESSAGE_BATCH_LENGTH} and
+     * {@link #BATCHED_FIX_MESSAGE_LENGTH}. Batches are only framed for library owned sessions, whose headers the
+     * engine doesn't parse, so their MsgSeqNum and PossDupFlag are left as null.
+     *
+     * @param srcBuffer the buffer containing the messages.
+     * @param srcOffset the offset within srcBuffer that the first message starts at.
+     * @param messageLengths the length of each message.
+     * @param messageTypes the packed message type of each message.
+     * @param libraryId the library that owns the session.
+     * @param sessionId the session that the messages were received for.
+     * @param sequenceIndex the sequence index of the session.
+     * @param connectionId the connection that the messages were received on.
+     * @param timestamp the time at which the messages were read.
+     * @return the position of the saved batch, or a negative value if back-pressured.
+     */
+    public long saveFixMessageBatch(
+        final DirectBuffer srcBuffer,
+        final int srcOffset,
+        final IntArrayList messageLengths,
+        final LongArrayList messageTypes,
+        final int libraryId,
+        final long sessionId,
+        final int sequenceIndex,
+        final long connectionId,
+        final long timestamp)
+    {
+        final int messageCount = messageLengths.size();
+        int length = FIX_MESSAGE_BATCH_LENGTH;
+        for (int i = 0; i < messageCount; i++)
+        {
+            length += BATCHED_FIX_MESSAGE_LENGTH + messageLengths.getInt(i);
+        }
+
+        final long position = claim(length);
+        if (position < 0)
+        {
+            return position;
+        }
+
+        final MutableDirectBuffer buffer = bufferClaim.buffer();
+        final int offset = bufferClaim.offset();
+
+        final FixMessageBatchEncoder fixMessageBatch = this.fixMessageBatch;
+        final FixMessageBatchEncoder.MessagesEncoder messages = fixMessageBatch
+            .wrapAndApplyHeader(buffer, offset, header)
+            .libraryId(libraryId)
+            .connection(connectionId)
+            .session(sessionId)
+            .messagesCount(messageCount);
+
+        int messageOffset = srcOffset;
+        for (int i = 0; i < messageCount; i++)
+        {
+            final int messageLength = messageLengths.getInt(i);
+            messages.next();
+
+            // Encode the FixMessage in place rather than copying an encoded one into the var data field.
+            final int lengthOffset = fixMessageBatch.limit();
+            final int frameOffset = lengthOffset + FixMessageBatchEncoder.MessagesEncoder.fixMessageHeaderLength();
+            final int frameLength = FRAMED_MESSAGE_SIZE + messageLength;
+            buffer.putInt(lengthOffset, frameLength, LITTLE_ENDIAN);
+
+            fixMessage
+                .wrapAndApplyHeader(buffer, frameOffset, header)
+                .libraryId(libraryId)
+                .messageType(messageTypes.getLong(i))
+                .session(sessionId)
+                .sequenceIndex(sequenceIndex)
+                .connection(connectionId)
+                .timestamp(timestamp)
+                .status(MessageStatus.OK)
+                .sequenceNumber(0)
+                .msgSeqNum(FixMessageEncoder.msgSeqNumNullValue())
+                .possDupFlag(Bool.NULL_VAL)
+                .metaDataUpdateOffset(0)
+                .putMetaData(NO_METADATA, 0, 0)
+                .putBody(srcBuffer, messageOffset, messageLength);
+
+            fixMessageBatch.limit(frameOffset + frameLength);
+            messageOffset += messageLength;
+        }
+
+        bufferClaim.commit();
+
+        DebugLogger.log(FIX_MESSAGE_FLOW, "Enqueued batch ", srcBuffer, srcOffset, messageOffset - srcOffset);
+
+        return position;
+    }
+
+    public int maxPayloadLength()
+    {
+        return maxPayloadLength;
+    }
+
     private void putBodyLength(
         final int srcLength, final int offset, final int metaDataLength, final MutableDirectBuffer destBuffer)
     {
@@ -37,6 +37,17 @@ public interface ProtocolHandler
         long position,
         int metaDataLength);
 
+    // Invoked around the messages of a FixMessageBatch, which are each passed to onMessage in between.
+    default void onMessageBatchStart(final int libraryId, final long connectionId)
+    {
+    }
+
+    // ABORT redelivers the batch from the first message that was passed to onMessage after onMessageBatchStart.
+    default Action onMessageBatchEnd(final int libraryId, final long connectionId, final long position)
+    {
+        return Action.CONTINUE;
+    }
+
     Action onDisconnect(int libraryId, long connectionId, DisconnectReason reason);
 
     Action onILinkMessage(long connectionId, DirectBuffer buffer, int offset);
@@ -21,28 +21,37 @@ import org.agrona.DirectBuffer;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.engine.framer.MessageTypeExtractor;
 import uk.co.real_logic.artio.messages.DisconnectDecoder;
+import uk.co.real_logic.artio.messages.FixMessageBatchDecoder;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.messages.ILinkMessageDecoder;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.util.CharFormatter;
 
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.BREAK;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static uk.co.real_logic.artio.LogTag.FIX_CONNECTION;
+import static uk.co.real_logic.artio.messages.FixMessageBatchDecoder.MessagesDecoder.fixMessageHeaderLength;
 import static uk.co.real_logic.artio.protocol.GatewayPublication.FRAME_SIZE;
 
 public final class ProtocolSubscription implements ControlledFragmentHandler
 {
     private static final Action UNKNOWN_TEMPLATE = null;
+    private static final long NO_ABORTED_BATCH = -1;
 
     private final CharFormatter disconnectFormatter = new CharFormatter("FixSubscription Disconnect: %s%n");
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
     private final DisconnectDecoder disconnect = new DisconnectDecoder();
     private final FixMessageDecoder messageFrame = new FixMessageDecoder();
+    private final FixMessageBatchDecoder messageBatch = new FixMessageBatchDecoder();
     private final ILinkMessageDecoder iLinkMessage = new ILinkMessageDecoder();
 
     private final ProtocolHandler protocolHandler;
     private final Action defaultAction;
 
+    private long abortedBatchPosition = NO_ABORTED_BATCH;
+    private int abortedBatchIndex;
+
     public static ProtocolSubscription of(final ProtocolHandler protocolHandler)
     {
         return new ProtocolSubscription(protocolHandler, CONTINUE);
@@ -93,6 +102,11 @@ public final class ProtocolSubscription implements ControlledFragmentHandler
                 return onFixMessage(buffer, offset, blockLength, version, position);
             }
 
+            case FixMessageBatchDecoder.TEMPLATE_ID:
+            {
+                return onFixMessageBatch(buffer, offset, blockLength, version, position);
+            }
+
             case DisconnectDecoder.TEMPLATE_ID:
             {
                 return onDisconnect(buffer, offset, blockLength, version);
@@ -107,6 +121,84 @@ public final class ProtocolSubscription implements ControlledFragmentHandler
         return defaultAction;
     }
 
+    private Action onFixMessageBatch(
+        final DirectBuffer buffer,
+        final int offset,
+        final int blockLength,
+        final int version,
+        final long position)
+    {
+        final FixMessageBatchDecoder messageBatch = this.messageBatch;
+        messageBatch.wrap(buffer, offset, blockLength, version);
+        final int libraryId = messageBatch.libraryId();
+        final long connectionId = messageBatch.connection();
+
+        // An aborted batch gets redelivered, so skip the messages that have already been handled.
+        final int firstIndex = position == abortedBatchPosition ? abortedBatchIndex : 0;
+        abortedBatchPosition = NO_ABORTED_BATCH;
+
+        final ProtocolHandler protocolHandler = this.protocolHandler;
+        protocolHandler.onMessageBatchStart(libraryId, connectionId);
+
+        final FixMessageBatchDecoder.MessagesDecoder messages = messageBatch.messages();
+        final int count = messages.count();
+        Action batchAction = CONTINUE;
+        int resumeIndex = count;
+        int index = 0;
+        while (messages.hasNext())
+        {
+            messages.next();
+            final int frameOffset = messageBatch.limit() + fixMessageHeaderLength();
+            final int frameLength = messages.fixMessageLength();
+            if (index >= firstIndex)
+            {
+                final Action action = onFragment(buffer, frameOffset, frameLength, position);
+                if (action == ABORT)
+                {
+                    resumeIndex = index;
+                    break;
+                }
+
+                if (action == BREAK)
+                {
+                    batchAction = BREAK;
+                    resumeIndex = index + 1;
+                    break;
+                }
+
+                if (batchAction == CONTINUE)
+                {
+                    batchAction = action;
+                }
+            }
+
+            messages.skipFixMessage();
+            index++;
+        }
+
+        final Action endAction = protocolHandler.onMessageBatchEnd(libraryId, connectionId, position);
+        if (endAction == ABORT)
+        {
+            return abortBatch(position, firstIndex);
+        }
+
+        // Returning BREAK would commit the whole batch, so the batch is redelivered in order to handle the rest of
+        // its messages, starting from the one after the break.
+        if (resumeIndex < count)
+        {
+            return abortBatch(position, resumeIndex);
+        }
+
+        return endAction == BREAK || batchAction == CONTINUE ? endAction : batchAction;
+    }
+
+    private Action abortBatch(final long position, final int resumeIndex)
+    {
+        abortedBatchPosition = position;
+        abortedBatchIndex = resumeIndex;
+        return ABORT;
+    }
+
     private Action onILinkMessage(
         final DirectBuffer buffer, final int offset, final int blockLength, final int version)
     {
@@ -114,6 +114,43 @@ public class DirectSessionProxy implements SessionProxy
         final int libraryId,
         final ErrorHandler errorHandler,
         final EpochFractionFormat epochFractionPrecision)
+    {
+        this(
+            new MutableAsciiBuffer(new byte[sessionBufferSize]),
+            gatewayPublication,
+            sessionIdStrategy,
+            customisationStrategy,
+            clock,
+            connectionId,
+            libraryId,
+            errorHandler,
+            epochFractionPrecision);
+    }
+
+    /**
+     * Create a proxy that encodes messages into a buffer that may be shared with other proxies, as long as they're
+     * all used from the same thread.
+     *
+     * @param buffer the buffer that messages are encoded into.
+     * @param gatewayPublication the publication that messages are sent on.
+     * @param sessionIdStrategy the session id strategy used to set the header's comp ids.
+     * @param customisationStrategy the strategy used to customise logon and logout messages.
+     * @param clock the clock used for sending times.
+     * @param connectionId the id of the connection that the proxy sends on.
+     * @param libraryId the id of the library that the proxy belongs to.
+     * @param errorHandler the handler for errors sending messages.
+     * @param epochFractionPrecision the precision of sending times.
+     */
+    public DirectSessionProxy(
+        final MutableAsciiBuffer buffer,
+        final GatewayPublication gatewayPublication,
+        final SessionIdStrategy sessionIdStrategy,
+        final SessionCustomisationStrategy customisationStrategy,
+        final EpochClock clock,
+        final long connectionId,
+        final int libraryId,
+        final ErrorHandler errorHandler,
+        final EpochFractionFormat epochFractionPrecision)
     {
         this.gatewayPublication = gatewayPublication;
         this.sessionIdStrategy = sessionIdStrategy;
@@ -121,7 +158,7 @@ public class DirectSessionProxy implements SessionProxy
         this.clock = clock;
         this.connectionId = connectionId;
         this.libraryId = libraryId;
-        this.buffer = new MutableAsciiBuffer(new byte[sessionBufferSize]);
+        this.buffer = buffer;
         this.errorHandler = errorHandler;
         lowSequenceNumber = new AsciiFormatter("MsgSeqNum too low, expecting %s but received %s");
         timestampEncoder = new UtcTimestampEncoder(epochFractionPrecision);
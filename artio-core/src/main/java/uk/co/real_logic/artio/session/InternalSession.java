@@ -220,6 +220,11 @@ public class InternalSession extends Session implements AutoCloseable
         super.fixDictionary(fixDictionary);
     }
 
+    public void sharedSessionBuffers(final SharedSessionBuffers sharedSessionBuffers)
+    {
+        super.sharedSessionBuffers(sharedSessionBuffers);
+    }
+
     public void setupSession(final long sessionId, final CompositeKey sessionKey)
     {
         super.setupSession(sessionId, sessionKey);
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.session;
+
+import org.agrona.collections.Long2LongHashMap;
+import uk.co.real_logic.artio.dictionary.FixDictionary;
+
+import static uk.co.real_logic.artio.dictionary.SessionConstants.*;
+
+/**
+ * Maps a packed message type to the {@link SessionParser} handler for it, built once per {@link FixDictionary}.
+ *
+ * Message types that are in the dictionary are known to be valid, so don't need validating on every message.
+ */
+final class MessageTypeDispatchTable
+{
+    static final int UNKNOWN_MESSAGE = 0;
+    static final int DICTIONARY_MESSAGE = 1;
+    static final int LOGON = 2;
+    static final int LOGOUT = 3;
+    static final int HEARTBEAT = 4;
+    static final int REJECT = 5;
+    static final int TEST_REQUEST = 6;
+    static final int SEQUENCE_RESET = 7;
+    static final int RESEND_REQUEST = 8;
+
+    private final Long2LongHashMap messageTypeToHandler = new Long2LongHashMap(UNKNOWN_MESSAGE);
+
+    MessageTypeDispatchTable()
+    {
+        putSessionMessages();
+    }
+
+    void fixDictionary(final FixDictionary fixDictionary)
+    {
+        final Long2LongHashMap messageTypeToHandler = this.messageTypeToHandler;
+        messageTypeToHandler.clear();
+        for (final long messageType : fixDictionary.messageTypes())
+        {
+            messageTypeToHandler.put(messageType, DICTIONARY_MESSAGE);
+        }
+
+        putSessionMessages();
+    }
+
+    int handler(final long messageType)
+    {
+        return (int)messageTypeToHandler.get(messageType);
+    }
+
+    // Session messages are always handled by the session, whether or not the dictionary defines them.
+    private void putSessionMessages()
+    {
+        final Long2LongHashMap messageTypeToHandler = this.messageTypeToHandler;
+        messageTypeToHandler.put(LOGON_MESSAGE_TYPE, LOGON);
+        messageTypeToHandler.put(LOGOUT_MESSAGE_TYPE, LOGOUT);
+        messageTypeToHandler.put(HEARTBEAT_MESSAGE_TYPE, HEARTBEAT);
+        messageTypeToHandler.put(REJECT_MESSAGE_TYPE, REJECT);
+        messageTypeToHandler.put(TEST_REQUEST_MESSAGE_TYPE, TEST_REQUEST);
+        messageTypeToHandler.put(SEQUENCE_RESET_MESSAGE_TYPE, SEQUENCE_RESET);
+        messageTypeToHandler.put(RESEND_REQUEST_MESSAGE_TYPE, RESEND_REQUEST);
+    }
+}
@@ -30,6 +30,7 @@ import uk.co.real_logic.artio.fields.EpochFractionFormat;
 import uk.co.real_logic.artio.fields.RejectReason;
 import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
 import uk.co.real_logic.artio.library.OnMessageInfo;
+import uk.co.real_logic.artio.messages.Bool;
 import uk.co.real_logic.artio.messages.DisconnectReason;
 import uk.co.real_logic.artio.messages.ReplayMessagesStatus;
 import uk.co.real_logic.artio.messages.SessionState;
@@ -60,7 +61,9 @@ import static uk.co.real_logic.artio.session.InternalSession.*;
 /**
  * Stores information about the current state of a session - no matter whether outbound or inbound.
  * <p>
- * Should only be accessed on a single thread.
+ * Should only be accessed on a single thread. If the library shares its sessions' buffers, see
+ * {@link uk.co.real_logic.artio.library.LibraryConfiguration#sharedSessionBuffers(boolean)}, then that must be the
+ * thread that polls the library.
  */
 public class Session
 {
@@ -104,6 +107,7 @@ public class Session
 
     private CompositeKey sessionKey;
     private SessionState state;
+    private SharedSessionBuffers sharedSessionBuffers;
     private String beginString;
     private AtomicCounter receivedMsgSeqNo;
     private AtomicCounter sentMsgSeqNo;
@@ -386,6 +390,8 @@ public class Session
      */
     public long startLogout()
     {
+        checkSendingThread();
+
         final long position = sendLogout();
         if (position < 0)
         {
@@ -436,6 +442,8 @@ public class Session
      */
     public long logoutAndDisconnect()
     {
+        checkSendingThread();
+
         return logoutAndDisconnect(APPLICATION_DISCONNECT);
     }
 
@@ -517,6 +525,7 @@ public class Session
         final DirectBuffer metaDataBuffer,
         final int metaDataUpdateOffset)
     {
+        checkSendingThread();
         validateCanSendMessage();
 
         final int sentSeqNum = prepare(encoder.header());
@@ -573,7 +582,7 @@ public class Session
 
         final long position = outboundPublication.saveMessage(
             messageBuffer, offset, length, libraryId, messageType, id(), sequenceIndex(), connectionId, OK, seqNum,
-            metaDataBuffer, metaDataUpdateOffset);
+            metaDataBuffer, metaDataUpdateOffset, seqNum, Bool.NULL_VAL);
 
         if (position > 0)
         {
@@ -614,6 +623,8 @@ public class Session
     public long sendSequenceReset(
         final int nextSentMessageSequenceNumber)
     {
+        checkSendingThread();
+
         nextSequenceIndex(clock.time());
         final long position = proxy.sendSequenceReset(
             lastSentMsgSeqNum, nextSentMessageSequenceNumber, sequenceIndex(), lastMsgSeqNumProcessed);
@@ -661,6 +672,8 @@ public class Session
      */
     public long resetSequenceNumbers()
     {
+        checkSendingThread();
+
         final int sentSeqNum = 1;
         final int heartbeatIntervalInS = (int)MILLISECONDS.toSeconds(heartbeatIntervalInMs);
         nextSequenceIndex(clock.time());
@@ -800,6 +813,16 @@ public class Session
         }
     }
 
+    // Sessions with shared buffers must only encode messages on the thread that polls their library.
+    private void checkSendingThread()
+    {
+        final SharedSessionBuffers sharedSessionBuffers = this.sharedSessionBuffers;
+        if (sharedSessionBuffers != null)
+        {
+            sharedSessionBuffers.checkSendingThread();
+        }
+    }
+
     private void validateCanSendMessage()
     {
         if (!canSendMessage())
@@ -2008,6 +2031,11 @@ public class Session
         this.beginString = fixDictionary.beginString();
     }
 
+    void sharedSessionBuffers(final SharedSessionBuffers sharedSessionBuffers)
+    {
+        this.sharedSessionBuffers = sharedSessionBuffers;
+    }
+
     void connectionId(final long connectionId)
     {
         this.connectionId = connectionId;
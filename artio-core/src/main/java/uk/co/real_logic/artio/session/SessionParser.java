@@ -21,6 +21,7 @@ import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import uk.co.real_logic.artio.FixGatewayException;
 import uk.co.real_logic.artio.builder.Decoder;
+import uk.co.real_logic.artio.builder.Validation;
 import uk.co.real_logic.artio.decoder.*;
 import uk.co.real_logic.artio.dictionary.FixDictionary;
 import uk.co.real_logic.artio.dictionary.SessionConstants;
@@ -34,18 +35,22 @@ import uk.co.real_logic.artio.validation.MessageValidationStrategy;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static uk.co.real_logic.artio.builder.Validation.CODEC_VALIDATION_ENABLED;
-import static uk.co.real_logic.artio.builder.Validation.isValidMsgType;
 import static uk.co.real_logic.artio.dictionary.SessionConstants.*;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_INT;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_LONG;
 import static uk.co.real_logic.artio.messages.SessionState.AWAITING_LOGOUT;
 import static uk.co.real_logic.artio.messages.SessionState.DISCONNECTED;
+import static uk.co.real_logic.artio.session.MessageTypeDispatchTable.*;
 import static uk.co.real_logic.artio.session.Session.UNKNOWN;
 
 public class SessionParser
 {
+    // Framed message types are packed from at most the first two characters of the MsgType.
+    private static final int PACKED_MESSAGE_TYPE_LENGTH = 2;
+
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
     private final UtcTimestampDecoder timestampDecoder = new UtcTimestampDecoder();
+    private final MessageTypeDispatchTable dispatchTable = new MessageTypeDispatchTable();
 
     private AbstractLogonDecoder logon;
     private AbstractLogoutDecoder logout;
@@ -91,6 +96,7 @@ public class SessionParser
         sequenceReset = fixDictionary.makeSequenceResetDecoder();
         heartbeat = fixDictionary.makeHeartbeatDecoder();
         resendRequest = fixDictionary.makeResendRequestDecoder();
+        dispatchTable.fixDictionary(fixDictionary);
     }
 
     public static String username(final AbstractLogonDecoder logon)
@@ -116,37 +122,40 @@ public class SessionParser
 
         try
         {
-            if (messageType == LOGON_MESSAGE_TYPE)
-            {
-                action = onLogon(offset, length, position);
-            }
-            else if (messageType == LOGOUT_MESSAGE_TYPE)
-            {
-                action = onLogout(offset, length, position);
-            }
-            else if (messageType == HEARTBEAT_MESSAGE_TYPE)
-            {
-                action = onHeartbeat(offset, length, position);
-            }
-            else if (messageType == REJECT_MESSAGE_TYPE)
-            {
-                action = onReject(offset, length, position);
-            }
-            else if (messageType == TEST_REQUEST_MESSAGE_TYPE)
+            final int handler = dispatchTable.handler(messageType);
+            switch (handler)
             {
-                action = onTestRequest(offset, length, position);
-            }
-            else if (messageType == SEQUENCE_RESET_MESSAGE_TYPE)
-            {
-                action = onSequenceReset(offset, length, position);
-            }
-            else if (messageType == RESEND_REQUEST_MESSAGE_TYPE)
-            {
-                action = onResendRequest(offset, length, position);
-            }
-            else
-            {
-                action = onAnyOtherMessage(offset, length, position);
+                case LOGON:
+                    action = onLogon(offset, length, position);
+                    break;
+
+                case LOGOUT:
+                    action = onLogout(offset, length, position);
+                    break;
+
+                case HEARTBEAT:
+                    action = onHeartbeat(offset, length, position);
+                    break;
+
+                case REJECT:
+                    action = onReject(offset, length, position);
+                    break;
+
+                case TEST_REQUEST:
+                    action = onTestRequest(offset, length, position);
+                    break;
+
+                case SEQUENCE_RESET:
+                    action = onSequenceReset(offset, length, position);
+                    break;
+
+                case RESEND_REQUEST:
+                    action = onResendRequest(offset, length, position);
+                    break;
+
+                default:
+                    action = onAnyOtherMessage(offset, length, position, handler == DICTIONARY_MESSAGE);
+                    break;
             }
 
             // Consider admin messages processed when they've been received by the session logic
@@ -275,15 +284,17 @@ public class SessionParser
             MISSING_LONG;
     }
 
-    private Action onAnyOtherMessage(final int offset, final int length, final long position)
+    private Action onAnyOtherMessage(
+        final int offset, final int length, final long position, final boolean isDictionaryMessage)
     {
         final SessionHeaderDecoder header = this.header;
         header.reset();
-        header.decode(asciiBuffer, offset, length);
+        final int headerLength = header.decode(asciiBuffer, offset, length);
 
         final char[] msgType = header.msgType();
         final int msgTypeLength = header.msgTypeLength();
-        if (CODEC_VALIDATION_ENABLED && (!isValidMsgType(msgType, msgTypeLength) || !validateHeader(header, position)))
+        if (CODEC_VALIDATION_ENABLED &&
+            (!isValidMsgType(msgType, msgTypeLength, isDictionaryMessage) || !validateHeader(header, position)))
         {
             final int msgSeqNum = header.msgSeqNum();
             if (!isDisconnectedOrAwaitingLogout())
@@ -297,17 +308,33 @@ public class SessionParser
         }
         else
         {
-            return onMessage(header, position);
+            // Shared with the application's handler so that it doesn't need to decode the header again.
+            final long sendingTime = sendingTime(header);
+            final boolean possDup = isPossDup(header);
+            messageInfo.header(headerLength, header.msgSeqNum(), sendingTime, possDup);
+            return onMessage(header, sendingTime, possDup, position);
         }
 
         return CONTINUE;
     }
 
+    // The framed message type only covers the first two characters, so longer types are always checked.
+    private static boolean isValidMsgType(
+        final char[] msgType, final int msgTypeLength, final boolean isDictionaryMessage)
+    {
+        return (isDictionaryMessage && msgTypeLength <= PACKED_MESSAGE_TYPE_LENGTH) ||
+            Validation.isValidMsgType(msgType, msgTypeLength);
+    }
+
     private Action onMessage(final SessionHeaderDecoder header, final long position)
+    {
+        return onMessage(header, sendingTime(header), isPossDup(header), position);
+    }
+
+    private Action onMessage(
+        final SessionHeaderDecoder header, final long sendingTime, final boolean possDup, final long position)
     {
         final long origSendingTime = origSendingTime(header);
-        final long sendingTime = sendingTime(header);
-        final boolean possDup = isPossDup(header);
         return session.onMessage(
             header.msgSeqNum(),
             header.msgType(),
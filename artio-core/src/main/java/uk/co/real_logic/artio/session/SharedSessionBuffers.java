@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.session;
+
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+/**
+ * The buffers that a library's sessions, and their default session proxies, encode messages into when they're shared
+ * by all of the library's sessions, see
+ * {@link uk.co.real_logic.artio.library.LibraryConfiguration#sharedSessionBuffers(boolean)}.
+ *
+ * As the buffers are shared sessions must only send messages from the thread that polls their library. Sessions
+ * check this when they send and throw an {@link IllegalStateException} otherwise, rather than corrupting a message
+ * that another session is encoding.
+ */
+public final class SharedSessionBuffers
+{
+    private final MutableAsciiBuffer sessionBuffer;
+    private final MutableAsciiBuffer sessionProxyBuffer;
+
+    private volatile Thread pollingThread;
+
+    public SharedSessionBuffers(final int sessionBufferSize)
+    {
+        sessionBuffer = new MutableAsciiBuffer(new byte[sessionBufferSize]);
+        sessionProxyBuffer = new MutableAsciiBuffer(new byte[sessionBufferSize]);
+    }
+
+    public MutableAsciiBuffer sessionBuffer()
+    {
+        return sessionBuffer;
+    }
+
+    public MutableAsciiBuffer sessionProxyBuffer()
+    {
+        return sessionProxyBuffer;
+    }
+
+    /**
+     * Set the thread that polls the library whose sessions share these buffers.
+     *
+     * @param pollingThread the thread that polls the library.
+     */
+    public void pollingThread(final Thread pollingThread)
+    {
+        // Avoids a volatile write on each poll of the library
+        if (this.pollingThread != pollingThread)
+        {
+            this.pollingThread = pollingThread;
+        }
+    }
+
+    void checkSendingThread()
+    {
+        final Thread pollingThread = this.pollingThread;
+        final Thread currentThread = Thread.currentThread();
+        if (pollingThread != null && pollingThread != currentThread)
+        {
+            throw new IllegalStateException(
+                "Sessions with shared session buffers must send messages from the thread that polls their library (" +
+                pollingThread.getName() + "), not from " + currentThread.getName());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.timing;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.SingleWriterRecorder;
+import org.agrona.concurrent.status.AtomicCounter;
+import uk.co.real_logic.artio.Clock;
+
+/**
+ * Times the duty cycles of an agent, for example the Framer, into a histogram and detects stalls.
+ *
+ * The agent calls {@link #startCycle()}, then {@link #step(int)} after each of its steps in the order of the step
+ * names that the monitor was created with and then {@link #endCycle()}. Steps are only timed when a stall threshold
+ * is configured, in which case the slowest step of a stalled duty cycle is published to a counter.
+ *
+ * The percentiles of the histogram are published by {@link DutyCycleMonitors} on the monitoring thread.
+ */
+public final class DutyCycleMonitor
+{
+    public static final int NO_STEP = -1;
+
+    /**
+     * A monitor that doesn't time anything, used when duty cycle monitoring is disabled.
+     */
+    public static final DutyCycleMonitor DISABLED = new DutyCycleMonitor(
+        null, null, new String[0], 0, null, null, null, null);
+
+    private static final int NUMBER_OF_SIGNIFICANT_VALUE_DIGITS = 3;
+    private static final double PERCENTILE = 99.9;
+
+    private final String name;
+    private final Clock clock;
+    private final String[] stepNames;
+    private final long stallThresholdInNs;
+    private final boolean enabled;
+    private final boolean timeSteps;
+    private final AtomicCounter maxTime;
+    private final AtomicCounter p999Time;
+    private final AtomicCounter stalls;
+    private final AtomicCounter stallStep;
+    private final SingleWriterRecorder recorder;
+
+    // Only accessed upon the monitored agent's thread
+    private long cycleStartTime;
+    private long stepStartTime;
+    private long slowestStepTime;
+    private int step;
+    private int slowestStep;
+
+    // Only accessed upon the monitoring thread
+    private Histogram histogram;
+
+    DutyCycleMonitor(
+        final String name,
+        final Clock clock,
+        final String[] stepNames,
+        final long stallThresholdInNs,
+        final AtomicCounter maxTime,
+        final AtomicCounter p999Time,
+        final AtomicCounter stalls,
+        final AtomicCounter stallStep)
+    {
+        this.name = name;
+        this.clock = clock;
+        this.stepNames = stepNames;
+        this.stallThresholdInNs = stallThresholdInNs;
+        this.maxTime = maxTime;
+        this.p999Time = p999Time;
+        this.stalls = stalls;
+        this.stallStep = stallStep;
+
+        enabled = clock != null;
+        timeSteps = enabled && stallThresholdInNs > 0;
+        recorder = enabled ? new SingleWriterRecorder(NUMBER_OF_SIGNIFICANT_VALUE_DIGITS) : null;
+        if (stallStep != null)
+        {
+            stallStep.setOrdered(NO_STEP);
+        }
+    }
+
+    public void startCycle()
+    {
+        if (enabled)
+        {
+            final long time = clock.time();
+            cycleStartTime = time;
+            stepStartTime = time;
+            slowestStepTime = -1;
+            step = 0;
+            slowestStep = NO_STEP;
+        }
+    }
+
+    /**
+     * Record the end of the next step of the duty cycle.
+     *
+     * @param workCount the work count of the step.
+     * @return the work count of the step, so that this can be used within the expression that sums the duty cycle's
+     *         work count.
+     */
+    public int step(final int workCount)
+    {
+        if (timeSteps)
+        {
+            final long time = clock.time();
+            final long stepTime = time - stepStartTime;
+            if (stepTime > slowestStepTime)
+            {
+                slowestStepTime = stepTime;
+                slowestStep = step;
+            }
+            stepStartTime = time;
+            step++;
+        }
+
+        return workCount;
+    }
+
+    public void endCycle()
+    {
+        if (enabled)
+        {
+            final long cycleTime = clock.time() - cycleStartTime;
+            recorder.recordValue(cycleTime);
+            maxTime.proposeMaxOrdered(cycleTime);
+
+            if (timeSteps && cycleTime >= stallThresholdInNs)
+            {
+                stalls.incrementOrdered();
+                stallStep.setOrdered(slowestStep);
+            }
+        }
+    }
+
+    public String name()
+    {
+        return name;
+    }
+
+    /**
+     * Get the name of a step.
+     *
+     * @param step the index of the step, for example the value of the stall step counter.
+     * @return the name of the step, or null if there's no step with this index.
+     */
+    public String stepName(final int step)
+    {
+        return step >= 0 && step < stepNames.length ? stepNames[step] : null;
+    }
+
+    // Invoked upon the monitoring thread
+    void publishPercentiles()
+    {
+        if (enabled)
+        {
+            histogram = recorder.getIntervalHistogram(histogram);
+            if (histogram.getTotalCount() > 0)
+            {
+                p999Time.setOrdered(histogram.getValueAtPercentile(PERCENTILE));
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.timing;
+
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.EpochClock;
+import uk.co.real_logic.artio.Clock;
+import uk.co.real_logic.artio.CommonConfiguration;
+import uk.co.real_logic.artio.FixCounters;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Creates the {@link DutyCycleMonitor}s of an Engine or Library and periodically publishes their percentiles, as
+ * part of the monitoring agent.
+ */
+public class DutyCycleMonitors implements Agent
+{
+    // Monitors are created upon the thread that launches the Engine or Library, and read upon the monitoring thread.
+    private final List<DutyCycleMonitor> monitors = new CopyOnWriteArrayList<>();
+    private final boolean enabled;
+    private final long stallThresholdInNs;
+    private final long publicationPeriodInMs;
+    private final String agentNamePrefix;
+    private final FixCounters fixCounters;
+    private final Clock clock;
+    private final EpochClock epochClock;
+
+    private long nextPublicationTimeInMs;
+
+    public DutyCycleMonitors(
+        final CommonConfiguration configuration,
+        final FixCounters fixCounters,
+        final Clock clock,
+        final EpochClock epochClock)
+    {
+        this.enabled = configuration.dutyCycleMonitoring();
+        this.stallThresholdInNs = configuration.dutyCycleStallThresholdInNs();
+        this.publicationPeriodInMs = configuration.histogramPollPeriodInMs();
+        this.agentNamePrefix = configuration.agentNamePrefix();
+        this.fixCounters = fixCounters;
+        this.clock = clock;
+        this.epochClock = epochClock;
+        nextPublicationTimeInMs = epochClock.time() + publicationPeriodInMs;
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Create a monitor for the duty cycle of an agent.
+     *
+     * @param name the name of the monitored duty cycle, used in counter labels.
+     * @param stepNames the names of the steps of the duty cycle, in the order in which they're invoked.
+     * @return the monitor, or {@link DutyCycleMonitor#DISABLED} if duty cycle monitoring is disabled.
+     */
+    public DutyCycleMonitor newMonitor(final String name, final String... stepNames)
+    {
+        if (!enabled)
+        {
+            return DutyCycleMonitor.DISABLED;
+        }
+
+        final boolean detectStalls = stallThresholdInNs > 0;
+        final DutyCycleMonitor monitor = new DutyCycleMonitor(
+            name,
+            clock,
+            stepNames,
+            stallThresholdInNs,
+            fixCounters.dutyCycleMaxTime(name),
+            fixCounters.dutyCycleP999Time(name),
+            detectStalls ? fixCounters.dutyCycleStalls(name) : null,
+            detectStalls ? fixCounters.dutyCycleStallStep(name, stepNames) : null);
+        monitors.add(monitor);
+        return monitor;
+    }
+
+    public int doWork()
+    {
+        final long timeInMs = epochClock.time();
+        if (timeInMs >= nextPublicationTimeInMs)
+        {
+            for (final DutyCycleMonitor monitor : monitors)
+            {
+                monitor.publishPercentiles();
+            }
+
+            nextPublicationTimeInMs = timeInMs + publicationPeriodInMs;
+            return 1;
+        }
+
+        return 0;
+    }
+
+    public String roleName()
+    {
+        return agentNamePrefix + "DutyCycleMonitors";
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.*;
+
+public class LinuxThreadAffinityTest
+{
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldFailFastWhenTasksetIsNotOnPath() throws IOException
+    {
+        final String path = temporaryFolder.newFolder().getAbsolutePath();
+
+        try
+        {
+            new LinuxThreadAffinity(path, temporaryFolder.getRoot().toPath());
+            fail("Created a thread affinity without taskset");
+        }
+        catch (final IllegalStateException ex)
+        {
+            assertThat(ex.getMessage(), containsString("taskset"));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailFastWithoutThreadSelf() throws IOException
+    {
+        final String path = givenTasksetExecutable().getParent();
+
+        new LinuxThreadAffinity(path, Paths.get(temporaryFolder.getRoot().getAbsolutePath(), "missing"));
+    }
+
+    @Test
+    public void shouldFindExecutableOnPath() throws IOException
+    {
+        final File taskset = givenTasksetExecutable();
+        final String path = temporaryFolder.getRoot().getAbsolutePath() + File.pathSeparator + taskset.getParent();
+
+        assertEquals(taskset.getAbsolutePath(), LinuxThreadAffinity.findOnPath(path, "taskset"));
+        assertNull(LinuxThreadAffinity.findOnPath(null, "taskset"));
+    }
+
+    @Test
+    public void shouldParseCpuList()
+    {
+        assertArrayEquals(new int[]{ 1, 3, 4, 5 }, LinuxThreadAffinity.parseCpuList("1,3-5\n"));
+    }
+
+    private File givenTasksetExecutable() throws IOException
+    {
+        final File taskset = new File(temporaryFolder.newFolder("bin"), "taskset");
+        assertTrue(taskset.createNewFile());
+        assertTrue(taskset.setExecutable(true));
+        return taskset;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.junit.Test;
+import uk.co.real_logic.artio.AbstractDebugAppender.ThreadLocalAppender;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.TRAILER_LENGTH;
+
+public class RingBufferDebugAppenderTest
+{
+    private static final String NEWLINE = System.lineSeparator();
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[1024 + TRAILER_LENGTH]);
+    private final RingBufferDebugAppender appender = new RingBufferDebugAppender(buffer);
+    private final ThreadLocalAppender localAppender = appender.makeLocalAppender();
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final DebugLogRingBufferReader reader = new DebugLogRingBufferReader(
+        new ManyToOneRingBuffer(buffer), new PrintStream(output));
+
+    @Test
+    public void shouldFormatLoggedTextWhenRead()
+    {
+        localAppender.log(LogTag.FIX_MESSAGE, new StringBuilder("Hello World").append(NEWLINE));
+
+        assertEquals(1, reader.doWork());
+
+        final String threadName = Thread.currentThread().getName();
+        assertThat(output(), matchesPattern("\\d+:" + threadName + "\\[FIX_MESSAGE\\]Hello World" + NEWLINE));
+    }
+
+    @Test
+    public void shouldCopyRawBytesWithPrefix()
+    {
+        final byte[] message = "8=FIX.4.4\0019=5\00135=0\00110=000\001".getBytes(US_ASCII);
+
+        assertTrue(localAppender.log(
+            LogTag.LIBRARY_MANAGEMENT, "Received ", new UnsafeBuffer(message), 0, message.length));
+
+        assertEquals(1, reader.doWork());
+        assertThat(output(), endsWith("[LIBRARY_MANAGEMENT]Received " + new String(message, US_ASCII) + NEWLINE));
+    }
+
+    @Test
+    public void shouldDropRecordsWhenFull()
+    {
+        final StringBuilder text = new StringBuilder("0123456789012345678901234567890123456789");
+        for (int i = 0; i < 100; i++)
+        {
+            localAppender.log(LogTag.FIX_MESSAGE, text);
+        }
+
+        final long dropped = appender.droppedRecords();
+        assertTrue(dropped > 0);
+        assertEquals(100 - dropped, reader.doWork() + reader.doWork());
+    }
+
+    private String output()
+    {
+        return new String(output.toByteArray(), US_ASCII);
+    }
+}
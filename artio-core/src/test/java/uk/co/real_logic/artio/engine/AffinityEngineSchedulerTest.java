@@ -0,0 +1,159 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Test;
+import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.ThreadAffinity;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
+
+public class AffinityEngineSchedulerTest
+{
+    private final Agent framer = mockAgent("framer");
+    private final Agent indexingAgent = mockAgent("indexer");
+    private final Agent monitoringAgent = mockAgent("monitoring");
+    private final EngineConfiguration configuration = mock(EngineConfiguration.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final RecordingCoordinator recordingCoordinator = mock(RecordingCoordinator.class);
+    private final FixCounters fixCounters = mock(FixCounters.class);
+    private final AtomicCounter workCount = newCounter(0);
+    private final AtomicCounter idleCount = newCounter(1);
+    private final AtomicCounter maxCycleTime = newCounter(2);
+
+    private final Map<String, int[]> threadNameToCpus = new ConcurrentHashMap<>();
+    private final ThreadAffinity threadAffinity =
+        (cpus) -> threadNameToCpus.put(Thread.currentThread().getName(), cpus);
+
+    {
+        when(configuration.framerIdleStrategy()).thenReturn(new BusySpinIdleStrategy());
+        when(configuration.archiverIdleStrategy()).thenReturn(new BusySpinIdleStrategy());
+        when(configuration.monitoringThreadIdleStrategy()).thenReturn(new BusySpinIdleStrategy());
+        when(configuration.threadFactory()).thenReturn(Thread::new);
+        when(fixCounters.agentWorkCount(anyString())).thenReturn(workCount);
+        when(fixCounters.agentIdleCount(anyString())).thenReturn(idleCount);
+        when(fixCounters.agentMaxCycleTime(anyString())).thenReturn(maxCycleTime);
+    }
+
+    @Test
+    public void shouldComposeAgentsWithTheSameCpusOntoOnePinnedThread() throws Exception
+    {
+        final AffinityEngineScheduler scheduler = new AffinityEngineScheduler(threadAffinity)
+            .framerCpus(1)
+            .indexerCpus(3, 2)
+            .monitoringCpus(2, 3);
+
+        try (EngineScheduler closeable = scheduler)
+        {
+            launch(closeable);
+
+            assertEventuallyTrue("Agents not invoked", () ->
+            {
+                verify(framer, atLeastOnce()).doWork();
+                verify(indexingAgent, atLeastOnce()).doWork();
+                verify(monitoringAgent, atLeastOnce()).doWork();
+            });
+
+            assertEquals(threadNameToCpus.toString(), 2, threadNameToCpus.size());
+            assertThat(threadNameToCpus.values(), containsInAnyOrder(new int[]{ 1 }, new int[]{ 2, 3 }));
+        }
+
+        verify(framer).onClose();
+        verify(indexingAgent).onClose();
+        verify(monitoringAgent).onClose();
+        verify(recordingCoordinator).close();
+    }
+
+    @Test
+    public void shouldNotPinAgentsWithoutCpus() throws Exception
+    {
+        try (EngineScheduler scheduler = new AffinityEngineScheduler(threadAffinity).framerCpus(4))
+        {
+            launch(scheduler);
+
+            assertEventuallyTrue("Agents not invoked", () ->
+            {
+                verify(indexingAgent, atLeastOnce()).doWork();
+                verify(monitoringAgent, atLeastOnce()).doWork();
+            });
+
+            assertEquals(1, threadNameToCpus.size());
+            assertArrayEquals(new int[]{ 4 }, threadNameToCpus.values().iterator().next());
+        }
+    }
+
+    @Test
+    public void shouldCountDutyCycles() throws Exception
+    {
+        when(framer.doWork()).thenReturn(1, 0);
+
+        try (EngineScheduler scheduler = new AffinityEngineScheduler(threadAffinity))
+        {
+            scheduler.configure(fixCounters);
+            launch(scheduler);
+
+            assertEventuallyTrue("Duty cycles not counted", () -> workCount.get() > 0 && idleCount.get() > 0);
+        }
+
+        verify(fixCounters).agentWorkCount("framer");
+        verify(fixCounters).agentIdleCount("indexer");
+        verify(fixCounters).agentMaxCycleTime("monitoring");
+        assertThat(maxCycleTime.get(), greaterThan(0L));
+        assertTrue(workCount.isClosed());
+        assertTrue(idleCount.isClosed());
+        assertTrue(maxCycleTime.isClosed());
+    }
+
+    private void launch(final EngineScheduler scheduler)
+    {
+        scheduler.launch(
+            configuration,
+            errorHandler,
+            framer,
+            indexingAgent,
+            monitoringAgent,
+            null,
+            recordingCoordinator);
+    }
+
+    private static Agent mockAgent(final String roleName)
+    {
+        final Agent agent = mock(Agent.class);
+        when(agent.roleName()).thenReturn(roleName);
+        return agent;
+    }
+
+    private static AtomicCounter newCounter(final int counterId)
+    {
+        return new AtomicCounter(new UnsafeBuffer(new byte[4096]), counterId);
+    }
+}
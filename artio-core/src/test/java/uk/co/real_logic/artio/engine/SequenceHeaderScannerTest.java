@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.Bool;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.engine.SequenceHeaderScanner.MISSING_MSG_SEQ_NUM;
+
+public class SequenceHeaderScannerTest
+{
+    private final SequenceHeaderScanner scanner = new SequenceHeaderScanner();
+
+    @Test
+    public void shouldReadMsgSeqNumAndPossDupFlag()
+    {
+        scan("35=D\00149=A\00156=B\00134=123\00143=Y\00152=20200101-00:00:00\00111=1\001");
+
+        assertEquals(123, scanner.msgSeqNum());
+        assertEquals(Bool.TRUE, scanner.possDupFlag());
+    }
+
+    @Test
+    public void shouldReadFieldsInAnyHeaderOrder()
+    {
+        scan("35=D\00143=N\00149=A\00156=B\00152=20200101-00:00:00\00134=7\00111=1\001");
+
+        assertEquals(7, scanner.msgSeqNum());
+        assertEquals(Bool.FALSE, scanner.possDupFlag());
+    }
+
+    @Test
+    public void shouldNotReadFieldsAfterTheHeader()
+    {
+        scan("35=D\00149=A\00156=B\00111=1\00134=5\00143=Y\001");
+
+        assertEquals(MISSING_MSG_SEQ_NUM, scanner.msgSeqNum());
+        assertEquals(Bool.NULL_VAL, scanner.possDupFlag());
+    }
+
+    @Test
+    public void shouldReportInvalidValuesAsMissing()
+    {
+        scan("35=D\00134=1a\00143=X\00111=1\001");
+
+        assertEquals(MISSING_MSG_SEQ_NUM, scanner.msgSeqNum());
+        assertEquals(Bool.NULL_VAL, scanner.possDupFlag());
+
+        scan("35=D\00134=99999999999\00143=\001");
+
+        assertEquals(MISSING_MSG_SEQ_NUM, scanner.msgSeqNum());
+        assertEquals(Bool.NULL_VAL, scanner.possDupFlag());
+    }
+
+    @Test
+    public void shouldNotReadPastTheLimit()
+    {
+        final String fields = "35=D\00149=A\00134=12";
+        final UnsafeBuffer buffer = new UnsafeBuffer((fields + "3\00143=Y\001").getBytes(US_ASCII));
+
+        scanner.scan(buffer, 0, fields.length());
+
+        assertEquals(12, scanner.msgSeqNum());
+        assertEquals(Bool.NULL_VAL, scanner.possDupFlag());
+    }
+
+    private void scan(final String fields)
+    {
+        final byte[] bytes = fields.getBytes(US_ASCII);
+        scanner.scan(new UnsafeBuffer(bytes), 0, bytes.length);
+    }
+}
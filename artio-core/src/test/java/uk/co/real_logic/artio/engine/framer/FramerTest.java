@@ -32,6 +32,7 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.verification.VerificationMode;
+import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.Timing;
 import uk.co.real_logic.artio.dictionary.FixDictionary;
 import uk.co.real_logic.artio.engine.CompletionPosition;
@@ -48,6 +49,7 @@ import uk.co.real_logic.artio.session.CompositeKey;
 import uk.co.real_logic.artio.session.InternalSession;
 import uk.co.real_logic.artio.session.Session;
 import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.timing.DutyCycleMonitor;
 import uk.co.real_logic.artio.timing.Timer;
 
 import java.io.IOException;
@@ -199,7 +201,9 @@ public class FramerTest
             mock(CompletionPosition.class),
             finalImagePositions,
             mock(AgentInvoker.class),
-            mock(RecordingCoordinator.class));
+            mock(RecordingCoordinator.class),
+            mock(FixCounters.class, RETURNS_MOCKS),
+            DutyCycleMonitor.DISABLED);
 
         when(sessionContexts.onLogon(any(), any(fixDictionary.getClass()))).thenReturn(new SessionContext(
             sessionKey,
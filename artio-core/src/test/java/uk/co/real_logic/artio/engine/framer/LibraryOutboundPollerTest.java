@@ -0,0 +1,175 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import io.aeron.Image;
+import io.aeron.Subscription;
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class LibraryOutboundPollerTest
+{
+    private static final int FRAGMENT_LIMIT = 10;
+    private static final int BYTE_LIMIT = 1024;
+    private static final long POSITION = 4096;
+
+    private static final int ORDER_LIBRARY_ID = 1;
+    private static final int MARKET_DATA_LIBRARY_ID = 2;
+    private static final int ORDER_SESSION_ID = 11;
+    private static final int MARKET_DATA_SESSION_ID = 12;
+    private static final int ENGINE_SESSION_ID = 13;
+
+    private final Subscription subscription = mock(Subscription.class);
+    private final Image orderImage = image(ORDER_SESSION_ID);
+    private final Image marketDataImage = image(MARKET_DATA_SESSION_ID);
+    private final Image engineImage = image(ENGINE_SESSION_ID);
+    private final ControlledFragmentHandler handler = mock(ControlledFragmentHandler.class);
+    private final FixCounters fixCounters = mock(FixCounters.class);
+    private final AtomicCounter fragmentsPolled = mock(AtomicCounter.class);
+    private final AtomicCounter pollTime = mock(AtomicCounter.class);
+
+    private LibraryOutboundPoller poller;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp()
+    {
+        when(subscription.imageBySessionId(ORDER_SESSION_ID)).thenReturn(orderImage);
+        when(subscription.imageBySessionId(MARKET_DATA_SESSION_ID)).thenReturn(marketDataImage);
+        doAnswer(inv ->
+        {
+            final Consumer<Image> consumer = inv.getArgument(0);
+            consumer.accept(marketDataImage);
+            consumer.accept(orderImage);
+            consumer.accept(engineImage);
+            return null;
+        }).when(subscription).forEachImage(any());
+
+        when(fixCounters.libraryFragmentsPolled(anyInt(), anyInt())).thenReturn(fragmentsPolled);
+        when(fixCounters.libraryPollTime(anyInt(), anyInt())).thenReturn(pollTime);
+
+        final EngineConfiguration configuration = new EngineConfiguration()
+            .outboundLibraryFragmentLimit(FRAGMENT_LIMIT)
+            .outboundLibraryByteLimit(BYTE_LIMIT)
+            .libraryOutboundPollWeight("orders", 5);
+
+        poller = new LibraryOutboundPoller(subscription, configuration, fixCounters, System::nanoTime);
+    }
+
+    @After
+    public void tearDown()
+    {
+        Mockito.framework().clearInlineMocks();
+    }
+
+    @Test
+    public void shouldPollUnknownImagesWithDefaultBudget()
+    {
+        poller.poll(handler);
+
+        verifyPolled(orderImage, 1);
+        verifyPolled(marketDataImage, 1);
+        verifyPolled(engineImage, 1);
+    }
+
+    @Test
+    public void shouldPollHigherWeightedLibrariesFirstWithLargerBudget()
+    {
+        poller.onLibraryConnect(MARKET_DATA_LIBRARY_ID, "marketData", MARKET_DATA_SESSION_ID);
+        poller.onLibraryConnect(ORDER_LIBRARY_ID, "orders", ORDER_SESSION_ID);
+
+        poller.poll(handler);
+
+        final InOrder inOrder = inOrder(orderImage, marketDataImage, engineImage);
+        inOrder.verify(orderImage).boundedControlledPoll(handler, POSITION + 5 * BYTE_LIMIT, 5 * FRAGMENT_LIMIT);
+        inOrder.verify(marketDataImage).boundedControlledPoll(handler, POSITION + BYTE_LIMIT, FRAGMENT_LIMIT);
+        inOrder.verify(engineImage).boundedControlledPoll(handler, POSITION + BYTE_LIMIT, FRAGMENT_LIMIT);
+        verifyNoMoreInteractionsWithPolls();
+    }
+
+    @Test
+    public void shouldCountFragmentsPolledPerLibrary()
+    {
+        when(orderImage.boundedControlledPoll(any(), anyLong(), anyInt())).thenReturn(3);
+        poller.onLibraryConnect(ORDER_LIBRARY_ID, "orders", ORDER_SESSION_ID);
+
+        assertEquals(3, poller.poll(handler));
+
+        verify(fragmentsPolled).getAndAddOrdered(3);
+        verify(pollTime).getAndAddOrdered(anyLong());
+    }
+
+    @Test
+    public void shouldFallBackToUnscheduledPollingAfterLibraryTimeout()
+    {
+        poller.onLibraryConnect(ORDER_LIBRARY_ID, "orders", ORDER_SESSION_ID);
+        poller.onLibraryTimeout(ORDER_LIBRARY_ID, ORDER_SESSION_ID);
+
+        poller.poll(handler);
+
+        verifyPolled(orderImage, 1);
+        verify(fragmentsPolled).close();
+        verify(pollTime).close();
+    }
+
+    @Test
+    public void shouldKeepHighestWeightWhenLibrariesShareAnImage()
+    {
+        poller.onLibraryConnect(ORDER_LIBRARY_ID, "orders", ORDER_SESSION_ID);
+        poller.onLibraryConnect(MARKET_DATA_LIBRARY_ID, "marketData", ORDER_SESSION_ID);
+        poller.onLibraryTimeout(MARKET_DATA_LIBRARY_ID, ORDER_SESSION_ID);
+
+        poller.poll(handler);
+
+        verifyPolled(orderImage, 5);
+        verify(fragmentsPolled, never()).close();
+    }
+
+    private void verifyPolled(final Image image, final int weight)
+    {
+        verify(image).boundedControlledPoll(handler, POSITION + weight * BYTE_LIMIT, weight * FRAGMENT_LIMIT);
+    }
+
+    private void verifyNoMoreInteractionsWithPolls()
+    {
+        verify(orderImage, times(1)).boundedControlledPoll(any(), anyLong(), anyInt());
+        verify(marketDataImage, times(1)).boundedControlledPoll(any(), anyLong(), anyInt());
+        verify(engineImage, times(1)).boundedControlledPoll(any(), anyLong(), anyInt());
+    }
+
+    private static Image image(final int sessionId)
+    {
+        final Image image = mock(Image.class);
+        when(image.sessionId()).thenReturn(sessionId);
+        when(image.position()).thenReturn(POSITION);
+        return image;
+    }
+}
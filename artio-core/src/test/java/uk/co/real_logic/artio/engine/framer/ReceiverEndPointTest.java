@@ -18,6 +18,7 @@ package uk.co.real_logic.artio.engine.framer;
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.LangUtil;
+import org.agrona.collections.IntArrayList;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.junit.Before;
 import org.junit.Test;
@@ -28,6 +29,7 @@ import uk.co.real_logic.artio.Clock;
 import uk.co.real_logic.artio.decoder.LogonDecoder;
 import uk.co.real_logic.artio.dictionary.FixDictionary;
 import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.messages.Bool;
 import uk.co.real_logic.artio.messages.DisconnectReason;
 import uk.co.real_logic.artio.messages.MessageStatus;
 import uk.co.real_logic.artio.messages.SessionState;
@@ -46,9 +48,12 @@ import static io.aeron.Publication.BACK_PRESSURED;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.dictionary.ExampleDictionary.TAG_SPECIFIED_OUT_OF_REQUIRED_ORDER_MESSAGE_BYTES;
+import static uk.co.real_logic.artio.engine.SequenceHeaderScanner.MISSING_MSG_SEQ_NUM;
 import static uk.co.real_logic.artio.messages.DisconnectReason.DUPLICATE_SESSION;
 import static uk.co.real_logic.artio.messages.DisconnectReason.REMOTE_DISCONNECT;
 import static uk.co.real_logic.artio.messages.MessageStatus.*;
+import static uk.co.real_logic.artio.protocol.GatewayPublication.BATCHED_FIX_MESSAGE_LENGTH;
+import static uk.co.real_logic.artio.protocol.GatewayPublication.FIX_MESSAGE_BATCH_LENGTH;
 import static uk.co.real_logic.artio.session.Session.UNKNOWN;
 import static uk.co.real_logic.artio.util.TestMessages.*;
 
@@ -62,6 +67,8 @@ public class ReceiverEndPointTest
     private static final int BUFFER_SIZE = 16 * 1024;
     private static final int SEQUENCE_INDEX = 0;
     private static final int LOGON_LEN = LOGON_MESSAGE.length;
+    private static final int EG_MESSAGE_SEQ_NUM = 4;
+    private static final int LOGON_MESSAGE_SEQ_NUM = 1;
     private static final int OUT_OF_REQUIRED_ORDER_MSG_LEN = TAG_SPECIFIED_OUT_OF_REQUIRED_ORDER_MESSAGE_BYTES.length;
     private static final long TIMESTAMP = 1000L;
     // private static final long BACKPRESSURED_TIMESTAMP = 2000L;
@@ -72,6 +79,8 @@ public class ReceiverEndPointTest
     private GatewayPublication publication = mock(GatewayPublication.class);
     private SessionContexts mockSessionContexts = mock(SessionContexts.class);
     private AtomicCounter messagesRead = mock(AtomicCounter.class);
+    private AtomicCounter bytesRead = mock(AtomicCounter.class);
+    private AtomicCounter receiverBufferSize = mock(AtomicCounter.class);
     private ErrorHandler errorHandler = mock(ErrorHandler.class);
     private Framer framer = mock(Framer.class);
     private GatewaySession gatewaySession = mock(GatewaySession.class);
@@ -82,6 +91,8 @@ public class ReceiverEndPointTest
         .onInitiateLogon("ACCEPTOR", "", "", "INIATOR", "", "");
     private FixReceiverEndPoint endPoint;
     private Clock mockClock = mock(Clock.class);
+    private boolean batchMessages = false;
+    private final IntArrayList batchSizes = new IntArrayList();
 
     private AcceptorLogonResult createSuccessfulPendingAuth()
     {
@@ -142,18 +153,32 @@ public class ReceiverEndPointTest
     }
 
     private void givenReceiverEndPoint(final long sessionId)
+    {
+        givenReceiverEndPoint(sessionId, BUFFER_SIZE, BUFFER_SIZE);
+    }
+
+    private void givenReceiverEndPoint(final long sessionId, final int initialBufferSize, final int readLimit)
     {
         endPoint = new FixReceiverEndPoint(
-            mockChannel, BUFFER_SIZE, publication,
+            mockChannel, initialBufferSize, BUFFER_SIZE, readLimit, bytesRead, receiverBufferSize, publication,
             CONNECTION_ID, sessionId, SEQUENCE_INDEX, mockSessionContexts,
             messagesRead, framer, errorHandler, LIBRARY_ID,
             mockGatewaySessions,
             mockClock,
             new AcceptorFixDictionaryLookup(FixDictionary.of(FixDictionary.findDefault()), new HashMap<>()),
+            batchMessages,
             new FixReceiverEndPoint.FixReceiverEndPointFormatters());
         endPoint.gatewaySession(gatewaySession);
     }
 
+    private void givenTheSessionBeginStringIs(final String beginString)
+    {
+        final FixDictionary fixDictionary = mock(FixDictionary.class);
+        when(fixDictionary.beginString()).thenReturn(beginString);
+        when(gatewaySession.fixDictionary()).thenReturn(fixDictionary);
+        endPoint.gatewaySession(gatewaySession);
+    }
+
     private void theEndpointReceivesALogon()
     {
         theEndpointReceives(LOGON_MESSAGE, 0, LOGON_MESSAGE.length);
@@ -228,6 +253,192 @@ public class ReceiverEndPointTest
         savesFramedMessages(2, OK, MSG_LEN);
 
         sessionReceivesOneMessage();
+        verify(messagesRead).incrementOrdered();
+    }
+
+    @Test
+    public void shouldNotReadMoreThanReadLimitInOnePoll()
+    {
+        final int readLimit = MSG_LEN - 8;
+        givenReceiverEndPoint(SESSION_ID, BUFFER_SIZE, readLimit);
+        theEndpointReceivesInChunks(EG_MESSAGE, MSG_LEN);
+
+        polls(readLimit);
+        polls(8);
+        savesAFramedMessage();
+        sessionReceivesOneMessage();
+        verify(bytesRead).getAndAddOrdered(readLimit);
+        verify(bytesRead).getAndAddOrdered(8);
+    }
+
+    @Test
+    public void shouldGrowBufferToFrameMessageLargerThanInitialBuffer()
+    {
+        final int initialBufferSize = (MSG_LEN + 1) / 2;
+        givenReceiverEndPoint(SESSION_ID, initialBufferSize, BUFFER_SIZE);
+        theEndpointReceivesInChunks(EG_MESSAGE, MSG_LEN);
+
+        polls(initialBufferSize);
+        assertEquals(initialBufferSize, endPoint.bufferCapacity());
+
+        polls(MSG_LEN - initialBufferSize);
+        assertEquals(initialBufferSize * 2, endPoint.bufferCapacity());
+        verify(receiverBufferSize).setOrdered(initialBufferSize * 2);
+
+        savesAFramedMessage();
+        sessionReceivesOneMessage();
+    }
+
+    @Test
+    public void shouldShrinkBufferWhenLightlyUsed()
+    {
+        final int grownBufferSize = givenAGrownBuffer();
+
+        theEndpointReceivesInChunksOf(1, EG_MESSAGE, MSG_LEN);
+        for (int i = 0; i < ReceiverEndPoint.SHRINK_AFTER_LIGHT_READS; i++)
+        {
+            polls(1);
+        }
+
+        assertEquals(grownBufferSize / 2, endPoint.bufferCapacity());
+        verify(receiverBufferSize).setOrdered(grownBufferSize / 2);
+    }
+
+    @Test
+    public void shouldNotShrinkBufferWhenIdle()
+    {
+        final int grownBufferSize = givenAGrownBuffer();
+
+        theEndpointReceivesNothing();
+        for (int i = 0; i < ReceiverEndPoint.SHRINK_AFTER_LIGHT_READS * 2; i++)
+        {
+            polls(0);
+        }
+
+        assertEquals(grownBufferSize, endPoint.bufferCapacity());
+    }
+
+    // Grows the buffer until a quarter of it holds more than one lightly used read of a partial message.
+    private int givenAGrownBuffer()
+    {
+        final int initialBufferSize = MSG_LEN / 8;
+        givenReceiverEndPoint(SESSION_ID, initialBufferSize, BUFFER_SIZE);
+        theEndpointReceivesInChunks(EG_MESSAGE, MSG_LEN);
+        int totalRead = 0;
+        while (totalRead < MSG_LEN)
+        {
+            totalRead += Math.abs(endPoint.poll());
+        }
+        savesAFramedMessage();
+
+        final int grownBufferSize = endPoint.bufferCapacity();
+        assertEquals(initialBufferSize * 16, grownBufferSize);
+        return grownBufferSize;
+    }
+
+    @Test
+    public void shouldSaveMsgSeqNumAndPossDupFlagOfFramedMessageForEngineManagedSession()
+    {
+        givenAnAuthenticatedReceiverEndPoint();
+
+        theEndpointReceivesACompleteMessage();
+        polls(MSG_LEN);
+
+        verify(publication).saveMessage(
+            anyBuffer(), eq(0), eq(MSG_LEN), eq(LIBRARY_ID),
+            eq(MESSAGE_TYPE), eq(SESSION_ID), eq(SEQUENCE_INDEX), eq(CONNECTION_ID),
+            eq(OK), eq(0), eq(TIMESTAMP), isNull(), eq(0), eq(EG_MESSAGE_SEQ_NUM), eq(Bool.NULL_VAL));
+    }
+
+    @Test
+    public void shouldNotScanHeaderOfFramedMessageForLibraryOwnedSession()
+    {
+        givenAnAuthenticatedReceiverEndPoint();
+        endPoint.libraryId(LIBRARY_ID + 3);
+
+        theEndpointReceivesACompleteMessage();
+        polls(MSG_LEN);
+
+        verify(publication).saveMessage(
+            anyBuffer(), eq(0), eq(MSG_LEN), eq(LIBRARY_ID + 3),
+            eq(MESSAGE_TYPE), eq(SESSION_ID), eq(SEQUENCE_INDEX), eq(CONNECTION_ID),
+            eq(OK), eq(0), eq(TIMESTAMP), isNull(), eq(0), eq(MISSING_MSG_SEQ_NUM), eq(Bool.NULL_VAL));
+    }
+
+    @Test
+    public void shouldSaveMsgSeqNumOfDecodedLogonMessage()
+    {
+        givenAnUnauthenticatedReceiverEndPoint();
+        givenLogonResult(backpressuredPendingAuth);
+
+        theEndpointReceivesALogon();
+        polls(LOGON_LEN);
+        pollWithNoData(LOGON_LEN);
+
+        verify(publication).saveMessage(
+            anyBuffer(), eq(0), eq(LOGON_LEN), eq(LIBRARY_ID),
+            eq(LogonDecoder.MESSAGE_TYPE), eq(SESSION_ID), eq(SEQUENCE_INDEX), eq(CONNECTION_ID),
+            eq(OK), eq(0), eq(TIMESTAMP), isNull(), eq(0), eq(LOGON_MESSAGE_SEQ_NUM), eq(Bool.NULL_VAL));
+    }
+
+    @Test
+    public void shouldBatchMessagesFramedFromOneRead()
+    {
+        givenABatchingReceiverEndPoint(4096, POSITION);
+
+        theEndpointReceivesTwoCompleteMessages();
+        polls(2 * MSG_LEN);
+
+        savesBatches(1);
+        assertEquals(2, batchSizes.getInt(0));
+        verify(publication, never()).saveMessage(
+            anyBuffer(), anyInt(), anyInt(), anyInt(), anyLong(), anyLong(), anyInt(), anyLong(), any(), anyInt(),
+            anyLong(), any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void shouldReframeBatchWhenBackPressured()
+    {
+        givenABatchingReceiverEndPoint(4096, BACK_PRESSURED, POSITION);
+
+        theEndpointReceivesTwoCompleteMessages();
+        assertEquals(-2 * MSG_LEN, endPoint.poll());
+
+        pollWithNoData(0);
+
+        savesBatches(2);
+        assertEquals(2, batchSizes.getInt(0));
+        assertEquals(2, batchSizes.getInt(1));
+        verify(messagesRead).getAndAddOrdered(2);
+        verify(messagesRead, never()).incrementOrdered();
+    }
+
+    @Test
+    public void shouldStartNewBatchWhenMessageWouldExceedMaxPayloadLength()
+    {
+        givenABatchingReceiverEndPoint(FIX_MESSAGE_BATCH_LENGTH + BATCHED_FIX_MESSAGE_LENGTH + MSG_LEN, POSITION);
+
+        theEndpointReceivesTwoCompleteMessages();
+        polls(2 * MSG_LEN);
+
+        savesBatches(2);
+        assertEquals(1, batchSizes.getInt(0));
+        assertEquals(1, batchSizes.getInt(1));
+    }
+
+    @Test
+    public void shouldNotBatchMessagesForEngineManagedSessions()
+    {
+        batchMessages = true;
+        when(publication.maxPayloadLength()).thenReturn(4096);
+        givenAnAuthenticatedReceiverEndPoint();
+
+        theEndpointReceivesTwoCompleteMessages();
+        endPoint.poll();
+
+        savesTwoFramedMessages(1);
+        verify(publication, never()).saveFixMessageBatch(
+            anyBuffer(), anyInt(), any(), any(), anyInt(), anyLong(), anyInt(), anyLong(), anyLong());
     }
 
     @Test
@@ -246,6 +457,30 @@ public class ReceiverEndPointTest
         shouldFrameValidFixMessage();
     }
 
+    @Test
+    public void shouldFrameValidFixMessageWithKnownBeginString()
+    {
+        givenTheSessionBeginStringIs("FIX.4.2");
+
+        shouldFrameValidFixMessage();
+    }
+
+    @Test
+    public void shouldFrameValidFixMessageWithDifferentBeginString()
+    {
+        givenTheSessionBeginStringIs("FIXT.1.1");
+
+        shouldFrameValidFixMessage();
+    }
+
+    @Test
+    public void shouldIgnoreMessageWithBodyLengthTooShortWithKnownBeginString()
+    {
+        givenTheSessionBeginStringIs("FIX.4.2");
+
+        shouldIgnoreMessageWithBodyLengthTooShort();
+    }
+
     @Test
     public void shouldOnlyFrameCompleteFixMessage()
     {
@@ -479,6 +714,24 @@ public class ReceiverEndPointTest
 
     private void firstSaveAttemptIsBackPressured()
     {
+        when(publication
+            .saveMessage(
+                anyBuffer(),
+                anyInt(),
+                anyInt(),
+                anyInt(),
+                anyLong(),
+                anyLong(),
+                anyInt(),
+                anyLong(),
+                any(),
+                anyInt(),
+                anyLong(),
+                any(),
+                anyInt(),
+                anyInt(),
+                any()))
+            .thenReturn(BACK_PRESSURED, POSITION);
         when(publication
             .saveMessage(
                 anyBuffer(),
@@ -564,7 +817,7 @@ public class ReceiverEndPointTest
         return verify(publication, times(numberOfMessages)).saveMessage(
             anyBuffer(), eq(0), eq(msgLen), eq(LIBRARY_ID),
             eq(messageType), eq(SESSION_ID), eq(SEQUENCE_INDEX), eq(CONNECTION_ID),
-            eq(status), eq(0), eq(TIMESTAMP));
+            eq(status), eq(0), eq(TIMESTAMP), isNull(), eq(0), anyInt(), any());
     }
 
     private void savesTwoFramedMessages(final int firstMessageSaveAttempts)
@@ -581,7 +834,11 @@ public class ReceiverEndPointTest
             eq(CONNECTION_ID),
             eq(OK),
             eq(0),
-            eq(TIMESTAMP));
+            eq(TIMESTAMP),
+            isNull(),
+            eq(0),
+            anyInt(),
+            any());
 
         inOrder.verify(publication, times(1)).saveMessage(
             anyBuffer(),
@@ -594,7 +851,11 @@ public class ReceiverEndPointTest
             eq(CONNECTION_ID),
             eq(OK),
             eq(0),
-            eq(TIMESTAMP));
+            eq(TIMESTAMP),
+            isNull(),
+            eq(0),
+            anyInt(),
+            any());
 
         inOrder.verifyNoMoreInteractions();
     }
@@ -639,6 +900,32 @@ public class ReceiverEndPointTest
             });
     }
 
+    private void theEndpointReceivesInChunks(final byte[] data, final int length)
+    {
+        final int[] offset = {0};
+        endpointBufferUpdatedWith(
+            (buffer) ->
+            {
+                final int chunkLength = Math.min(buffer.remaining(), length - offset[0]);
+                buffer.put(data, offset[0], chunkLength);
+                offset[0] += chunkLength;
+                return chunkLength;
+            });
+    }
+
+    private void theEndpointReceivesInChunksOf(final int chunkLength, final byte[] data, final int length)
+    {
+        final int[] offset = {0};
+        endpointBufferUpdatedWith(
+            (buffer) ->
+            {
+                final int readLength = Math.min(chunkLength, length - offset[0]);
+                buffer.put(data, offset[0], readLength);
+                offset[0] += readLength;
+                return readLength;
+            });
+    }
+
     private void theEndpointReceivesNothing()
     {
         endpointBufferUpdatedWith(buffer -> 0);
@@ -737,6 +1024,30 @@ public class ReceiverEndPointTest
             .onMessage(any(), anyInt(), anyInt(), anyLong(), anyLong());
     }
 
+    private void givenABatchingReceiverEndPoint(final int maxPayloadLength, final long... positions)
+    {
+        batchMessages = true;
+        when(publication.maxPayloadLength()).thenReturn(maxPayloadLength);
+        // The lengths are cleared once saved, so record each batch's size when it's saved
+        when(publication.saveFixMessageBatch(
+            anyBuffer(), anyInt(), any(), any(), anyInt(), anyLong(), anyInt(), anyLong(), anyLong()))
+            .thenAnswer(invocation ->
+            {
+                final int attempt = batchSizes.size();
+                batchSizes.addInt(invocation.<IntArrayList>getArgument(2).size());
+                return positions[Math.min(attempt, positions.length - 1)];
+            });
+        givenAnAuthenticatedReceiverEndPoint();
+        endPoint.libraryId(LIBRARY_ID + 3);
+    }
+
+    private void savesBatches(final int times)
+    {
+        verify(publication, times(times)).saveFixMessageBatch(
+            anyBuffer(), anyInt(), any(), any(), eq(LIBRARY_ID + 3), eq(SESSION_ID), eq(SEQUENCE_INDEX),
+            eq(CONNECTION_ID), eq(TIMESTAMP));
+    }
+
     private void pollWithNoData(final int expected)
     {
         theEndpointReceivesNothing();
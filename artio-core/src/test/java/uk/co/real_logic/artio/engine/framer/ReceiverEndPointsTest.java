@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.channels.SelectionKey.OP_READ;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ReceiverEndPointsTest
+{
+    private static final int POLL_THRESHOLD = 2;
+
+    private final ReceiverEndPoints receiverEndPoints =
+        new ReceiverEndPoints(mock(ErrorHandler.class), POLL_THRESHOLD);
+    private final List<Pipe> pipes = new ArrayList<>();
+
+    @After
+    public void tearDown()
+    {
+        receiverEndPoints.close();
+        for (final Pipe pipe : pipes)
+        {
+            CloseHelper.close(pipe.source());
+            CloseHelper.close(pipe.sink());
+        }
+    }
+
+    @Test
+    public void shouldPollEndPointsDirectlyAtThreshold() throws IOException
+    {
+        final ReceiverEndPoint first = newEndPoint(1);
+        final ReceiverEndPoint second = newEndPoint(2);
+
+        receiverEndPoints.pollEndPoints();
+
+        verify(first).poll();
+        verify(second).poll();
+    }
+
+    @Test
+    public void shouldPollOnlySelectedEndPointsAboveThreshold() throws IOException
+    {
+        final ReceiverEndPoint first = newEndPoint(1);
+        final ReceiverEndPoint second = newEndPoint(2);
+        final ReceiverEndPoint third = newEndPoint(3);
+
+        pipes.get(1).sink().write(ByteBuffer.wrap(new byte[]{ 1 }));
+
+        receiverEndPoints.pollEndPoints();
+
+        verify(first, never()).poll();
+        verify(second).poll();
+        verify(third, never()).poll();
+    }
+
+    @Test
+    public void shouldNotPollEndPointsWithoutDataAboveThreshold() throws IOException
+    {
+        final ReceiverEndPoint first = newEndPoint(1);
+        final ReceiverEndPoint second = newEndPoint(2);
+        final ReceiverEndPoint third = newEndPoint(3);
+
+        receiverEndPoints.pollEndPoints();
+
+        verify(first, never()).poll();
+        verify(second, never()).poll();
+        verify(third, never()).poll();
+    }
+
+    // Each end point is registered with the selector through a pipe, so it's selected once data is written to it.
+    private ReceiverEndPoint newEndPoint(final long connectionId) throws IOException
+    {
+        final Pipe pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+        pipes.add(pipe);
+
+        final ReceiverEndPoint endPoint = mock(ReceiverEndPoint.class);
+        when(endPoint.connectionId()).thenReturn(connectionId);
+        doAnswer(invocation ->
+        {
+            pipe.source().register(invocation.<Selector>getArgument(0), OP_READ, endPoint);
+            return null;
+        }).when(endPoint).register(any());
+
+        receiverEndPoints.add(endPoint);
+
+        return endPoint;
+    }
+}
@@ -26,6 +26,7 @@ import uk.co.real_logic.artio.decoder.ExampleMessageDecoder;
 import uk.co.real_logic.artio.decoder.TestRequestDecoder;
 import uk.co.real_logic.artio.fields.UtcTimestampDecoder;
 import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.messages.Bool;
 import uk.co.real_logic.artio.messages.FixMessageEncoder;
 import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
@@ -166,6 +167,8 @@ public class AbstractLogTest
             .connection(CONNECTION_ID)
             .sequenceIndex(sequenceIndex)
             .libraryId(LIBRARY_ID)
+            .msgSeqNum(FixMessageEncoder.msgSeqNumNullValue())
+            .possDupFlag(Bool.NULL_VAL)
             .putMetaData(new byte[0], 0, 0)
             .putBody(asciiBuffer, 0, logEntryLength);
 
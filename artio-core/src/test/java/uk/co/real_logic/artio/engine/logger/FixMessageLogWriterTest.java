@@ -0,0 +1,193 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.Bool;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static uk.co.real_logic.artio.engine.logger.FixMessageLogWriter.*;
+
+public class FixMessageLogWriterTest
+{
+    private static final String MESSAGE = "8=FIX.4.4\0019=5\00135=0\00110=000\001";
+    private static final String OTHER_MESSAGE = "8=FIX.4.4\0019=5\00135=1\00110=000\001";
+    private static final long TIMESTAMP = 123;
+    private static final long SESSION_ID = 2;
+    private static final long CONNECTION_ID = 3;
+    private static final int SEQUENCE_INDEX = 4;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[1024]);
+    private final FixMessageEncoder encoder = new FixMessageEncoder();
+    private final FixMessageDecoder decoder = new FixMessageDecoder();
+
+    private long time = 1;
+    private File directory;
+    private FixMessageLogWriter writer;
+
+    @Before
+    public void setUp() throws Exception
+    {
+        directory = Files.createTempDirectory("fix-message-log-writer-test").toFile();
+    }
+
+    @After
+    public void tearDown()
+    {
+        writer.close();
+        IoUtil.delete(directory, false);
+    }
+
+    @Test
+    public void shouldWriteRawFixMessagesSeparatedByNewlines() throws Exception
+    {
+        newWriter(Format.RAW_FIX, 1024, 0);
+
+        log(MESSAGE);
+        log(OTHER_MESSAGE);
+        writer.close();
+
+        final File[] files = logFiles();
+        assertThat(files, arrayWithSize(1));
+        assertEquals("log-1-0.fix", files[0].getName());
+        assertEquals(MESSAGE + "\n" + OTHER_MESSAGE + "\n", readFile(files[0]));
+    }
+
+    @Test
+    public void shouldWriteBinaryRecords() throws Exception
+    {
+        newWriter(Format.BINARY, 1024, 0);
+
+        log(MESSAGE);
+        writer.close();
+
+        final File[] files = logFiles();
+        assertThat(files, arrayWithSize(1));
+        final UnsafeBuffer record = new UnsafeBuffer(Files.readAllBytes(files[0].toPath()));
+        assertEquals(BINARY_HEADER_LENGTH + MESSAGE.length(), record.capacity());
+        assertEquals(record.capacity(), record.getInt(RECORD_LENGTH_OFFSET, LITTLE_ENDIAN));
+        assertEquals(TIMESTAMP, record.getLong(TIMESTAMP_OFFSET, LITTLE_ENDIAN));
+        assertEquals(SESSION_ID, record.getLong(SESSION_ID_OFFSET, LITTLE_ENDIAN));
+        assertEquals(CONNECTION_ID, record.getLong(CONNECTION_ID_OFFSET, LITTLE_ENDIAN));
+        assertEquals(SEQUENCE_INDEX, record.getInt(SEQUENCE_INDEX_OFFSET, LITTLE_ENDIAN));
+        assertEquals(MessageStatus.OK.value(), record.getByte(STATUS_OFFSET));
+        assertEquals(MESSAGE, record.getStringWithoutLengthAscii(BINARY_HEADER_LENGTH, MESSAGE.length()));
+    }
+
+    @Test
+    public void shouldRotateFileWhenFull() throws Exception
+    {
+        newWriter(Format.RAW_FIX, MESSAGE.length() + 1, 0);
+
+        log(MESSAGE);
+        final File firstFile = writer.file();
+        log(OTHER_MESSAGE);
+        final File secondFile = writer.file();
+        writer.close();
+
+        assertNotEquals(firstFile, secondFile);
+        assertThat(logFiles(), arrayWithSize(2));
+        assertEquals(MESSAGE + "\n", readFile(firstFile));
+        assertEquals(OTHER_MESSAGE + "\n", readFile(secondFile));
+    }
+
+    @Test
+    public void shouldRotateFileAfterRotationPeriod() throws Exception
+    {
+        newWriter(Format.RAW_FIX, 1024, 10);
+
+        log(MESSAGE);
+        time += 9;
+        log(MESSAGE);
+        final File firstFile = writer.file();
+        time += 1;
+        log(OTHER_MESSAGE);
+        final File secondFile = writer.file();
+        writer.close();
+
+        assertEquals("log-1-0.fix", firstFile.getName());
+        assertEquals("log-11-1.fix", secondFile.getName());
+        assertEquals(MESSAGE + "\n" + MESSAGE + "\n", readFile(firstFile));
+        assertEquals(OTHER_MESSAGE + "\n", readFile(secondFile));
+    }
+
+    @Test
+    public void shouldWriteRecordLargerThanMaxFileSizeIntoItsOwnFile() throws Exception
+    {
+        newWriter(Format.RAW_FIX, 8, 0);
+
+        log(MESSAGE);
+        writer.close();
+
+        assertEquals(MESSAGE + "\n", readFile(writer.file()));
+    }
+
+    private void newWriter(final Format format, final int maxFileSize, final long rotationPeriodInMs)
+    {
+        writer = new FixMessageLogWriter(directory, "log", format, maxFileSize, rotationPeriodInMs, () -> time);
+    }
+
+    private void log(final String message)
+    {
+        final byte[] body = message.getBytes(US_ASCII);
+        encoder
+            .wrap(buffer, 0)
+            .libraryId(1)
+            .messageType(0)
+            .session(SESSION_ID)
+            .sequenceIndex(SEQUENCE_INDEX)
+            .connection(CONNECTION_ID)
+            .timestamp(TIMESTAMP)
+            .status(MessageStatus.OK)
+            .sequenceNumber(1)
+            .msgSeqNum(1)
+            .possDupFlag(Bool.NULL_VAL)
+            .putMetaData(new byte[0], 0, 0)
+            .putBody(body, 0, body.length);
+
+        decoder.wrap(buffer, 0, FixMessageEncoder.BLOCK_LENGTH, FixMessageEncoder.SCHEMA_VERSION);
+        decoder.skipMetaData();
+        writer.onMessage(decoder, buffer, 0, encoder.encodedLength(), null);
+    }
+
+    private File[] logFiles()
+    {
+        final File[] files = directory.listFiles();
+        Arrays.sort(files);
+        return files;
+    }
+
+    private static String readFile(final File file) throws Exception
+    {
+        return new String(Files.readAllBytes(file.toPath()), US_ASCII);
+    }
+}
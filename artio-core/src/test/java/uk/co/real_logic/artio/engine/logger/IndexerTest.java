@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Aeron;
+import io.aeron.CommonContext;
+import io.aeron.ExclusivePublication;
+import io.aeron.Subscription;
+import io.aeron.archive.ArchivingMediaDriver;
+import io.aeron.archive.client.AeronArchive;
+import io.aeron.archive.codecs.SourceLocation;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.TestFixtures;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+import uk.co.real_logic.artio.engine.CompletionPosition;
+import uk.co.real_logic.artio.timing.DutyCycleMonitor;
+
+import static io.aeron.archive.client.AeronArchive.NULL_POSITION;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.TestFixtures.cleanupMediaDriver;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_ARCHIVE_REPLAY_STREAM;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_OUTBOUND_LIBRARY_STREAM;
+
+public class IndexerTest
+{
+    private static final String CHANNEL = CommonContext.IPC_CHANNEL;
+    private static final int STREAM_ID = DEFAULT_OUTBOUND_LIBRARY_STREAM;
+    private static final int MESSAGE_COUNT = 10;
+    private static final int MESSAGE_LENGTH = 100;
+
+    private final Index fullyBehindIndex = mock(Index.class);
+    private final Index partlyBehindIndex = mock(Index.class);
+    private final Index caughtUpIndex = mock(Index.class);
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final AtomicCounter catchupTime = mock(AtomicCounter.class);
+    private final AtomicCounter catchupBytes = mock(AtomicCounter.class);
+    private final long[] messagePositions = new long[MESSAGE_COUNT];
+
+    private ArchivingMediaDriver mediaDriver;
+    private AeronArchive aeronArchive;
+    private Subscription subscription;
+    private long recordingId;
+    private long recordingStoppedPosition;
+
+    @Before
+    public void setUp()
+    {
+        mediaDriver = TestFixtures.launchMediaDriver();
+        aeronArchive = AeronArchive.connect();
+
+        final Aeron aeron = aeronArchive.context().aeron();
+        final RecordingIdLookup recordingIdLookup = new RecordingIdLookup(
+            new YieldingIdleStrategy(), aeron.countersReader());
+
+        aeronArchive.startRecording(CHANNEL, STREAM_ID, SourceLocation.LOCAL);
+        try (ExclusivePublication publication = aeron.addExclusivePublication(CHANNEL, STREAM_ID))
+        {
+            recordingId = recordingIdLookup.getRecordingId(publication.sessionId());
+
+            final UnsafeBuffer buffer = new UnsafeBuffer(new byte[MESSAGE_LENGTH]);
+            for (int i = 0; i < MESSAGE_COUNT; i++)
+            {
+                long position;
+                while ((position = publication.offer(buffer)) < 0)
+                {
+                    Thread.yield();
+                }
+                messagePositions[i] = position;
+            }
+
+            while (aeronArchive.getRecordingPosition(recordingId) < publication.position())
+            {
+                Thread.yield();
+            }
+        }
+
+        aeronArchive.stopRecording(CHANNEL, STREAM_ID);
+        while ((recordingStoppedPosition = aeronArchive.getStopPosition(recordingId)) == NULL_POSITION)
+        {
+            Thread.yield();
+        }
+
+        subscription = aeron.addSubscription(CHANNEL, STREAM_ID);
+
+        givenIndexedPosition(fullyBehindIndex, 0);
+        givenIndexedPosition(partlyBehindIndex, messagePositions[4]);
+        givenIndexedPosition(caughtUpIndex, recordingStoppedPosition);
+    }
+
+    @After
+    public void teardown()
+    {
+        Exceptions.closeAll(subscription, aeronArchive);
+        cleanupMediaDriver(mediaDriver);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldCatchEachIndexUpSeparately()
+    {
+        newIndexer(false);
+
+        verifyCaughtUp();
+        verify(catchupBytes).setOrdered(2 * recordingStoppedPosition - messagePositions[4]);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldCatchIndicesUpInSinglePass()
+    {
+        newIndexer(true);
+
+        verifyCaughtUp();
+        verify(catchupBytes).setOrdered(recordingStoppedPosition);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldNotReplayWhenIndicesAreCaughtUp()
+    {
+        givenIndexedPosition(fullyBehindIndex, recordingStoppedPosition);
+        givenIndexedPosition(partlyBehindIndex, recordingStoppedPosition);
+
+        newIndexer(true);
+
+        verify(fullyBehindIndex, never()).onCatchup(any(), anyInt(), anyInt(), any(), anyLong());
+        verify(partlyBehindIndex, never()).onCatchup(any(), anyInt(), anyInt(), any(), anyLong());
+        verify(catchupBytes).setOrdered(0);
+    }
+
+    private void verifyCaughtUp()
+    {
+        verify(fullyBehindIndex, times(MESSAGE_COUNT))
+            .onCatchup(any(), anyInt(), eq(MESSAGE_LENGTH), any(), eq(recordingId));
+        verify(partlyBehindIndex, times(MESSAGE_COUNT - 5))
+            .onCatchup(any(), anyInt(), eq(MESSAGE_LENGTH), any(), eq(recordingId));
+        verify(caughtUpIndex, never()).onCatchup(any(), anyInt(), anyInt(), any(), anyLong());
+        verify(catchupTime).setOrdered(longThat(time -> time > 0));
+        verifyNoInteractions(errorHandler);
+        assertThat(recordingStoppedPosition, greaterThan(messagePositions[4]));
+    }
+
+    private void newIndexer(final boolean singlePassCatchup)
+    {
+        new Indexer(
+            asList(fullyBehindIndex, partlyBehindIndex, caughtUpIndex),
+            subscription,
+            "",
+            new CompletionPosition(),
+            aeronArchive,
+            errorHandler,
+            DEFAULT_ARCHIVE_REPLAY_STREAM,
+            false,
+            100,
+            singlePassCatchup,
+            catchupTime,
+            catchupBytes,
+            DutyCycleMonitor.DISABLED);
+    }
+
+    private void givenIndexedPosition(final Index index, final long position)
+    {
+        doAnswer(invocation ->
+        {
+            final IndexedPositionConsumer consumer = invocation.getArgument(0);
+            consumer.accept(0, recordingId, position);
+            return null;
+        }).when(index).readLastPosition(any());
+    }
+}
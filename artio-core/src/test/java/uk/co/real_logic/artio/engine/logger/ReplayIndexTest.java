@@ -25,7 +25,9 @@ import io.aeron.archive.codecs.SourceLocation;
 import io.aeron.logbuffer.ControlledFragmentHandler;
 import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
+import org.agrona.collections.IntArrayList;
 import org.agrona.collections.Long2LongHashMap;
+import org.agrona.collections.LongArrayList;
 import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.NoOpIdleStrategy;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -38,13 +40,16 @@ import org.mockito.verification.VerificationMode;
 import uk.co.real_logic.artio.Clock;
 import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.TestFixtures;
+import uk.co.real_logic.artio.decoder.ExampleMessageDecoder;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
 import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.session.Session;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
 import java.util.stream.IntStream;
 
 import static io.aeron.Aeron.NULL_VALUE;
@@ -52,6 +57,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.aMapWithSize;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_INBOUND_MAX_CLAIM_ATTEMPTS;
 import static uk.co.real_logic.artio.LogTag.REPLAY;
@@ -82,6 +88,7 @@ public class ReplayIndexTest extends AbstractLogTest
     });
 
     private ReplayIndex replayIndex;
+    private int sessionsPerFile = DEFAULT_REPLAY_INDEX_SESSIONS_PER_FILE;
 
     private UnsafeBuffer replayPositionBuffer = new UnsafeBuffer(new byte[REPLAY_POSITION_BUFFER_SIZE]);
     private IndexedPositionConsumer positionConsumer = mock(IndexedPositionConsumer.class);
@@ -103,8 +110,7 @@ public class ReplayIndexTest extends AbstractLogTest
             DEFAULT_LOG_FILE_DIR,
             STREAM_ID,
             DEFAULT_REPLAY_INDEX_FILE_SIZE,
-            DEFAULT_LOGGER_CACHE_NUM_SETS,
-            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            sessionsPerFile,
             newBufferFactory,
             replayPositionBuffer,
             errorHandler,
@@ -135,12 +141,11 @@ public class ReplayIndexTest extends AbstractLogTest
 
         IoUtil.deleteIfExists(logFile(SESSION_ID));
         IoUtil.deleteIfExists(logFile(SESSION_ID_2));
+        deleteReplaySessionsFiles();
 
         newReplayIndex();
         query = new ReplayQuery(
             DEFAULT_LOG_FILE_DIR,
-            DEFAULT_LOGGER_CACHE_NUM_SETS,
-            DEFAULT_LOGGER_CACHE_SET_SIZE,
             existingBufferFactory,
             DEFAULT_OUTBOUND_LIBRARY_STREAM,
             new NoOpIdleStrategy(),
@@ -163,7 +168,7 @@ public class ReplayIndexTest extends AbstractLogTest
 
         final int msgCount = query();
 
-        verifyMappedFile(SESSION_ID, 1);
+        verifyQueryMappedFile(1);
         verifyMessagesRead(1);
         assertEquals(1, msgCount);
     }
@@ -179,7 +184,7 @@ public class ReplayIndexTest extends AbstractLogTest
 
         final int msgCount = query();
 
-        verifyMappedFile(SESSION_ID, 1);
+        verifyQueryMappedFile(1);
         verifyMessagesRead(1);
         assertEquals(1, msgCount);
     }
@@ -209,7 +214,7 @@ public class ReplayIndexTest extends AbstractLogTest
 
         final int msgCount = query();
 
-        verifyMappedFile(SESSION_ID, 1);
+        verifyQueryMappedFile(1);
         verifyMessagesRead(1);
         assertEquals(1, msgCount);
     }
@@ -221,11 +226,23 @@ public class ReplayIndexTest extends AbstractLogTest
 
         final int msgCount = query(SEQUENCE_NUMBER, SEQUENCE_INDEX, MOST_RECENT_MESSAGE, SEQUENCE_INDEX);
 
-        verifyMappedFile(SESSION_ID, 1);
+        verifyQueryMappedFile(1);
         verifyMessagesRead(1);
         assertEquals(1, msgCount);
     }
 
+    @Test(timeout = 20_000L)
+    public void shouldReplayQueryThatSpansABatch()
+    {
+        indexExampleMessageBatch(SEQUENCE_NUMBER, 3);
+        indexExampleMessage(SESSION_ID, SEQUENCE_NUMBER + 3, SEQUENCE_INDEX);
+
+        final int msgCount = query(SEQUENCE_NUMBER + 1, SEQUENCE_INDEX, SEQUENCE_NUMBER + 3, SEQUENCE_INDEX);
+
+        verifyMessagesRead(2);
+        assertEquals(2, msgCount);
+    }
+
     @Test(timeout = 20_000L)
     public void shouldNotReturnLogEntriesWithOtherSessionId()
     {
@@ -236,7 +253,7 @@ public class ReplayIndexTest extends AbstractLogTest
         final int msgCount = query(SESSION_ID, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER + 1, SEQUENCE_INDEX);
 
         assertEquals(2, msgCount);
-        verifyMappedFile(SESSION_ID, 1);
+        verifyQueryMappedFile(1);
         verifyMessagesRead(2);
     }
 
@@ -301,24 +318,91 @@ public class ReplayIndexTest extends AbstractLogTest
     }
 
     @Test(timeout = 20_000L)
-    public void shouldOnlyMapSessionFileOnce()
+    public void shouldOnlyMapReplaySessionsFileOnce()
+    {
+        indexExampleMessage();
+
+        indexExampleMessage();
+
+        verifyIndexMappedFile(0);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldRecordIndexesForMultipleSessionsInOneFile()
     {
         indexExampleMessage();
 
+        indexExampleMessage(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+
+        verifyIndexMappedFile(0);
+        assertFalse(replaySessionsFile(1).exists());
+        assertEquals(1, query());
+        assertEquals(1, query(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER, SEQUENCE_INDEX));
+        verifyQueryMappedFile(1);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldRecordIndexesForMoreSessionsThanFitInOneFile()
+    {
+        replayIndex.close();
+        sessionsPerFile = 1;
+        newReplayIndex();
+
         indexExampleMessage();
 
-        verifyMappedFile(SESSION_ID);
+        indexExampleMessage(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+
+        verifyIndexMappedFile(0);
+        verifyIndexMappedFile(1);
+        assertEquals(1, query());
+        assertEquals(1, query(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER, SEQUENCE_INDEX));
     }
 
     @Test(timeout = 20_000L)
-    public void shouldRecordIndexesForMultipleSessions()
+    public void shouldReadSessionsIndexedAfterFirstQuery()
     {
         indexExampleMessage();
+        assertEquals(1, query());
 
         indexExampleMessage(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX);
 
-        verifyMappedFile(SESSION_ID);
-        verifyMappedFile(SESSION_ID_2);
+        assertEquals(1, query(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER, SEQUENCE_INDEX));
+        verifyQueryMappedFile(1);
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldNotReplayMessagesForSessionWithoutIndex()
+    {
+        indexExampleMessage();
+
+        final int msgCount = query(SESSION_ID_2, SEQUENCE_NUMBER, SEQUENCE_INDEX, SEQUENCE_NUMBER, SEQUENCE_INDEX);
+
+        assertEquals(0, msgCount);
+        verifyNoMessageRead();
+    }
+
+    @Test(timeout = 20_000L)
+    public void shouldReadRecordsFromReplayIndexFileOfEarlierVersion() throws IOException
+    {
+        indexExampleMessage();
+        replayIndex.close();
+
+        // Earlier versions had a file per session with the same layout as a slot.
+        final ReplayIndexSegment segment = new ReplayIndexSegment(
+            LoggerUtil.mapExistingFile(replaySessionsFile(0)));
+        final byte[] slotContents = new byte[DEFAULT_REPLAY_INDEX_FILE_SIZE];
+        segment.slotBuffer(0).getBytes(0, slotContents);
+        segment.close();
+        Files.write(logFile(SESSION_ID).toPath(), slotContents);
+        deleteReplaySessionsFiles();
+
+        newReplayIndex();
+
+        assertFalse(logFile(SESSION_ID).exists());
+        final int msgCount = query();
+
+        verifyMessagesRead(1);
+        assertEquals(1, msgCount);
     }
 
     // TODO: deleting old recordings.
@@ -408,14 +492,14 @@ public class ReplayIndexTest extends AbstractLogTest
             .onFragment(any(), anyInt(), anyInt(), any());
     }
 
-    private void verifyMappedFile(final long sessionId, final int wantedNumberOfInvocations)
+    private void verifyQueryMappedFile(final int wantedNumberOfInvocations)
     {
-        verify(existingBufferFactory, times(wantedNumberOfInvocations)).map(logFile(sessionId));
+        verify(existingBufferFactory, times(wantedNumberOfInvocations)).map(replaySessionsFile(0));
     }
 
-    private void verifyMappedFile(final long sessionId)
+    private void verifyIndexMappedFile(final int segmentIndex)
     {
-        verify(newBufferFactory).map(eq(logFile(sessionId)), anyInt());
+        verify(newBufferFactory).map(eq(replaySessionsFile(segmentIndex)), anyInt());
     }
 
     private File logFile(final long sessionId)
@@ -423,6 +507,20 @@ public class ReplayIndexTest extends AbstractLogTest
         return ReplayIndexDescriptor.replayIndexFile(DEFAULT_LOG_FILE_DIR, sessionId, STREAM_ID);
     }
 
+    private File replaySessionsFile(final int segmentIndex)
+    {
+        return ReplayIndexDescriptor.replaySessionsFile(DEFAULT_LOG_FILE_DIR, STREAM_ID, segmentIndex);
+    }
+
+    private void deleteReplaySessionsFiles()
+    {
+        File file;
+        for (int segmentIndex = 0; (file = replaySessionsFile(segmentIndex)).exists(); segmentIndex++)
+        {
+            IoUtil.delete(file, false);
+        }
+    }
+
     private void indexRecord()
     {
         indexRecord(1);
@@ -442,6 +540,35 @@ public class ReplayIndexTest extends AbstractLogTest
         }
     }
 
+    private void indexExampleMessageBatch(final int firstSequenceNumber, final int messageCount)
+    {
+        final UnsafeBuffer batchBuffer = new UnsafeBuffer(new byte[BIG_BUFFER_LENGTH]);
+        final IntArrayList messageLengths = new IntArrayList();
+        final LongArrayList messageTypes = new LongArrayList();
+
+        int batchLength = 0;
+        for (int i = 0; i < messageCount; i++)
+        {
+            final int sequenceNumber = firstSequenceNumber + i;
+            bufferContainsExampleMessage(false, SESSION_ID, sequenceNumber, SEQUENCE_INDEX);
+            batchBuffer.putBytes(batchLength, buffer, START + PREFIX_LENGTH, logEntryLength);
+            batchLength += logEntryLength;
+
+            messageLengths.addInt(logEntryLength);
+            messageTypes.addLong(ExampleMessageDecoder.MESSAGE_TYPE);
+        }
+
+        final GatewayPublication gatewayPublication = newGatewayPublication(publication);
+        while (gatewayPublication.saveFixMessageBatch(
+            batchBuffer, 0, messageLengths, messageTypes,
+            LIBRARY_ID, SESSION_ID, SEQUENCE_INDEX, CONNECTION_ID, 0) <= 0)
+        {
+            Thread.yield();
+        }
+
+        indexRecord();
+    }
+
     private long indexExampleMessage(final long sessionId, final int sequenceNumber, final int sequenceIndex)
     {
         return indexExampleMessage(sessionId, sequenceNumber, sequenceIndex, publication);
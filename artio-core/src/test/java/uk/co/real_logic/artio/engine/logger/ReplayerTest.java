@@ -45,6 +45,8 @@ import uk.co.real_logic.artio.engine.SenderSequenceNumbers;
 import uk.co.real_logic.artio.fields.EpochFractionFormat;
 import uk.co.real_logic.artio.fields.RejectReason;
 import uk.co.real_logic.artio.fields.UtcTimestampDecoder;
+import uk.co.real_logic.artio.messages.Bool;
+import uk.co.real_logic.artio.messages.FixMessageDecoder;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 import uk.co.real_logic.artio.messages.ReplayCompleteDecoder;
 import uk.co.real_logic.artio.util.AsciiBuffer;
@@ -163,6 +165,7 @@ public class ReplayerTest extends AbstractLogTest
         onFragment(srcLength);
 
         assertHasResentWithPossDupFlag(srcLength, times(1));
+        assertFrameHasPossDupFlag();
 
         replayer.doWork();
         replayer.doWork();
@@ -719,6 +722,22 @@ public class ReplayerTest extends AbstractLogTest
         assertEquals(message, msgSeqNum, header.msgSeqNum());
         assertEquals(newSeqNo, sequenceReset.newSeqNo());
         assertTrue(message, header.possDupFlag());
+        assertFrameHasPossDupFlag();
+    }
+
+    private void assertFrameHasPossDupFlag()
+    {
+        final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+        final FixMessageDecoder fixMessage = new FixMessageDecoder();
+
+        final int offset = offset();
+        messageHeader.wrap(resultBuffer, offset);
+        fixMessage.wrap(
+            resultBuffer,
+            offset + MessageHeaderDecoder.ENCODED_LENGTH,
+            messageHeader.blockLength(),
+            messageHeader.version());
+        assertEquals(Bool.TRUE, fixMessage.possDupFlag());
     }
 
     private void setupMessage(final int length)
@@ -138,6 +138,18 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         assertEquals(position, reader.indexedPosition(publication.sessionId()));
     }
 
+    @Test
+    public void shouldUseMsgSeqNumFromMessageFrameWhenPresent()
+    {
+        final int frameSequenceNumber = SEQUENCE_NUMBER + 3;
+        bufferContainsExampleMessage(true);
+        messageFrame.msgSeqNum(frameSequenceNumber);
+
+        indexRecord();
+
+        assertLastKnownSequenceNumberIs(SESSION_ID, frameSequenceNumber);
+    }
+
     @Test
     public void shouldStashSequenceNumbersAgainstASessionId()
     {
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+import uk.co.real_logic.artio.transcoding.messages.FixFieldIndexDecoder;
+import uk.co.real_logic.artio.transcoding.messages.MessageHeaderDecoder;
+
+import java.util.Collections;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.packMessageType;
+import static uk.co.real_logic.artio.library.FixMessageTranscoder.NOT_TRANSCODED;
+import static uk.co.real_logic.artio.util.TestMessages.EG_MESSAGE;
+import static uk.co.real_logic.artio.util.TestMessages.MSG_LEN;
+
+public class FieldIndexTranscoderTest
+{
+    private static final int OFFSET = 3;
+
+    private final FieldIndexTranscoder transcoder = new FieldIndexTranscoder(Collections.singleton("D"));
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[OFFSET + MSG_LEN]);
+    private final ExpandableArrayBuffer destination = new ExpandableArrayBuffer(8);
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final FixFieldIndexDecoder fieldIndex = new FixFieldIndexDecoder();
+
+    @Test
+    public void shouldIndexEveryFieldOfConfiguredMessageType()
+    {
+        buffer.putBytes(OFFSET, EG_MESSAGE);
+
+        final int length = transcoder.transcode(packMessageType("D"), buffer, OFFSET, MSG_LEN, destination);
+
+        header.wrap(destination, 0);
+        fieldIndex.wrap(destination, header.encodedLength(), header.blockLength(), header.version());
+        final FixFieldIndexDecoder.FieldsDecoder fields = fieldIndex.fields();
+        assertEquals(19, fields.count());
+
+        assertField(fields.next(), 8, "FIX.4.2");
+        assertField(fields.next(), 9, "146");
+        assertField(fields.next(), 35, "D");
+
+        FixFieldIndexDecoder.FieldsDecoder field = fields;
+        while (fields.hasNext())
+        {
+            field = fields.next();
+        }
+        assertField(field, 10, "195");
+
+        final FixFieldIndexDecoder.SlotsDecoder slots = fieldIndex.slots();
+        while (slots.hasNext())
+        {
+            slots.next();
+        }
+        assertEquals(length, fieldIndex.limit());
+    }
+
+    @Test
+    public void shouldLookUpFieldsByTag()
+    {
+        buffer.putBytes(OFFSET, EG_MESSAGE);
+        transcoder.transcode(packMessageType("D"), buffer, OFFSET, MSG_LEN, destination);
+
+        final FieldIndex index = new FieldIndex().wrap(destination, 0);
+
+        assertEquals(19, index.fieldCount());
+        assertValue(index, 8, "FIX.4.2");
+        assertValue(index, 35, "D");
+        assertValue(index, 55, "CVS");
+        assertValue(index, 10, "195");
+        assertEquals(FieldIndex.MISSING_FIELD, index.indexOf(58));
+    }
+
+    @Test
+    public void shouldLookUpFirstFieldWithRepeatedTag()
+    {
+        final byte[] message = "8=FIX.4.2\0019=20\00135=D\001448=a\001448=b\00110=195\001".getBytes(US_ASCII);
+        buffer.putBytes(OFFSET, message);
+        transcoder.transcode(packMessageType("D"), buffer, OFFSET, message.length, destination);
+
+        final FieldIndex index = new FieldIndex().wrap(destination, 0);
+
+        assertEquals(3, index.indexOf(448));
+        assertValue(index, 448, "a");
+        assertValue(index, 10, "195");
+    }
+
+    @Test
+    public void shouldNotTranscodeOtherMessageTypes()
+    {
+        buffer.putBytes(OFFSET, EG_MESSAGE);
+
+        assertEquals(NOT_TRANSCODED, transcoder.transcode(packMessageType("8"), buffer, OFFSET, MSG_LEN, destination));
+    }
+
+    @Test
+    public void shouldNotTranscodeMessagesWithNonNumericTags()
+    {
+        final byte[] message = "8=FIX.4.2\0019=20\00135=D\0014X=4\00110=195\001".getBytes(US_ASCII);
+        buffer.putBytes(OFFSET, message);
+
+        assertEquals(
+            NOT_TRANSCODED, transcoder.transcode(packMessageType("D"), buffer, OFFSET, message.length, destination));
+    }
+
+    @Test
+    public void shouldNotTranscodeMessagesWithEmptyTags()
+    {
+        final byte[] message = "8=FIX.4.2\0019=20\00135=D\001=4\00110=195\001".getBytes(US_ASCII);
+        buffer.putBytes(OFFSET, message);
+
+        assertEquals(
+            NOT_TRANSCODED, transcoder.transcode(packMessageType("D"), buffer, OFFSET, message.length, destination));
+    }
+
+    @Test
+    public void shouldIndexDataFieldsContainingStartOfHeader()
+    {
+        final byte[] message = "8=FIX.4.2\0019=20\00135=D\00195=5\00196=a\001b=c\00158=d\00110=195\001"
+            .getBytes(US_ASCII);
+        buffer.putBytes(OFFSET, message);
+
+        transcoder.transcode(packMessageType("D"), buffer, OFFSET, message.length, destination);
+
+        header.wrap(destination, 0);
+        fieldIndex.wrap(destination, header.encodedLength(), header.blockLength(), header.version());
+        final FixFieldIndexDecoder.FieldsDecoder fields = fieldIndex.fields();
+        assertEquals(7, fields.count());
+
+        fields.next();
+        fields.next();
+        fields.next();
+        assertField(fields.next(), 95, "5");
+        assertField(fields.next(), 96, "a\001b=c");
+        assertField(fields.next(), 58, "d");
+        assertField(fields.next(), 10, "195");
+    }
+
+    @Test
+    public void shouldNotTranscodeMessagesWithDataFieldsWithoutLengthField()
+    {
+        final byte[] message = "8=FIX.4.2\0019=20\00135=D\00196=a\001b=c\00110=195\001".getBytes(US_ASCII);
+        buffer.putBytes(OFFSET, message);
+
+        assertEquals(
+            NOT_TRANSCODED, transcoder.transcode(packMessageType("D"), buffer, OFFSET, message.length, destination));
+    }
+
+    @Test
+    public void shouldNotTranscodeMessagesWithDataFieldsLongerThanTheirLengthField()
+    {
+        final byte[] message = "8=FIX.4.2\0019=20\00135=D\00195=2\00196=abc\00110=195\001".getBytes(US_ASCII);
+        buffer.putBytes(OFFSET, message);
+
+        assertEquals(
+            NOT_TRANSCODED, transcoder.transcode(packMessageType("D"), buffer, OFFSET, message.length, destination));
+    }
+
+    @Test
+    public void shouldNotUseLengthFieldOfPreviousMessage()
+    {
+        final byte[] withLength = "8=FIX.4.2\0019=20\00135=D\00195=1\00196=a\00110=195\001".getBytes(US_ASCII);
+        buffer.putBytes(OFFSET, withLength);
+        transcoder.transcode(packMessageType("D"), buffer, OFFSET, withLength.length, destination);
+
+        final byte[] withoutLength = "8=FIX.4.2\0019=20\00135=D\00196=a\00110=195\001".getBytes(US_ASCII);
+        buffer.putBytes(OFFSET, withoutLength);
+
+        assertEquals(
+            NOT_TRANSCODED,
+            transcoder.transcode(packMessageType("D"), buffer, OFFSET, withoutLength.length, destination));
+    }
+
+    private void assertValue(final FieldIndex index, final int tag, final String value)
+    {
+        final int field = index.indexOf(tag);
+        assertEquals(tag, index.tag(field));
+        assertEquals(value, buffer.getStringWithoutLengthAscii(
+            OFFSET + index.valueOffset(field), index.valueLength(field)));
+    }
+
+    private void assertField(final FixFieldIndexDecoder.FieldsDecoder field, final int tag, final String value)
+    {
+        assertEquals(tag, field.tag());
+        assertEquals(value, buffer.getStringWithoutLengthAscii(OFFSET + field.valueOffset(), field.valueLength()));
+    }
+}
@@ -35,6 +35,7 @@ import uk.co.real_logic.artio.messages.SlowStatus;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.session.InternalSession;
 import uk.co.real_logic.artio.session.Session;
+import uk.co.real_logic.artio.timing.DutyCycleMonitor;
 import uk.co.real_logic.artio.timing.LibraryTimers;
 
 import java.util.List;
@@ -338,7 +339,8 @@ public class LibraryPollerTest
             counters,
             transport,
             fixLibrary,
-            clock);
+            clock,
+            DutyCycleMonitor.DISABLED);
     }
 
     private OngoingStubbing<Integer> whenPolled()
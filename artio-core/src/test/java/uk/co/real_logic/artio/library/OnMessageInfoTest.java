@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.collections.MutableInteger;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Test;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class OnMessageInfoTest
+{
+    private static final long MESSAGE_TYPE = 'D';
+
+    private final OnMessageInfo info = new OnMessageInfo();
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[8]);
+
+    @Test
+    public void shouldExposeTranscodedMessage()
+    {
+        info.messageToTranscode(
+            (messageType, buffer, offset, length, destination) ->
+            {
+                destination.putInt(0, length);
+                return SIZE_OF_INT;
+            },
+            MESSAGE_TYPE,
+            buffer,
+            2,
+            6);
+
+        assertTrue(info.hasTranscodedMessage());
+        assertEquals(SIZE_OF_INT, info.transcodedLength());
+        assertEquals(6, info.transcodedBuffer().getInt(0));
+    }
+
+    @Test
+    public void shouldNotExposeMessageThatWasNotTranscoded()
+    {
+        info.messageToTranscode(
+            (messageType, buffer, offset, length, destination) -> FixMessageTranscoder.NOT_TRANSCODED,
+            MESSAGE_TYPE,
+            buffer,
+            2,
+            6);
+
+        assertFalse(info.hasTranscodedMessage());
+    }
+
+    @Test
+    public void shouldOnlyTranscodeMessageWhenFirstUsed()
+    {
+        final MutableInteger transcodeCount = new MutableInteger();
+        info.messageToTranscode(
+            (messageType, buffer, offset, length, destination) ->
+            {
+                transcodeCount.increment();
+                return length;
+            },
+            MESSAGE_TYPE,
+            buffer,
+            0,
+            8);
+
+        assertEquals(0, transcodeCount.get());
+
+        assertTrue(info.hasTranscodedMessage());
+        assertEquals(8, info.transcodedLength());
+        info.transcodedBuffer();
+
+        assertEquals(1, transcodeCount.get());
+    }
+
+    @Test
+    public void shouldClearTranscodedMessage()
+    {
+        info.messageToTranscode(
+            (messageType, buffer, offset, length, destination) -> length, MESSAGE_TYPE, buffer, 0, 8);
+
+        info.clearTranscodedMessage();
+
+        assertFalse(info.hasTranscodedMessage());
+    }
+
+    @Test
+    public void shouldClearMessageThatWasTranscoded()
+    {
+        info.messageToTranscode(
+            (messageType, buffer, offset, length, destination) -> length, MESSAGE_TYPE, buffer, 0, 8);
+        assertTrue(info.hasTranscodedMessage());
+
+        info.clearTranscodedMessage();
+
+        assertFalse(info.hasTranscodedMessage());
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.collections.IntArrayList;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.session.InternalSession;
+import uk.co.real_logic.artio.session.SessionParser;
+import uk.co.real_logic.artio.timing.Timer;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class SessionSubscriberTest
+{
+    private static final int LIBRARY_ID = 1;
+    private static final int SEQUENCE_INDEX = 0;
+    private static final long MESSAGE_TYPE = 'X';
+    private static final long POSITION = 1024L;
+    private static final int MESSAGE_LENGTH = 8;
+    private static final int TRANSCODED_LENGTH = 16;
+
+    private final SessionParser parser = mock(SessionParser.class);
+    private final InternalSession session = mock(InternalSession.class);
+    private final SessionBatchHandler batchHandler = mock(SessionBatchHandler.class);
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[64]);
+    private final IntArrayList batchSizes = new IntArrayList();
+
+    private SessionSubscriber subscriber = newSubscriber(null);
+
+    @Before
+    public void setUp()
+    {
+        when(parser.onMessage(any(), anyInt(), anyInt(), anyLong(), anyLong())).thenReturn(CONTINUE);
+        givenTheBatchHandlerReturns(CONTINUE);
+    }
+
+    @Test
+    public void shouldPassBatchedMessagesToBatchHandlerInOneCallback()
+    {
+        subscriber.handler(batchHandler);
+
+        assertEquals(CONTINUE, onBatch(3));
+
+        verify(parser, times(3)).onMessage(any(), anyInt(), eq(MESSAGE_LENGTH), eq(MESSAGE_TYPE), eq(POSITION));
+        verify(batchHandler, never()).onMessage(
+            any(), anyInt(), anyInt(), anyInt(), any(), anyInt(), anyLong(), anyLong(), anyLong(), any());
+        assertEquals(1, batchSizes.size());
+        assertEquals(3, batchSizes.getInt(0));
+        verify(session).updateLastMessageProcessed();
+    }
+
+    @Test
+    public void shouldNotProcessMessagesOfAbortedBatchInSessionLayerAgain()
+    {
+        subscriber.handler(batchHandler);
+        givenTheBatchHandlerReturns(ABORT, CONTINUE);
+
+        assertEquals(ABORT, onBatch(2));
+        verify(session, never()).updateLastMessageProcessed();
+
+        assertEquals(CONTINUE, onBatch(3));
+
+        verify(parser, times(3)).onMessage(any(), anyInt(), anyInt(), anyLong(), anyLong());
+        assertEquals(2, batchSizes.size());
+        assertEquals(2, batchSizes.getInt(0));
+        assertEquals(3, batchSizes.getInt(1));
+        verify(session).updateLastMessageProcessed();
+    }
+
+    @Test
+    public void shouldPassMessagesProcessedBeforeSessionLayerIsBackPressured()
+    {
+        subscriber.handler(batchHandler);
+        when(parser.onMessage(any(), anyInt(), anyInt(), anyLong(), anyLong())).thenReturn(CONTINUE, ABORT);
+
+        subscriber.onMessageBatchStart();
+        assertEquals(CONTINUE, onMessage());
+        assertEquals(ABORT, onMessage());
+        assertEquals(CONTINUE, subscriber.onMessageBatchEnd(LIBRARY_ID, POSITION));
+
+        assertEquals(1, batchSizes.size());
+        assertEquals(1, batchSizes.getInt(0));
+    }
+
+    @Test
+    public void shouldPassBatchedMessagesToOtherHandlersOneAtATime()
+    {
+        final SessionHandler handler = mock(SessionHandler.class);
+        when(handler.onMessage(
+            any(), anyInt(), anyInt(), anyInt(), any(), anyInt(), anyLong(), anyLong(), anyLong(), any()))
+            .thenReturn(CONTINUE);
+        subscriber.handler(handler);
+
+        assertEquals(CONTINUE, onBatch(3));
+
+        verify(handler, times(3)).onMessage(
+            any(), anyInt(), eq(MESSAGE_LENGTH), eq(LIBRARY_ID), any(), eq(SEQUENCE_INDEX), eq(MESSAGE_TYPE),
+            anyLong(), eq(POSITION), any());
+    }
+
+    @Test
+    public void shouldOnlyTranscodeBatchedMessagesThatAreUsed()
+    {
+        final FixMessageTranscoder transcoder = mock(FixMessageTranscoder.class);
+        when(transcoder.transcode(anyLong(), any(), anyInt(), anyInt(), any())).thenReturn(TRANSCODED_LENGTH);
+        subscriber = newSubscriber(transcoder);
+        subscriber.handler(batchHandler);
+        when(batchHandler.onMessageBatch(anyInt(), any(), anyInt(), anyLong(), anyLong(), any())).thenAnswer(
+            (invocation) ->
+            {
+                final MessageBatch batch = invocation.getArgument(5);
+                assertTrue(batch.hasTranscodedMessage(1));
+                assertEquals(TRANSCODED_LENGTH, batch.transcodedLength(1));
+                return CONTINUE;
+            });
+
+        assertEquals(CONTINUE, onBatch(3));
+
+        verify(transcoder).transcode(eq(MESSAGE_TYPE), eq(buffer), eq(MESSAGE_LENGTH), eq(MESSAGE_LENGTH), any());
+        verifyNoMoreInteractions(transcoder);
+    }
+
+    private SessionSubscriber newSubscriber(final FixMessageTranscoder transcoder)
+    {
+        return new SessionSubscriber(
+            new OnMessageInfo(),
+            parser,
+            session,
+            mock(Timer.class),
+            mock(Timer.class),
+            mock(LibraryPoller.class),
+            transcoder);
+    }
+
+    // Each message of a batch is at its own offset, so that they can be told apart.
+    private Action onBatch(final int messageCount)
+    {
+        subscriber.onMessageBatchStart();
+        for (int i = 0; i < messageCount; i++)
+        {
+            assertEquals(CONTINUE, onMessage(i * MESSAGE_LENGTH));
+        }
+        return subscriber.onMessageBatchEnd(LIBRARY_ID, POSITION);
+    }
+
+    private Action onMessage()
+    {
+        return onMessage(0);
+    }
+
+    private Action onMessage(final int offset)
+    {
+        return subscriber.onMessage(
+            buffer, offset, MESSAGE_LENGTH, LIBRARY_ID, SEQUENCE_INDEX, MESSAGE_TYPE, 0L, MessageStatus.OK, POSITION);
+    }
+
+    // The batch is only valid during the callback, so record its size when it's passed
+    private void givenTheBatchHandlerReturns(final Action action, final Action... actions)
+    {
+        final Action[] results = new Action[actions.length + 1];
+        results[0] = action;
+        System.arraycopy(actions, 0, results, 1, actions.length);
+
+        when(batchHandler.onMessageBatch(anyInt(), any(), anyInt(), anyLong(), anyLong(), any())).thenAnswer(
+            (invocation) ->
+            {
+                final int attempt = batchSizes.size();
+                batchSizes.addInt(invocation.<MessageBatch>getArgument(5).size());
+                return results[Math.min(attempt, results.length - 1)];
+            });
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.protocol;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import io.aeron.logbuffer.Header;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import uk.co.real_logic.artio.messages.*;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.*;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.messages.FixMessageBatchEncoder.MessagesEncoder.fixMessageHeaderLength;
+
+public class ProtocolSubscriptionTest
+{
+    private static final int LIBRARY_ID = 2;
+    private static final long CONNECTION_ID = 3L;
+    private static final long SESSION_ID = 4L;
+    private static final long POSITION = 1024L;
+    private static final int MESSAGE_COUNT = 3;
+    private static final byte[] BODY = "35=X\001".getBytes(US_ASCII);
+
+    private final ProtocolHandler protocolHandler = mock(ProtocolHandler.class);
+    private final Header header = mock(Header.class);
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[1024]);
+    private final ProtocolSubscription subscription = ProtocolSubscription.of(protocolHandler);
+
+    private int batchLength;
+
+    @Before
+    public void setUp()
+    {
+        when(header.position()).thenReturn(POSITION);
+        givenTheHandlerReturns(CONTINUE);
+        when(protocolHandler.onMessageBatchEnd(anyInt(), anyLong(), anyLong())).thenReturn(CONTINUE);
+
+        batchLength = encodeBatch();
+    }
+
+    @Test
+    public void shouldPassEachMessageOfBatchBetweenBatchStartAndEnd()
+    {
+        assertEquals(CONTINUE, onBatch());
+
+        final InOrder inOrder = inOrder(protocolHandler);
+        inOrder.verify(protocolHandler).onMessageBatchStart(LIBRARY_ID, CONNECTION_ID);
+        for (int i = 0; i < MESSAGE_COUNT; i++)
+        {
+            verifyMessage(inOrder, i);
+        }
+        inOrder.verify(protocolHandler).onMessageBatchEnd(LIBRARY_ID, CONNECTION_ID, POSITION);
+        verifyNoMoreInteractions(protocolHandler);
+    }
+
+    @Test
+    public void shouldResumeBatchFromMessageAfterBreak()
+    {
+        givenTheHandlerReturns(BREAK, CONTINUE);
+
+        assertEquals(ABORT, onBatch());
+        verifyMessage(0);
+
+        reset(protocolHandler);
+        givenTheHandlerReturns(CONTINUE);
+        when(protocolHandler.onMessageBatchEnd(anyInt(), anyLong(), anyLong())).thenReturn(CONTINUE);
+
+        assertEquals(CONTINUE, onBatch());
+        verifyMessage(1);
+        verifyMessage(2);
+        verify(protocolHandler, never()).onMessage(
+            any(), anyInt(), anyInt(), anyInt(), anyLong(), anyLong(), anyInt(), anyLong(), anyLong(), any(),
+            eq(0), anyLong(), anyInt());
+    }
+
+    @Test
+    public void shouldBreakWhenLastMessageOfBatchBreaks()
+    {
+        givenTheHandlerReturns(CONTINUE, CONTINUE, BREAK);
+
+        assertEquals(BREAK, onBatch());
+    }
+
+    @Test
+    public void shouldResumeBatchFromAbortedMessage()
+    {
+        givenTheHandlerReturns(CONTINUE, ABORT);
+
+        assertEquals(ABORT, onBatch());
+
+        reset(protocolHandler);
+        givenTheHandlerReturns(CONTINUE);
+        when(protocolHandler.onMessageBatchEnd(anyInt(), anyLong(), anyLong())).thenReturn(CONTINUE);
+
+        assertEquals(CONTINUE, onBatch());
+        verifyMessage(1);
+        verifyMessage(2);
+        verify(protocolHandler, never()).onMessage(
+            any(), anyInt(), anyInt(), anyInt(), anyLong(), anyLong(), anyInt(), anyLong(), anyLong(), any(),
+            eq(0), anyLong(), anyInt());
+    }
+
+    @Test
+    public void shouldRedeliverWholeBatchWhenBatchEndAborts()
+    {
+        when(protocolHandler.onMessageBatchEnd(anyInt(), anyLong(), anyLong())).thenReturn(ABORT, CONTINUE);
+
+        assertEquals(ABORT, onBatch());
+        assertEquals(CONTINUE, onBatch());
+
+        for (int i = 0; i < MESSAGE_COUNT; i++)
+        {
+            verify(protocolHandler, times(2)).onMessage(
+                any(), anyInt(), anyInt(), eq(LIBRARY_ID), eq(CONNECTION_ID), eq(SESSION_ID), anyInt(), anyLong(),
+                anyLong(), eq(MessageStatus.OK), eq(i), eq(POSITION), anyInt());
+        }
+    }
+
+    private Action onBatch()
+    {
+        return subscription.onFragment(buffer, 0, batchLength, header);
+    }
+
+    private void givenTheHandlerReturns(final Action action, final Action... actions)
+    {
+        when(protocolHandler.onMessage(
+            any(), anyInt(), anyInt(), anyInt(), anyLong(), anyLong(), anyInt(), anyLong(), anyLong(), any(),
+            anyInt(), anyLong(), anyInt())).thenReturn(action, actions);
+    }
+
+    private void verifyMessage(final int sequenceNumber)
+    {
+        verify(protocolHandler).onMessage(
+            eq(buffer), anyInt(), eq(BODY.length), eq(LIBRARY_ID), eq(CONNECTION_ID), eq(SESSION_ID), anyInt(),
+            anyLong(), anyLong(), eq(MessageStatus.OK), eq(sequenceNumber), eq(POSITION), eq(0));
+    }
+
+    private void verifyMessage(final InOrder inOrder, final int sequenceNumber)
+    {
+        inOrder.verify(protocolHandler).onMessage(
+            eq(buffer), anyInt(), eq(BODY.length), eq(LIBRARY_ID), eq(CONNECTION_ID), eq(SESSION_ID), anyInt(),
+            anyLong(), anyLong(), eq(MessageStatus.OK), eq(sequenceNumber), eq(POSITION), eq(0));
+    }
+
+    // Each message's sequenceNumber is its index within the batch, so that they can be told apart.
+    private int encodeBatch()
+    {
+        final MessageHeaderEncoder header = new MessageHeaderEncoder();
+        final FixMessageBatchEncoder batch = new FixMessageBatchEncoder();
+        final FixMessageEncoder fixMessage = new FixMessageEncoder();
+
+        final FixMessageBatchEncoder.MessagesEncoder messages = batch
+            .wrapAndApplyHeader(buffer, 0, header)
+            .libraryId(LIBRARY_ID)
+            .connection(CONNECTION_ID)
+            .session(SESSION_ID)
+            .messagesCount(MESSAGE_COUNT);
+
+        for (int i = 0; i < MESSAGE_COUNT; i++)
+        {
+            messages.next();
+            final int lengthOffset = batch.limit();
+            final int frameOffset = lengthOffset + fixMessageHeaderLength();
+
+            fixMessage
+                .wrapAndApplyHeader(buffer, frameOffset, header)
+                .libraryId(LIBRARY_ID)
+                .messageType('X')
+                .session(SESSION_ID)
+                .sequenceIndex(0)
+                .connection(CONNECTION_ID)
+                .timestamp(0)
+                .status(MessageStatus.OK)
+                .sequenceNumber(i)
+                .msgSeqNum(i + 1)
+                .possDupFlag(Bool.FALSE)
+                .metaDataUpdateOffset(0)
+                .putMetaData(new byte[0], 0, 0)
+                .putBody(BODY, 0, BODY.length);
+
+            final int frameEnd = fixMessage.limit();
+            buffer.putInt(lengthOffset, frameEnd - frameOffset, LITTLE_ENDIAN);
+            batch.limit(frameEnd);
+        }
+
+        return batch.encodedLength() + MessageHeaderEncoder.ENCODED_LENGTH;
+    }
+}
@@ -110,7 +110,9 @@ public abstract class AbstractSessionTest
             any(),
             anyInt(),
             eq((DirectBuffer)null),
-            eq(0))).thenReturn(POSITION);
+            eq(0),
+            anyInt(),
+            any())).thenReturn(POSITION);
 
         when(sessionProxy.sendResendRequest(anyInt(), anyInt(), anyInt(), eq(SEQUENCE_INDEX), anyInt()))
             .thenReturn(POSITION);
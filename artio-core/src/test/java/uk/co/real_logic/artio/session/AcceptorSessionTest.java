@@ -79,6 +79,32 @@ public class AcceptorSessionTest extends AbstractSessionTest
         assertEquals(CONNECTED, session.state());
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotSendFromOtherThreadThanPollingThreadWithSharedSessionBuffers()
+    {
+        onLogon(1);
+
+        final SharedSessionBuffers sharedSessionBuffers = new SharedSessionBuffers(1024);
+        sharedSessionBuffers.pollingThread(new Thread());
+        session.sharedSessionBuffers(sharedSessionBuffers);
+
+        session.startLogout();
+    }
+
+    @Test
+    public void shouldSendFromPollingThreadWithSharedSessionBuffers()
+    {
+        onLogon(1);
+
+        final SharedSessionBuffers sharedSessionBuffers = new SharedSessionBuffers(1024);
+        sharedSessionBuffers.pollingThread(Thread.currentThread());
+        session.sharedSessionBuffers(sharedSessionBuffers);
+
+        session.startLogout();
+
+        verify(sessionProxy).sendLogout(anyInt(), anyInt(), anyInt());
+    }
+
     @Test
     public void shouldBeActivatedBySuccessfulLogin()
     {
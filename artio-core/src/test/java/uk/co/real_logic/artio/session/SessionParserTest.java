@@ -31,6 +31,7 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.Constants.TARGET_COMP_ID;
 import static uk.co.real_logic.artio.dictionary.generation.CodecUtil.MISSING_INT;
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.packMessageType;
 
 public class SessionParserTest
 {
@@ -76,6 +77,29 @@ public class SessionParserTest
         verify(mockSession).onInvalidMessageType(eq(2), any(char[].class), anyInt(), eq(POSITION));
     }
 
+    @Test
+    public void shouldNotifySessionOfMessageTypeNotInDictionary()
+    {
+        final UnsafeBuffer buffer = bufferOf(
+            "8=FIX.4.4\00135=ZZ\00134=2\00149=abc\00152=00000101-00:00:00.000\00156=das\001");
+
+        parser.onMessage(buffer, 0, buffer.capacity(), packMessageType("ZZ"), POSITION);
+
+        verify(mockSession).onMessage(
+            eq(2), any(), eq(2), anyLong(), anyLong(), eq(false), eq(false), eq(POSITION));
+    }
+
+    @Test
+    public void shouldValidateMessageTypeLongerThanDictionaryMessageTypeItStartsWith()
+    {
+        final UnsafeBuffer buffer = bufferOf(
+            "8=FIX.4.4\00135=BE*\00134=2\00149=abc\00152=00000101-00:00:00.000\00156=das\001");
+
+        parser.onMessage(buffer, 0, buffer.capacity(), packMessageType("BE"), POSITION);
+
+        verify(mockSession).onInvalidMessageType(eq(2), any(char[].class), eq(3), eq(POSITION));
+    }
+
     @Test
     public void shouldValidateCompId()
     {
@@ -99,6 +123,21 @@ public class SessionParserTest
         verify(mockSession, never()).onInvalidMessageType(anyInt(), any(), anyInt(), eq(POSITION));
     }
 
+    @Test
+    public void shouldShareHeaderOfApplicationMessage()
+    {
+        final String header =
+            "8=FIX.4.4\0019=146\00135=D\00134=4\00143=Y\00149=abc\00152=20090323-15:40:29\00156=das\001";
+        final UnsafeBuffer buffer = bufferOf(header +
+            "11=NF 0542/03232009\00154=1\00138=100\00155=CVS\00140=1\00160=20090323-15:40:29\00110=195\001");
+
+        parser.onMessage(buffer, 0, buffer.capacity(), 'D', POSITION);
+
+        verify(messageInfo).header(eq(header.length()), eq(4), anyLong(), eq(true));
+        verify(mockSession).onMessage(
+            eq(4), any(), anyInt(), anyLong(), anyLong(), eq(true), eq(true), eq(POSITION));
+    }
+
     private UnsafeBuffer bufferOf(final String str)
     {
         return new UnsafeBuffer(str.getBytes(US_ASCII));
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.timing;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Test;
+import uk.co.real_logic.artio.CommonConfiguration;
+import uk.co.real_logic.artio.FixCounters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class DutyCycleMonitorTest
+{
+    private static final long PUBLICATION_PERIOD_IN_MS = 1000;
+    private static final long STALL_THRESHOLD_IN_NS = 100;
+    private static final String[] STEPS = { "first", "second", "third" };
+
+    private final UnsafeBuffer counterBuffer = new UnsafeBuffer(new byte[4096]);
+    private final AtomicCounter maxTime = new AtomicCounter(counterBuffer, 0);
+    private final AtomicCounter p999Time = new AtomicCounter(counterBuffer, 1);
+    private final AtomicCounter stalls = new AtomicCounter(counterBuffer, 2);
+    private final AtomicCounter stallStep = new AtomicCounter(counterBuffer, 3);
+    private final FixCounters fixCounters = mock(FixCounters.class);
+
+    private long nanoTime = 0;
+    private long epochTime = 0;
+
+    {
+        when(fixCounters.dutyCycleMaxTime(anyString())).thenReturn(maxTime);
+        when(fixCounters.dutyCycleP999Time(anyString())).thenReturn(p999Time);
+        when(fixCounters.dutyCycleStalls(anyString())).thenReturn(stalls);
+        when(fixCounters.dutyCycleStallStep(anyString(), any())).thenReturn(stallStep);
+    }
+
+    @Test
+    public void shouldNotMonitorWhenDisabled()
+    {
+        final DutyCycleMonitors monitors = newMonitors(new CommonConfiguration());
+
+        assertSame(DutyCycleMonitor.DISABLED, monitors.newMonitor("agent", STEPS));
+        verifyNoInteractions(fixCounters);
+    }
+
+    @Test
+    public void shouldRecordMaxCycleTime()
+    {
+        final DutyCycleMonitor monitor = newMonitors(new CommonConfiguration().dutyCycleMonitoring(true))
+            .newMonitor("agent", STEPS);
+
+        cycle(monitor, 10, 20, 30);
+        cycle(monitor, 5, 5, 5);
+
+        assertEquals(60, maxTime.get());
+        assertEquals(0, stalls.get());
+        // The agent's own max cycle time counter is allocated by its DutyCycleTrackingAgent
+        verify(fixCounters, never()).agentMaxCycleTime(anyString());
+    }
+
+    @Test
+    public void shouldRecordSlowestStepOfStall()
+    {
+        final DutyCycleMonitor monitor = newMonitors(new CommonConfiguration()
+            .dutyCycleMonitoring(true)
+            .dutyCycleStallThresholdInNs(STALL_THRESHOLD_IN_NS))
+            .newMonitor("agent", STEPS);
+
+        cycle(monitor, 10, 10, 10);
+        assertEquals(0, stalls.get());
+        assertEquals(DutyCycleMonitor.NO_STEP, stallStep.get());
+
+        cycle(monitor, 10, 150, 10);
+        assertEquals(1, stalls.get());
+        assertEquals("second", monitor.stepName((int)stallStep.get()));
+
+        cycle(monitor, 10, 10, 150);
+        assertEquals(2, stalls.get());
+        assertEquals("third", monitor.stepName((int)stallStep.get()));
+    }
+
+    @Test
+    public void shouldPublishPercentilePeriodically()
+    {
+        final DutyCycleMonitors monitors = newMonitors(new CommonConfiguration()
+            .dutyCycleMonitoring(true)
+            .histogramPollPeriodInMs(PUBLICATION_PERIOD_IN_MS));
+        final DutyCycleMonitor monitor = monitors.newMonitor("agent", STEPS);
+
+        for (int i = 0; i < 2000; i++)
+        {
+            cycle(monitor, 1, 1, 1);
+        }
+        cycle(monitor, 1000, 1000, 1000);
+
+        assertEquals(0, monitors.doWork());
+        assertEquals(0, p999Time.get());
+
+        epochTime += PUBLICATION_PERIOD_IN_MS;
+        assertEquals(1, monitors.doWork());
+        assertEquals(3, p999Time.get());
+        assertEquals(3000, maxTime.get());
+    }
+
+    private DutyCycleMonitors newMonitors(final CommonConfiguration configuration)
+    {
+        return new DutyCycleMonitors(configuration, fixCounters, () -> nanoTime, () -> epochTime);
+    }
+
+    private void cycle(final DutyCycleMonitor monitor, final long... stepTimes)
+    {
+        monitor.startCycle();
+        for (final long stepTime : stepTimes)
+        {
+            nanoTime += stepTime;
+            monitor.step(1);
+        }
+        monitor.endCycle();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.dictionary.CharArrayMap;
+import uk.co.real_logic.artio.dictionary.CharArrayWrapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the generated switch based decode of a String enum with looking values up in a {@link CharArrayMap}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class EnumDecodeBenchmark
+{
+    private static final String[] REPRESENTATIONS = { "8", "D", "0", "BE", "A", "XX" };
+
+    private final CharArrayWrapper wrapper = new CharArrayWrapper();
+
+    // Deliberately not static/final
+    private char[][] keys;
+    private CharArrayMap<MsgType> charMap;
+
+    @Setup
+    public void setup()
+    {
+        keys = new char[REPRESENTATIONS.length][];
+        for (int i = 0; i < REPRESENTATIONS.length; i++)
+        {
+            keys[i] = REPRESENTATIONS[i].toCharArray();
+        }
+
+        final Map<String, MsgType> stringMap = new HashMap<>();
+        for (final MsgType msgType : MsgType.values())
+        {
+            if (msgType != MsgType.NULL_VAL && msgType != MsgType.ARTIO_UNKNOWN)
+            {
+                stringMap.put(msgType.representation(), msgType);
+            }
+        }
+        charMap = new CharArrayMap<>(stringMap);
+    }
+
+    @Benchmark
+    public void switchDecode(final Blackhole bh)
+    {
+        final CharArrayWrapper wrapper = this.wrapper;
+        for (final char[] key : keys)
+        {
+            wrapper.wrap(key, key.length);
+            bh.consume(MsgType.decode(wrapper));
+        }
+    }
+
+    @Benchmark
+    public void charArrayMapDecode(final Blackhole bh)
+    {
+        final CharArrayWrapper wrapper = this.wrapper;
+        final CharArrayMap<MsgType> charMap = this.charMap;
+        for (final char[] key : keys)
+        {
+            wrapper.wrap(key, key.length);
+            final MsgType value = charMap.get(wrapper);
+            bh.consume(value == null ? MsgType.ARTIO_UNKNOWN : value);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.ExpandableArrayBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.co.real_logic.artio.dictionary.LongDictionary;
+import uk.co.real_logic.artio.library.FieldIndex;
+import uk.co.real_logic.artio.library.FieldIndexTranscoder;
+import uk.co.real_logic.artio.otf.OtfParser;
+import uk.co.real_logic.artio.otf.OtfTagFilter;
+import uk.co.real_logic.artio.transcoding.messages.FixFieldIndexDecoder;
+import uk.co.real_logic.artio.transcoding.messages.MessageHeaderDecoder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.packMessageType;
+
+/**
+ * Compares several pieces of handler code each re-parsing a message in order to read a few of its fields with
+ * indexing the message once, using the {@link FieldIndexTranscoder}, and reading the fields from the index, either
+ * by scanning it or by looking each tag up with a {@link FieldIndex}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FieldIndexTranscoderBenchmark
+{
+    private static final long NEW_ORDER_SINGLE = packMessageType("D");
+    private static final int CL_ORD_ID = 11;
+    private static final int ORDER_QTY = 38;
+    private static final int SYMBOL = 55;
+
+    @Param({"1", "3"})
+    private int readers;
+
+    // Deliberately not static/final
+    private UnsafeBuffer buffer = TestData.NEW_ORDER_SINGLE;
+
+    private final FieldIndexTranscoder transcoder = new FieldIndexTranscoder(Collections.singleton("D"));
+    private final ExpandableArrayBuffer transcodedBuffer = new ExpandableArrayBuffer();
+    private final MessageHeaderDecoder header = new MessageHeaderDecoder();
+    private final FixFieldIndexDecoder fieldIndex = new FixFieldIndexDecoder();
+    private final FieldIndex fieldLookup = new FieldIndex();
+
+    private OtfParser parser;
+
+    @Setup
+    public void setup(final Blackhole bh)
+    {
+        parser = new OtfParser(
+            new OtfBlackHoleAcceptor(bh), new LongDictionary(), new OtfTagFilter(CL_ORD_ID, ORDER_QTY, SYMBOL));
+    }
+
+    @Benchmark
+    public void parsePerReader()
+    {
+        final UnsafeBuffer buffer = this.buffer;
+        for (int i = 0; i < readers; i++)
+        {
+            parser.onMessage(buffer, 0, buffer.capacity());
+        }
+    }
+
+    @Benchmark
+    public void transcodeOnceThenReadIndexPerReader(final Blackhole bh)
+    {
+        final UnsafeBuffer buffer = this.buffer;
+        final ExpandableArrayBuffer transcodedBuffer = this.transcodedBuffer;
+        transcoder.transcode(NEW_ORDER_SINGLE, buffer, 0, buffer.capacity(), transcodedBuffer);
+
+        for (int i = 0; i < readers; i++)
+        {
+            header.wrap(transcodedBuffer, 0);
+            fieldIndex.wrap(transcodedBuffer, header.encodedLength(), header.blockLength(), header.version());
+            for (final FixFieldIndexDecoder.FieldsDecoder field : fieldIndex.fields())
+            {
+                final int tag = field.tag();
+                if (tag == CL_ORD_ID || tag == ORDER_QTY || tag == SYMBOL)
+                {
+                    bh.consume(tag);
+                    bh.consume(field.valueOffset());
+                    bh.consume(field.valueLength());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void transcodeOnceThenLookUpFieldsPerReader(final Blackhole bh)
+    {
+        final UnsafeBuffer buffer = this.buffer;
+        final ExpandableArrayBuffer transcodedBuffer = this.transcodedBuffer;
+        transcoder.transcode(NEW_ORDER_SINGLE, buffer, 0, buffer.capacity(), transcodedBuffer);
+
+        for (int i = 0; i < readers; i++)
+        {
+            final FieldIndex fieldLookup = this.fieldLookup.wrap(transcodedBuffer, 0);
+            lookUp(fieldLookup, CL_ORD_ID, bh);
+            lookUp(fieldLookup, ORDER_QTY, bh);
+            lookUp(fieldLookup, SYMBOL, bh);
+        }
+    }
+
+    private static void lookUp(final FieldIndex fieldLookup, final int tag, final Blackhole bh)
+    {
+        final int index = fieldLookup.indexOf(tag);
+        if (index != FieldIndex.MISSING_FIELD)
+        {
+            bh.consume(fieldLookup.valueOffset(index));
+            bh.consume(fieldLookup.valueLength(index));
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.openjdk.jmh.annotations.*;
 import org.openjdk.jmh.infra.Blackhole;
 import uk.co.real_logic.artio.dictionary.LongDictionary;
 import uk.co.real_logic.artio.otf.OtfParser;
+import uk.co.real_logic.artio.otf.OtfTagFilter;
 
 import java.util.concurrent.TimeUnit;
 
@@ -33,17 +34,28 @@ public class OtfParserBenchmark
 {
     // Deliberately not static/final
     private UnsafeBuffer buffer = TestData.NEW_ORDER_SINGLE;
+    private UnsafeBuffer wideBuffer = TestData.WIDE_NEW_ORDER_SINGLE;
 
     private OtfParser blackholeParser;
     private OtfParser noBlackholeParser;
     private OtfParser inlinableParser;
 
+    // Interested in a few fields of the body, so parsing stops before the trailing custom fields.
+    private OtfParser filteredParser;
+
+    // Interested in a field that isn't in the message, so every field is parsed but few are dispatched.
+    private OtfParser filteredMissingTagParser;
+
     @Setup
     public void setup(final Blackhole bh)
     {
         blackholeParser = new OtfParser(new OtfBlackHoleAcceptor(bh), new LongDictionary());
         noBlackholeParser = new OtfParser(new OtfNoBlackHoleAcceptor(), new LongDictionary());
         inlinableParser = new OtfParser(new OtfInlineableAcceptor(), new LongDictionary());
+        filteredParser = new OtfParser(
+            new OtfNoBlackHoleAcceptor(), new LongDictionary(), new OtfTagFilter(35, 11, 54, 38, 55));
+        filteredMissingTagParser = new OtfParser(
+            new OtfNoBlackHoleAcceptor(), new LongDictionary(), new OtfTagFilter(35, 11, 54, 38, 55, 9999));
     }
 
     @Benchmark
@@ -63,4 +75,22 @@ public class OtfParserBenchmark
     {
         inlinableParser.onMessage(buffer, 0, buffer.capacity());
     }
+
+    @Benchmark
+    public void wideNewOrderSingleNoBlackHole()
+    {
+        noBlackholeParser.onMessage(wideBuffer, 0, wideBuffer.capacity());
+    }
+
+    @Benchmark
+    public void wideNewOrderSingleFiltered()
+    {
+        filteredParser.onMessage(wideBuffer, 0, wideBuffer.capacity());
+    }
+
+    @Benchmark
+    public void wideNewOrderSingleFilteredMissingTag()
+    {
+        filteredMissingTagParser.onMessage(wideBuffer, 0, wideBuffer.capacity());
+    }
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import io.aeron.logbuffer.Header;
+import io.aeron.protocol.DataHeaderFlyweight;
+import org.agrona.IoUtil;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.engine.logger.LoggerUtil;
+import uk.co.real_logic.artio.engine.logger.RecordingIdLookup;
+import uk.co.real_logic.artio.engine.logger.ReplayIndex;
+import uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor;
+import uk.co.real_logic.artio.messages.Bool;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.session.Session;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.logbuffer.FrameDescriptor.UNFRAGMENTED;
+import static io.aeron.logbuffer.LogBufferDescriptor.positionBitsToShift;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_REPLAY_INDEX_FILE_SIZE;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_REPLAY_INDEX_SESSIONS_PER_FILE;
+
+/**
+ * Measures the cost of indexing an inbound message in the {@link ReplayIndex} when messages are interleaved across
+ * a number of active sessions, from fewer than share a replay index file to many files' worth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReplayIndexBenchmark
+{
+    private static final int STREAM_ID = 1;
+    private static final int AERON_SESSION_ID = 2;
+    private static final long RECORDING_ID = 3;
+    private static final int TERM_LENGTH = 64 * 1024;
+    private static final byte[] BODY = ("8=FIX.4.4\0019=59\00135=0\00149=INITIATOR\00156=ACCEPTOR\00134=1\001" +
+        "52=20200101-00:00:00.000\00110=000\001").getBytes(US_ASCII);
+
+    @Param({"1", "32", "1024"})
+    int activeSessions;
+
+    private final Header header = new Header(0, positionBitsToShift(TERM_LENGTH));
+    private File logFileDir;
+    private ReplayIndex replayIndex;
+    private UnsafeBuffer messages;
+    private int messageLength;
+    private int session;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        logFileDir = Files.createTempDirectory("replay-index-benchmark").toFile();
+        final String logFileDirPath = logFileDir.getAbsolutePath();
+
+        replayIndex = new ReplayIndex(
+            logFileDirPath,
+            STREAM_ID,
+            DEFAULT_REPLAY_INDEX_FILE_SIZE,
+            DEFAULT_REPLAY_INDEX_SESSIONS_PER_FILE,
+            LoggerUtil::map,
+            ReplayIndexDescriptor.replayPositionBuffer(logFileDirPath, STREAM_ID),
+            Throwable::printStackTrace,
+            new RecordingIdLookup(new NoOpIdleStrategy(), null)
+            {
+                public long getRecordingId(final int aeronSessionId)
+                {
+                    return RECORDING_ID;
+                }
+            },
+            new Long2LongHashMap(Session.UNKNOWN));
+
+        final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
+        final FixMessageEncoder fixMessage = new FixMessageEncoder();
+        messageLength = MessageHeaderEncoder.ENCODED_LENGTH + FixMessageEncoder.BLOCK_LENGTH +
+            FixMessageEncoder.metaDataHeaderLength() + FixMessageEncoder.bodyHeaderLength() + BODY.length;
+        messages = new UnsafeBuffer(new byte[activeSessions * messageLength]);
+        for (int i = 0; i < activeSessions; i++)
+        {
+            fixMessage
+                .wrapAndApplyHeader(messages, i * messageLength, headerEncoder)
+                .libraryId(1)
+                .messageType(0)
+                .session(i)
+                .sequenceIndex(0)
+                .connection(i)
+                .timestamp(0)
+                .status(MessageStatus.OK)
+                .sequenceNumber(1)
+                .msgSeqNum(1)
+                .possDupFlag(Bool.NULL_VAL)
+                .putMetaData(new byte[0], 0, 0)
+                .putBody(BODY, 0, BODY.length);
+        }
+
+        final UnsafeBuffer termBuffer = new UnsafeBuffer(new byte[DataHeaderFlyweight.HEADER_LENGTH]);
+        final DataHeaderFlyweight dataHeader = new DataHeaderFlyweight(termBuffer);
+        dataHeader
+            .termOffset(0)
+            .sessionId(AERON_SESSION_ID)
+            .streamId(STREAM_ID)
+            .termId(0);
+        dataHeader
+            .frameLength(DataHeaderFlyweight.HEADER_LENGTH + messageLength)
+            .flags(UNFRAGMENTED);
+        header.buffer(termBuffer);
+        header.offset(0);
+
+        // Allocate each session's slot up front so that the measurement is of steady state indexing.
+        for (int i = 0; i < activeSessions; i++)
+        {
+            indexMessage();
+        }
+    }
+
+    @Benchmark
+    public int indexMessage()
+    {
+        final int session = this.session;
+        replayIndex.onCatchup(messages, session * messageLength, messageLength, header, RECORDING_ID);
+        this.session = session + 1 == activeSessions ? 0 : session + 1;
+        return session;
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        replayIndex.close();
+        IoUtil.delete(logFileDir, true);
+    }
+}
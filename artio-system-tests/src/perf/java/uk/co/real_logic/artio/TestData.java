@@ -31,4 +31,28 @@ public final class TestData
         ("8=FIX.4.4\0019=0103\00135=A\00149=ABC_DEFG01\00156=CCG\00134=10\001" +
         "52=20150514-15:57:31.336\00198=0\001108=10\001383=512\001553=username" +
         "\001554=password\00110=243\001").getBytes(StandardCharsets.US_ASCII));
+
+    // A NewOrderSingle with a hundred extra custom fields at the end of its body.
+    public static final UnsafeBuffer WIDE_NEW_ORDER_SINGLE = wideNewOrderSingle(100);
+
+    private static UnsafeBuffer wideNewOrderSingle(final int extraFields)
+    {
+        final StringBuilder body = new StringBuilder(
+            "35=D\00134=4\00149=ABC_DEFG01\00152=20090323-15:40:29\00156=CCG\001115=XYZ\00111=NF 0542/03232009" +
+            "\00154=1\00138=100\00155=CVS\00140=1\00159=0\00147=A\00160=20090323-15:40:29\00121=1\001207=N\001");
+        for (int i = 0; i < extraFields; i++)
+        {
+            body.append(5000 + i).append("=VALUE").append(i).append('\001');
+        }
+
+        final String message = "8=FIX.4.2\0019=" + body.length() + "\001" + body;
+        int checksum = 0;
+        for (int i = 0; i < message.length(); i++)
+        {
+            checksum += message.charAt(i);
+        }
+
+        return new UnsafeBuffer(
+            (message + String.format("10=%03d\001", checksum % 256)).getBytes(StandardCharsets.US_ASCII));
+    }
 }
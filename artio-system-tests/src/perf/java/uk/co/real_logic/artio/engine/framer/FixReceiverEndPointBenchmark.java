@@ -0,0 +1,237 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import io.aeron.Aeron;
+import io.aeron.ExclusivePublication;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import io.aeron.logbuffer.FragmentHandler;
+import org.agrona.CloseHelper;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.YieldingIdleStrategy;
+import org.agrona.concurrent.status.CountersManager;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.Clock;
+import uk.co.real_logic.artio.dictionary.FixDictionary;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.engine.MappedFile;
+import uk.co.real_logic.artio.fields.EpochFractionFormat;
+import uk.co.real_logic.artio.messages.ConnectionType;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SESSION_ID_BUFFER_SIZE;
+
+/**
+ * Measures the cost of framing a read of inbound messages on the Framer thread, including publishing them, for
+ * engine managed sessions, whose header is scanned for the MsgSeqNum and PossDupFlag, and library owned sessions,
+ * whose header isn't. Run it on both sides of a change to the receiver end point in order to check that framing
+ * doesn't regress.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FixReceiverEndPointBenchmark
+{
+    private static final String CHANNEL = "aeron:ipc";
+    private static final int STREAM_ID = 1;
+    private static final long CONNECTION_ID = 1;
+    private static final long SESSION_ID = 2;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MESSAGES_PER_READ = 16;
+
+    @Param({"true", "false"})
+    boolean engineManaged;
+
+    private final FragmentHandler discardHandler = (buffer, offset, length, header) -> {};
+
+    private File sessionIdFile;
+    private MediaDriver mediaDriver;
+    private Aeron aeron;
+    private Subscription subscription;
+    private ServerSocketChannel serverChannel;
+    private SocketChannel acceptedChannel;
+    private TcpChannel channel;
+    private FixReceiverEndPoint endPoint;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        mediaDriver = MediaDriver.launchEmbedded(new MediaDriver.Context()
+            .threadingMode(ThreadingMode.SHARED)
+            .dirDeleteOnStart(true));
+        aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(mediaDriver.aeronDirectoryName()));
+        final ExclusivePublication publication = aeron.addExclusivePublication(CHANNEL, STREAM_ID);
+        subscription = aeron.addSubscription(CHANNEL, STREAM_ID);
+        while (!publication.isConnected())
+        {
+            Thread.yield();
+        }
+
+        final CountersManager countersManager = new CountersManager(
+            new UnsafeBuffer(ByteBuffer.allocateDirect(64 * 1024)),
+            new UnsafeBuffer(ByteBuffer.allocateDirect(4 * 1024)));
+        final ErrorHandler errorHandler = Throwable::printStackTrace;
+        final Clock clock = Clock.systemNanoTime();
+        final GatewayPublication gatewayPublication = new GatewayPublication(
+            publication, countersManager.newCounter("fails"), new YieldingIdleStrategy(), clock, 1);
+
+        sessionIdFile = Files.createTempFile("receiver-end-point-benchmark", "session-ids").toFile();
+        final SessionContexts sessionContexts = new SessionContexts(
+            MappedFile.map(sessionIdFile, DEFAULT_SESSION_ID_BUFFER_SIZE),
+            SessionIdStrategy.senderAndTarget(),
+            0,
+            errorHandler);
+        final GatewaySessions gatewaySessions = new GatewaySessions(
+            null,
+            gatewayPublication,
+            gatewayPublication,
+            SessionIdStrategy.senderAndTarget(),
+            null,
+            null,
+            new EngineConfiguration(),
+            errorHandler,
+            sessionContexts,
+            null,
+            null,
+            null,
+            EpochFractionFormat.MILLISECONDS);
+        final FixDictionary fixDictionary = FixDictionary.of(FixDictionary.findDefault());
+
+        serverChannel = ServerSocketChannel.open().bind(new InetSocketAddress("localhost", 0));
+        final SocketChannel socketChannel = SocketChannel.open(serverChannel.getLocalAddress());
+        acceptedChannel = serverChannel.accept();
+        channel = new ReplayingTcpChannel(socketChannel, newMessages(MESSAGES_PER_READ));
+
+        endPoint = new FixReceiverEndPoint(
+            channel,
+            BUFFER_SIZE,
+            BUFFER_SIZE,
+            BUFFER_SIZE,
+            countersManager.newCounter("bytesRead"),
+            countersManager.newCounter("bufferSize"),
+            gatewayPublication,
+            CONNECTION_ID,
+            SESSION_ID,
+            0,
+            sessionContexts,
+            countersManager.newCounter("messagesRead"),
+            null,
+            errorHandler,
+            engineManaged ? FixEngine.ENGINE_LIBRARY_ID : FixEngine.ENGINE_LIBRARY_ID + 1,
+            gatewaySessions,
+            clock,
+            new AcceptorFixDictionaryLookup(fixDictionary, new HashMap<>()),
+            false,
+            new FixReceiverEndPoint.FixReceiverEndPointFormatters());
+
+        final SessionContext context = new SessionContext(
+            null, SESSION_ID, 0, 0, 0, sessionContexts, 0, 0, fixDictionary);
+        endPoint.gatewaySession(new GatewaySession(
+            CONNECTION_ID,
+            context,
+            "localhost",
+            ConnectionType.ACCEPTOR,
+            null,
+            endPoint,
+            null,
+            null,
+            false,
+            0,
+            false,
+            false,
+            fixDictionary,
+            0));
+    }
+
+    @Benchmark
+    public int frameRead()
+    {
+        final int bytesRead = endPoint.poll();
+        subscription.poll(discardHandler, Integer.MAX_VALUE);
+        return bytesRead;
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        CloseHelper.close(channel);
+        CloseHelper.close(acceptedChannel);
+        CloseHelper.close(serverChannel);
+        CloseHelper.close(aeron);
+        CloseHelper.close(mediaDriver);
+        IoUtil.delete(sessionIdFile, true);
+    }
+
+    private static byte[] newMessages(final int count)
+    {
+        final StringBuilder messages = new StringBuilder();
+        for (int i = 1; i <= count; i++)
+        {
+            final String body = "35=D\00149=INITIATOR\00156=ACCEPTOR\00134=" + i + "\00152=20200101-00:00:00.000\001" +
+                "11=ORDER" + i + "\00121=1\00155=SYMBOL\00154=1\00160=20200101-00:00:00.000\00138=100\00140=2\001" +
+                "44=100.25\001";
+            final String message = "8=FIX.4.4\0019=" + body.length() + "\001" + body;
+
+            int checksum = 0;
+            for (int j = 0; j < message.length(); j++)
+            {
+                checksum += message.charAt(j);
+            }
+
+            messages.append(message).append(String.format("10=%03d\001", checksum % 256));
+        }
+
+        return messages.toString().getBytes(US_ASCII);
+    }
+
+    // Every read receives the same complete messages, so each poll frames all of them.
+    private static final class ReplayingTcpChannel extends TcpChannel
+    {
+        private final byte[] messages;
+
+        ReplayingTcpChannel(final SocketChannel socketChannel, final byte[] messages) throws IOException
+        {
+            super(socketChannel);
+            this.messages = messages;
+        }
+
+        public int read(final ByteBuffer dst)
+        {
+            dst.put(messages);
+            return messages.length;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015-2020 Real Logic Limited, Adaptive Financial Consulting Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_tests;
+
+import io.aeron.Aeron;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.engine.logger.FixMessageLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_INBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.TestFixtures.launchMediaDriver;
+import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_OUTBOUND_REPLAY_STREAM;
+import static uk.co.real_logic.artio.system_tests.SystemTestUtil.*;
+
+public class FixMessageLoggerSystemTest extends AbstractGatewayToGatewaySystemTest
+{
+    private static final int FRAGMENT_LIMIT = 1;
+
+    private final List<Long> timestamps = new ArrayList<>();
+    private final List<String> bodies = new ArrayList<>();
+
+    private FixMessageLogger logger;
+
+    @Before
+    public void launch()
+    {
+        mediaDriver = launchMediaDriver();
+
+        acceptingEngine = FixEngine.launch(acceptingConfig(port, ACCEPTOR_ID, INITIATOR_ID)
+            .deleteLogFileDirOnStart(true));
+        initiatingEngine = launchInitiatingEngine(libraryAeronPort);
+
+        acceptingLibrary = connect(acceptingLibraryConfig(acceptingHandler));
+        initiatingLibrary = newInitiatingLibrary(libraryAeronPort, initiatingHandler);
+        testSystem = new TestSystem(acceptingLibrary, initiatingLibrary);
+
+        logger = new FixMessageLogger(
+            (message, buffer, offset, length, header) ->
+            {
+                timestamps.add(message.timestamp());
+                bodies.add(message.body());
+            },
+            new Aeron.Context(),
+            IPC_CHANNEL,
+            DEFAULT_INBOUND_LIBRARY_STREAM,
+            DEFAULT_OUTBOUND_LIBRARY_STREAM,
+            DEFAULT_OUTBOUND_REPLAY_STREAM,
+            FRAGMENT_LIMIT);
+
+        connectSessions();
+    }
+
+    @After
+    public void closeLogger()
+    {
+        if (logger != null)
+        {
+            logger.onClose();
+        }
+    }
+
+    @Test
+    public void shouldLogInboundAndOutboundMessagesInTimestampOrder()
+    {
+        messagesCanBeExchanged();
+
+        assertEventuallyTrue("Logger never logged the heartbeat", () ->
+        {
+            assertThat(logger.doWork(), lessThanOrEqualTo(FRAGMENT_LIMIT));
+            return bodies.stream().anyMatch((body) -> body.contains("\00135=0\001"));
+        });
+        while (logger.doWork() > 0)
+        {
+        }
+
+        final int testRequestIndex = indexOf("\00135=1\001");
+        assertThat(bodies.toString(), testRequestIndex, greaterThanOrEqualTo(0));
+        assertThat(bodies.toString(), testRequestIndex, lessThan(indexOf("\00135=0\001")));
+        for (int i = 1; i < timestamps.size(); i++)
+        {
+            assertThat(bodies.toString(), timestamps.get(i), greaterThanOrEqualTo(timestamps.get(i - 1)));
+        }
+    }
+
+    private int indexOf(final String field)
+    {
+        for (int i = 0; i < bodies.size(); i++)
+        {
+            if (bodies.get(i).contains(field))
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}